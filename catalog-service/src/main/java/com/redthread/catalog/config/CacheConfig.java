@@ -0,0 +1,81 @@
+package com.redthread.catalog.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Cache en memoria del catálogo (Caffeine).
+ *
+ * - El interceptor de cache va por FUERA del transaccional
+ *   (HIGHEST_PRECEDENCE): un hit no abre transacción ni pide conexión,
+ *   y los @CacheEvict de escritura corren después del commit.
+ * - Las lecturas usan @Cacheable(sync = true): Caffeine calcula una sola
+ *   vez por clave y los misses concurrentes esperan ese resultado. Un
+ *   evict de una clave en cálculo espera a que termine; un clear()
+ *   (allEntries) no, por eso las dos caches van envueltas en
+ *   GenerationalCache, que no deja guardado un valor leído antes del clear.
+ * - Se guardan DTO inmutables, nunca entidades: el valor cacheado lo
+ *   comparten todas las peticiones.
+ * - La invalidación es LOCAL a cada instancia: un evict no llega a las
+ *   demás réplicas del servicio, que pueden servir el valor anterior hasta
+ *   su TTL (products 10m, productLists 2m por defecto). Los ETag se calculan
+ *   siempre contra el primario, así que un 304 nunca es falso; lo acotado es
+ *   el cuerpo de un 200. Si hace falta menos, bajar los TTL por configuración.
+ * - Los misses también leen del primario, nunca de una réplica de lectura
+ *   (ver ProductService): tras un evict no se vuelve a guardar lo de antes.
+ * - recordStats() expone hits/misses/evictions en /actuator/metrics/cache.*
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+
+    /** Producto por id (GET /products/{id}). */
+    public static final String PRODUCTS = "products";
+
+    /** Listados y páginas de productos por combinación de filtros. */
+    public static final String PRODUCT_LISTS = "productLists";
+
+    @Value("${app.cache.products.max-size:10000}")
+    private long productsMaxSize;
+
+    @Value("${app.cache.products.ttl:10m}")
+    private Duration productsTtl;
+
+    @Value("${app.cache.product-lists.max-size:500}")
+    private long listsMaxSize;
+
+    @Value("${app.cache.product-lists.ttl:2m}")
+    private Duration listsTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            @Override
+            protected Cache adaptCaffeineCache(String name,
+                    com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+                return new GenerationalCache(name, cache, isAllowNullValues());
+            }
+        };
+        manager.setAllowNullValues(false);
+        manager.registerCustomCache(PRODUCTS, Caffeine.newBuilder()
+                .maximumSize(productsMaxSize)
+                .expireAfterWrite(productsTtl)
+                .recordStats()
+                .build());
+        manager.registerCustomCache(PRODUCT_LISTS, Caffeine.newBuilder()
+                .maximumSize(listsMaxSize)
+                .expireAfterWrite(listsTtl)
+                .recordStats()
+                .build());
+        return manager;
+    }
+}
@@ -0,0 +1,26 @@
+package com.redthread.catalog.config;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.io.IOException;
+
+/**
+ * Las entidades del catálogo llevan {@code @Version} (base de los ETag), así
+ * que dos escrituras concurrentes sobre la misma fila hacen fallar a la
+ * segunda al commit. Eso es un conflicto del cliente, no un 500: responde 409
+ * por el mismo camino de error que un {@code ResponseStatusException} y el
+ * cliente puede releer y reintentar.
+ */
+@RestControllerAdvice
+public class ConcurrencyExceptionHandler {
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public void conflict(HttpServletResponse response) throws IOException {
+        response.sendError(HttpStatus.CONFLICT.value(),
+                "El recurso fue modificado por otra petición; vuelve a leerlo e intenta de nuevo");
+    }
+}
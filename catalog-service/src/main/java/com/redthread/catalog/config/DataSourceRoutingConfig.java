@@ -0,0 +1,102 @@
+package com.redthread.catalog.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Primario + réplicas de lectura (app.datasource.replicas.enabled=true).
+ *
+ * spring.datasource.* sigue siendo el primario. Las réplicas se listan en
+ * app.datasource.replicas.urls (separadas por coma) con el mismo usuario y
+ * clave salvo que se indiquen otros. Sin la propiedad, Spring Boot arma
+ * el DataSource único de siempre.
+ *
+ * Las lecturas de una réplica pueden llegar con hasta max-lag de atraso:
+ * un GET justo después de un POST puede no ver aún el cambio. Ojo que los
+ * métodos de lectura de Spring Data (findById, findAll...) llamados fuera
+ * de una transacción de escritura también son readOnly. Lo que no tolera
+ * ese atraso usa @Transactional sin readOnly para quedarse en el primario:
+ * GET /catalog/changes y el snapshot (entregan un token) y ProductService
+ * (llena la cache de productos y calcula sus ETag).
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    @Value("${app.datasource.replicas.urls}")
+    private List<String> replicaUrls;
+
+    @Value("${app.datasource.replicas.username:${spring.datasource.username:}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replicas.password:${spring.datasource.password:}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replicas.max-lag:5s}")
+    private Duration maxLag;
+
+    @Value("${app.datasource.replicas.health-timeout:2s}")
+    private Duration healthTimeout;
+
+    @Value("${app.datasource.replicas.health-interval:5s}")
+    private Duration healthInterval;
+
+    // Postgres en standby: 0 si ya aplicó todo lo recibido; si no, el tiempo
+    // desde la última transacción reproducida
+    @Value("${app.datasource.replicas.lag-query:"
+            + "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END}")
+    private String lagQuery;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("catalog-primary");
+        return ds;
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaPool replicaPool(MeterRegistry meters) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            if (!StringUtils.hasText(url)) {
+                continue;
+            }
+            HikariDataSource ds = new HikariDataSource();
+            ds.setJdbcUrl(url.trim());
+            ds.setUsername(replicaUsername);
+            ds.setPassword(replicaPassword);
+            ds.setReadOnly(true);
+            // una réplica caída no retiene la revisión (ni una lectura) los 30 s por defecto de Hikari
+            ds.setConnectionTimeout(healthTimeout.toMillis());
+            ds.setValidationTimeout(healthTimeout.toMillis());
+            ds.setPoolName("catalog-replica-" + (replicas.size() + 1));
+            replicas.add(ds);
+        }
+        return new ReplicaPool(replicas, lagQuery, maxLag, healthTimeout, healthInterval, meters);
+    }
+
+    /** El DataSource que usan JPA, JdbcTemplate y Flyway. */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaPool replicaPool) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicaPool);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,65 @@
+package com.redthread.catalog.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CaffeineCache que no deja guardado un valor calculado antes de un clear().
+ *
+ * Caffeine no espera a los cálculos en curso al vaciar la cache: un
+ * listado leído antes del commit de una escritura puede terminar de
+ * calcularse después del clear() y quedar guardado hasta el TTL. Cada
+ * clear() sube una generación; si cambió mientras se calculaba, el valor
+ * se recalcula (la nueva lectura ya ve el commit) y, si sigue cambiando,
+ * se devuelve sin dejarlo en la cache.
+ *
+ * Sigue siendo un CaffeineCache para que las métricas cache.* lo registren.
+ */
+final class GenerationalCache extends CaffeineCache {
+
+    /** Cálculos dentro del loader antes de rendirse y no guardar. */
+    private static final int MAX_LOADS = 3;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    GenerationalCache(String name, Cache<Object, Object> cache, boolean allowNullValues) {
+        super(name, cache, allowNullValues);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // generación con la que se calculó lo que esta llamada guarda (-1: no calculó)
+        long[] loadedAt = {-1};
+        T value = super.get(key, () -> {
+            int loads = 0;
+            long seen;
+            T loaded;
+            do {
+                seen = generation.get();
+                loaded = valueLoader.call();
+            } while (generation.get() != seen && ++loads < MAX_LOADS);
+            loadedAt[0] = seen;
+            return loaded;
+        });
+        // hubo un clear() después de calcular: lo guardado puede ser de antes
+        if (loadedAt[0] >= 0 && generation.get() != loadedAt[0]) {
+            evict(key);
+        }
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        generation.incrementAndGet();
+        super.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        generation.incrementAndGet();
+        return super.invalidate();
+    }
+}
@@ -0,0 +1,40 @@
+package com.redthread.catalog.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Manda las transacciones @Transactional(readOnly = true) a una réplica y
+ * todo lo demás (escrituras, código sin transacción, Flyway) al primario.
+ *
+ * Tiene que ir envuelto en un LazyConnectionDataSourceProxy: el
+ * transaction manager pide la conexión antes de marcar la transacción
+ * como readOnly, y el proxy retrasa la elección hasta el primer SQL.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaPool replicas;
+
+    public ReadWriteRoutingDataSource(DataSource primary, ReplicaPool replicas) {
+        this.replicas = replicas;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaPool.PRIMARY, primary);
+        for (String name : replicas.names()) {
+            targets.put(name, replicas.dataSource(name));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+        return replicas.route(readOnly);
+    }
+}
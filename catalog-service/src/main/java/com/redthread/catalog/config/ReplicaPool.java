@@ -0,0 +1,193 @@
+package com.redthread.catalog.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Réplicas de solo lectura con round-robin entre las sanas.
+ *
+ * Una réplica sale de la rotación si la revisión periódica falla (no
+ * responde dentro del timeout) o si su atraso supera maxLag; vuelve en la
+ * siguiente revisión que pase. Sin réplicas sanas las lecturas van al
+ * primario.
+ *
+ * La revisión corre en su propio hilo (start/close): en el scheduler
+ * compartido una réplica colgada atrasaría los demás @Scheduled, y
+ * mientras tanto las otras réplicas seguirían en rotación con su último
+ * estado. El arranque tampoco la espera: las réplicas entran a rotación
+ * con la primera revisión.
+ *
+ * Métricas (/actuator/metrics):
+ * - catalog.datasource.connections{target, routing}: conexiones pedidas
+ *   por destino (primary / replica-N) y tipo (write / read / read-fallback)
+ * - catalog.datasource.replica.healthy{replica}: 1 en rotación, 0 fuera
+ * - catalog.datasource.replica.lag{replica}: atraso medido en segundos
+ */
+@Slf4j
+public class ReplicaPool {
+
+    public static final String PRIMARY = "primary";
+
+    static final class Replica {
+        final String name;
+        final DataSource dataSource;
+        volatile boolean healthy;
+        volatile double lagSeconds;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final Duration maxLag;
+    private final int timeoutSeconds;
+    private final Duration interval;
+    private final AtomicInteger next = new AtomicInteger();
+    private ScheduledExecutorService checker;
+
+    private final Counter writes;
+    private final Counter readFallbacks;
+    private final List<Counter> reads;
+
+    /**
+     * lagQuery devuelve el atraso en segundos (una fila, una columna).
+     * Las réplicas empiezan fuera de rotación hasta la primera revisión.
+     */
+    public ReplicaPool(List<DataSource> replicaDataSources, String lagQuery, Duration maxLag,
+                       Duration timeout, Duration interval, MeterRegistry meters) {
+        this.replicas = new ArrayList<>();
+        for (int i = 0; i < replicaDataSources.size(); i++) {
+            replicas.add(new Replica("replica-" + (i + 1), replicaDataSources.get(i)));
+        }
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag;
+        this.timeoutSeconds = (int) Math.max(1, timeout.toSeconds());
+        this.interval = interval;
+
+        this.writes = connections(meters, PRIMARY, "write");
+        this.readFallbacks = connections(meters, PRIMARY, "read-fallback");
+        this.reads = replicas.stream().map(r -> connections(meters, r.name, "read")).toList();
+        for (Replica r : replicas) {
+            Gauge.builder("catalog.datasource.replica.healthy", r, x -> x.healthy ? 1 : 0)
+                    .tag("replica", r.name)
+                    .register(meters);
+            Gauge.builder("catalog.datasource.replica.lag", r, x -> x.lagSeconds)
+                    .tag("replica", r.name)
+                    .baseUnit("seconds")
+                    .register(meters);
+        }
+    }
+
+    /** Primera revisión de inmediato y luego cada interval (init del bean). */
+    public void start() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(interval.toMillis(), 1);
+        checker.scheduleWithFixedDelay(this::checkHealth, 0, every, TimeUnit.MILLISECONDS);
+    }
+
+    /** Clave de destino de una conexión: PRIMARY o el nombre de una réplica sana. */
+    public String route(boolean readOnly) {
+        if (!readOnly) {
+            writes.increment();
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            int idx = (start + i) % size;
+            Replica r = replicas.get(idx);
+            if (r.healthy) {
+                reads.get(idx).increment();
+                return r.name;
+            }
+        }
+        readFallbacks.increment();
+        return PRIMARY;
+    }
+
+    public List<String> names() {
+        return replicas.stream().map(r -> r.name).toList();
+    }
+
+    DataSource dataSource(String name) {
+        return replicas.stream().filter(r -> r.name.equals(name)).findFirst()
+                .map(r -> r.dataSource)
+                .orElseThrow();
+    }
+
+    public boolean isHealthy(String name) {
+        return replicas.stream().anyMatch(r -> r.name.equals(name) && r.healthy);
+    }
+
+    public void checkHealth() {
+        for (Replica r : replicas) {
+            boolean wasHealthy = r.healthy;
+            try (Connection c = r.dataSource.getConnection();
+                 Statement st = c.createStatement()) {
+                st.setQueryTimeout(timeoutSeconds);
+                try (ResultSet rs = st.executeQuery(lagQuery)) {
+                    rs.next();
+                    double lag = rs.getDouble(1);
+                    r.lagSeconds = lag;
+                    r.healthy = lag <= maxLag.toMillis() / 1000.0;
+                }
+            } catch (Exception ex) {
+                r.healthy = false;
+                if (wasHealthy) {
+                    log.warn("Réplica {} fuera de rotación: {}", r.name, ex.getMessage());
+                }
+                continue;
+            }
+            if (wasHealthy != r.healthy) {
+                log.info("Réplica {} {} (atraso {} s)", r.name, r.healthy ? "en rotación" : "fuera de rotación", r.lagSeconds);
+            }
+        }
+    }
+
+    /** Detiene la revisión y cierra los pools de las réplicas (destroy del bean). */
+    public void close() {
+        if (checker != null) {
+            checker.shutdownNow();
+        }
+        for (Replica r : replicas) {
+            if (r.dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("No se pudo cerrar {}: {}", r.name, ex.getMessage());
+                }
+            }
+        }
+    }
+
+    private static Counter connections(MeterRegistry meters, String target, String routing) {
+        return Counter.builder("catalog.datasource.connections")
+                .tag("target", target)
+                .tag("routing", routing)
+                .register(meters);
+    }
+}
@@ -0,0 +1,14 @@
+package com.redthread.catalog.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tareas @Scheduled en segundo plano (sweeper de reservas, jobs de precios,
+ * registro de cambios, snapshot...). Comparten el pool de
+ * spring.task.scheduling.pool.size; la revisión de réplicas usa su propio hilo.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -4,6 +4,7 @@ import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
@@ -59,10 +60,13 @@ public class SecurityConfig {
                         // imágenes
                         .requestMatchers("/media/**").permitAll()
 
-                        // catálogo público
+                        // catálogo público (salvo la matriz, que crea variantes y stock)
+                        .requestMatchers(HttpMethod.POST, "/products/*/variants/matrix").authenticated()
                         .requestMatchers("/products/**").permitAll()
                         .requestMatchers("/categories/**").permitAll()
                         .requestMatchers("/brands/**").permitAll()
+                        .requestMatchers("/catalog/export").authenticated() // incluye lo inactivo y el stock
+                        .requestMatchers("/catalog/**").permitAll()
 
                         // variants GET = público
                         .requestMatchers("/variants/**").permitAll()
@@ -5,6 +5,7 @@ import com.redthread.catalog.model.Brand;
 import com.redthread.catalog.service.BrandService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,10 +14,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -51,13 +53,19 @@ public class BrandController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar marcas")
+    @Operation(summary = "Listar marcas", description = "Desde memoria, JSON ya serializado.")
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Listado de marcas"),
+            @ApiResponse(responseCode = "200", description = "Listado de marcas", content = @Content(array = @ArraySchema(schema = @Schema(implementation = Brand.class)))),
+            @ApiResponse(responseCode = "304", description = "If-None-Match coincide: sin cambios"),
             @ApiResponse(responseCode = "500", description = "Error interno")
     })
-    public List<Brand> list() {
-        return service.getAll();
+    public ResponseEntity<byte[]> list(WebRequest request) {
+        if (request.checkNotModified(service.listETag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(service.listJson());
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
@@ -0,0 +1,47 @@
+package com.redthread.catalog.controller;
+
+import com.redthread.catalog.controller.dto.CatalogImportResultDto;
+import com.redthread.catalog.service.CatalogExportService;
+import com.redthread.catalog.service.CatalogImportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/imports")
+@RequiredArgsConstructor
+@Tag(name = "Imports", description = "Carga masiva del catálogo")
+public class CatalogImportController {
+
+    private final CatalogImportService service;
+
+    @PostMapping(value = "/catalog", consumes = {"text/csv", CatalogExportService.NDJSON})
+    @Operation(summary = "Importar catálogo (CSV o NDJSON)", description = "Una fila por variante con los datos de su producto. "
+            + "Columnas: category, brand, product, description, basePrice, gender, featured, sizeType, sizeValue, "
+            + "color, sku, priceOverride, stock.\n"
+            + "- Categoría y marca por nombre (deben existir)\n"
+            + "- Producto = categoría + marca + nombre: si existe se le agregan variantes; si no, lo crea la primera "
+            + "fila que lo nombra (basePrice y gender obligatorios)\n"
+            + "- sku vacío → se genera como en POST /variants\n"
+            + "- Las filas inválidas se informan con su número de línea y el resto se importa")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Importación terminada (revisar failed/errors)", content = @Content(schema = @Schema(implementation = CatalogImportResultDto.class))),
+            @ApiResponse(responseCode = "415", description = "Content-Type distinto de text/csv o application/x-ndjson"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public CatalogImportResultDto importCatalog(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) {
+        return contentType.toLowerCase().startsWith("text/csv")
+                ? service.importCsv(body)
+                : service.importNdjson(body);
+    }
+}
@@ -0,0 +1,131 @@
+package com.redthread.catalog.controller;
+
+import com.redthread.catalog.controller.dto.CatalogChangesDto;
+import com.redthread.catalog.controller.dto.CatalogExportRowDto;
+import com.redthread.catalog.service.CatalogExportService;
+import com.redthread.catalog.service.CatalogSnapshotService;
+import com.redthread.catalog.service.CatalogSnapshotService.Snapshot;
+import com.redthread.catalog.service.CatalogSyncService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+@RestController
+@RequestMapping("/catalog")
+@RequiredArgsConstructor
+@Tag(name = "Catalog sync", description = "Sincronización incremental para la cache de la app")
+public class CatalogSyncController {
+
+    private final CatalogSyncService service;
+    private final CatalogSnapshotService snapshots;
+    private final CatalogExportService exportService;
+
+    @GetMapping("/changes")
+    @Operation(summary = "Cambios desde un token", description = "Productos, variantes, stock e imágenes creados, "
+            + "modificados o eliminados después de since.\n"
+            + "- Primera carga: GET /catalog/snapshot y luego since=syncToken; sin since → catálogo completo desde el registro\n"
+            + "- Guardar nextToken y enviarlo como since la próxima vez\n"
+            + "- hasMore=true → pedir de inmediato la siguiente página\n"
+            + "- limit = máximo de cambios por página, entre 1 y 2000 (por defecto 500)")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Cambios (puede ser vacío)", content = @Content(schema = @Schema(implementation = CatalogChangesDto.class))),
+            @ApiResponse(responseCode = "400", description = "Token o limit inválido"),
+            @ApiResponse(responseCode = "410", description = "Token anterior a la poda de bajas: recargar desde GET /catalog/snapshot"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public CatalogChangesDto changes(
+            @Parameter(description = "nextToken de la sincronización anterior (opcional)") @RequestParam(required = false) String since,
+
+            @Parameter(description = "Máximo de cambios por página (opcional)") @RequestParam(required = false) Integer limit) {
+        return service.changes(since, limit);
+    }
+
+    @GetMapping("/snapshot")
+    @Operation(summary = "Snapshot completo del catálogo", description = "Archivo NDJSON comprimido con gzip para "
+            + "la primera carga: una línea de encabezado (version, syncToken) y luego un producto activo por línea "
+            + "con variantes, precios, stock e imagen principal.\n"
+            + "- Enviar If-None-Match con el ETag guardado → 304 si no cambió\n"
+            + "- Después seguir con GET /catalog/changes?since=syncToken\n"
+            + "- Con Accept-Encoding: gzip viaja como Content-Encoding (el cliente HTTP lo descomprime); "
+            + "si no, como application/gzip")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Snapshot"),
+            @ApiResponse(responseCode = "304", description = "El ETag enviado sigue vigente"),
+            @ApiResponse(responseCode = "503", description = "Aún no se genera el primero"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public ResponseEntity<Resource> snapshot(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Snapshot s = snapshots.current().orElseThrow(() -> new ResponseStatusException(
+                HttpStatus.SERVICE_UNAVAILABLE, "Snapshot en preparación; usar GET /catalog/changes"));
+
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+        ResponseEntity.BodyBuilder out = ResponseEntity.ok()
+                // con el ETag en la respuesta Spring contesta 304 solo ante If-None-Match
+                .eTag(s.etag())
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header("X-Catalog-Sync-Token", String.valueOf(s.version()));
+        if (gzip) {
+            out.contentType(MediaType.parseMediaType("application/x-ndjson"))
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        } else {
+            out.contentType(MediaType.parseMediaType("application/gzip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog-" + s.version() + ".ndjson.gz\"");
+        }
+        return out.body(new FileSystemResource(s.file()));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export completo del catálogo (requiere token)", description = "Una fila por variante con "
+            + "producto, categoría, marca, precio, stock e imagen principal; incluye lo inactivo. Se escribe a "
+            + "medida que se lee (memoria constante), ordenado por productId y variantId.\n"
+            + "- format=ndjson (por defecto) o csv\n"
+            + "- Para retomar una descarga cortada: afterProduct y afterVariant = ids de la última fila recibida "
+            + "completa (afterVariant vacío si esa fila no tenía variante)\n"
+            + "- Al retomar, el CSV no repite el encabezado: se puede anexar al archivo")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Filas del catálogo", content = @Content(schema = @Schema(implementation = CatalogExportRowDto.class))),
+            @ApiResponse(responseCode = "400", description = "format o cursor inválido"),
+            @ApiResponse(responseCode = "401", description = "Sin token"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "ndjson o csv") @RequestParam(defaultValue = "ndjson") String format,
+
+            @Parameter(description = "productId de la última fila recibida (opcional)") @RequestParam(required = false) Long afterProduct,
+
+            @Parameter(description = "variantId de la última fila recibida (opcional)") @RequestParam(required = false) Long afterVariant) {
+        boolean csv = switch (format.toLowerCase()) {
+            case "csv" -> true;
+            case "ndjson" -> false;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format debe ser ndjson o csv");
+        };
+        if ((afterProduct != null && afterProduct < 0) || (afterVariant != null && afterProduct == null)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "afterVariant requiere afterProduct (ambos >= 0)");
+        }
+        long fromProduct = afterProduct != null ? afterProduct : 0L;
+
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv", StandardCharsets.UTF_8) : MediaType.parseMediaType(CatalogExportService.NDJSON))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"catalog-export." + (csv ? "csv" : "ndjson") + "\"")
+                .body(out -> exportService.writeCatalog(out, csv, fromProduct, afterVariant));
+    }
+}
@@ -5,6 +5,7 @@ import com.redthread.catalog.model.Category;
 import com.redthread.catalog.service.CategoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,10 +14,11 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
 
 @RequiredArgsConstructor
 @RestController
@@ -40,13 +42,20 @@ public class CategoryController {
         }
 
         @GetMapping
-        @Operation(summary = "Listar categorías", description = "Obtiene todas las categorías.")
+        @Operation(summary = "Listar categorías", description = "Obtiene todas las categorías (desde memoria, JSON ya serializado).")
         @ApiResponses({
-                        @ApiResponse(responseCode = "200", description = "Listado de categorías"),
+                        @ApiResponse(responseCode = "200", description = "Listado de categorías", content = @Content(array = @ArraySchema(schema = @Schema(implementation = Category.class)))),
+                        @ApiResponse(responseCode = "304", description = "If-None-Match coincide: sin cambios"),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
-        public List<Category> list() {
-                return service.getAll();
+        public ResponseEntity<byte[]> list(WebRequest request) {
+                // 304 si el ETag del cliente sigue vigente
+                if (request.checkNotModified(service.listETag())) {
+                        return null;
+                }
+                return ResponseEntity.ok()
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .body(service.listJson());
         }
 
         @GetMapping("/{id}")
@@ -67,7 +76,7 @@ public class CategoryController {
                         @ApiResponse(responseCode = "200", description = "Categoría actualizada", content = @Content(schema = @Schema(implementation = Category.class))),
                         @ApiResponse(responseCode = "400", description = "Datos inválidos"),
                         @ApiResponse(responseCode = "404", description = "Categoría no existe"),
-                        @ApiResponse(responseCode = "409", description = "Nombre duplicado"),
+                        @ApiResponse(responseCode = "409", description = "Nombre duplicado o modificada en paralelo"),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
         public Category update(
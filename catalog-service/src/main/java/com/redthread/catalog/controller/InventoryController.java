@@ -1,8 +1,14 @@
 package com.redthread.catalog.controller;
 
+import com.redthread.catalog.controller.dto.AdjustStockBatchReq;
 import com.redthread.catalog.controller.dto.AdjustStockReq;
+import com.redthread.catalog.controller.dto.InventoryMovementPageDto;
+import com.redthread.catalog.controller.dto.ReservationDto;
+import com.redthread.catalog.controller.dto.ReserveStockReq;
+import com.redthread.catalog.controller.dto.StockLevelDto;
 import com.redthread.catalog.model.Inventory;
 import com.redthread.catalog.service.InventoryService;
+import com.redthread.catalog.service.InventoryWriteBuffer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,8 +18,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/inventory")
 @RequiredArgsConstructor
@@ -21,6 +32,8 @@ import org.springframework.web.bind.annotation.*;
 public class InventoryController {
 
         private final InventoryService service;
+        // Solo existe con app.inventory.write-buffer.enabled=true
+        private final ObjectProvider<InventoryWriteBuffer> writeBuffer;
 
         @GetMapping("/by-variant/{variantId}")
         @Operation(summary = "Obtener inventario por variante", description = "Retorna el inventario asociado a una variante.")
@@ -34,6 +47,21 @@ public class InventoryController {
                 return service.getByVariant(variantId);
         }
 
+        @GetMapping("/by-variant/{variantId}/movements")
+        @Operation(summary = "Historial de movimientos", description = "Movimientos de stock de la variante, del más reciente al más antiguo. "
+                        + "Paginado por cursor: se envía el nextCursor de la respuesta anterior.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Página de movimientos", content = @Content(schema = @Schema(implementation = InventoryMovementPageDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Cursor o limit inválidos"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public InventoryMovementPageDto movements(
+                        @Parameter(description = "ID de la variante", example = "5") @PathVariable Long variantId,
+                        @Parameter(description = "nextCursor de la página anterior") @RequestParam(required = false) String cursor,
+                        @Parameter(description = "Tamaño de página (1-200, default 50)") @RequestParam(required = false) Integer limit) {
+                return service.movements(variantId, cursor, limit);
+        }
+
         @PostMapping("/adjust")
         @Operation(summary = "Ajustar stock disponible", description = "Aplica un delta (positivo o negativo) al stockAvailable de la variante.")
         @ApiResponses({
@@ -43,6 +71,62 @@ public class InventoryController {
                         @ApiResponse(responseCode = "500", description = "Error interno al ajustar stock")
         })
         public Inventory adjust(@RequestBody @Valid AdjustStockReq req) {
-                return service.adjustStock(req.variantId(), req.delta());
+                InventoryWriteBuffer buffer = writeBuffer.getIfAvailable();
+                if (buffer != null) {
+                        return buffer.adjust(req.variantId(), req.delta(), req.reference());
+                }
+                return service.adjustStock(req.variantId(), req.delta(), req.reference());
+        }
+
+        @PostMapping("/adjust-batch")
+        @Operation(summary = "Ajustar stock en lote", description = "Aplica varios deltas en una sola transacción (todo o nada). "
+                        + "Deltas repetidos para una variante se suman.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Stock resultante por variante"),
+                        @ApiResponse(responseCode = "400", description = "Items vacíos o deltas fuera de rango"),
+                        @ApiResponse(responseCode = "409", description = "Alguna variante sin inventario o con stock insuficiente"),
+                        @ApiResponse(responseCode = "500", description = "Error interno al ajustar stock")
+        })
+        public List<StockLevelDto> adjustBatch(@RequestBody @Valid AdjustStockBatchReq req) {
+                return service.adjustStockBatch(req.items());
+        }
+
+        @PostMapping("/reservations")
+        @Operation(summary = "Reservar stock", description = "Aparta stock de varias variantes (todo o nada) hasta expiresAt. "
+                        + "Luego se confirma con /commit o se libera con /release; si no, el sweeper la libera al vencer.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "201", description = "Reserva creada", content = @Content(schema = @Schema(implementation = ReservationDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Items vacíos o cantidades inválidas"),
+                        @ApiResponse(responseCode = "409", description = "Stock insuficiente en alguna variante"),
+                        @ApiResponse(responseCode = "500", description = "Error interno al reservar")
+        })
+        public ResponseEntity<ReservationDto> reserve(@RequestBody @Valid ReserveStockReq req) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(service.reserve(req.items(), req.reference()));
+        }
+
+        @PostMapping("/reservations/{reservationId}/commit")
+        @Operation(summary = "Confirmar reserva", description = "Descuenta del stock disponible lo reservado. Idempotente.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Reserva confirmada", content = @Content(schema = @Schema(implementation = ReservationDto.class))),
+                        @ApiResponse(responseCode = "404", description = "Reserva no existe"),
+                        @ApiResponse(responseCode = "409", description = "La reserva expiró o fue liberada"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public ReservationDto commit(
+                        @Parameter(description = "ID de la reserva") @PathVariable String reservationId) {
+                return service.commitReservation(reservationId);
+        }
+
+        @PostMapping("/reservations/{reservationId}/release")
+        @Operation(summary = "Liberar reserva", description = "Devuelve lo reservado al stock libre. Idempotente.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Reserva liberada", content = @Content(schema = @Schema(implementation = ReservationDto.class))),
+                        @ApiResponse(responseCode = "404", description = "Reserva no existe"),
+                        @ApiResponse(responseCode = "409", description = "La reserva ya fue confirmada"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public ReservationDto release(
+                        @Parameter(description = "ID de la reserva") @PathVariable String reservationId) {
+                return service.releaseReservation(reservationId);
         }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.redthread.catalog.controller;
+
+import com.redthread.catalog.controller.dto.AdjustLocationStockReq;
+import com.redthread.catalog.controller.dto.AllocateReq;
+import com.redthread.catalog.controller.dto.AllocationDto;
+import com.redthread.catalog.controller.dto.CreateLocationReq;
+import com.redthread.catalog.controller.dto.DispatchLocationStockReq;
+import com.redthread.catalog.controller.dto.LocationAvailabilityDto;
+import com.redthread.catalog.model.Location;
+import com.redthread.catalog.service.LocationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/locations")
+@RequiredArgsConstructor
+@Tag(name = "Locations", description = "Bodegas/tiendas y stock por ubicación")
+public class LocationController {
+
+    private final LocationService service;
+
+    @PostMapping
+    @Operation(summary = "Crear ubicación")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Ubicación creada", content = @Content(schema = @Schema(implementation = Location.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "409", description = "Código duplicado")
+    })
+    public ResponseEntity<Location> create(@RequestBody @Valid CreateLocationReq req) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(service.create(req));
+    }
+
+    @GetMapping
+    @Operation(summary = "Listar ubicaciones")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Listado de ubicaciones"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public List<Location> list() {
+        return service.getAll();
+    }
+
+    @PostMapping("/{locationId}/stock/adjust")
+    @Operation(summary = "Ajustar stock en una ubicación", description = "Entrada o salida de mercadería: aplica el delta a la ubicación y al total de la variante en una sola transacción. Para despachar lo ya vendido usa /stock/dispatch.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock resultante en la ubicación", content = @Content(schema = @Schema(implementation = LocationAvailabilityDto.class))),
+            @ApiResponse(responseCode = "400", description = "Stock resultante negativo o bajo lo reservado"),
+            @ApiResponse(responseCode = "404", description = "Ubicación o variante no existe"),
+            @ApiResponse(responseCode = "500", description = "Error interno al ajustar stock")
+    })
+    public LocationAvailabilityDto adjust(
+            @Parameter(description = "ID de la ubicación", example = "2") @PathVariable Long locationId,
+            @RequestBody @Valid AdjustLocationStockReq req) {
+        return service.adjustStock(locationId, req.variantId(), req.delta(), req.reference());
+    }
+
+    @PostMapping("/{locationId}/stock/dispatch")
+    @Operation(summary = "Despachar desde una ubicación", description = "Descuenta unidades ya vendidas solo de la ubicación; el total de la variante ya bajó al confirmar la reserva.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stock resultante en la ubicación", content = @Content(schema = @Schema(implementation = LocationAvailabilityDto.class))),
+            @ApiResponse(responseCode = "400", description = "La ubicación no tiene stock suficiente"),
+            @ApiResponse(responseCode = "404", description = "Ubicación no existe o la variante no tiene stock en ella"),
+            @ApiResponse(responseCode = "500", description = "Error interno al despachar")
+    })
+    public LocationAvailabilityDto dispatch(
+            @Parameter(description = "ID de la ubicación", example = "2") @PathVariable Long locationId,
+            @RequestBody @Valid DispatchLocationStockReq req) {
+        return service.dispatch(locationId, req.variantId(), req.quantity());
+    }
+
+    @GetMapping("/availability/{variantId}")
+    @Operation(summary = "Stock de una variante por ubicación", description = "Con lat/lon se ordena de la más cercana a la más lejana.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Ubicaciones con stock"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public List<LocationAvailabilityDto> availability(
+            @Parameter(description = "ID de la variante", example = "5") @PathVariable Long variantId,
+            @Parameter(description = "Latitud del destino") @RequestParam(required = false) Double lat,
+            @Parameter(description = "Longitud del destino") @RequestParam(required = false) Double lon) {
+        return service.availability(variantId, lat, lon);
+    }
+
+    @PostMapping("/allocate")
+    @Operation(summary = "Repartir cantidad entre ubicaciones", description = "Propone desde qué ubicaciones despachar según la política. No aparta stock.")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Reparto propuesto", content = @Content(schema = @Schema(implementation = AllocationDto.class))),
+            @ApiResponse(responseCode = "400", description = "Datos inválidos"),
+            @ApiResponse(responseCode = "409", description = "Entre todas las ubicaciones no alcanza"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public AllocationDto allocate(@RequestBody @Valid AllocateReq req) {
+        return service.allocate(req.variantId(), req.quantity(), req.policy(), req.latitude(), req.longitude());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, String>> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(Map.of("error", ex.getMessage()));
+    }
+}
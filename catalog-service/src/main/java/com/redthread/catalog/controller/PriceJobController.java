@@ -0,0 +1,66 @@
+package com.redthread.catalog.controller;
+
+import com.redthread.catalog.controller.dto.CreatePriceJobReq;
+import com.redthread.catalog.controller.dto.PriceJobDto;
+import com.redthread.catalog.service.PriceJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/price-jobs")
+@RequiredArgsConstructor
+@Tag(name = "Price jobs", description = "Cambios de precio masivos (inmediatos o programados)")
+public class PriceJobController {
+
+    private final PriceJobService service;
+
+    @PostMapping
+    @Operation(summary = "Crear job de precios", description = "Cambia basePrice (o el priceOverride de las variantes que lo tienen) "
+            + "de los productos que cumplen todos los filtros enviados.\n"
+            + "- PERCENT: -20 = 20% menos; AMOUNT: se suma al precio. Nunca queda bajo 0\n"
+            + "- Sin runAt se aplica en la misma petición (201 con el resultado); con runAt futuro queda PENDING (202)\n"
+            + "- Todo el job es una transacción: no quedan precios mezclados")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Job aplicado (DONE o FAILED)", content = @Content(schema = @Schema(implementation = PriceJobDto.class))),
+            @ApiResponse(responseCode = "202", description = "Job programado (PENDING)", content = @Content(schema = @Schema(implementation = PriceJobDto.class))),
+            @ApiResponse(responseCode = "400", description = "Sin filtros, monto 0 o descuento de 100% o más"),
+            @ApiResponse(responseCode = "404", description = "Categoría o marca no existe"),
+            @ApiResponse(responseCode = "500", description = "Error interno")
+    })
+    public ResponseEntity<PriceJobDto> create(@RequestBody @Valid CreatePriceJobReq req) {
+        PriceJobDto job = service.create(req);
+        HttpStatus status = "PENDING".equals(job.status()) ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        return ResponseEntity.status(status).body(job);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Estado de un job de precios")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Job encontrado", content = @Content(schema = @Schema(implementation = PriceJobDto.class))),
+            @ApiResponse(responseCode = "404", description = "Job no existe")
+    })
+    public PriceJobDto get(@Parameter(description = "ID del job", example = "7") @PathVariable Long id) {
+        return service.get(id);
+    }
+
+    @PostMapping("/{id}/cancel")
+    @Operation(summary = "Cancelar un job programado")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Job cancelado", content = @Content(schema = @Schema(implementation = PriceJobDto.class))),
+            @ApiResponse(responseCode = "404", description = "Job no existe"),
+            @ApiResponse(responseCode = "409", description = "El job ya no está PENDING")
+    })
+    public PriceJobDto cancel(@Parameter(description = "ID del job", example = "7") @PathVariable Long id) {
+        return service.cancel(id);
+    }
+}
@@ -1,11 +1,27 @@
 package com.redthread.catalog.controller;
 
 import com.redthread.catalog.controller.dto.CreateProductReq;
+import com.redthread.catalog.controller.dto.CreateVariantMatrixReq;
+import com.redthread.catalog.controller.dto.ProductFacetsDto;
+import com.redthread.catalog.controller.dto.ProductFullDto;
+import com.redthread.catalog.controller.dto.ProductPageDto;
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.controller.dto.SuggestionDto;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
 import com.redthread.catalog.model.Product;
 import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.ProductSort;
+import com.redthread.catalog.repository.ProductFilter;
+import com.redthread.catalog.service.CatalogExportService;
+import com.redthread.catalog.service.ProductDetailService;
+import com.redthread.catalog.service.ProductFacetService;
+import com.redthread.catalog.service.ProductSearchService;
 import com.redthread.catalog.service.ProductService;
+import com.redthread.catalog.service.SuggestService;
+import com.redthread.catalog.service.VariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -13,8 +29,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -24,6 +47,12 @@ import java.util.List;
 public class ProductController {
 
         private final ProductService service;
+        private final ProductDetailService detailService;
+        private final ProductSearchService searchService;
+        private final SuggestService suggestService;
+        private final ProductFacetService facetService;
+        private final CatalogExportService exportService;
+        private final VariantService variantService;
 
         // ============================================================
         // CREAR
@@ -54,13 +83,20 @@ public class ProductController {
         // LISTAR TODOS SIN FILTROS
         // ============================================================
         @GetMapping("/all")
-        @Operation(summary = "Listar todos los productos sin filtros")
+        @Operation(summary = "Listar todos los productos sin filtros", description = "Se escribe a medida que se lee "
+                        + "de la base (memoria constante).\n"
+                        + "- Por defecto: arreglo JSON\n"
+                        + "- Accept: application/x-ndjson → un producto por línea")
         @ApiResponses({
-                        @ApiResponse(responseCode = "200", description = "Listado de productos"),
+                        @ApiResponse(responseCode = "200", description = "Listado de productos", content = @Content(array = @ArraySchema(schema = @Schema(implementation = ProductSummaryDto.class)))),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
-        public List<Product> getAll() {
-                return service.getAll();
+        public ResponseEntity<StreamingResponseBody> getAll(
+                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+                boolean ndjson = CatalogExportService.wantsNdjson(accept);
+                return ResponseEntity.ok()
+                                .contentType(ndjson ? MediaType.parseMediaType(CatalogExportService.NDJSON) : MediaType.APPLICATION_JSON)
+                                .body(out -> exportService.writeProducts(out, ndjson));
         }
 
         // ============================================================
@@ -72,6 +108,7 @@ public class ProductController {
                         @ApiResponse(responseCode = "200", description = "Producto actualizado correctamente", content = @Content(schema = @Schema(implementation = Product.class))),
                         @ApiResponse(responseCode = "400", description = "Datos inválidos"),
                         @ApiResponse(responseCode = "404", description = "Producto, categoría o marca no existe"),
+                        @ApiResponse(responseCode = "409", description = "Modificado en paralelo por otra petición"),
                         @ApiResponse(responseCode = "500", description = "Error interno al actualizar producto")
         })
         public Product update(
@@ -92,22 +129,165 @@ public class ProductController {
         // LISTAR CON FILTROS (home, tabs, etc.)
         // ============================================================
         @GetMapping
-        @Operation(summary = "Listar productos", description = "Filtros opcionales:\n" +
+        @Operation(summary = "Listar productos", description = "Filtros opcionales (todos combinables):\n" +
                         "- featured=true → solo destacados\n" +
                         "- gender=HOMBRE|MUJER\n" +
-                        "- categoryId → combina con los anteriores")
+                        "- categoryId, brandId\n" +
+                        "- minPrice / maxPrice → rango sobre el precio base\n" +
+                        "- size, color, inStock=true → debe existir una variante que cumpla los tres")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "Listado de productos"),
+                        @ApiResponse(responseCode = "304", description = "If-None-Match coincide: sin cambios"),
                         @ApiResponse(responseCode = "400", description = "Parámetros de filtro inválidos"),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
-        public List<Product> list(
+        public List<ProductSummaryDto> list(
                         @Parameter(description = "Filtra por categoría (opcional)") @RequestParam(required = false) Long categoryId,
 
                         @Parameter(description = "Filtra por género (opcional)") @RequestParam(required = false) ProductGender gender,
 
-                        @Parameter(description = "Solo destacados (opcional)") @RequestParam(required = false) Boolean featured) {
-                return service.list(categoryId, gender, featured);
+                        @Parameter(description = "Solo destacados (opcional)") @RequestParam(required = false) Boolean featured,
+
+                        @Parameter(description = "Filtra por marca (opcional)") @RequestParam(required = false) Long brandId,
+
+                        @Parameter(description = "Precio base mínimo (opcional)") @RequestParam(required = false) BigDecimal minPrice,
+
+                        @Parameter(description = "Precio base máximo (opcional)") @RequestParam(required = false) BigDecimal maxPrice,
+
+                        @Parameter(description = "Talla de alguna variante, ej: M o 42 (opcional)") @RequestParam(required = false) String size,
+
+                        @Parameter(description = "Color de alguna variante (opcional)") @RequestParam(required = false) String color,
+
+                        @Parameter(description = "Solo con stock disponible (opcional)") @RequestParam(required = false) Boolean inStock,
+
+                        WebRequest request) {
+                ProductFilter filter = new ProductFilter(
+                                categoryId, gender, featured, brandId, minPrice, maxPrice, size, color, inStock);
+                // ETag por agregados: con 304 no se arma ni serializa la lista
+                if (request.checkNotModified(service.listETag(filter))) {
+                        return null;
+                }
+                return service.list(filter);
+        }
+
+        // ============================================================
+        // LISTAR PAGINADO POR CURSOR
+        // ============================================================
+        @GetMapping("/page")
+        @Operation(summary = "Listar productos paginados", description = "Paginación por cursor (keyset).\n" +
+                        "- Mismos filtros que GET /products\n" +
+                        "- sort=NEWEST|PRICE_ASC|PRICE_DESC|NAME (por defecto NEWEST)\n" +
+                        "- limit entre 1 y 100 (por defecto 20)\n" +
+                        "- cursor → el nextCursor de la página anterior")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Página de productos", content = @Content(schema = @Schema(implementation = ProductPageDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Parámetros, límite o cursor inválidos"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public ProductPageDto page(
+                        @Parameter(description = "Filtra por categoría (opcional)") @RequestParam(required = false) Long categoryId,
+
+                        @Parameter(description = "Filtra por género (opcional)") @RequestParam(required = false) ProductGender gender,
+
+                        @Parameter(description = "Solo destacados (opcional)") @RequestParam(required = false) Boolean featured,
+
+                        @Parameter(description = "Filtra por marca (opcional)") @RequestParam(required = false) Long brandId,
+
+                        @Parameter(description = "Precio base mínimo (opcional)") @RequestParam(required = false) BigDecimal minPrice,
+
+                        @Parameter(description = "Precio base máximo (opcional)") @RequestParam(required = false) BigDecimal maxPrice,
+
+                        @Parameter(description = "Talla de alguna variante, ej: M o 42 (opcional)") @RequestParam(required = false) String size,
+
+                        @Parameter(description = "Color de alguna variante (opcional)") @RequestParam(required = false) String color,
+
+                        @Parameter(description = "Solo con stock disponible (opcional)") @RequestParam(required = false) Boolean inStock,
+
+                        @Parameter(description = "Orden (opcional)") @RequestParam(required = false) ProductSort sort,
+
+                        @Parameter(description = "Cursor de la página anterior (opcional)") @RequestParam(required = false) String cursor,
+
+                        @Parameter(description = "Tamaño de página (opcional)") @RequestParam(required = false) Integer limit) {
+                return service.page(
+                                new ProductFilter(categoryId, gender, featured, brandId, minPrice, maxPrice, size, color, inStock),
+                                sort,
+                                cursor,
+                                limit);
+        }
+
+        // ============================================================
+        // FACETAS (conteos para los filtros)
+        // ============================================================
+        @GetMapping("/facets")
+        @Operation(summary = "Conteos por faceta", description = "Cuántos productos hay por categoría, género, marca, talla y color.\n" +
+                        "- Mismos filtros que GET /products; total = largo de ese listado\n" +
+                        "- Cada faceta se cuenta con todos los filtros menos el suyo (ej: con categoryId=3, " +
+                        "categories trae también las otras categorías con sus conteos)\n" +
+                        "- Los valores sin productos no aparecen")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Conteos por faceta", content = @Content(schema = @Schema(implementation = ProductFacetsDto.class))),
+                        @ApiResponse(responseCode = "400", description = "Parámetros de filtro inválidos"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public ProductFacetsDto facets(
+                        @Parameter(description = "Filtra por categoría (opcional)") @RequestParam(required = false) Long categoryId,
+
+                        @Parameter(description = "Filtra por género (opcional)") @RequestParam(required = false) ProductGender gender,
+
+                        @Parameter(description = "Solo destacados (opcional)") @RequestParam(required = false) Boolean featured,
+
+                        @Parameter(description = "Filtra por marca (opcional)") @RequestParam(required = false) Long brandId,
+
+                        @Parameter(description = "Precio base mínimo (opcional)") @RequestParam(required = false) BigDecimal minPrice,
+
+                        @Parameter(description = "Precio base máximo (opcional)") @RequestParam(required = false) BigDecimal maxPrice,
+
+                        @Parameter(description = "Talla de alguna variante, ej: M o 42 (opcional)") @RequestParam(required = false) String size,
+
+                        @Parameter(description = "Color de alguna variante (opcional)") @RequestParam(required = false) String color,
+
+                        @Parameter(description = "Solo con stock disponible (opcional)") @RequestParam(required = false) Boolean inStock) {
+                return facetService.facets(new ProductFilter(
+                                categoryId, gender, featured, brandId, minPrice, maxPrice, size, color, inStock));
+        }
+
+        // ============================================================
+        // BÚSQUEDA DE TEXTO
+        // ============================================================
+        @GetMapping("/search")
+        @Operation(summary = "Buscar productos", description = "Busca en nombre, descripción, marca y categoría, ordenado por relevancia.\n" +
+                        "- No distingue tildes ni mayúsculas (pantalón = pantalon)\n" +
+                        "- Tolera un error de tipeo en palabras de 4+ letras\n" +
+                        "- limit entre 1 y 100 (por defecto 20)")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Productos encontrados (puede ser vacío)"),
+                        @ApiResponse(responseCode = "400", description = "q vacío o limit inválido"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public List<Product> search(
+                        @Parameter(description = "Texto a buscar", example = "pantalon negro") @RequestParam String q,
+
+                        @Parameter(description = "Máximo de resultados (opcional)") @RequestParam(required = false) Integer limit) {
+                return searchService.search(q, limit);
+        }
+
+        // ============================================================
+        // AUTOCOMPLETADO
+        // ============================================================
+        @GetMapping("/suggest")
+        @Operation(summary = "Autocompletar", description = "Productos, marcas y categorías que empiezan con el prefijo "
+                        + "(o que tienen una palabra que empieza con él), los más populares primero. "
+                        + "No distingue tildes ni mayúsculas. limit entre 1 y 20 (por defecto 8).")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Sugerencias (puede ser vacío)"),
+                        @ApiResponse(responseCode = "400", description = "prefix vacío o limit inválido"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public List<SuggestionDto> suggest(
+                        @Parameter(description = "Lo que lleva escrito el usuario", example = "pant") @RequestParam String prefix,
+
+                        @Parameter(description = "Máximo de sugerencias (opcional)") @RequestParam(required = false) Integer limit) {
+                return suggestService.suggest(prefix, limit);
         }
 
         // ============================================================
@@ -116,12 +296,52 @@ public class ProductController {
         @GetMapping("/{id}")
         @Operation(summary = "Obtener producto por ID (detalle)")
         @ApiResponses({
-                        @ApiResponse(responseCode = "200", description = "Producto encontrado", content = @Content(schema = @Schema(implementation = Product.class))),
+                        @ApiResponse(responseCode = "200", description = "Producto encontrado", content = @Content(schema = @Schema(implementation = ProductSummaryDto.class))),
+                        @ApiResponse(responseCode = "304", description = "If-None-Match coincide: sin cambios"),
                         @ApiResponse(responseCode = "404", description = "Producto no existe"),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
-        public Product getById(
-                        @Parameter(description = "ID del producto") @PathVariable Long id) {
+        public ProductSummaryDto getById(
+                        @Parameter(description = "ID del producto") @PathVariable Long id,
+                        WebRequest request) {
+                if (request.checkNotModified(service.etag(id))) {
+                        return null;
+                }
                 return service.get(id);
         }
+
+        // ============================================================
+        // DETALLE COMPLETO (producto + variantes + stock + imágenes)
+        // ============================================================
+        @GetMapping("/{id}/full")
+        @Operation(summary = "Detalle completo de producto", description = "Producto, variantes con precio efectivo y stock disponible, e imágenes ordenadas en una sola llamada.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Producto encontrado", content = @Content(schema = @Schema(implementation = ProductFullDto.class))),
+                        @ApiResponse(responseCode = "404", description = "Producto no existe"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public ProductFullDto getFull(
+                        @Parameter(description = "ID del producto") @PathVariable Long id) {
+                return detailService.getFull(id);
+        }
+
+        // ============================================================
+        // MATRIZ DE VARIANTES (tallas × colores)
+        // ============================================================
+        @PostMapping("/{id}/variants/matrix")
+        @Operation(summary = "Crear variantes por matriz tallas × colores", description = "Crea una variante por cada "
+                        + "combinación, con SKU generado y el mismo stock inicial, en una sola transacción.\n"
+                        + "- Si alguna combinación o SKU ya existe no se crea ninguna (409)")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "201", description = "Variantes creadas", content = @Content(array = @ArraySchema(schema = @Schema(implementation = VariantSummaryDto.class)))),
+                        @ApiResponse(responseCode = "400", description = "Datos inválidos o talla inválida"),
+                        @ApiResponse(responseCode = "404", description = "Producto no existe"),
+                        @ApiResponse(responseCode = "409", description = "Combinación o SKU ya existente"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public ResponseEntity<List<VariantSummaryDto>> createVariantMatrix(
+                        @Parameter(description = "ID del producto") @PathVariable Long id,
+                        @RequestBody @Valid CreateVariantMatrixReq req) {
+                return ResponseEntity.status(HttpStatus.CREATED).body(variantService.createMatrix(id, req));
+        }
 }
@@ -17,6 +17,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
@@ -43,11 +44,16 @@ public class ProductImageController {
         @Operation(summary = "Listar imágenes de un producto", description = "Devuelve todas las imágenes asociadas al producto, ordenadas por sortOrder.")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "Listado de imágenes", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ImageDto.class))),
+                        @ApiResponse(responseCode = "304", description = "If-None-Match coincide: sin cambios"),
                         @ApiResponse(responseCode = "404", description = "Producto no existe"),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
         public List<ImageDto> list(
-                        @Parameter(description = "ID del producto", example = "5") @PathVariable Long productId) {
+                        @Parameter(description = "ID del producto", example = "5") @PathVariable Long productId,
+                        WebRequest request) {
+                if (request.checkNotModified(imageRepo.stampByProductId(productId).etag("images-" + productId))) {
+                        return null;
+                }
                 List<ProductImage> images = imageRepo.findByProductIdOrderBySortOrderAsc(productId);
                 return images.stream()
                                 .map(ImageMapper::toDto)
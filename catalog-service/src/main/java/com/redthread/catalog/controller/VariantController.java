@@ -3,11 +3,15 @@ package com.redthread.catalog.controller;
 import com.redthread.catalog.controller.dto.CreateVariantReq;
 import com.redthread.catalog.controller.dto.VariantDto;
 import com.redthread.catalog.controller.dto.VariantMapper;
+import com.redthread.catalog.controller.dto.VariantQuoteDto;
+import com.redthread.catalog.controller.dto.VariantQuoteReq;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
 import com.redthread.catalog.model.Variant;
-import com.redthread.catalog.repository.VariantRepository;
+import com.redthread.catalog.service.CatalogExportService;
 import com.redthread.catalog.service.VariantService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -15,10 +19,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -30,7 +38,7 @@ import java.util.Map;
 public class VariantController {
 
         private final VariantService service;
-        private final VariantRepository repo;
+        private final CatalogExportService exportService;
 
         @PostMapping
         @Operation(summary = "Crear variante", description = "Crea una variante asociada a un producto. "
@@ -66,22 +74,46 @@ public class VariantController {
         @Operation(summary = "Listar variantes por producto")
         @ApiResponses({
                         @ApiResponse(responseCode = "200", description = "Listado de variantes"),
+                        @ApiResponse(responseCode = "304", description = "If-None-Match coincide: sin cambios"),
                         @ApiResponse(responseCode = "404", description = "Producto no existe"),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
-        public List<Variant> list(
-                        @Parameter(description = "ID del producto padre") @RequestParam Long productId) {
+        public List<VariantSummaryDto> list(
+                        @Parameter(description = "ID del producto padre") @RequestParam Long productId,
+                        WebRequest request) {
+                if (request.checkNotModified(service.listETag(productId))) {
+                        return null;
+                }
                 return service.byProduct(productId);
         }
 
         @GetMapping("/todos")
-        @Operation(summary = "Listar todas las variantes (debug)")
+        @Operation(summary = "Listar todas las variantes (debug)", description = "Se escribe a medida que se lee "
+                        + "de la base (memoria constante).\n"
+                        + "- Por defecto: arreglo JSON\n"
+                        + "- Accept: application/x-ndjson → una variante por línea")
         @ApiResponses({
-                        @ApiResponse(responseCode = "200", description = "Listado completo de variantes"),
+                        @ApiResponse(responseCode = "200", description = "Listado completo de variantes", content = @Content(array = @ArraySchema(schema = @Schema(implementation = VariantSummaryDto.class)))),
                         @ApiResponse(responseCode = "500", description = "Error interno")
         })
-        public List<Variant> all() {
-                return repo.findAll();
+        public ResponseEntity<StreamingResponseBody> all(
+                        @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+                boolean ndjson = CatalogExportService.wantsNdjson(accept);
+                return ResponseEntity.ok()
+                                .contentType(ndjson ? MediaType.parseMediaType(CatalogExportService.NDJSON) : MediaType.APPLICATION_JSON)
+                                .body(out -> exportService.writeVariants(out, ndjson));
+        }
+
+        @PostMapping("/quote")
+        @Operation(summary = "Cotizar variantes en lote", description = "Precio efectivo, stock disponible, producto, talla y color "
+                        + "de varias variantes en una sola consulta. Los IDs inexistentes no vienen en la respuesta.")
+        @ApiResponses({
+                        @ApiResponse(responseCode = "200", description = "Cotización en el mismo orden de los IDs enviados"),
+                        @ApiResponse(responseCode = "400", description = "Lista vacía o con más de 200 IDs"),
+                        @ApiResponse(responseCode = "500", description = "Error interno")
+        })
+        public List<VariantQuoteDto> quote(@RequestBody @Valid VariantQuoteReq req) {
+                return service.quote(req.variantIds());
         }
 
         @PutMapping("/{id}")
@@ -90,7 +122,7 @@ public class VariantController {
                         @ApiResponse(responseCode = "200", description = "Variante actualizada correctamente", content = @Content(schema = @Schema(implementation = VariantDto.class))),
                         @ApiResponse(responseCode = "400", description = "Datos inválidos"),
                         @ApiResponse(responseCode = "404", description = "Variante o producto no existe"),
-                        @ApiResponse(responseCode = "409", description = "Conflicto de combinación o SKU"),
+                        @ApiResponse(responseCode = "409", description = "Conflicto de combinación o SKU, o modificada en paralelo"),
                         @ApiResponse(responseCode = "500", description = "Error interno al actualizar variante")
         })
         public VariantDto update(
@@ -0,0 +1,17 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "AdjustLocationStockReq", description = "Ajuste de stock de una variante en una ubicación.")
+public record AdjustLocationStockReq(
+        @Schema(example = "5", description = "ID de variante")
+        @NotNull Long variantId,
+
+        @Schema(example = "-2", description = "Delta a aplicar (puede ser negativo)")
+        @NotNull Integer delta,
+
+        @Schema(example = "transfer:12", description = "Referencia que queda en el historial de movimientos (opcional)")
+        @Size(max = 64) String reference
+) {}
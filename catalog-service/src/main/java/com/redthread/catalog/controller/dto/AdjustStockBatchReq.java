@@ -0,0 +1,16 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(name = "AdjustStockBatchReq", description = "Ajustes de stock a aplicar todos juntos (todo o nada)")
+public record AdjustStockBatchReq(
+        @NotEmpty
+        @Size(max = 500)
+        List<@Valid @NotNull AdjustStockReq> items
+) {}
@@ -2,6 +2,7 @@ package com.redthread.catalog.controller.dto;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 @Schema(name = "AdjustStockReq", description = "Ajuste de stock disponible para una variante.")
 public record AdjustStockReq(
@@ -9,5 +10,12 @@ public record AdjustStockReq(
         @NotNull Long variantId,
 
         @Schema(example = "-2", description = "Delta a aplicar al stockAvailable (puede ser negativo)")
-        @NotNull Integer delta
-) {}
+        @NotNull Integer delta,
+
+        @Schema(example = "order:15", description = "Referencia que queda en el historial de movimientos (opcional)")
+        @Size(max = 64) String reference
+) {
+    public AdjustStockReq(Long variantId, Integer delta) {
+        this(variantId, delta, null);
+    }
+}
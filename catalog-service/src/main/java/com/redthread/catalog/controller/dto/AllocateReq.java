@@ -0,0 +1,26 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.enums.AllocationPolicy;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+@Schema(name = "AllocateReq", description = "Cantidad de una variante a repartir entre ubicaciones")
+public record AllocateReq(
+        @Schema(example = "5", description = "ID de variante")
+        @NotNull Long variantId,
+
+        @Schema(example = "4", description = "Cantidad pedida")
+        @NotNull @Positive Integer quantity,
+
+        @Schema(example = "NEAREST", description = "NEAREST | MOST_STOCK | FEWEST_SPLITS (default según configuración)")
+        AllocationPolicy policy,
+
+        @Schema(example = "-33.45", description = "Latitud del destino (para NEAREST)")
+        @DecimalMin("-90") @DecimalMax("90") Double latitude,
+
+        @Schema(example = "-70.66", description = "Longitud del destino (para NEAREST)")
+        @DecimalMin("-180") @DecimalMax("180") Double longitude
+) {}
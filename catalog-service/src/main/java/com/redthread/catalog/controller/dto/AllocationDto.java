@@ -0,0 +1,33 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "AllocationDto", description = "Desde qué ubicaciones sale una cantidad pedida")
+public record AllocationDto(
+        @Schema(example = "5")
+        Long variantId,
+
+        @Schema(example = "4")
+        int quantity,
+
+        @Schema(example = "NEAREST")
+        String policy,
+
+        List<Line> lines
+) {
+    public record Line(
+            @Schema(example = "2")
+            Long locationId,
+
+            @Schema(example = "SCL-CENTRO")
+            String code,
+
+            @Schema(example = "3")
+            int quantity,
+
+            @Schema(example = "3.4")
+            Double distanceKm
+    ) {}
+}
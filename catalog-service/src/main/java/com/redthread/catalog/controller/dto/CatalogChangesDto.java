@@ -0,0 +1,29 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.Product;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "CatalogChangesDto", description = "Cambios del catálogo desde un token de sincronización")
+public record CatalogChangesDto(
+        @Schema(description = "Productos creados o modificados (estado vigente)")
+        List<Product> products,
+
+        @Schema(description = "Variantes creadas o modificadas (el stock viaja en stock)")
+        List<VariantDto> variants,
+
+        @Schema(description = "Stock vigente de las variantes que cambiaron")
+        List<StockLevelDto> stock,
+
+        @Schema(description = "Imágenes creadas o modificadas")
+        List<ImageDto> images,
+
+        List<CatalogTombstoneDto> deleted,
+
+        @Schema(example = "18342", description = "Token para la próxima llamada (since)")
+        String nextToken,
+
+        @Schema(example = "false", description = "true = quedan cambios, pedir otra página de inmediato")
+        boolean hasMore
+) {}
@@ -0,0 +1,64 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Una fila de GET /catalog/export: una variante con los datos de su
+ * producto (o el producto solo, si no tiene variantes). El orden de los
+ * campos es el de las columnas del CSV.
+ */
+@Schema(name = "CatalogExportRowDto", description = "Fila plana del export del catálogo")
+public record CatalogExportRowDto(
+        @Schema(example = "10")
+        long productId,
+
+        @Schema(example = "Polera básica")
+        String productName,
+
+        @Schema(example = "Poleras")
+        String category,
+
+        @Schema(example = "RedThread")
+        String brand,
+
+        @Schema(example = "9990.00")
+        BigDecimal basePrice,
+
+        @Schema(example = "HOMBRE")
+        String gender,
+
+        boolean featured,
+
+        boolean productActive,
+
+        @Schema(example = "/media/products/10/a.jpg", description = "Imagen principal")
+        String imageUrl,
+
+        @Schema(example = "15", description = "null si el producto no tiene variantes")
+        Long variantId,
+
+        @Schema(example = "LETTER")
+        String sizeType,
+
+        @Schema(example = "M")
+        String sizeValue,
+
+        @Schema(example = "NEGRO")
+        String color,
+
+        @Schema(example = "SKU-10-LETTER-M-NEGRO")
+        String sku,
+
+        @Schema(example = "9990.00", description = "priceOverride o basePrice")
+        BigDecimal price,
+
+        Boolean variantActive,
+
+        @Schema(example = "12")
+        Integer stockAvailable,
+
+        @Schema(example = "2")
+        Integer stockReserved
+) {}
@@ -0,0 +1,42 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "CatalogImportResultDto", description = "Resultado de una importación masiva del catálogo")
+public record CatalogImportResultDto(
+        @Schema(example = "50000", description = "Filas de datos leídas (sin encabezado)")
+        long rows,
+
+        @Schema(example = "5000")
+        long productsCreated,
+
+        @Schema(example = "49980")
+        long variantsCreated,
+
+        @Schema(example = "20", description = "Filas rechazadas (no se importaron)")
+        long failed,
+
+        @Schema(description = "Detalle de las filas rechazadas (máximo 1000)")
+        List<RowError> errors,
+
+        @Schema(example = "false", description = "true = hubo más errores de los que se listan")
+        boolean errorsTruncated,
+
+        @Schema(example = "4210")
+        long elapsedMs
+) {
+
+    @Schema(name = "CatalogImportRowError")
+    public record RowError(
+            @Schema(example = "17", description = "Línea del archivo (la 1 es el encabezado en CSV)")
+            long line,
+
+            @Schema(example = "SKU-10-LETTER-M-NEGRO")
+            String sku,
+
+            @Schema(example = "Talla LETTER permitida: XXS, XS, S, M, L, XL, XXL")
+            String message
+    ) {}
+}
@@ -0,0 +1,12 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "CatalogTombstoneDto", description = "Entidad eliminada: el cliente debe borrarla de su cache")
+public record CatalogTombstoneDto(
+        @Schema(example = "VARIANT", description = "PRODUCT | VARIANT | INVENTORY | IMAGE")
+        String type,
+
+        @Schema(example = "15", description = "ID de la entidad (para INVENTORY, el de la variante)")
+        Long id
+) {}
@@ -0,0 +1,26 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+@Schema(name = "CreateLocationReq", description = "Payload para crear una bodega o tienda.")
+public record CreateLocationReq(
+        @Schema(example = "SCL-CENTRO")
+        @NotBlank @Size(max = 32) String code,
+
+        @Schema(example = "Tienda Santiago Centro")
+        @NotBlank @Size(max = 120) String name,
+
+        @Schema(example = "-33.4372")
+        @DecimalMin("-90") @DecimalMax("90") Double latitude,
+
+        @Schema(example = "-70.6506")
+        @DecimalMin("-180") @DecimalMax("180") Double longitude,
+
+        @Schema(example = "100", description = "Desempate entre ubicaciones (menor = primero). Default 100")
+        @PositiveOrZero Integer priority
+) {}
@@ -0,0 +1,40 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.enums.PriceAdjustment;
+import com.redthread.catalog.model.enums.PriceField;
+import com.redthread.catalog.model.enums.ProductGender;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Schema(name = "CreatePriceJobReq", description = "Cambio de precio masivo. Se aplica a los productos que cumplen todos los filtros enviados (al menos uno)")
+public record CreatePriceJobReq(
+        @Schema(example = "BASE_PRICE", description = "BASE_PRICE (producto) o PRICE_OVERRIDE (variantes con override)")
+        @NotNull PriceField field,
+
+        @Schema(example = "PERCENT", description = "PERCENT o AMOUNT")
+        @NotNull PriceAdjustment mode,
+
+        @Schema(example = "-20", description = "PERCENT: -20 = 20% menos. AMOUNT: se suma al precio")
+        @NotNull BigDecimal amount,
+
+        @Schema(example = "3")
+        Long categoryId,
+
+        @Schema(example = "1")
+        Long brandId,
+
+        @Schema(example = "MUJER")
+        ProductGender gender,
+
+        @Schema(example = "[10, 11, 12]")
+        @Size(max = 10_000)
+        List<@NotNull Long> productIds,
+
+        @Schema(description = "Hora de aplicación; vacío = ahora")
+        Instant runAt
+) {}
@@ -0,0 +1,30 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.enums.SizeType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(name = "CreateVariantMatrixReq", description = "Tallas × colores a crear para un producto")
+public record CreateVariantMatrixReq(
+        @Schema(example = "EU", description = "Tipo de talla: EU o LETTER")
+        @NotNull SizeType sizeType,
+
+        @Schema(example = "[\"39\", \"40\", \"41\", \"42\"]")
+        @NotEmpty
+        @Size(max = 20)
+        List<@NotBlank String> sizes,
+
+        @Schema(example = "[\"NEGRO\", \"BLANCO\"]")
+        @NotEmpty
+        @Size(max = 50)
+        List<@NotBlank String> colors,
+
+        @Schema(example = "5", description = "Stock inicial de cada variante (opcional)")
+        @Min(0) Integer stock
+) {}
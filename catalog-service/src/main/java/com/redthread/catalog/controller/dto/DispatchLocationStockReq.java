@@ -0,0 +1,14 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+@Schema(name = "DispatchLocationStockReq", description = "Unidades ya vendidas que salen de una ubicación.")
+public record DispatchLocationStockReq(
+        @Schema(example = "5", description = "ID de variante")
+        @NotNull Long variantId,
+
+        @Schema(example = "2", description = "Unidades a despachar")
+        @NotNull @Min(1) Integer quantity
+) {}
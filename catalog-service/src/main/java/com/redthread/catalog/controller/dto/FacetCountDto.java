@@ -0,0 +1,15 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "FacetCountDto", description = "Un valor de faceta y cuántos productos tendría el listado al elegirlo")
+public record FacetCountDto(
+        @Schema(example = "3", description = "Valor a enviar como filtro (ID, género, talla o color)")
+        String value,
+
+        @Schema(example = "Poleras", description = "Texto a mostrar")
+        String label,
+
+        @Schema(example = "124")
+        int count
+) {}
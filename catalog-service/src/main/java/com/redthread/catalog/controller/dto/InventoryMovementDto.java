@@ -0,0 +1,31 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(name = "InventoryMovementDto", description = "Un movimiento del historial de stock de una variante")
+public record InventoryMovementDto(
+        @Schema(example = "981")
+        Long id,
+
+        @Schema(example = "5")
+        Long variantId,
+
+        @Schema(example = "-2", description = "Cambio en stockAvailable")
+        int deltaAvailable,
+
+        @Schema(example = "0", description = "Cambio en stockReserved")
+        int deltaReserved,
+
+        @Schema(example = "ADJUST", description = "ADJUST | BUFFERED_ADJUST | RESERVE | COMMIT | RELEASE | EXPIRE")
+        String reason,
+
+        @Schema(example = "order:15", description = "Referencia enviada por quien hizo el cambio (opcional)")
+        String reference,
+
+        @Schema(description = "Reserva asociada (solo movimientos de reservas)")
+        String reservationId,
+
+        Instant createdAt
+) {}
@@ -0,0 +1,16 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "InventoryMovementPageDto", description = "Página del historial de stock, del más reciente al más antiguo")
+public record InventoryMovementPageDto(
+        List<InventoryMovementDto> items,
+
+        @Schema(example = "981", description = "Cursor para pedir la siguiente página (null si no hay más)")
+        String nextCursor,
+
+        @Schema(example = "true")
+        boolean hasMore
+) {}
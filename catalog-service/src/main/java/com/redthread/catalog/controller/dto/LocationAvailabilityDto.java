@@ -0,0 +1,21 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "LocationAvailabilityDto", description = "Stock de una variante en una ubicación")
+public record LocationAvailabilityDto(
+        @Schema(example = "2")
+        Long locationId,
+
+        @Schema(example = "SCL-CENTRO")
+        String code,
+
+        @Schema(example = "Tienda Santiago Centro")
+        String name,
+
+        @Schema(example = "7")
+        int stockAvailable,
+
+        @Schema(example = "3.4", description = "Distancia en km al punto consultado (null sin coordenadas)")
+        Double distanceKm
+) {}
@@ -0,0 +1,64 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.PriceJob;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+@Schema(name = "PriceJobDto", description = "Job de cambio de precios y su resultado")
+public record PriceJobDto(
+        @Schema(example = "7")
+        Long id,
+
+        @Schema(example = "DONE", description = "PENDING | RUNNING | DONE | FAILED | CANCELLED")
+        String status,
+
+        @Schema(example = "BASE_PRICE")
+        String field,
+
+        @Schema(example = "PERCENT")
+        String mode,
+
+        @Schema(example = "-20")
+        BigDecimal amount,
+
+        Long categoryId,
+        Long brandId,
+        String gender,
+        List<Long> productIds,
+        Instant runAt,
+
+        @Schema(example = "412")
+        int productsUpdated,
+
+        @Schema(example = "0", description = "Variantes con override modificadas (solo PRICE_OVERRIDE)")
+        int variantsUpdated,
+
+        @Schema(description = "Motivo si quedó FAILED")
+        String error,
+
+        Instant createdAt,
+        Instant finishedAt
+) {
+    public static PriceJobDto of(PriceJob job) {
+        return new PriceJobDto(
+                job.getId(),
+                job.getStatus().name(),
+                job.getField().name(),
+                job.getMode().name(),
+                job.getAmount(),
+                job.getCategoryId(),
+                job.getBrandId(),
+                job.getGender() != null ? job.getGender().name() : null,
+                job.getProductIds().stream().sorted().toList(),
+                job.getRunAt(),
+                job.getProductsUpdated(),
+                job.getVariantsUpdated(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getFinishedAt()
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "ProductFacetsDto", description = "Conteos por faceta para los filtros del listado")
+public record ProductFacetsDto(
+        @Schema(example = "342", description = "Productos que cumplen todos los filtros")
+        int total,
+
+        List<FacetCountDto> categories,
+        List<FacetCountDto> genders,
+        List<FacetCountDto> brands,
+        List<FacetCountDto> sizes,
+        List<FacetCountDto> colors
+) {}
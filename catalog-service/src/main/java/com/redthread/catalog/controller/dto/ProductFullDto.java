@@ -0,0 +1,46 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Detalle completo de un producto en una sola respuesta.
+ * Mantiene los mismos nombres de campo que el JSON de Product para que la app
+ * pueda leerlo con su ProductDto (que ya trae images y variants).
+ */
+@Schema(name = "ProductFullDto", description = "Producto con variantes, stock e imágenes")
+public record ProductFullDto(
+        @Schema(example = "10")
+        Long id,
+
+        @Schema(example = "Polera Oversize Negra")
+        String name,
+
+        String description,
+
+        @Schema(example = "12990.00")
+        BigDecimal basePrice,
+
+        boolean active,
+
+        boolean featured,
+
+        @Schema(example = "HOMBRE")
+        String gender,
+
+        Instant createdAt,
+
+        Category category,
+
+        Brand brand,
+
+        List<VariantDetailDto> variants,
+
+        @Schema(description = "Imágenes ordenadas por sortOrder")
+        List<ImageDto> images
+) {}
@@ -0,0 +1,51 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.ProductImage;
+import com.redthread.catalog.model.Variant;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public class ProductFullMapper {
+
+    public static ProductFullDto toDto(Product p, List<Variant> variants, List<ProductImage> images) {
+        return new ProductFullDto(
+                p.getId(),
+                p.getName(),
+                p.getDescription(),
+                p.getBasePrice(),
+                p.isActive(),
+                p.isFeatured(),
+                p.getGender() != null ? p.getGender().name() : null,
+                p.getCreatedAt(),
+                p.getCategory(),
+                p.getBrand(),
+                variants.stream().map(v -> toDto(p, v)).toList(),
+                images.stream().map(ImageMapper::toDto).toList()
+        );
+    }
+
+    public static VariantDetailDto toDto(Product p, Variant v) {
+        BigDecimal effective = v.getPriceOverride() != null ? v.getPriceOverride() : p.getBasePrice();
+
+        int stock = 0;
+        Inventory inv = v.getInventory();
+        if (inv != null) {
+            stock = Math.max(inv.getStockAvailable() - inv.getStockReserved(), 0);
+        }
+
+        return new VariantDetailDto(
+                v.getId(),
+                p.getId(),
+                v.getSizeType().name(),
+                v.getSizeValue(),
+                v.getColor(),
+                v.getSku(),
+                v.getPriceOverride(),
+                effective,
+                stock
+        );
+    }
+}
@@ -0,0 +1,17 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(name = "ProductPageDto", description = "Página de productos paginada por cursor")
+public record ProductPageDto(
+        List<ProductSummaryDto> items,
+
+        @Schema(example = "TkVXRVNUfDQyfDIwMjQtMTAtMDFUMTI6MzA6MDBa",
+                description = "Cursor opaco para pedir la siguiente página (null si no hay más)")
+        String nextCursor,
+
+        @Schema(example = "true")
+        boolean hasMore
+) {}
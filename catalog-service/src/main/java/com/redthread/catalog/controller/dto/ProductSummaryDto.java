@@ -0,0 +1,47 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.enums.ProductGender;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Producto de los listados, leído por proyección (solo columnas, sin
+ * entidades administradas). Mantiene las claves JSON de la entidad
+ * Product para que la app no note el cambio.
+ */
+@Schema(name = "ProductSummaryDto", description = "Producto en listados")
+public record ProductSummaryDto(
+        @Schema(example = "10")
+        Long id,
+
+        CategoryRef category,
+
+        @Schema(description = "null si no tiene marca")
+        BrandRef brand,
+
+        @Schema(example = "Polera básica")
+        String name,
+
+        String description,
+
+        @Schema(example = "9990.00")
+        BigDecimal basePrice,
+
+        boolean active,
+
+        boolean featured,
+
+        @Schema(example = "HOMBRE")
+        ProductGender gender,
+
+        Instant createdAt
+) {
+
+    @Schema(name = "ProductSummaryCategory")
+    public record CategoryRef(Long id, String name, String description, boolean active, Instant createdAt) {}
+
+    @Schema(name = "ProductSummaryBrand")
+    public record BrandRef(Long id, String name, boolean active, Instant createdAt) {}
+}
@@ -0,0 +1,30 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+
+public class ProductSummaryMapper {
+
+    public static ProductSummaryDto toDto(Product p) {
+        Category c = p.getCategory();
+        Brand b = p.getBrand();
+
+        return new ProductSummaryDto(
+                p.getId(),
+                c != null
+                        ? new ProductSummaryDto.CategoryRef(c.getId(), c.getName(), c.getDescription(), c.isActive(), c.getCreatedAt())
+                        : null,
+                b != null
+                        ? new ProductSummaryDto.BrandRef(b.getId(), b.getName(), b.isActive(), b.getCreatedAt())
+                        : null,
+                p.getName(),
+                p.getDescription(),
+                p.getBasePrice(),
+                p.isActive(),
+                p.isFeatured(),
+                p.getGender(),
+                p.getCreatedAt()
+        );
+    }
+}
@@ -0,0 +1,40 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.StockReservation;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+
+@Schema(name = "ReservationDto", description = "Reserva de stock y el estado de cada línea")
+public record ReservationDto(
+        @Schema(example = "6f1c2a0e-8d5b-4c1e-9a57-0c3f4b7e2d11")
+        String reservationId,
+
+        @Schema(description = "Después de esta hora el sweeper libera lo que siga HELD")
+        Instant expiresAt,
+
+        List<Line> items
+) {
+    public record Line(
+            @Schema(example = "5")
+            Long variantId,
+
+            @Schema(example = "2")
+            int quantity,
+
+            @Schema(example = "HELD", description = "HELD | COMMITTED | RELEASED | EXPIRED")
+            String status
+    ) {}
+
+    public static ReservationDto of(String reservationId, List<StockReservation> lines) {
+        Instant expiresAt = lines.isEmpty() ? null : lines.get(0).getExpiresAt();
+        return new ReservationDto(
+                reservationId,
+                expiresAt,
+                lines.stream()
+                        .map(r -> new Line(r.getVariantId(), r.getQuantity(), r.getStatus().name()))
+                        .toList()
+        );
+    }
+}
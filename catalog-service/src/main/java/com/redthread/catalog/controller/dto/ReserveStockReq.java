@@ -0,0 +1,28 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(name = "ReserveStockReq", description = "Variantes y cantidades a reservar (todo o nada)")
+public record ReserveStockReq(
+        @NotEmpty
+        @Size(max = 200)
+        List<@Valid @NotNull Item> items,
+
+        @Schema(example = "order:15", description = "Referencia que queda en la reserva y en el historial (opcional)")
+        @Size(max = 64) String reference
+) {
+    public record Item(
+            @Schema(example = "5", description = "ID de variante")
+            @NotNull Long variantId,
+
+            @Schema(example = "2", description = "Cantidad a reservar")
+            @NotNull @Positive Integer quantity
+    ) {}
+}
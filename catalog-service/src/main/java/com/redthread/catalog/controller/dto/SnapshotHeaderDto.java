@@ -0,0 +1,19 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(name = "SnapshotHeaderDto", description = "Primera línea del snapshot del catálogo")
+public record SnapshotHeaderDto(
+        @Schema(example = "1", description = "Versión del formato de las líneas")
+        int format,
+
+        @Schema(example = "48211", description = "Versión del snapshot (la misma del ETag)")
+        long version,
+
+        @Schema(example = "48211", description = "Enviar como since a GET /catalog/changes para seguir desde aquí")
+        String syncToken,
+
+        Instant generatedAt
+) {}
@@ -0,0 +1,67 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Schema(name = "SnapshotProductDto", description = "Una línea del snapshot: producto activo con sus variantes activas")
+public record SnapshotProductDto(
+        @Schema(example = "10")
+        long id,
+
+        @Schema(example = "Polera básica")
+        String name,
+
+        String description,
+
+        @Schema(example = "9990.00")
+        BigDecimal basePrice,
+
+        boolean featured,
+
+        @Schema(example = "HOMBRE")
+        String gender,
+
+        @Schema(example = "3")
+        long categoryId,
+
+        @Schema(example = "Poleras")
+        String categoryName,
+
+        @Schema(example = "7")
+        Long brandId,
+
+        @Schema(example = "RedThread")
+        String brandName,
+
+        @Schema(example = "/media/products/10/abc.jpg", description = "Imagen principal (o la primera), null si no tiene")
+        String imageUrl,
+
+        List<Variant> variants
+) {
+
+    @Schema(name = "SnapshotVariantDto")
+    public record Variant(
+            @Schema(example = "15")
+            long id,
+
+            @Schema(example = "LETTER")
+            String sizeType,
+
+            @Schema(example = "M")
+            String sizeValue,
+
+            @Schema(example = "NEGRO")
+            String color,
+
+            @Schema(example = "SKU-10-M-NEGRO")
+            String sku,
+
+            @Schema(example = "9990.00", description = "Precio final (priceOverride o el base del producto)")
+            BigDecimal price,
+
+            @Schema(example = "5", description = "Disponible - reservado")
+            int stock
+    ) {}
+}
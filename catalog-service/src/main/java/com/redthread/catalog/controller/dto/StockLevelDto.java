@@ -0,0 +1,18 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "StockLevelDto", description = "Stock resultante de una variante")
+public record StockLevelDto(
+        @Schema(example = "5")
+        Long variantId,
+
+        @Schema(example = "12")
+        int stockAvailable,
+
+        @Schema(example = "2")
+        int stockReserved,
+
+        @Schema(example = "10", description = "stockAvailable - stockReserved")
+        int availableStock
+) {}
@@ -0,0 +1,15 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "SuggestionDto", description = "Sugerencia de autocompletado")
+public record SuggestionDto(
+        @Schema(example = "Pantalón cargo negro")
+        String text,
+
+        @Schema(example = "PRODUCT", description = "PRODUCT | BRAND | CATEGORY")
+        String type,
+
+        @Schema(example = "15", description = "ID del producto, marca o categoría")
+        Long id
+) {}
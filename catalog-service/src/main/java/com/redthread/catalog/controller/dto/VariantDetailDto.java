@@ -0,0 +1,35 @@
+package com.redthread.catalog.controller.dto;
+
+import java.math.BigDecimal;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(name = "VariantDetailDto", description = "Variante con precio efectivo y stock disponible")
+public record VariantDetailDto(
+        @Schema(example = "15")
+        Long id,
+
+        @Schema(example = "10")
+        Long productId,
+
+        @Schema(example = "LETTER")
+        String sizeType,
+
+        @Schema(example = "M")
+        String sizeValue,
+
+        @Schema(example = "NEGRO")
+        String color,
+
+        @Schema(example = "SKU-10-M-NEGRO")
+        String sku,
+
+        @Schema(example = "14990.00", description = "Precio propio de la variante (null si usa el del producto)")
+        BigDecimal priceOverride,
+
+        @Schema(example = "14990.00", description = "priceOverride si existe, si no basePrice del producto")
+        BigDecimal effectivePrice,
+
+        @Schema(example = "5", description = "stockAvailable - stockReserved (nunca negativo)")
+        int stock
+) {}
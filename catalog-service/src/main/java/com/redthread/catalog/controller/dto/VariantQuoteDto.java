@@ -0,0 +1,34 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+@Schema(name = "VariantQuoteDto", description = "Precio efectivo y stock disponible de una variante")
+public record VariantQuoteDto(
+        @Schema(example = "15")
+        Long variantId,
+
+        @Schema(example = "10")
+        Long productId,
+
+        @Schema(example = "Polera Oversize Negra")
+        String productName,
+
+        @Schema(example = "M")
+        String sizeValue,
+
+        @Schema(example = "NEGRO")
+        String color,
+
+        @Schema(example = "14990.00", description = "priceOverride si existe, si no basePrice del producto")
+        BigDecimal price,
+
+        @Schema(example = "5", description = "stockAvailable - stockReserved (nunca negativo)")
+        Integer availableStock
+) {
+    public VariantQuoteDto {
+        // sin fila de inventario llega null; con más reservas que stock, negativo
+        availableStock = availableStock == null ? 0 : Math.max(availableStock, 0);
+    }
+}
@@ -0,0 +1,16 @@
+package com.redthread.catalog.controller.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+@Schema(name = "VariantQuoteReq", description = "IDs de variantes a cotizar")
+public record VariantQuoteReq(
+        @Schema(example = "[15, 16, 21]")
+        @NotEmpty
+        @Size(max = 200)
+        List<@NotNull Long> variantIds
+) {}
@@ -0,0 +1,42 @@
+package com.redthread.catalog.controller.dto;
+
+import com.redthread.catalog.model.enums.SizeType;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Variante de los listados, leída por proyección con el stock en la misma
+ * consulta. Mismas claves JSON que la entidad Variant.
+ */
+@Schema(name = "VariantSummaryDto", description = "Variante en listados")
+public record VariantSummaryDto(
+        @Schema(example = "15")
+        Long id,
+
+        @Schema(example = "10")
+        Long productId,
+
+        @Schema(example = "LETTER")
+        SizeType sizeType,
+
+        @Schema(example = "M")
+        String sizeValue,
+
+        @Schema(example = "NEGRO")
+        String color,
+
+        @Schema(example = "SKU-10-M-NEGRO")
+        String sku,
+
+        @Schema(example = "14990.00")
+        BigDecimal priceOverride,
+
+        boolean active,
+
+        Instant createdAt,
+
+        @Schema(example = "5", description = "Disponible - reservado (mínimo 0); null sin inventario")
+        Integer stock
+) {}
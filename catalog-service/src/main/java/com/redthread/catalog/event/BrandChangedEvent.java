@@ -0,0 +1,4 @@
+package com.redthread.catalog.event;
+
+/** Se creó una marca. */
+public record BrandChangedEvent(Long brandId) {}
@@ -0,0 +1,4 @@
+package com.redthread.catalog.event;
+
+/** Se creó una categoría o cambió su nombre/descripción (afecta a sus productos). */
+public record CategoryChangedEvent(Long categoryId) {}
@@ -0,0 +1,7 @@
+package com.redthread.catalog.event;
+
+/**
+ * Un producto se creó o modificó. Se publica dentro de la transacción;
+ * los listeners con @TransactionalEventListener lo reciben tras el commit.
+ */
+public record ProductChangedEvent(Long productId) {}
@@ -0,0 +1,10 @@
+package com.redthread.catalog.event;
+
+import java.util.List;
+
+/**
+ * Un job de precios cambió el precio de estos productos (o de sus
+ * variantes). Un solo evento por job en vez de un ProductChangedEvent
+ * por producto.
+ */
+public record ProductsRepricedEvent(List<Long> productIds) {}
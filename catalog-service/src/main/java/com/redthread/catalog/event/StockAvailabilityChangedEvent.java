@@ -0,0 +1,7 @@
+package com.redthread.catalog.event;
+
+/**
+ * Una variante pasó de "con stock" a "sin stock" o al revés (disponible
+ * menos reservado). Los ajustes que no cruzan el cero no se publican.
+ */
+public record StockAvailabilityChangedEvent(Long variantId, boolean inStock) {}
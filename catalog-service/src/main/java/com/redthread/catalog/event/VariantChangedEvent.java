@@ -0,0 +1,7 @@
+package com.redthread.catalog.event;
+
+/**
+ * Una variante se creó, modificó o eliminó. productId es el producto al
+ * que pertenece (o pertenecía): los listeners recargan el producto completo.
+ */
+public record VariantChangedEvent(Long variantId, Long productId) {}
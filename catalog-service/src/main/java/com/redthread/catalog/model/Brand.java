@@ -1,5 +1,6 @@
 package com.redthread.catalog.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -22,6 +23,11 @@ public class Brand {
     @Column(name="created_at", nullable=false, updatable=false)
     private Instant createdAt;
 
+    // sube en cada UPDATE; base de los ETag (VersionStamp)
+    @Version
+    @JsonIgnore
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = Instant.now();
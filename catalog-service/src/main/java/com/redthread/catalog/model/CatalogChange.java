@@ -0,0 +1,44 @@
+package com.redthread.catalog.model;
+
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Una entidad del catálogo que cambió. Solo dice qué cambió, no el valor:
+ * la sincronización lee el estado vigente al responder.
+ */
+@Entity
+@Table(name = "catalog_changes")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private CatalogEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private ChangeOp op;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    // Orden de commit; NULL hasta que CatalogChangePublisher lo publica
+    @Column(name = "seq")
+    private Long seq;
+}
@@ -1,5 +1,6 @@
 package com.redthread.catalog.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -26,6 +27,11 @@ public class Category {
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
+    // sube en cada UPDATE; base de los ETag (VersionStamp)
+    @Version
+    @JsonIgnore
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = Instant.now();
@@ -0,0 +1,39 @@
+package com.redthread.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "locations")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class Location {
+
+    /** Creada por V11: recibe el stock existente y el inicial de las variantes nuevas. */
+    public static final String DEFAULT_CODE = "DEFAULT";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 32)
+    private String code;
+
+    @Column(nullable = false, length = 120)
+    private String name;
+
+    // Opcionales: sin coordenadas la ubicación queda al final en NEAREST
+    private Double latitude;
+
+    private Double longitude;
+
+    @Column(nullable = false)
+    private int priority;
+
+    @Column(nullable = false)
+    private boolean active;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,38 @@
+package com.redthread.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Stock de una variante en una ubicación. La suma por variante está
+ * reflejada en Inventory, que se ajusta junto con esta fila.
+ */
+@Entity
+@Table(name = "location_stock")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LocationStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "location_id")
+    private Location location;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "variant_id")
+    private Variant variant;
+
+    @Column(name = "stock_available", nullable = false)
+    private int stockAvailable;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
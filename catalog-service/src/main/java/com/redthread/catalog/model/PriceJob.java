@@ -0,0 +1,91 @@
+package com.redthread.catalog.model;
+
+import com.redthread.catalog.model.enums.PriceAdjustment;
+import com.redthread.catalog.model.enums.PriceField;
+import com.redthread.catalog.model.enums.PriceJobStatus;
+import com.redthread.catalog.model.enums.ProductGender;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Cambio de precio masivo. El alcance son los productos que cumplen
+ * todos los filtros no nulos (categoría, marca, género, lista de ids).
+ */
+@Entity
+@Table(name = "price_jobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private PriceField field;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private PriceAdjustment mode;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    // Solo ids: el job no necesita cargar la categoría ni la marca
+    @Column(name = "category_id")
+    private Long categoryId;
+
+    @Column(name = "brand_id")
+    private Long brandId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 10)
+    private ProductGender gender;
+
+    @Builder.Default
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "price_job_products", joinColumns = @JoinColumn(name = "job_id"))
+    @Column(name = "product_id")
+    private Set<Long> productIds = new HashSet<>();
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private PriceJobStatus status;
+
+    @Column(name = "run_at", nullable = false)
+    private Instant runAt;
+
+    @Column(name = "products_updated", nullable = false)
+    private int productsUpdated;
+
+    @Column(name = "variants_updated", nullable = false)
+    private int variantsUpdated;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    // Mientras está RUNNING: quién lo tomó y hasta cuándo (ver V13)
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    @Column(nullable = false)
+    private int attempts;
+}
@@ -1,6 +1,7 @@
 package com.redthread.catalog.model;
 
 import com.redthread.catalog.model.enums.ProductGender;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -50,4 +51,9 @@ public class Product {
 
     @Column(nullable = false, updatable = false)
     private Instant createdAt;
+
+    // sube en cada UPDATE; base de los ETag (VersionStamp)
+    @Version
+    @JsonIgnore
+    private long version;
 }
@@ -1,5 +1,6 @@
 package com.redthread.catalog.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -28,4 +29,9 @@ public class ProductImage {
 
     @Column(name="created_at", nullable=false)
     private Instant createdAt = Instant.now();
+
+    // sube en cada UPDATE; base de los ETag (VersionStamp)
+    @Version
+    @JsonIgnore
+    private long version;
 }
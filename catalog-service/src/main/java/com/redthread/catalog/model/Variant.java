@@ -70,6 +70,11 @@ public class Variant {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt = Instant.now();
 
+    // sube en cada UPDATE; base de los ETag (VersionStamp)
+    @Version
+    @JsonIgnore
+    private long version;
+
     // ==========================
     // Campos "virtuales" para JSON
     // ==========================
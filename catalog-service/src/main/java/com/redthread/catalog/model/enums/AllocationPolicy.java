@@ -0,0 +1,7 @@
+package com.redthread.catalog.model.enums;
+
+public enum AllocationPolicy {
+    NEAREST,        // más cerca del destino primero
+    MOST_STOCK,     // ubicaciones con más stock primero
+    FEWEST_SPLITS   // una sola ubicación si alcanza; si no, la menor cantidad posible
+}
@@ -0,0 +1,9 @@
+package com.redthread.catalog.model.enums;
+
+/** Entidades que viajan en la sincronización incremental (GET /catalog/changes). */
+public enum CatalogEntityType {
+    PRODUCT,
+    VARIANT,
+    INVENTORY,          // entity_id = variant_id
+    IMAGE
+}
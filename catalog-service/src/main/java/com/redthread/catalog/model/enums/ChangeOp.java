@@ -0,0 +1,6 @@
+package com.redthread.catalog.model.enums;
+
+public enum ChangeOp {
+    UPSERT,
+    DELETE
+}
@@ -0,0 +1,10 @@
+package com.redthread.catalog.model.enums;
+
+public enum MovementReason {
+    ADJUST,             // POST /inventory/adjust y adjust-batch
+    BUFFERED_ADJUST,    // suma de ajustes aplicada por el buffer de escritura
+    RESERVE,
+    COMMIT,
+    RELEASE,
+    EXPIRE
+}
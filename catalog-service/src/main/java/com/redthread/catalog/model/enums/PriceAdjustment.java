@@ -0,0 +1,6 @@
+package com.redthread.catalog.model.enums;
+
+/** PERCENT: -20 = 20% menos. AMOUNT: se suma al precio (negativo para bajar). */
+public enum PriceAdjustment {
+    PERCENT, AMOUNT
+}
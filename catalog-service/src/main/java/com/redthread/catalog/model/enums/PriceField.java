@@ -0,0 +1,6 @@
+package com.redthread.catalog.model.enums;
+
+/** Precio que modifica un job: el del producto o el override de sus variantes. */
+public enum PriceField {
+    BASE_PRICE, PRICE_OVERRIDE
+}
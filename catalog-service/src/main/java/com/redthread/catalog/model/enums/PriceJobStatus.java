@@ -0,0 +1,5 @@
+package com.redthread.catalog.model.enums;
+
+public enum PriceJobStatus {
+    PENDING, RUNNING, DONE, FAILED, CANCELLED
+}
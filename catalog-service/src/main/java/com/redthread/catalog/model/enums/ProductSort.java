@@ -0,0 +1,12 @@
+package com.redthread.catalog.model.enums;
+
+/**
+ * Órdenes soportados por el listado paginado de productos.
+ * Todos desempatan por id para que el cursor (keyset) sea estable.
+ */
+public enum ProductSort {
+    NEWEST,
+    PRICE_ASC,
+    PRICE_DESC,
+    NAME
+}
@@ -0,0 +1,5 @@
+package com.redthread.catalog.model.enums;
+
+public enum ReservationStatus {
+    HELD, COMMITTED, RELEASED, EXPIRED
+}
@@ -0,0 +1,7 @@
+package com.redthread.catalog.model.enums;
+
+public enum SuggestionType {
+    PRODUCT,
+    BRAND,
+    CATEGORY
+}
@@ -2,8 +2,17 @@ package com.redthread.catalog.repository;
 
 import com.redthread.catalog.model.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.Optional;
 
 public interface BrandRepository extends JpaRepository<Brand, Long> {
     Optional<Brand> findByNameIgnoreCase(String name);
+
+    /** ETag de GET /brands. */
+    @Query("""
+            select new com.redthread.catalog.repository.VersionStamp(
+                count(b), coalesce(sum(b.id), 0L), coalesce(sum(b.version), 0L))
+            from Brand b
+            """)
+    VersionStamp stampAll();
 }
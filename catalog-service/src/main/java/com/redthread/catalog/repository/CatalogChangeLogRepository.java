@@ -0,0 +1,109 @@
+package com.redthread.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mantención de catalog_changes: publicar (asignar seq en orden de commit),
+ * compactar y podar bajas. Todo toma el lock de la fila de
+ * catalog_change_state, así que con varias instancias corre uno a la vez.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogChangeLogRepository {
+
+    private final JdbcTemplate jdbc;
+
+    /** Último seq publicado: el token más nuevo que puede recibir un cliente. */
+    public long head() {
+        return jdbc.queryForObject("SELECT last_seq FROM catalog_change_state WHERE id = 1", Long.class);
+    }
+
+    /** Un token menor a esto (y distinto de 0) perdió bajas: debe recargar desde el snapshot. */
+    public long prunedThrough() {
+        return jdbc.queryForObject("SELECT pruned_through FROM catalog_change_state WHERE id = 1", Long.class);
+    }
+
+    /**
+     * Asigna seq a hasta batchSize filas confirmadas sin publicar. Una fila
+     * de una transacción aún abierta no se ve aquí y recibe un seq mayor en
+     * una pasada posterior, nunca uno que un cliente ya dejó atrás.
+     *
+     * @return filas publicadas
+     */
+    @Transactional
+    public int publish(int batchSize) {
+        long last = lockState("last_seq");
+        List<Long> ids = jdbc.queryForList(
+                "SELECT id FROM catalog_changes WHERE seq IS NULL ORDER BY id LIMIT ?", Long.class, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{++last, id});
+        }
+        jdbc.batchUpdate("UPDATE catalog_changes SET seq = ? WHERE id = ?", args);
+        jdbc.update("UPDATE catalog_change_state SET last_seq = ? WHERE id = 1", last);
+        return ids.size();
+    }
+
+    /**
+     * Borra las versiones reemplazadas de las entidades que cambiaron en
+     * los siguientes window seq sin compactar. La respuesta de /changes ya
+     * usa solo el último cambio por entidad y ese queda con seq mayor, así
+     * que ningún token pierde nada.
+     *
+     * @return true si quedó compactado hasta el head
+     */
+    @Transactional
+    public boolean compact(long window) {
+        long from = lockState("compacted_through");
+        long to = Math.min(from + window, head());
+        if (to <= from) {
+            return true;
+        }
+        jdbc.update("""
+                DELETE FROM catalog_changes
+                 WHERE (entity_type, entity_id) IN (
+                        SELECT entity_type, entity_id FROM catalog_changes WHERE seq > ? AND seq <= ?)
+                   AND seq < (SELECT MAX(n.seq) FROM catalog_changes n
+                               WHERE n.entity_type = catalog_changes.entity_type
+                                 AND n.entity_id = catalog_changes.entity_id)
+                """, from, to);
+        jdbc.update("UPDATE catalog_change_state SET compacted_through = ? WHERE id = 1", to);
+        return to == head();
+    }
+
+    /**
+     * Borra las bajas publicadas antes de before y sube pruned_through
+     * hasta el seq de la última. Tras compactar, una baja es la única fila
+     * que queda de su entidad: sin esto el registro no deja de crecer.
+     *
+     * @return bajas borradas
+     */
+    @Transactional
+    public int pruneTombstones(Instant before) {
+        long pruned = lockState("pruned_through");
+        Long upTo = jdbc.queryForObject(
+                "SELECT MAX(seq) FROM catalog_changes WHERE op = 'DELETE' AND created_at < ?",
+                Long.class, Timestamp.from(before));
+        if (upTo == null || upTo <= pruned) {
+            return 0;
+        }
+        int deleted = jdbc.update("DELETE FROM catalog_changes WHERE op = 'DELETE' AND seq <= ?", upTo);
+        jdbc.update("UPDATE catalog_change_state SET pruned_through = ? WHERE id = 1", upTo);
+        return deleted;
+    }
+
+    private long lockState(String column) {
+        return jdbc.queryForObject("SELECT " + column + " FROM catalog_change_state WHERE id = 1 FOR UPDATE", Long.class);
+    }
+}
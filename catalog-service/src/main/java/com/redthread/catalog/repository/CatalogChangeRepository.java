@@ -0,0 +1,62 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.CatalogChange;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Registro de cambios para GET /catalog/changes. Las escrituras son
+ * INSERT directos dentro de la transacción de quien cambia el catálogo:
+ * si el cambio hace rollback, su registro también. (@Transactional se une
+ * a la transacción del llamador; solo abre una si no la hay.)
+ */
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    @Transactional
+    @Modifying
+    @Query("""
+            insert into CatalogChange (entityType, entityId, op, createdAt)
+            values (:type, :entityId, :op, :now)
+            """)
+    int record(CatalogEntityType type, Long entityId, ChangeOp op, Instant now);
+
+    /**
+     * Stock de varias variantes con un solo INSERT ... SELECT. Sale de
+     * variants y no de inventory: se llama antes del UPDATE de stock, y en
+     * el primer ajuste de una variante su fila de inventario aún no existe.
+     */
+    @Transactional
+    @Modifying
+    @Query("""
+            insert into CatalogChange (entityType, entityId, op, createdAt)
+            select com.redthread.catalog.model.enums.CatalogEntityType.INVENTORY, v.id,
+                   com.redthread.catalog.model.enums.ChangeOp.UPSERT, :now
+            from Variant v where v.id in :variantIds
+            """)
+    int recordInventory(Collection<Long> variantIds, Instant now);
+
+    /** El JSON de producto lleva el nombre de la categoría. */
+    @Transactional
+    @Modifying
+    @Query("""
+            insert into CatalogChange (entityType, entityId, op, createdAt)
+            select com.redthread.catalog.model.enums.CatalogEntityType.PRODUCT, p.id,
+                   com.redthread.catalog.model.enums.ChangeOp.UPSERT, :now
+            from Product p where p.category.id = :categoryId
+            """)
+    int recordProductsOfCategory(Long categoryId, Instant now);
+
+    /** Cambios publicados después de afterSeq (ver CatalogChangeLogRepository.publish). */
+    List<CatalogChange> findBySeqGreaterThanOrderBySeq(long afterSeq, Limit limit);
+
+    long countBySeqGreaterThan(long afterSeq);
+}
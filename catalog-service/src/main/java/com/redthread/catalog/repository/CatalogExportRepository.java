@@ -0,0 +1,79 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.CatalogExportRowDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.sql.DataSource;
+import java.util.function.Consumer;
+
+/**
+ * Lectura del catálogo completo (activo e inactivo) para GET /catalog/export.
+ *
+ * Un SELECT plano producto + variante ordenado por (product_id, variant_id)
+ * y filtrado por keyset: una descarga cortada se retoma desde la última
+ * fila recibida sin releer lo anterior. Igual que el snapshot, necesita
+ * transacción para que PostgreSQL respete el fetchSize y traiga el
+ * resultado por tandas.
+ */
+@Repository
+public class CatalogExportRepository {
+
+    static final int FETCH_SIZE = 5_000;
+
+    private static final String SQL = """
+            SELECT p.id, p.name, c.name, b.name, p.base_price, p.gender, p.featured, p.active,
+                   (SELECT img.public_url FROM product_images img
+                     WHERE img.product_id = p.id
+                     ORDER BY img.is_primary DESC, img.sort_order, img.id
+                     LIMIT 1),
+                   v.id, v.size_type, v.size_value, v.color, v.sku,
+                   COALESCE(v.price_override, p.base_price), v.active,
+                   i.stock_available, i.stock_reserved
+              FROM products p
+              JOIN categories c ON c.id = p.category_id
+              LEFT JOIN brands b ON b.id = p.brand_id
+              LEFT JOIN variants v ON v.product_id = p.id
+              LEFT JOIN inventory i ON i.variant_id = v.id
+             WHERE p.id >= ?
+               AND (p.id > ? OR v.id > ?)
+             ORDER BY p.id, v.id
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public CatalogExportRepository(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Entrega cada fila posterior a (afterProductId, afterVariantId).
+     * afterVariantId null = el producto afterProductId ya llegó completo.
+     */
+    public void stream(long afterProductId, Long afterVariantId, Consumer<CatalogExportRowDto> sink) {
+        // sin variante de referencia se salta el producto entero (v.id > MAX nunca se cumple)
+        long variantFloor = afterVariantId != null ? afterVariantId : Long.MAX_VALUE;
+        jdbc.query(SQL, rs -> {
+            sink.accept(new CatalogExportRowDto(
+                    rs.getLong(1),
+                    rs.getString(2),
+                    rs.getString(3),
+                    rs.getString(4),
+                    rs.getBigDecimal(5),
+                    rs.getString(6),
+                    rs.getBoolean(7),
+                    rs.getBoolean(8),
+                    rs.getString(9),
+                    rs.getObject(10, Long.class),
+                    rs.getString(11),
+                    rs.getString(12),
+                    rs.getString(13),
+                    rs.getString(14),
+                    rs.getBigDecimal(15),
+                    rs.getObject(16, Boolean.class),
+                    rs.getObject(17, Integer.class),
+                    rs.getObject(18, Integer.class)));
+        }, afterProductId, afterProductId, variantFloor);
+    }
+}
@@ -0,0 +1,287 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.Location;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Escrituras de la importación masiva (y de la matriz de variantes de
+ * POST /products/{id}/variants/matrix) con batch JDBC: productos,
+ * variantes, inventario y catalog_changes en un round-trip por tabla y
+ * tanda. Las entidades usan IDENTITY, con lo que Hibernate no puede
+ * agrupar los INSERT; aquí los ids vuelven por getGeneratedKeys del batch.
+ *
+ * Participa de la transacción en curso (misma conexión).
+ */
+@Repository
+@RequiredArgsConstructor
+public class CatalogImportRepository {
+
+    public record NewProduct(Long categoryId, Long brandId, String name, String description,
+                             BigDecimal basePrice, boolean featured, ProductGender gender) {}
+
+    public record NewVariant(Long productId, SizeType sizeType, String sizeValue, String color,
+                             String sku, BigDecimal priceOverride, int stock) {}
+
+    /** Combinaciones ({@link #comboKey}) del producto y SKUs pedidos que ya existen. */
+    public record Taken(Set<String> combos, Set<String> skus) {}
+
+    private static final String INSERT_PRODUCT = """
+            INSERT INTO products (category_id, brand_id, name, description, base_price, active, featured, gender, created_at)
+            VALUES (?, ?, ?, ?, ?, TRUE, ?, ?, ?)
+            """;
+
+    private static final String INSERT_VARIANT = """
+            INSERT INTO variants (product_id, size_type, size_value, color, sku, price_override, active, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, TRUE, ?)
+            """;
+
+    private static final String INSERT_INVENTORY = """
+            INSERT INTO inventory (variant_id, stock_available, stock_reserved, updated_at)
+            VALUES (?, ?, 0, ?)
+            """;
+
+    // Stock físico inicial en la ubicación por defecto (ver V11)
+    private static final String INSERT_DEFAULT_LOCATION_STOCK = """
+            INSERT INTO location_stock (location_id, variant_id, stock_available, updated_at)
+            SELECT l.id, ?, ?, ? FROM locations l WHERE l.code = ?
+            """;
+
+    private static final String INSERT_CHANGE = """
+            INSERT INTO catalog_changes (entity_type, entity_id, op, created_at)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate named;
+
+    // ============================================================
+    // Referencias (se cargan una vez por importación)
+    // ============================================================
+
+    /** nombre en minúsculas → id */
+    public Map<String, Long> categoryIdsByName() {
+        return idsByName("SELECT id, name FROM categories");
+    }
+
+    public Map<String, Long> brandIdsByName() {
+        return idsByName("SELECT id, name FROM brands");
+    }
+
+    /** {@link #productKey} → id de los productos existentes. */
+    public Map<String, Long> productIdsByKey() {
+        Map<String, Long> out = new HashMap<>();
+        jdbc.query("SELECT id, category_id, brand_id, name FROM products", rs -> {
+            out.put(productKey(rs.getLong(2), rs.getObject(3, Long.class), rs.getString(4)), rs.getLong(1));
+        });
+        return out;
+    }
+
+    /** Un producto se identifica por categoría + marca + nombre (sin distinguir mayúsculas). */
+    public static String productKey(Long categoryId, Long brandId, String name) {
+        return categoryId + "|" + brandId + "|" + name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private Map<String, Long> idsByName(String sql) {
+        Map<String, Long> out = new HashMap<>();
+        jdbc.query(sql, rs -> {
+            out.put(rs.getString(2).trim().toLowerCase(Locale.ROOT), rs.getLong(1));
+        });
+        return out;
+    }
+
+    // ============================================================
+    // Chequeos por tanda
+    // ============================================================
+
+    public Set<String> existingSkus(Collection<String> skus) {
+        if (skus.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(named.queryForList(
+                "SELECT sku FROM variants WHERE sku IN (:skus)",
+                new MapSqlParameterSource("skus", skus),
+                String.class));
+    }
+
+    /** Combinaciones ya usadas, con la forma de {@link #comboKey}. */
+    public Set<String> existingCombos(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> out = new HashSet<>();
+        named.query(
+                "SELECT product_id, size_type, size_value, color FROM variants WHERE product_id IN (:ids)",
+                new MapSqlParameterSource("ids", productIds),
+                rs -> {
+                    out.add(comboKey(rs.getLong(1), SizeType.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4)));
+                });
+        return out;
+    }
+
+    /** Variantes del producto y SKUs ya usados (en cualquier producto) en una sola consulta. */
+    public Taken takenByProduct(Long productId, Collection<String> skus) {
+        Set<String> combos = new HashSet<>();
+        Set<String> usedSkus = new HashSet<>();
+        Set<String> wanted = new HashSet<>(skus);
+        named.query(
+                "SELECT product_id, size_type, size_value, color, sku FROM variants WHERE product_id = :id OR sku IN (:skus)",
+                new MapSqlParameterSource("id", productId).addValue("skus", skus.isEmpty() ? List.of("") : skus),
+                rs -> {
+                    if (rs.getLong(1) == productId) {
+                        combos.add(comboKey(productId, SizeType.valueOf(rs.getString(2)), rs.getString(3), rs.getString(4)));
+                    }
+                    if (wanted.contains(rs.getString(5))) {
+                        usedSkus.add(rs.getString(5));
+                    }
+                });
+        return new Taken(combos, usedSkus);
+    }
+
+    /** Misma unicidad que uq_variant (producto + talla + color). */
+    public static String comboKey(Long productId, SizeType sizeType, String sizeValue, String color) {
+        return productId + "|" + sizeType + "|" + sizeValue + "|" + color;
+    }
+
+    // ============================================================
+    // INSERT en batch
+    // ============================================================
+
+    /** Ids generados, en el orden de la lista. */
+    public List<Long> insertProducts(List<NewProduct> products, Instant now) {
+        Timestamp ts = Timestamp.from(now);
+        return insertReturningIds(INSERT_PRODUCT, products.size(), (ps, i) -> {
+            NewProduct p = products.get(i);
+            ps.setLong(1, p.categoryId());
+            setLongOrNull(ps, 2, p.brandId());
+            ps.setString(3, p.name());
+            ps.setString(4, p.description());
+            ps.setBigDecimal(5, p.basePrice());
+            ps.setBoolean(6, p.featured());
+            ps.setString(7, p.gender().name());
+            ps.setTimestamp(8, ts);
+        });
+    }
+
+    /** Inserta las variantes y su inventario; devuelve los ids de variante en orden. */
+    public List<Long> insertVariants(List<NewVariant> variants, Instant now) {
+        Timestamp ts = Timestamp.from(now);
+        List<Long> ids = insertReturningIds(INSERT_VARIANT, variants.size(), (ps, i) -> {
+            NewVariant v = variants.get(i);
+            ps.setLong(1, v.productId());
+            ps.setString(2, v.sizeType().name());
+            ps.setString(3, v.sizeValue());
+            ps.setString(4, v.color());
+            ps.setString(5, v.sku());
+            ps.setBigDecimal(6, v.priceOverride());
+            ps.setTimestamp(7, ts);
+        });
+
+        List<Object[]> stock = new ArrayList<>(ids.size());
+        Map<Long, Integer> initial = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            stock.add(new Object[]{ids.get(i), variants.get(i).stock(), ts});
+            initial.put(ids.get(i), variants.get(i).stock());
+        }
+        jdbc.batchUpdate(INSERT_INVENTORY, stock);
+        placeInDefaultLocation(initial, now);
+        return ids;
+    }
+
+    /**
+     * El stock inicial de una variante nueva también es stock físico: queda
+     * en la ubicación por defecto, así la suma de location_stock sigue al
+     * total de inventory desde el alta.
+     */
+    public void placeInDefaultLocation(Map<Long, Integer> stockByVariant, Instant now) {
+        Timestamp ts = Timestamp.from(now);
+        List<Object[]> args = new ArrayList<>(stockByVariant.size());
+        stockByVariant.forEach((variantId, stock) -> {
+            if (stock > 0) {
+                args.add(new Object[]{variantId, stock, ts, Location.DEFAULT_CODE});
+            }
+        });
+        if (!args.isEmpty()) {
+            jdbc.batchUpdate(INSERT_DEFAULT_LOCATION_STOCK, args);
+        }
+    }
+
+    /** Altas para GET /catalog/changes, en la misma transacción. */
+    public void recordChanges(CatalogEntityType type, List<Long> ids, Instant now) {
+        Timestamp ts = Timestamp.from(now);
+        List<Object[]> args = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            args.add(new Object[]{type.name(), id, ChangeOp.UPSERT.name(), ts});
+        }
+        jdbc.batchUpdate(INSERT_CHANGE, args);
+    }
+
+    @FunctionalInterface
+    private interface RowSetter {
+        void set(PreparedStatement ps, int i) throws SQLException;
+    }
+
+    private List<Long> insertReturningIds(String sql, int size, RowSetter setter) {
+        if (size == 0) {
+            return List.of();
+        }
+        GeneratedKeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(
+                con -> con.prepareStatement(sql, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.set(ps, i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                },
+                keys);
+
+        List<Long> ids = new ArrayList<>(size);
+        for (Map<String, Object> row : keys.getKeyList()) {
+            Object id = row.size() == 1 ? row.values().iterator().next() : row.get("id");
+            ids.add(((Number) id).longValue());
+        }
+        if (ids.size() != size) {
+            throw new IllegalStateException("El driver devolvió " + ids.size() + " ids para " + size + " filas");
+        }
+        return ids;
+    }
+
+    private static void setLongOrNull(PreparedStatement ps, int index, Long value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BIGINT);
+        } else {
+            ps.setLong(index, value);
+        }
+    }
+}
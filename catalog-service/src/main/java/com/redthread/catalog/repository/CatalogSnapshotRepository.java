@@ -0,0 +1,111 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.SnapshotProductDto;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Lectura del catálogo activo para el snapshot, fila a fila.
+ *
+ * Un solo SELECT ordenado por producto y variante; las filas se agrupan
+ * por producto y cada uno se entrega apenas se cierra, así en memoria
+ * vive un producto a la vez sin importar el tamaño del catálogo. Con
+ * fetchSize y dentro de una transacción el driver de PostgreSQL trae el
+ * resultado por tandas (con autocommit lo trae entero).
+ */
+@Repository
+public class CatalogSnapshotRepository {
+
+    static final int FETCH_SIZE = 1_000;
+
+    private static final String SQL = """
+            SELECT p.id, p.name, p.description, p.base_price, p.featured, p.gender,
+                   p.category_id, c.name, p.brand_id, b.name,
+                   (SELECT img.public_url FROM product_images img
+                     WHERE img.product_id = p.id
+                     ORDER BY img.is_primary DESC, img.sort_order, img.id
+                     LIMIT 1),
+                   v.id, v.size_type, v.size_value, v.color, v.sku,
+                   COALESCE(v.price_override, p.base_price),
+                   COALESCE(i.stock_available - i.stock_reserved, 0)
+              FROM products p
+              JOIN categories c ON c.id = p.category_id
+              LEFT JOIN brands b ON b.id = p.brand_id
+              LEFT JOIN variants v ON v.product_id = p.id AND v.active = TRUE
+              LEFT JOIN inventory i ON i.variant_id = v.id
+             WHERE p.active = TRUE
+             ORDER BY p.id, v.id
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public CatalogSnapshotRepository(DataSource dataSource) {
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.jdbc.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * Entrega cada producto activo, en orden de id; devuelve cuántos fueron.
+     * Sin readOnly: va al primario, como el head que fija la versión del
+     * archivo (una réplica atrasada dejaría contenido anterior a su token).
+     */
+    @Transactional
+    public long streamActiveProducts(Consumer<SnapshotProductDto> sink) {
+        Grouper grouper = new Grouper(sink);
+        jdbc.query(SQL, rs -> {
+            long productId = rs.getLong(1);
+            if (grouper.current == null || grouper.current.id() != productId) {
+                grouper.flush();
+                grouper.current = new SnapshotProductDto(
+                        productId,
+                        rs.getString(2),
+                        rs.getString(3),
+                        rs.getBigDecimal(4),
+                        rs.getBoolean(5),
+                        rs.getString(6),
+                        rs.getLong(7),
+                        rs.getString(8),
+                        rs.getObject(9, Long.class),
+                        rs.getString(10),
+                        rs.getString(11),
+                        new ArrayList<>());
+            }
+            Long variantId = rs.getObject(12, Long.class);
+            if (variantId != null) {
+                grouper.current.variants().add(new SnapshotProductDto.Variant(
+                        variantId,
+                        rs.getString(13),
+                        rs.getString(14),
+                        rs.getString(15),
+                        rs.getString(16),
+                        rs.getBigDecimal(17),
+                        rs.getInt(18)));
+            }
+        });
+        grouper.flush();
+        return grouper.count;
+    }
+
+    private static final class Grouper {
+        private final Consumer<SnapshotProductDto> sink;
+        private SnapshotProductDto current;
+        private long count;
+
+        Grouper(Consumer<SnapshotProductDto> sink) {
+            this.sink = sink;
+        }
+
+        void flush() {
+            if (current != null) {
+                sink.accept(current);
+                current = null;
+                count++;
+            }
+        }
+    }
+}
@@ -2,8 +2,17 @@ package com.redthread.catalog.repository;
 
 import com.redthread.catalog.model.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.Optional;
 
 public interface CategoryRepository extends JpaRepository<Category, Long> {
     Optional<Category> findByNameIgnoreCase(String name);
+
+    /** ETag de GET /categories. */
+    @Query("""
+            select new com.redthread.catalog.repository.VersionStamp(
+                count(c), coalesce(sum(c.id), 0L), coalesce(sum(c.version), 0L))
+            from Category c
+            """)
+    VersionStamp stampAll();
 }
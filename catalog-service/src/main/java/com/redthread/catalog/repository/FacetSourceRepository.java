@@ -0,0 +1,100 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.enums.ProductGender;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Columnas que usan las facetas del listado, leídas con SQL plano: solo
+ * lo que filtra {@link ProductSpecifications}, sin cargar entidades.
+ *
+ * Las variantes inactivas no se traen (el filtro de variante las ignora);
+ * inStock es disponible - reservado > 0, igual que el filtro inStock.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FacetSourceRepository {
+
+    public record ProductRow(long id, long categoryId, Long brandId, ProductGender gender,
+                             boolean featured, BigDecimal basePrice) {}
+
+    public record VariantRow(long id, long productId, String size, String color, boolean inStock) {}
+
+    private static final String PRODUCTS_SQL = """
+            SELECT p.id, p.category_id, p.brand_id, p.gender, p.featured, p.base_price
+              FROM products p
+            """;
+
+    private static final String VARIANTS_SQL = """
+            SELECT v.id, v.product_id, v.size_value, v.color,
+                   COALESCE(i.stock_available - i.stock_reserved, 0) > 0 AS in_stock
+              FROM variants v
+              LEFT JOIN inventory i ON i.variant_id = v.id
+             WHERE v.active = TRUE
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public List<ProductRow> products() {
+        return jdbc.query(PRODUCTS_SQL, PRODUCT);
+    }
+
+    public List<VariantRow> variants() {
+        return jdbc.query(VARIANTS_SQL, VARIANT);
+    }
+
+    public Optional<ProductRow> product(long id) {
+        return jdbc.query(PRODUCTS_SQL + " WHERE p.id = ?", PRODUCT, id).stream().findFirst();
+    }
+
+    public List<VariantRow> variantsOf(long productId) {
+        return jdbc.query(VARIANTS_SQL + " AND v.product_id = ?", VARIANT, productId);
+    }
+
+    public Map<Long, String> categoryNames() {
+        return names("SELECT id, name FROM categories");
+    }
+
+    public Map<Long, String> brandNames() {
+        return names("SELECT id, name FROM brands");
+    }
+
+    public Optional<String> categoryName(long id) {
+        return jdbc.queryForList("SELECT name FROM categories WHERE id = ?", String.class, id).stream().findFirst();
+    }
+
+    public Optional<String> brandName(long id) {
+        return jdbc.queryForList("SELECT name FROM brands WHERE id = ?", String.class, id).stream().findFirst();
+    }
+
+    private Map<Long, String> names(String sql) {
+        Map<Long, String> out = new HashMap<>();
+        jdbc.query(sql, rs -> {
+            out.put(rs.getLong(1), rs.getString(2));
+        });
+        return out;
+    }
+
+    private static final RowMapper<ProductRow> PRODUCT = (rs, i) -> new ProductRow(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getObject(3, Long.class),
+            ProductGender.valueOf(rs.getString(4)),
+            rs.getBoolean(5),
+            rs.getBigDecimal(6));
+
+    private static final RowMapper<VariantRow> VARIANT = (rs, i) -> new VariantRow(
+            rs.getLong(1),
+            rs.getLong(2),
+            rs.getString(3),
+            rs.getString(4),
+            rs.getBoolean(5));
+}
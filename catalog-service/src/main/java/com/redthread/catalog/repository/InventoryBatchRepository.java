@@ -0,0 +1,124 @@
+package com.redthread.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Ajustes de inventario en lote con JDBC: un solo round-trip para N variantes.
+ * Participa de la transacción JPA en curso (misma conexión).
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryBatchRepository {
+
+    public record StockLevel(Long variantId, int stockAvailable, int stockReserved) {}
+
+    private static final String ADJUST_SQL = """
+            UPDATE inventory
+               SET stock_available = stock_available + ?, updated_at = ?
+             WHERE variant_id = ?
+               AND stock_available - stock_reserved >= ?
+               AND stock_available <= ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate named;
+
+    /**
+     * Mismo UPDATE condicional que InventoryRepository.adjust, en batch.
+     * Las filas se actualizan en el orden del mapa recibido: el llamador
+     * lo entrega ordenado por variant_id para que dos lotes concurrentes
+     * tomen los locks en el mismo orden.
+     *
+     * @return filas afectadas por variante, en el mismo orden
+     */
+    public int[] adjust(Map<Long, Integer> deltaByVariant, Instant now) {
+        Timestamp ts = Timestamp.from(now);
+        List<Object[]> args = new ArrayList<>(deltaByVariant.size());
+        for (Map.Entry<Long, Integer> e : deltaByVariant.entrySet()) {
+            int delta = e.getValue();
+            int need = delta < 0 ? -delta : 0;
+            int maxBefore = delta > 0 ? Integer.MAX_VALUE - delta : Integer.MAX_VALUE;
+            args.add(new Object[]{delta, ts, e.getKey(), need, maxBefore});
+        }
+        return jdbc.batchUpdate(ADJUST_SQL, args);
+    }
+
+    /**
+     * Crea en 0 la fila de inventario de las variantes que aún no la tienen.
+     * ON CONFLICT DO NOTHING: si otra transacción la crea a la vez, esta no
+     * falla por el UNIQUE (variant_id) y el UPDATE posterior ve esa fila.
+     * Las variantes que no existen no generan fila.
+     */
+    public void createMissing(Collection<Long> variantIds, Instant now) {
+        named.update("""
+                        INSERT INTO inventory (variant_id, stock_available, stock_reserved, updated_at)
+                        SELECT v.id, 0, 0, :now FROM variants v WHERE v.id IN (:ids)
+                        ON CONFLICT DO NOTHING
+                        """,
+                new MapSqlParameterSource("ids", variantIds).addValue("now", Timestamp.from(now)));
+    }
+
+    // ============================================================
+    // Checkpoint del buffer de escritura (una fila por nodo)
+    // ============================================================
+
+    public Optional<Long> findCheckpoint(String nodeId) {
+        return jdbc.query(
+                "SELECT segment_seq FROM inventory_buffer_checkpoints WHERE node_id = ?",
+                (rs, i) -> rs.getLong(1),
+                nodeId).stream().findFirst();
+    }
+
+    /** Solo el flusher del propio nodo escribe su fila: update y si no existe, insert. */
+    public void saveCheckpoint(String nodeId, long segmentSeq, Instant now) {
+        Timestamp ts = Timestamp.from(now);
+        int updated = jdbc.update(
+                "UPDATE inventory_buffer_checkpoints SET segment_seq = ?, updated_at = ? WHERE node_id = ?",
+                segmentSeq, ts, nodeId);
+        if (updated == 0) {
+            jdbc.update(
+                    "INSERT INTO inventory_buffer_checkpoints (node_id, segment_seq, updated_at) VALUES (?, ?, ?)",
+                    nodeId, segmentSeq, ts);
+        }
+    }
+
+    /** Dead-letter de los deltas que la BD rechazó; misma transacción que el checkpoint. */
+    public void saveRejections(String nodeId, long segmentSeq, Map<Long, Integer> deltaByVariant, Instant now) {
+        if (deltaByVariant.isEmpty()) {
+            return;
+        }
+        Timestamp ts = Timestamp.from(now);
+        List<Object[]> args = new ArrayList<>(deltaByVariant.size());
+        deltaByVariant.forEach((variantId, delta) -> args.add(new Object[]{nodeId, segmentSeq, variantId, delta, ts}));
+        jdbc.batchUpdate(
+                "INSERT INTO inventory_buffer_rejections (node_id, segment_seq, variant_id, delta, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?)",
+                args);
+    }
+
+    public List<StockLevel> findLevels(Collection<Long> variantIds) {
+        if (variantIds.isEmpty()) {
+            return List.of();
+        }
+        return named.query(
+                "SELECT variant_id, stock_available, stock_reserved FROM inventory"
+                        + " WHERE variant_id IN (:ids) ORDER BY variant_id",
+                new MapSqlParameterSource("ids", variantIds),
+                (rs, i) -> new StockLevel(
+                        rs.getLong("variant_id"),
+                        rs.getInt("stock_available"),
+                        rs.getInt("stock_reserved")));
+    }
+}
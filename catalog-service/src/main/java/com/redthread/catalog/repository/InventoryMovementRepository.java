@@ -0,0 +1,80 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.InventoryMovementDto;
+import com.redthread.catalog.model.enums.MovementReason;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Historial append-only de inventario. Se escribe con batch JDBC: un lote por
+ * operación (ajuste, reserva, flush del buffer), dentro de su transacción.
+ * No es la fuente del stock: el valor vigente sigue en inventory.
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryMovementRepository {
+
+    public record Movement(
+            Long variantId,
+            int deltaAvailable,
+            int deltaReserved,
+            MovementReason reason,
+            String reference,
+            String reservationId
+    ) {}
+
+    private static final String INSERT_SQL = """
+            INSERT INTO inventory_movements
+                (variant_id, delta_available, delta_reserved, reason, reference, reservation_id, created_at)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public void appendAll(List<Movement> movements, Instant at) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Timestamp ts = Timestamp.from(at);
+        List<Object[]> args = new ArrayList<>(movements.size());
+        for (Movement m : movements) {
+            args.add(new Object[]{
+                    m.variantId(), m.deltaAvailable(), m.deltaReserved(),
+                    m.reason().name(), m.reference(), m.reservationId(), ts
+            });
+        }
+        jdbc.batchUpdate(INSERT_SQL, args);
+    }
+
+    /** Keyset por id descendente: beforeId null = desde el más reciente. */
+    public List<InventoryMovementDto> findPage(Long variantId, Long beforeId, int limit) {
+        String sql = """
+                SELECT id, variant_id, delta_available, delta_reserved, reason, reference, reservation_id, created_at
+                  FROM inventory_movements
+                 WHERE variant_id = ?
+                """
+                + (beforeId != null ? " AND id < ?" : "")
+                + " ORDER BY id DESC LIMIT ?";
+
+        Object[] params = beforeId != null
+                ? new Object[]{variantId, beforeId, limit}
+                : new Object[]{variantId, limit};
+
+        return jdbc.query(sql, (rs, i) -> new InventoryMovementDto(
+                rs.getLong("id"),
+                rs.getLong("variant_id"),
+                rs.getInt("delta_available"),
+                rs.getInt("delta_reserved"),
+                rs.getString("reason"),
+                rs.getString("reference"),
+                rs.getString("reservation_id"),
+                rs.getTimestamp("created_at").toInstant()
+        ), params);
+    }
+}
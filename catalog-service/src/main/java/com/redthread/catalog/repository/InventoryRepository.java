@@ -2,8 +2,59 @@ package com.redthread.catalog.repository;
 
 import com.redthread.catalog.model.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
 import java.util.Optional;
 
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     Optional<Inventory> findByVariantId(Long variantId);
+
+    /**
+     * stockAvailable += delta en la misma sentencia que valida.
+     * need = lo que debe quedar libre antes (-delta si es negativo, si no 0);
+     * maxBefore evita overflow del INT al sumar. Se escribe como resta para
+     * que la condición misma no pueda desbordar.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update Inventory i set i.stockAvailable = i.stockAvailable + :delta, i.updatedAt = :now
+            where i.variant.id = :variantId
+              and i.stockAvailable - i.stockReserved >= :need
+              and i.stockAvailable <= :maxBefore
+            """)
+    int adjust(Long variantId, int delta, int need, int maxBefore, Instant now);
+
+    // ============================================================
+    // Reservas: UPDATE condicionales, sin leer-modificar-escribir.
+    // 0 filas = la condición no se cumplió (o no hay inventario).
+    // ============================================================
+
+    @Modifying
+    @Query("""
+            update Inventory i set i.stockReserved = i.stockReserved + :qty, i.updatedAt = :now
+            where i.variant.id = :variantId and i.stockAvailable - i.stockReserved >= :qty
+            """)
+    int reserve(Long variantId, int qty, Instant now);
+
+    @Modifying
+    @Query("""
+            update Inventory i set i.stockReserved = i.stockReserved - :qty, i.updatedAt = :now
+            where i.variant.id = :variantId and i.stockReserved >= :qty
+            """)
+    int unreserve(Long variantId, int qty, Instant now);
+
+    /** Convierte lo reservado en venta: baja disponible y reservado a la vez. */
+    @Modifying
+    @Query("""
+            update Inventory i set i.stockAvailable = i.stockAvailable - :qty,
+                                   i.stockReserved = i.stockReserved - :qty,
+                                   i.updatedAt = :now
+            where i.variant.id = :variantId and i.stockReserved >= :qty
+            """)
+    int consumeReserved(Long variantId, int qty, Instant now);
+
+    @Query("select i.stockAvailable - i.stockReserved from Inventory i where i.variant.id = :variantId")
+    Optional<Integer> findFreeStock(Long variantId);
 }
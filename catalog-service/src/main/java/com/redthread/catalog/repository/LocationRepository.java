@@ -0,0 +1,13 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.Location;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface LocationRepository extends JpaRepository<Location, Long> {
+    Optional<Location> findByCodeIgnoreCase(String code);
+
+    List<Location> findAllByOrderByPriorityAscIdAsc();
+}
@@ -0,0 +1,56 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.PriceJob;
+import com.redthread.catalog.model.enums.PriceJobStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+public interface PriceJobRepository extends JpaRepository<PriceJob, Long> {
+
+    /** PENDING vencidos y RUNNING cuyo lease venció (la instancia que los tomó se cayó). */
+    @Query("""
+            select j.id from PriceJob j
+            where (j.status = com.redthread.catalog.model.enums.PriceJobStatus.PENDING and j.runAt <= :now)
+               or (j.status = com.redthread.catalog.model.enums.PriceJobStatus.RUNNING and j.leaseUntil < :now)
+            order by j.runAt, j.id
+            """)
+    List<Long> findDueIds(Instant now);
+
+    /**
+     * Saca un job de PENDING. Entre varias instancias (o scheduler y
+     * cancelación) solo una ve 1 fila.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update PriceJob j set j.status = :to
+            where j.id = :id and j.status = com.redthread.catalog.model.enums.PriceJobStatus.PENDING
+            """)
+    int claim(Long id, PriceJobStatus to);
+
+    /**
+     * Pasa a RUNNING un job PENDING, o uno RUNNING con el lease vencido.
+     * Como claim, solo una instancia ve 1 fila.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update PriceJob j
+               set j.status = com.redthread.catalog.model.enums.PriceJobStatus.RUNNING,
+                   j.claimToken = :token, j.leaseUntil = :leaseUntil, j.attempts = j.attempts + 1
+            where j.id = :id
+              and (j.status = com.redthread.catalog.model.enums.PriceJobStatus.PENDING
+                   or (j.status = com.redthread.catalog.model.enums.PriceJobStatus.RUNNING and j.leaseUntil < :now))
+            """)
+    int claimToRun(Long id, String token, Instant now, Instant leaseUntil);
+
+    /** Fila bloqueada hasta el commit: un reintento no la toma mientras se aplica. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select j from PriceJob j where j.id = :id")
+    Optional<PriceJob> findForUpdate(Long id);
+}
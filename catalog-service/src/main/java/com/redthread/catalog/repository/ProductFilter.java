@@ -0,0 +1,56 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.enums.ProductGender;
+
+import java.math.BigDecimal;
+
+/**
+ * Filtros combinables del listado de productos. Todos son opcionales
+ * (null = no filtra) y se traducen a predicados en {@link ProductSpecifications}.
+ *
+ * size, color e inStock se evalúan sobre la MISMA variante:
+ * "talla M, color NEGRO, con stock" exige una variante M/NEGRO con stock,
+ * no una M cualquiera y una NEGRO cualquiera.
+ */
+public record ProductFilter(
+        Long categoryId,
+        ProductGender gender,
+        Boolean featured,
+        Long brandId,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        String size,
+        String color,
+        Boolean inStock
+) {
+
+    public ProductFilter {
+        // las variantes se guardan en mayúsculas (ver VariantService)
+        size = normalize(size);
+        color = normalize(color);
+    }
+
+    public static ProductFilter none() {
+        return new ProductFilter(null, null, null, null, null, null, null, null, null);
+    }
+
+    public static ProductFilter of(Long categoryId, ProductGender gender, Boolean featured) {
+        return new ProductFilter(categoryId, gender, featured, null, null, null, null, null, null);
+    }
+
+    public boolean featuredOnly() {
+        return featured != null && featured;
+    }
+
+    public boolean inStockOnly() {
+        return inStock != null && inStock;
+    }
+
+    public boolean hasVariantFilter() {
+        return size != null || color != null || inStockOnly();
+    }
+
+    private static String normalize(String value) {
+        return (value == null || value.isBlank()) ? null : value.trim().toUpperCase();
+    }
+}
@@ -2,9 +2,18 @@ package com.redthread.catalog.repository;
 
 import com.redthread.catalog.model.*;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
 
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
     List<ProductImage> findByProductIdOrderBySortOrderAsc(Long productId);
-}
 
+    /** ETag de GET /products/{id}/images. */
+    @Query("""
+            select new com.redthread.catalog.repository.VersionStamp(
+                count(i), coalesce(sum(i.id), 0L), coalesce(sum(i.version), 0L))
+            from ProductImage i
+            where i.product.id = :productId
+            """)
+    VersionStamp stampByProductId(Long productId);
+}
@@ -0,0 +1,76 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.model.enums.ProductSort;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Posición del último producto entregado en una página (keyset).
+ * Se serializa como un token opaco (base64url) para que el cliente
+ * solo lo devuelva tal cual en la siguiente petición.
+ *
+ * value es el valor de la columna de orden (createdAt, basePrice o name)
+ * y lastId el id del producto, que sirve de desempate.
+ */
+public record ProductKeyset(ProductSort sort, String value, Long lastId) {
+
+    private static final char SEP = '|';
+
+    public static ProductKeyset after(ProductSort sort, ProductSummaryDto last) {
+        String value = switch (sort) {
+            case NEWEST -> last.createdAt().toString();
+            case PRICE_ASC, PRICE_DESC -> last.basePrice().toPlainString();
+            case NAME -> last.name();
+        };
+        return new ProductKeyset(sort, value, last.id());
+    }
+
+    public Instant instantValue() {
+        return Instant.parse(value);
+    }
+
+    public BigDecimal decimalValue() {
+        return new BigDecimal(value);
+    }
+
+    public String encode() {
+        // el nombre va al final porque puede contener el separador
+        String raw = sort.name() + SEP + lastId + SEP + value;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException si el token no es válido
+     */
+    public static ProductKeyset decode(String token) {
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+
+        int first = raw.indexOf(SEP);
+        int second = raw.indexOf(SEP, first + 1);
+        if (first < 0 || second < 0) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+
+        ProductSort sort = ProductSort.valueOf(raw.substring(0, first));
+        Long lastId = Long.valueOf(raw.substring(first + 1, second));
+        ProductKeyset keyset = new ProductKeyset(sort, raw.substring(second + 1), lastId);
+
+        // validamos que el valor tenga el tipo que espera el orden
+        try {
+            switch (sort) {
+                case NEWEST -> keyset.instantValue();
+                case PRICE_ASC, PRICE_DESC -> keyset.decimalValue();
+                case NAME -> { }
+            }
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Cursor inválido", ex);
+        }
+        return keyset;
+    }
+}
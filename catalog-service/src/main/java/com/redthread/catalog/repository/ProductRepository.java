@@ -1,49 +1,19 @@
 package com.redthread.catalog.repository;
 
 import com.redthread.catalog.model.Product;
-import com.redthread.catalog.model.enums.ProductGender;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
-
-    /**
-     * Siempre queremos que al listar productos vengan ya con
-     * category y brand cargados, porque spring.jpa.open-in-view=false
-     * y luego Jackson no puede inicializar proxys en la respuesta.
-     */
-
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findByCategoryId(Long categoryId);
-
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findByGender(ProductGender gender);
-
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findByFeaturedTrue();
-
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findByGenderAndFeaturedTrue(ProductGender gender);
-
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findByCategoryIdAndGender(Long categoryId, ProductGender gender);
-
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findByCategoryIdAndFeaturedTrue(Long categoryId);
-
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findByCategoryIdAndGenderAndFeaturedTrue(
-            Long categoryId,
-            ProductGender gender
-    );
-
-    // También sobre-escribimos findAll con EntityGraph
-    @Override
-    @EntityGraph(attributePaths = {"category", "brand"})
-    List<Product> findAll();
+/**
+ * Los listados con filtros van por {@link ProductRepositoryCustom}
+ * (predicados combinables en {@link ProductSpecifications}).
+ */
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     // ========= NUEVO: detalle con relaciones =========
     /**
@@ -52,4 +22,40 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @EntityGraph(attributePaths = {"category", "brand"})
     Optional<Product> findDetailById(Long id);
+
+    /** Productos de una búsqueda, con relaciones, en una sola consulta. */
+    @EntityGraph(attributePaths = {"category", "brand"})
+    List<Product> findWithRelationsByIdIn(Collection<Long> ids);
+
+    // ========= Índice de búsqueda (ProductSearchService) =========
+    @Query("""
+            select new com.redthread.catalog.repository.ProductSearchDoc(p.id, p.name, p.description, b.name, c.name)
+            from Product p join p.category c left join p.brand b
+            where p.active = true
+            """)
+    List<ProductSearchDoc> findSearchDocs();
+
+    @Query("""
+            select new com.redthread.catalog.repository.ProductSearchDoc(p.id, p.name, p.description, b.name, c.name)
+            from Product p join p.category c left join p.brand b
+            where p.id = :id and p.active = true
+            """)
+    Optional<ProductSearchDoc> findSearchDoc(Long id);
+
+    @Query("""
+            select new com.redthread.catalog.repository.ProductSearchDoc(p.id, p.name, p.description, b.name, c.name)
+            from Product p join p.category c left join p.brand b
+            where c.id = :categoryId and p.active = true
+            """)
+    List<ProductSearchDoc> findSearchDocsByCategoryId(Long categoryId);
+
+    // ========= ETag de GET /products/{id} =========
+    /** El JSON del producto lleva su categoría y su marca: sus versiones también cuentan. */
+    @Query("""
+            select new com.redthread.catalog.repository.VersionStamp(
+                count(p), coalesce(sum(p.id), 0L), coalesce(sum(p.version + c.version + coalesce(b.version, 0L)), 0L))
+            from Product p join p.category c left join p.brand b
+            where p.id = :id
+            """)
+    VersionStamp stampById(Long id);
 }
@@ -0,0 +1,42 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.model.enums.ProductSort;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ProductRepositoryCustom {
+
+    /**
+     * Todos los productos que cumplen el filtro, ordenados por id.
+     * Proyección de columnas (producto + categoría + marca en un SELECT):
+     * sin entidades administradas ni snapshots de dirty-checking.
+     */
+    List<ProductSummaryDto> findMatching(ProductFilter filter);
+
+    /**
+     * Igual que {@link #findMatching} pero fila a fila sobre un cursor con
+     * fetch size, para exportaciones: no se arma la lista. Debe consumirse
+     * y cerrarse dentro de una transacción.
+     */
+    Stream<ProductSummaryDto> streamMatching(ProductFilter filter);
+
+    /**
+     * Página de productos por keyset: en vez de OFFSET se filtra por
+     * "después del último elemento entregado", así el costo de cada página
+     * no depende de lo profundo que haya scrolleado el cliente.
+     *
+     * @param after posición de la página anterior (null = primera página)
+     * @param limit cantidad máxima de filas a traer
+     */
+    List<ProductSummaryDto> findPage(
+            ProductFilter filter,
+            ProductSort sort,
+            ProductKeyset after,
+            int limit
+    );
+
+    /** Huella (ETag) del mismo conjunto que {@link #findMatching}, sin cargarlo. */
+    VersionStamp stampMatching(ProductFilter filter);
+}
@@ -0,0 +1,186 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.ProductSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<ProductSummaryDto> findMatching(ProductFilter filter) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Product> p = cq.from(Product.class);
+
+        cq.multiselect(summaryColumns(p)).orderBy(cb.asc(p.get("id")));
+        where(cq, ProductSpecifications.matching(filter).toPredicate(p, cq, cb));
+
+        return em.createQuery(cq).getResultList().stream()
+                .map(ProductRepositoryCustomImpl::toSummary)
+                .toList();
+    }
+
+    @Override
+    public Stream<ProductSummaryDto> streamMatching(ProductFilter filter) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Product> p = cq.from(Product.class);
+
+        cq.multiselect(summaryColumns(p)).orderBy(cb.asc(p.get("id")));
+        where(cq, ProductSpecifications.matching(filter).toPredicate(p, cq, cb));
+
+        return em.createQuery(cq)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, CatalogSnapshotRepository.FETCH_SIZE)
+                .getResultStream()
+                .map(ProductRepositoryCustomImpl::toSummary);
+    }
+
+    @Override
+    public VersionStamp stampMatching(ProductFilter filter) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<VersionStamp> cq = cb.createQuery(VersionStamp.class);
+        Root<Product> p = cq.from(Product.class);
+        Join<Product, Category> c = p.join("category");
+        Join<Product, Brand> b = p.join("brand", JoinType.LEFT);
+
+        // el JSON del listado lleva categoría y marca, igual que stampById
+        Expression<Long> versions = cb.sum(
+                cb.sum(p.<Long>get("version"), c.<Long>get("version")),
+                cb.coalesce(b.<Long>get("version"), 0L));
+        cq.select(cb.construct(VersionStamp.class,
+                cb.count(p),
+                cb.coalesce(cb.sum(p.<Long>get("id")), 0L),
+                cb.coalesce(cb.sum(versions), 0L)));
+        where(cq, ProductSpecifications.matching(filter).toPredicate(p, cq, cb));
+
+        return em.createQuery(cq).getSingleResult();
+    }
+
+    @Override
+    public List<ProductSummaryDto> findPage(
+            ProductFilter filter,
+            ProductSort sort,
+            ProductKeyset after,
+            int limit
+    ) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+        Root<Product> p = cq.from(Product.class);
+
+        Specification<Product> spec = ProductSpecifications.matching(filter);
+        if (after != null) {
+            spec = spec.and((root, q, b) -> keyset(b, root, sort, after));
+        }
+
+        cq.multiselect(summaryColumns(p)).orderBy(order(cb, p, sort));
+        where(cq, spec.toPredicate(p, cq, cb));
+
+        return em.createQuery(cq)
+                .setMaxResults(limit)
+                .getResultList().stream()
+                .map(ProductRepositoryCustomImpl::toSummary)
+                .toList();
+    }
+
+    // sin filtros la Specification compuesta no genera predicado
+    private static void where(CriteriaQuery<?> cq, Predicate predicate) {
+        if (predicate != null) {
+            cq.where(predicate);
+        }
+    }
+
+    // ============================================================
+    // Proyección de listados: columnas de producto, categoría y marca
+    // en el orden que lee toSummary
+    // ============================================================
+    private static List<Selection<?>> summaryColumns(Root<Product> p) {
+        Join<Product, Category> c = p.join("category");
+        Join<Product, Brand> b = p.join("brand", JoinType.LEFT);
+        return List.of(
+                p.get("id"), p.get("name"), p.get("description"), p.get("basePrice"),
+                p.get("active"), p.get("featured"), p.get("gender"), p.get("createdAt"),
+                c.get("id"), c.get("name"), c.get("description"), c.get("active"), c.get("createdAt"),
+                b.get("id"), b.get("name"), b.get("active"), b.get("createdAt"));
+    }
+
+    private static ProductSummaryDto toSummary(Tuple t) {
+        ProductSummaryDto.CategoryRef category = new ProductSummaryDto.CategoryRef(
+                t.get(8, Long.class), t.get(9, String.class), t.get(10, String.class),
+                t.get(11, Boolean.class), t.get(12, Instant.class));
+        Long brandId = t.get(13, Long.class);
+        ProductSummaryDto.BrandRef brand = brandId == null ? null : new ProductSummaryDto.BrandRef(
+                brandId, t.get(14, String.class), t.get(15, Boolean.class), t.get(16, Instant.class));
+        return new ProductSummaryDto(
+                t.get(0, Long.class), category, brand,
+                t.get(1, String.class), t.get(2, String.class), t.get(3, BigDecimal.class),
+                t.get(4, Boolean.class), t.get(5, Boolean.class), t.get(6, ProductGender.class),
+                t.get(7, Instant.class));
+    }
+
+    // ============================================================
+    // Keyset: (col, id) estrictamente después del último entregado.
+    // Se agrega la cota "col <= x" / "col >= x" redundante para que
+    // la BD pueda arrancar el recorrido del índice (col, id) en x.
+    // ============================================================
+    private Predicate keyset(CriteriaBuilder cb, Root<Product> p, ProductSort sort, ProductKeyset after) {
+        Path<Long> id = p.get("id");
+        Long lastId = after.lastId();
+
+        return switch (sort) {
+            case NEWEST -> {
+                Path<Instant> col = p.get("createdAt");
+                Instant v = after.instantValue();
+                yield cb.and(
+                        cb.lessThanOrEqualTo(col, v),
+                        cb.or(cb.lessThan(col, v), cb.lessThan(id, lastId)));
+            }
+            case PRICE_ASC -> {
+                Path<BigDecimal> col = p.get("basePrice");
+                BigDecimal v = after.decimalValue();
+                yield cb.and(
+                        cb.greaterThanOrEqualTo(col, v),
+                        cb.or(cb.greaterThan(col, v), cb.greaterThan(id, lastId)));
+            }
+            case PRICE_DESC -> {
+                Path<BigDecimal> col = p.get("basePrice");
+                BigDecimal v = after.decimalValue();
+                yield cb.and(
+                        cb.lessThanOrEqualTo(col, v),
+                        cb.or(cb.lessThan(col, v), cb.lessThan(id, lastId)));
+            }
+            case NAME -> {
+                Path<String> col = p.get("name");
+                String v = after.value();
+                yield cb.and(
+                        cb.greaterThanOrEqualTo(col, v),
+                        cb.or(cb.greaterThan(col, v), cb.greaterThan(id, lastId)));
+            }
+        };
+    }
+
+    private List<Order> order(CriteriaBuilder cb, Root<Product> p, ProductSort sort) {
+        return switch (sort) {
+            case NEWEST -> List.of(cb.desc(p.get("createdAt")), cb.desc(p.get("id")));
+            case PRICE_ASC -> List.of(cb.asc(p.get("basePrice")), cb.asc(p.get("id")));
+            case PRICE_DESC -> List.of(cb.desc(p.get("basePrice")), cb.desc(p.get("id")));
+            case NAME -> List.of(cb.asc(p.get("name")), cb.asc(p.get("id")));
+        };
+    }
+}
@@ -0,0 +1,10 @@
+package com.redthread.catalog.repository;
+
+/** Texto indexable de un producto, leído con una sola proyección. */
+public record ProductSearchDoc(
+        Long productId,
+        String name,
+        String description,
+        String brandName,
+        String categoryName
+) {}
@@ -0,0 +1,103 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Predicados del listado de productos. Cada filtro es una Specification
+ * independiente y {@link #matching(ProductFilter)} combina solo los que
+ * vienen informados, así agregar un filtro nuevo no multiplica finders.
+ *
+ * Los filtros por columna de products usan igualdad simple para que la BD
+ * pueda apoyarse en idx_products_category / idx_products_gender /
+ * idx_products_featured; los de variante van en un único EXISTS
+ * correlacionado por product_id (idx_variants_product, idx_inventory_variant).
+ */
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {}
+
+    public static Specification<Product> matching(ProductFilter f) {
+        return Specification.allOf(
+                categoryId(f),
+                gender(f),
+                featured(f),
+                brandId(f),
+                minPrice(f),
+                maxPrice(f),
+                variantMatches(f)
+        );
+    }
+
+    static Specification<Product> categoryId(ProductFilter f) {
+        return (p, q, cb) -> f.categoryId() == null ? null
+                : cb.equal(p.get("category").get("id"), f.categoryId());
+    }
+
+    static Specification<Product> gender(ProductFilter f) {
+        return (p, q, cb) -> f.gender() == null ? null
+                : cb.equal(p.get("gender"), f.gender());
+    }
+
+    static Specification<Product> featured(ProductFilter f) {
+        return (p, q, cb) -> !f.featuredOnly() ? null
+                : cb.isTrue(p.get("featured"));
+    }
+
+    static Specification<Product> brandId(ProductFilter f) {
+        return (p, q, cb) -> f.brandId() == null ? null
+                : cb.equal(p.get("brand").get("id"), f.brandId());
+    }
+
+    // El rango de precio se aplica sobre basePrice, que es el precio que
+    // muestra el listado (price_override solo se ve al elegir variante).
+    static Specification<Product> minPrice(ProductFilter f) {
+        return (p, q, cb) -> f.minPrice() == null ? null
+                : cb.greaterThanOrEqualTo(p.get("basePrice"), f.minPrice());
+    }
+
+    static Specification<Product> maxPrice(ProductFilter f) {
+        return (p, q, cb) -> f.maxPrice() == null ? null
+                : cb.lessThanOrEqualTo(p.get("basePrice"), f.maxPrice());
+    }
+
+    static Specification<Product> variantMatches(ProductFilter f) {
+        return (p, q, cb) -> {
+            if (!f.hasVariantFilter()) {
+                return null;
+            }
+
+            Subquery<Long> sq = q.subquery(Long.class);
+            Root<Variant> v = sq.from(Variant.class);
+
+            List<Predicate> where = new ArrayList<>();
+            where.add(cb.equal(v.get("product"), p));
+            where.add(cb.isTrue(v.get("active")));
+            if (f.size() != null) {
+                where.add(cb.equal(v.get("sizeValue"), f.size()));
+            }
+            if (f.color() != null) {
+                where.add(cb.equal(v.get("color"), f.color()));
+            }
+            if (f.inStockOnly()) {
+                Subquery<Long> stock = sq.subquery(Long.class);
+                Root<Inventory> i = stock.from(Inventory.class);
+                stock.select(cb.literal(1L)).where(
+                        cb.equal(i.get("variant"), v),
+                        cb.gt(cb.diff(i.<Integer>get("stockAvailable"), i.<Integer>get("stockReserved")), 0));
+                where.add(cb.exists(stock));
+            }
+
+            sq.select(cb.literal(1L)).where(where.toArray(Predicate[]::new));
+            return cb.exists(sq);
+        };
+    }
+}
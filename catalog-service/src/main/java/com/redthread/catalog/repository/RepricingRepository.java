@@ -0,0 +1,90 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.PriceJob;
+import com.redthread.catalog.model.enums.PriceAdjustment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * UPDATE set-based de los jobs de precios: el nuevo precio se calcula en
+ * la base para una tanda de ids a la vez, sin cargar entidades. Cada
+ * UPDATE sube version (los ETag cambian) y deja su alta en
+ * catalog_changes en la misma transacción.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RepricingRepository {
+
+    private final NamedParameterJdbcTemplate named;
+
+    /** Siguiente tanda de productos del alcance del job, por keyset sobre id. */
+    public List<Long> nextProductIds(PriceJob job, long afterId, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT p.id FROM products p WHERE p.id > :after");
+        MapSqlParameterSource params = new MapSqlParameterSource("after", afterId).addValue("limit", limit);
+        if (job.getCategoryId() != null) {
+            sql.append(" AND p.category_id = :category");
+            params.addValue("category", job.getCategoryId());
+        }
+        if (job.getBrandId() != null) {
+            sql.append(" AND p.brand_id = :brand");
+            params.addValue("brand", job.getBrandId());
+        }
+        if (job.getGender() != null) {
+            sql.append(" AND p.gender = :gender");
+            params.addValue("gender", job.getGender().name());
+        }
+        if (!job.getProductIds().isEmpty()) {
+            sql.append(" AND p.id IN (SELECT jp.product_id FROM price_job_products jp WHERE jp.job_id = :job)");
+            params.addValue("job", job.getId());
+        }
+        sql.append(" ORDER BY p.id LIMIT :limit");
+        return named.queryForList(sql.toString(), params, Long.class);
+    }
+
+    public int repriceProducts(PriceJob job, List<Long> ids, Instant now) {
+        MapSqlParameterSource params = params(job, ids, now);
+        int updated = named.update("UPDATE products SET base_price = " + newPrice("base_price", job.getMode())
+                + ", version = version + 1 WHERE id IN (:ids)", params);
+        named.update("""
+                INSERT INTO catalog_changes (entity_type, entity_id, op, created_at)
+                SELECT 'PRODUCT', id, 'UPSERT', :now FROM products WHERE id IN (:ids) ORDER BY id
+                """, params);
+        return updated;
+    }
+
+    /** Solo variantes con override: las demás ya siguen al basePrice del producto. */
+    public int repriceVariantOverrides(PriceJob job, List<Long> productIds, Instant now) {
+        MapSqlParameterSource params = params(job, productIds, now);
+        named.update("""
+                INSERT INTO catalog_changes (entity_type, entity_id, op, created_at)
+                SELECT 'VARIANT', id, 'UPSERT', :now FROM variants
+                 WHERE product_id IN (:ids) AND price_override IS NOT NULL ORDER BY id
+                """, params);
+        return named.update("UPDATE variants SET price_override = " + newPrice("price_override", job.getMode())
+                + ", version = version + 1 WHERE product_id IN (:ids) AND price_override IS NOT NULL", params);
+    }
+
+    private static MapSqlParameterSource params(PriceJob job, List<Long> ids, Instant now) {
+        BigDecimal value = job.getMode() == PriceAdjustment.PERCENT
+                // -20 → 0.8
+                ? BigDecimal.valueOf(100).add(job.getAmount()).divide(BigDecimal.valueOf(100), 6, RoundingMode.HALF_UP)
+                : job.getAmount();
+        return new MapSqlParameterSource("ids", ids)
+                .addValue("value", value)
+                .addValue("now", Timestamp.from(now));
+    }
+
+    // Nunca bajo cero (CHECK base_price >= 0)
+    private static String newPrice(String column, PriceAdjustment mode) {
+        String expr = mode == PriceAdjustment.PERCENT ? column + " * :value" : column + " + :value";
+        return "GREATEST(ROUND(" + expr + ", 2), 0)";
+    }
+}
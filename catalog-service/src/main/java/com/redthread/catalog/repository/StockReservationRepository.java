@@ -0,0 +1,39 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.StockReservation;
+import com.redthread.catalog.model.enums.ReservationStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByReservationIdOrderByVariantId(String reservationId);
+
+    List<StockReservation> findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+            ReservationStatus status, Instant now, Limit limit);
+
+    /**
+     * Saca una línea de HELD. Solo uno de commit / release / sweeper gana:
+     * el resto ve 0 filas y no vuelve a tocar el inventario.
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update StockReservation r set r.status = :to, r.updatedAt = :now
+            where r.id = :id and r.status = com.redthread.catalog.model.enums.ReservationStatus.HELD
+            """)
+    int claim(Long id, ReservationStatus to, Instant now);
+
+    /** Igual que claim, pero además la línea no debe estar vencida (commit). */
+    @Modifying(clearAutomatically = true)
+    @Query("""
+            update StockReservation r set r.status = :to, r.updatedAt = :now
+            where r.id = :id and r.status = com.redthread.catalog.model.enums.ReservationStatus.HELD
+              and r.expiresAt > :now
+            """)
+    int claimUnexpired(Long id, ReservationStatus to, Instant now);
+}
@@ -0,0 +1,84 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.model.enums.SuggestionType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Textos y popularidad para el autocompletado, leídos con SQL plano
+ * (un GROUP BY por tipo en vez de cargar entidades).
+ *
+ * Popularidad: productos = unidades vendidas (movimientos COMMIT) más un
+ * extra si son destacados; marcas y categorías = cantidad de productos.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SuggestSourceRepository {
+
+    public record Row(SuggestionType type, long id, String text, int weight) {}
+
+    static final int FEATURED_BONUS = 10;
+
+    private static final String PRODUCTS_SQL = """
+            SELECT p.id, p.name,
+                   1 + CASE WHEN p.featured THEN %d ELSE 0 END + COALESCE(s.sold, 0) AS weight
+              FROM products p
+              LEFT JOIN (SELECT v.product_id, SUM(-m.delta_available) AS sold
+                           FROM inventory_movements m
+                           JOIN variants v ON v.id = m.variant_id
+                          WHERE m.reason = 'COMMIT'
+                          GROUP BY v.product_id) s ON s.product_id = p.id
+             WHERE p.active = TRUE
+            """.formatted(FEATURED_BONUS);
+
+    private static final String BRANDS_SQL = """
+            SELECT b.id, b.name, 1 + COUNT(p.id) AS weight
+              FROM brands b LEFT JOIN products p ON p.brand_id = b.id AND p.active = TRUE
+             WHERE b.active = TRUE
+            """;
+
+    private static final String CATEGORIES_SQL = """
+            SELECT c.id, c.name, 1 + COUNT(p.id) AS weight
+              FROM categories c LEFT JOIN products p ON p.category_id = c.id AND p.active = TRUE
+             WHERE c.active = TRUE
+            """;
+
+    private final JdbcTemplate jdbc;
+
+    public List<Row> products() {
+        return jdbc.query(PRODUCTS_SQL, mapper(SuggestionType.PRODUCT));
+    }
+
+    public List<Row> brands() {
+        return jdbc.query(BRANDS_SQL + " GROUP BY b.id, b.name", mapper(SuggestionType.BRAND));
+    }
+
+    public List<Row> categories() {
+        return jdbc.query(CATEGORIES_SQL + " GROUP BY c.id, c.name", mapper(SuggestionType.CATEGORY));
+    }
+
+    public Optional<Row> product(long id) {
+        return first(jdbc.query(PRODUCTS_SQL + " AND p.id = ?", mapper(SuggestionType.PRODUCT), id));
+    }
+
+    public Optional<Row> brand(long id) {
+        return first(jdbc.query(BRANDS_SQL + " AND b.id = ? GROUP BY b.id, b.name", mapper(SuggestionType.BRAND), id));
+    }
+
+    public Optional<Row> category(long id) {
+        return first(jdbc.query(CATEGORIES_SQL + " AND c.id = ? GROUP BY c.id, c.name", mapper(SuggestionType.CATEGORY), id));
+    }
+
+    private static Optional<Row> first(List<Row> rows) {
+        return rows.stream().findFirst();
+    }
+
+    private static RowMapper<Row> mapper(SuggestionType type) {
+        return (rs, i) -> new Row(type, rs.getLong(1), rs.getString(2), rs.getInt(3));
+    }
+}
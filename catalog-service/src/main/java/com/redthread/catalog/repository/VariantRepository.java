@@ -1,11 +1,19 @@
 package com.redthread.catalog.repository;
 
+import com.redthread.catalog.controller.dto.VariantQuoteDto;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
 import com.redthread.catalog.model.Variant;
 import com.redthread.catalog.model.enums.SizeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface VariantRepository extends JpaRepository<Variant, Long> {
     Optional<Variant> findBySku(String sku);
@@ -18,4 +26,57 @@ public interface VariantRepository extends JpaRepository<Variant, Long> {
     );
 
     List<Variant> findByProductId(Long productId);
+
+    /**
+     * Variantes de un producto con su inventario en la misma consulta.
+     * El 1:1 Variant.inventory es el lado inverso y Hibernate no lo puede
+     * dejar lazy: sin el join fetch dispara un SELECT extra por variante.
+     */
+    @Query("select v from Variant v left join fetch v.inventory where v.product.id = :productId order by v.id")
+    List<Variant> findWithInventoryByProductId(Long productId);
+
+    /**
+     * Cotización de varias variantes en un solo SELECT (variants + products + inventory).
+     * Las variantes inexistentes simplemente no vienen en el resultado.
+     */
+    @Query("""
+            select new com.redthread.catalog.controller.dto.VariantQuoteDto(
+                v.id, p.id, p.name, v.sizeValue, v.color,
+                coalesce(v.priceOverride, p.basePrice),
+                i.stockAvailable - i.stockReserved)
+            from Variant v
+            join v.product p
+            left join v.inventory i
+            where v.id in :ids
+            """)
+    List<VariantQuoteDto> quote(Collection<Long> ids);
+
+    /** ETag de GET /variants?productId: el stock no tiene versión, se usa inventory.updated_at. */
+    @Query("""
+            select new com.redthread.catalog.repository.VersionStamp(
+                count(v), coalesce(sum(v.id), 0L), coalesce(sum(v.version), 0L), max(i.updatedAt))
+            from Variant v left join v.inventory i
+            where v.product.id = :productId
+            """)
+    VersionStamp stampByProductId(Long productId);
+
+    // ========= Listados (proyección, una sola consulta) =========
+    // Misma regla de stock que Variant.getStockForJson: null sin inventario, mínimo 0
+    String SUMMARY_SELECT = """
+            select new com.redthread.catalog.controller.dto.VariantSummaryDto(
+                v.id, v.product.id, v.sizeType, v.sizeValue, v.color, v.sku, v.priceOverride,
+                v.active, v.createdAt,
+                case when i.id is null then null
+                     when i.stockAvailable - i.stockReserved < 0 then 0
+                     else i.stockAvailable - i.stockReserved end)
+            from Variant v left join v.inventory i
+            """;
+
+    @Query(SUMMARY_SELECT + " where v.product.id = :productId order by v.id")
+    List<VariantSummaryDto> findSummariesByProductId(Long productId);
+
+    /** Todas, fila a fila (GET /variants/todos): consumir dentro de una transacción. */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(SUMMARY_SELECT + " order by v.id")
+    Stream<VariantSummaryDto> streamAllSummaries();
 }
@@ -0,0 +1,34 @@
+package com.redthread.catalog.repository;
+
+import java.time.Instant;
+
+/**
+ * Huella de un conjunto de filas para el ETag de un GET, calculada con un
+ * solo SELECT de agregados (sin cargar entidades).
+ *
+ * Entra o sale una fila → cambian count o idSum; se actualiza alguna →
+ * sube versionSum (las @Version solo crecen). touchedAt cubre lo que no
+ * tiene versión propia, como el stock de las variantes (inventory.updated_at).
+ */
+public record VersionStamp(Long count, Long idSum, Long versionSum, Instant touchedAt) {
+
+    public VersionStamp(Long count, Long idSum, Long versionSum) {
+        this(count, idSum, versionSum, null);
+    }
+
+    public boolean isEmpty() {
+        return count == null || count == 0;
+    }
+
+    /** ETag fuerte; kind evita que dos recursos distintos compartan valor. */
+    public String etag(String kind) {
+        StringBuilder sb = new StringBuilder("\"").append(kind)
+                .append('-').append(count)
+                .append('-').append(idSum)
+                .append('-').append(versionSum);
+        if (touchedAt != null) {
+            sb.append('-').append(touchedAt.toEpochMilli()).append('.').append(touchedAt.getNano() % 1_000_000);
+        }
+        return sb.append('"').toString();
+    }
+}
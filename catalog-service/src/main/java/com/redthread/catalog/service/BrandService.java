@@ -1,8 +1,10 @@
 package com.redthread.catalog.service;
 
+import com.redthread.catalog.event.BrandChangedEvent;
 import com.redthread.catalog.model.Brand;
 import com.redthread.catalog.repository.BrandRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
@@ -15,6 +17,8 @@ import java.util.List;
 public class BrandService {
 
     private final BrandRepository repo;
+    private final ReferenceDataService referenceData;
+    private final ApplicationEventPublisher events;
 
     public Brand create(String name) {
         if (name == null || name.isBlank()) {
@@ -30,11 +34,14 @@ public class BrandService {
                 .createdAt(Instant.now())
                 .build();
 
-        return repo.save(b);
+        Brand saved = repo.save(b);
+        events.publishEvent(new BrandChangedEvent(saved.getId()));
+        return saved;
     }
 
+    // Lecturas desde la foto en memoria (ReferenceDataService)
     public Brand get(Long id) {
-        return repo.findById(id)
+        return referenceData.brand(id)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Marca no encontrada"
@@ -42,6 +49,15 @@ public class BrandService {
     }
 
     public List<Brand> getAll() {
-    return repo.findAll();
-}
+        return referenceData.current().brands();
+    }
+
+    /** GET /brands ya serializado (una vez por foto). */
+    public byte[] listJson() {
+        return referenceData.current().brandsJson();
+    }
+
+    public String listETag() {
+        return referenceData.current().brandStamp().etag("brands");
+    }
 }
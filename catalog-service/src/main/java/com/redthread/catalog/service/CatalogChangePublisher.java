@@ -0,0 +1,55 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.repository.CatalogChangeLogRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Publica catalog_changes para GET /catalog/changes (asigna seq en orden
+ * de commit) y lo mantiene acotado: compacta versiones reemplazadas y poda
+ * las bajas más viejas que tombstone-retention.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogChangePublisher {
+
+    static final int PUBLISH_BATCH = 1_000;
+    static final long COMPACT_WINDOW = 10_000;
+
+    private final CatalogChangeLogRepository logRepo;
+
+    @Value("${app.catalog.changes.tombstone-retention:30d}")
+    private Duration tombstoneRetention;
+
+    @Scheduled(
+            initialDelayString = "${app.catalog.changes.publish-interval:200ms}",
+            fixedDelayString = "${app.catalog.changes.publish-interval:200ms}")
+    public void publish() {
+        int found;
+        // un lote por transacción para no tener muchas filas tomadas a la vez
+        do {
+            found = logRepo.publish(PUBLISH_BATCH);
+        } while (found == PUBLISH_BATCH);
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.catalog.changes.compact-interval:10m}",
+            fixedDelayString = "${app.catalog.changes.compact-interval:10m}")
+    public void compact() {
+        boolean done;
+        do {
+            done = logRepo.compact(COMPACT_WINDOW);
+        } while (!done);
+        int pruned = logRepo.pruneTombstones(Instant.now().minus(tombstoneRetention));
+        if (pruned > 0) {
+            log.info("Registro de cambios: {} bajas anteriores a {} podadas", pruned, tombstoneRetention);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.redthread.catalog.controller.dto.CatalogExportRowDto;
+import com.redthread.catalog.repository.CatalogExportRepository;
+import com.redthread.catalog.repository.ProductFilter;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Listados completos (GET /products/all, GET /variants/todos y
+ * GET /catalog/export) escritos a la respuesta a medida que se leen del
+ * cursor: la memoria queda acotada al buffer del driver y del servlet,
+ * no a la cantidad de filas.
+ *
+ * Mismo JSON que antes (el ObjectMapper de Spring), como arreglo o como
+ * NDJSON: una línea por elemento. El export además sale en CSV.
+ */
+@Service
+public class CatalogExportService {
+
+    public static final String NDJSON = "application/x-ndjson";
+
+    static final String[] CSV_HEADER = {
+            "productId", "productName", "category", "brand", "basePrice", "gender", "featured", "productActive",
+            "imageUrl", "variantId", "sizeType", "sizeValue", "color", "sku", "price", "variantActive",
+            "stockAvailable", "stockReserved"};
+
+    private final ProductRepository productRepo;
+    private final VariantRepository variantRepo;
+    private final CatalogExportRepository exportRepo;
+    private final ObjectWriter json;
+
+    public CatalogExportService(ProductRepository productRepo,
+                                VariantRepository variantRepo,
+                                CatalogExportRepository exportRepo,
+                                ObjectMapper mapper) {
+        this.productRepo = productRepo;
+        this.variantRepo = variantRepo;
+        this.exportRepo = exportRepo;
+        // el flush lo decide el buffer de la respuesta, no cada elemento;
+        // y el stream de la respuesta lo cierra el contenedor
+        this.json = mapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    /** NDJSON solo si el cliente lo pide explícitamente; si no, arreglo como siempre. */
+    public static boolean wantsNdjson(String accept) {
+        return accept != null && accept.toLowerCase().contains(NDJSON);
+    }
+
+    /** Devuelve cuántos productos se escribieron. */
+    @Transactional(readOnly = true)
+    public long writeProducts(OutputStream out, boolean ndjson) throws IOException {
+        try (Stream<?> rows = productRepo.streamMatching(ProductFilter.none())) {
+            return write(rows, out, ndjson);
+        }
+    }
+
+    /** Devuelve cuántas variantes se escribieron. */
+    @Transactional(readOnly = true)
+    public long writeVariants(OutputStream out, boolean ndjson) throws IOException {
+        try (Stream<?> rows = variantRepo.streamAllSummaries()) {
+            return write(rows, out, ndjson);
+        }
+    }
+
+    // ============================================================
+    // EXPORT PLANO (GET /catalog/export)
+    // ============================================================
+
+    /**
+     * Catálogo completo, una fila por variante, después de la posición
+     * (afterProductId, afterVariantId). El CSV lleva encabezado solo en
+     * la primera descarga: lo retomado se puede anexar al archivo cortado.
+     *
+     * @return cuántas filas se escribieron
+     */
+    @Transactional(readOnly = true)
+    public long writeCatalog(OutputStream out, boolean csv, long afterProductId, Long afterVariantId) throws IOException {
+        boolean resumed = afterProductId > 0 || afterVariantId != null;
+        long[] count = {0};
+        try {
+            if (csv) {
+                Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                if (!resumed) {
+                    csvLine(w, (Object[]) CSV_HEADER);
+                }
+                exportRepo.stream(afterProductId, afterVariantId, r -> {
+                    csvRow(w, r);
+                    count[0]++;
+                });
+                w.flush();
+            } else {
+                try (SequenceWriter seq = json.withRootValueSeparator("\n").writeValues(out)) {
+                    exportRepo.stream(afterProductId, afterVariantId, r -> {
+                        try {
+                            seq.write(r);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        count[0]++;
+                    });
+                }
+                if (count[0] > 0) {
+                    out.write('\n');
+                }
+                out.flush();
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // el cliente cortó la descarga
+        }
+        return count[0];
+    }
+
+    private static void csvRow(Writer w, CatalogExportRowDto r) {
+        csvLine(w, r.productId(), r.productName(), r.category(), r.brand(), r.basePrice(), r.gender(),
+                r.featured(), r.productActive(), r.imageUrl(), r.variantId(), r.sizeType(), r.sizeValue(),
+                r.color(), r.sku(), r.price(), r.variantActive(), r.stockAvailable(), r.stockReserved());
+    }
+
+    private static void csvLine(Writer w, Object... values) {
+        try {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    w.write(',');
+                }
+                Object v = values[i];
+                if (v == null) {
+                    continue; // vacío
+                }
+                String text = v instanceof BigDecimal d ? d.toPlainString() : v.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+                    w.write('"');
+                    w.write(text.replace("\"", "\"\""));
+                    w.write('"');
+                } else {
+                    w.write(text);
+                }
+            }
+            w.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long write(Stream<?> rows, OutputStream out, boolean ndjson) throws IOException {
+        long count = 0;
+        try (SequenceWriter seq = ndjson
+                ? json.withRootValueSeparator("\n").writeValues(out)
+                : json.writeValuesAsArray(out)) {
+            for (Iterator<?> it = rows.iterator(); it.hasNext(); count++) {
+                seq.write(it.next());
+            }
+        }
+        if (ndjson && count > 0) {
+            out.write('\n'); // cada línea termina en salto, también la última
+        }
+        out.flush();
+        return count;
+    }
+}
@@ -0,0 +1,204 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Lee el archivo de importación fila a fila (CSV con encabezado o NDJSON)
+ * sin cargarlo entero. Cada fila llega como columna → texto con claves en
+ * minúsculas; si no se pudo leer, con el error y sin campos.
+ */
+abstract class CatalogImportReader implements Iterator<CatalogImportReader.RawRow> {
+
+    record RawRow(long line, Map<String, String> fields, String error) {
+        String get(String column) {
+            String v = fields.get(column.toLowerCase(Locale.ROOT));
+            return v == null || v.isBlank() ? null : v.trim();
+        }
+    }
+
+    protected final BufferedReader in;
+    private RawRow next;
+
+    private CatalogImportReader(InputStream in) {
+        this.in = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+    }
+
+    static CatalogImportReader csv(InputStream in) {
+        return new Csv(in);
+    }
+
+    static CatalogImportReader ndjson(InputStream in, ObjectMapper mapper) {
+        return new Ndjson(in, mapper);
+    }
+
+    /** null al terminar el archivo. */
+    protected abstract RawRow read() throws IOException;
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = read();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public RawRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        RawRow row = next;
+        next = null;
+        return row;
+    }
+
+    // ============================================================
+    // CSV (RFC 4180: comillas dobles, "" escapa, saltos dentro de comillas)
+    // ============================================================
+    private static final class Csv extends CatalogImportReader {
+
+        private List<String> header;
+        private long line = 0;
+
+        Csv(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        protected RawRow read() throws IOException {
+            if (header == null) {
+                List<String> names = record();
+                if (names == null) {
+                    return null;
+                }
+                header = names.stream().map(h -> h.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT)).toList();
+            }
+            while (true) {
+                long start = line + 1;
+                List<String> values = record();
+                if (values == null) {
+                    return null;
+                }
+                if (values.size() == 1 && values.get(0).isBlank()) {
+                    continue; // línea vacía
+                }
+                if (values.size() != header.size()) {
+                    return new RawRow(start, Map.of(), "Se esperaban " + header.size()
+                            + " columnas y vinieron " + values.size());
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    fields.put(header.get(i), values.get(i));
+                }
+                return new RawRow(start, fields, null);
+            }
+        }
+
+        private List<String> record() throws IOException {
+            int c = in.read();
+            if (c == -1) {
+                return null;
+            }
+            line++;
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (c == -1) {
+                    values.add(field.toString());
+                    return values;
+                }
+                if (quoted) {
+                    if (c == '"') {
+                        in.mark(1);
+                        if (in.read() == '"') {
+                            field.append('"');
+                        } else {
+                            in.reset();
+                            quoted = false;
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    values.add(field.toString());
+                    return values;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = in.read();
+            }
+        }
+    }
+
+    // ============================================================
+    // NDJSON: un objeto por línea
+    // ============================================================
+    private static final class Ndjson extends CatalogImportReader {
+
+        private final ObjectMapper mapper;
+        private long line = 0;
+
+        Ndjson(InputStream in, ObjectMapper mapper) {
+            super(in);
+            this.mapper = mapper;
+        }
+
+        @Override
+        protected RawRow read() throws IOException {
+            String text;
+            do {
+                text = in.readLine();
+                if (text == null) {
+                    return null;
+                }
+                line++;
+            } while (text.isBlank());
+
+            JsonNode node;
+            try {
+                node = mapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                return new RawRow(line, Map.of(), "JSON inválido: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new RawRow(line, Map.of(), "Cada línea debe ser un objeto JSON");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (Map.Entry<String, JsonNode> e : node.properties()) {
+                if (!e.getValue().isNull()) {
+                    fields.put(e.getKey().toLowerCase(Locale.ROOT), e.getValue().asText());
+                }
+            }
+            return new RawRow(line, fields, null);
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.CatalogImportResultDto;
+import com.redthread.catalog.event.ProductChangedEvent;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CatalogImportRepository;
+import com.redthread.catalog.repository.CatalogImportRepository.NewProduct;
+import com.redthread.catalog.repository.CatalogImportRepository.NewVariant;
+import com.redthread.catalog.service.CatalogImportReader.RawRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Importación masiva del catálogo de temporada: una fila por variante
+ * (con los datos de su producto), en CSV o NDJSON.
+ *
+ * Columnas: category, brand, product, description, basePrice, gender,
+ * featured, sizeType, sizeValue, color, sku, priceOverride, stock.
+ * Categoría y marca van por nombre y deben existir. Un producto es
+ * categoría + marca + nombre: si ya existe se le agregan variantes (sus
+ * datos no se tocan); si no, lo crea la primera fila que lo nombra, que
+ * debe traer basePrice y gender.
+ *
+ * El archivo se lee en streaming y se escribe por tandas de CHUNK_SIZE
+ * filas, cada una en su transacción con batch JDBC. Una fila inválida se
+ * informa y se salta; si la base rechaza una tanda (p. ej. un SKU creado
+ * en paralelo) se informan todas sus filas y el resto sigue.
+ */
+@Slf4j
+@Service
+public class CatalogImportService {
+
+    static final int CHUNK_SIZE = 2_000;
+    static final int MAX_ERRORS = 1_000;
+
+    private final CatalogImportRepository repo;
+    private final TransactionTemplate tx;
+    private final ApplicationEventPublisher events;
+    private final ObjectMapper mapper;
+
+    public CatalogImportService(CatalogImportRepository repo,
+                                PlatformTransactionManager txManager,
+                                ApplicationEventPublisher events,
+                                ObjectMapper mapper) {
+        this.repo = repo;
+        this.tx = new TransactionTemplate(txManager);
+        this.events = events;
+        this.mapper = mapper;
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
+    public CatalogImportResultDto importCsv(InputStream in) {
+        return run(CatalogImportReader.csv(in));
+    }
+
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
+    public CatalogImportResultDto importNdjson(InputStream in) {
+        return run(CatalogImportReader.ndjson(in, mapper));
+    }
+
+    /** Fila ya validada; sizeValue y color en mayúsculas como en VariantService. */
+    private record Row(long line, String productKey, SizeType sizeType, String sizeValue, String color,
+                       String sku, BigDecimal priceOverride, int stock) {}
+
+    /** Estado de una importación: referencias en memoria, unicidad dentro del archivo, conteos. */
+    private final class Run {
+        final Map<String, Long> categories = repo.categoryIdsByName();
+        final Map<String, Long> brands = repo.brandIdsByName();
+        final Map<String, Long> productIds = repo.productIdsByKey();
+        // productos de la base al empezar: los únicos con variantes que no vienen en el archivo
+        final Set<String> preexisting = new HashSet<>(productIds.keySet());
+        final Map<String, NewProduct> declared = new HashMap<>();
+        final Set<String> skus = new HashSet<>();
+        final Set<String> combos = new HashSet<>();
+
+        long rows;
+        long productsCreated;
+        long variantsCreated;
+        long failed;
+        final List<CatalogImportResultDto.RowError> errors = new ArrayList<>();
+
+        void reject(long line, String sku, String message) {
+            failed++;
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(new CatalogImportResultDto.RowError(line, sku, message));
+            }
+        }
+    }
+
+    private CatalogImportResultDto run(Iterator<RawRow> input) {
+        long start = System.nanoTime();
+        Run run = new Run();
+
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        while (input.hasNext()) {
+            RawRow raw = input.next();
+            run.rows++;
+            try {
+                chunk.add(parse(run, raw));
+            } catch (IllegalArgumentException ex) {
+                run.reject(raw.line(), raw.fields().isEmpty() ? null : raw.get("sku"), ex.getMessage());
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                write(run, chunk);
+                chunk.clear();
+            }
+        }
+        write(run, chunk);
+
+        // los rechazos de validación y los de la base llegan en distinto momento
+        run.errors.sort(Comparator.comparingLong(CatalogImportResultDto.RowError::line));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        log.info("Importación del catálogo: {} filas, {} productos y {} variantes nuevos, {} rechazadas en {} ms",
+                run.rows, run.productsCreated, run.variantsCreated, run.failed, elapsedMs);
+        return new CatalogImportResultDto(run.rows, run.productsCreated, run.variantsCreated, run.failed,
+                run.errors, run.failed > run.errors.size(), elapsedMs);
+    }
+
+    // ============================================================
+    // VALIDACIÓN (por fila, sin ir a la base)
+    // ============================================================
+    private Row parse(Run run, RawRow raw) {
+        if (raw.error() != null) {
+            throw new IllegalArgumentException(raw.error());
+        }
+
+        String categoryName = required(raw, "category");
+        Long categoryId = run.categories.get(categoryName.toLowerCase(Locale.ROOT));
+        if (categoryId == null) {
+            throw new IllegalArgumentException("Categoría no existe: " + categoryName);
+        }
+        String brandName = raw.get("brand");
+        Long brandId = null;
+        if (brandName != null) {
+            brandId = run.brands.get(brandName.toLowerCase(Locale.ROOT));
+            if (brandId == null) {
+                throw new IllegalArgumentException("Marca no existe: " + brandName);
+            }
+        }
+        String name = maxLength(required(raw, "product"), 200, "product");
+        String productKey = CatalogImportRepository.productKey(categoryId, brandId, name);
+
+        SizeType sizeType;
+        try {
+            sizeType = SizeType.valueOf(required(raw, "sizeType").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("sizeType debe ser EU o LETTER");
+        }
+        String sizeValue = required(raw, "sizeValue");
+        SizeValidator.validate(sizeType, sizeValue);
+        String color = maxLength(required(raw, "color"), 40, "color").toUpperCase();
+        String sku = raw.get("sku");
+        if (sku != null) {
+            maxLength(sku, 64, "sku");
+        }
+        BigDecimal priceOverride = decimal(raw, "priceOverride");
+        Integer stock = integer(raw, "stock");
+
+        // la primera fila de un producto nuevo lo define
+        if (!run.productIds.containsKey(productKey) && !run.declared.containsKey(productKey)) {
+            BigDecimal basePrice = decimal(raw, "basePrice");
+            if (basePrice == null) {
+                throw new IllegalArgumentException("basePrice es obligatorio para un producto nuevo");
+            }
+            ProductGender gender;
+            try {
+                gender = ProductGender.valueOf(required(raw, "gender").toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException ex) {
+                throw new IllegalArgumentException("gender debe ser HOMBRE o MUJER para un producto nuevo");
+            }
+            run.declared.put(productKey, new NewProduct(categoryId, brandId, name.trim(), raw.get("description"),
+                    basePrice, Boolean.parseBoolean(raw.get("featured")), gender));
+        }
+
+        return new Row(raw.line(), productKey, sizeType, sizeValue.toUpperCase(), color, sku,
+                priceOverride, stock != null ? stock : 0);
+    }
+
+    private static String required(RawRow raw, String column) {
+        String v = raw.get(column);
+        if (v == null) {
+            throw new IllegalArgumentException(column + " es obligatorio");
+        }
+        return v;
+    }
+
+    private static String maxLength(String value, int max, String column) {
+        if (value.length() > max) {
+            throw new IllegalArgumentException(column + " admite hasta " + max + " caracteres");
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(RawRow raw, String column) {
+        String v = raw.get(column);
+        if (v == null) {
+            return null;
+        }
+        try {
+            BigDecimal n = new BigDecimal(v);
+            if (n.signum() < 0) {
+                throw new IllegalArgumentException(column + " no puede ser negativo");
+            }
+            return n;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + " debe ser numérico");
+        }
+    }
+
+    private static Integer integer(RawRow raw, String column) {
+        String v = raw.get(column);
+        if (v == null) {
+            return null;
+        }
+        try {
+            int n = Integer.parseInt(v);
+            if (n < 0) {
+                throw new IllegalArgumentException(column + " no puede ser negativo");
+            }
+            return n;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException(column + " debe ser un entero");
+        }
+    }
+
+    // ============================================================
+    // ESCRITURA (una transacción por tanda)
+    // ============================================================
+    private void write(Run run, List<Row> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // unicidad de SKU y de talla/color: dentro del archivo y contra la base.
+        // El SKU por defecto de un producto nuevo lleva su id recién generado:
+        // no puede estar tomado, se arma al insertar
+        Map<Row, String> skus = new HashMap<>();
+        Set<Long> preexistingIds = new HashSet<>();
+        for (Row r : chunk) {
+            Long productId = run.productIds.get(r.productKey());
+            String sku = r.sku() != null || productId == null ? r.sku() : defaultSku(productId, r);
+            if (sku != null) {
+                skus.put(r, sku);
+            }
+            if (run.preexisting.contains(r.productKey())) {
+                preexistingIds.add(productId);
+            }
+        }
+        Set<String> takenSkus = repo.existingSkus(new HashSet<>(skus.values()));
+        Set<String> takenCombos = repo.existingCombos(preexistingIds);
+
+        Set<String> chunkSkus = new HashSet<>();
+        Set<String> chunkCombos = new HashSet<>();
+        List<Row> accepted = new ArrayList<>(chunk.size());
+        for (Row r : chunk) {
+            String combo = r.productKey() + "|" + r.sizeType() + "|" + r.sizeValue() + "|" + r.color();
+            Long productId = run.productIds.get(r.productKey());
+            String sku = skus.get(r);
+            if (run.combos.contains(combo) || chunkCombos.contains(combo) || (productId != null
+                    && takenCombos.contains(CatalogImportRepository.comboKey(productId, r.sizeType(), r.sizeValue(), r.color())))) {
+                run.reject(r.line(), sku, "Ya existe una variante con esa talla y color para este producto");
+            } else if (sku != null && (takenSkus.contains(sku) || run.skus.contains(sku) || chunkSkus.contains(sku))) {
+                run.reject(r.line(), sku, "El SKU ya está en uso por otra variante");
+            } else {
+                chunkCombos.add(combo);
+                if (sku != null) {
+                    chunkSkus.add(sku);
+                }
+                accepted.add(r);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            Map<String, Long> created = tx.execute(status -> insert(run, accepted));
+            run.productIds.putAll(created);
+            run.productsCreated += created.size();
+            run.variantsCreated += accepted.size();
+            run.skus.addAll(chunkSkus);
+            run.combos.addAll(chunkCombos);
+        } catch (DataAccessException ex) {
+            log.warn("Importación: se descarta una tanda de {} filas: {}",
+                    accepted.size(), ex.getMostSpecificCause().getMessage());
+            for (Row r : accepted) {
+                run.reject(r.line(), skus.get(r), "No se pudo guardar la tanda (conflicto con otra escritura); reintentar la fila");
+            }
+        }
+    }
+
+    /** Devuelve los productos creados (clave → id). */
+    private Map<String, Long> insert(Run run, List<Row> rows) {
+        Instant now = Instant.now();
+
+        Map<String, NewProduct> toCreate = new LinkedHashMap<>();
+        for (Row r : rows) {
+            if (!run.productIds.containsKey(r.productKey())) {
+                toCreate.putIfAbsent(r.productKey(), run.declared.get(r.productKey()));
+            }
+        }
+        List<Long> productIds = repo.insertProducts(new ArrayList<>(toCreate.values()), now);
+        Map<String, Long> created = new HashMap<>();
+        Iterator<Long> ids = productIds.iterator();
+        for (String key : toCreate.keySet()) {
+            created.put(key, ids.next());
+        }
+
+        List<NewVariant> variants = new ArrayList<>(rows.size());
+        for (Row r : rows) {
+            Long productId = created.getOrDefault(r.productKey(), run.productIds.get(r.productKey()));
+            variants.add(new NewVariant(productId, r.sizeType(), r.sizeValue(), r.color(),
+                    r.sku() != null ? r.sku() : defaultSku(productId, r), r.priceOverride(), r.stock()));
+        }
+        List<Long> variantIds = repo.insertVariants(variants, now);
+
+        repo.recordChanges(CatalogEntityType.PRODUCT, productIds, now);
+        repo.recordChanges(CatalogEntityType.VARIANT, variantIds, now);
+        repo.recordChanges(CatalogEntityType.INVENTORY, variantIds, now);
+
+        // un evento por producto: los listeners lo recargan con sus variantes
+        Set<Long> touched = new LinkedHashSet<>(productIds);
+        variants.forEach(v -> touched.add(v.productId()));
+        touched.forEach(id -> events.publishEvent(new ProductChangedEvent(id)));
+        return created;
+    }
+
+    // mismo formato que VariantService.create
+    private static String defaultSku(Long productId, Row r) {
+        return "SKU-" + productId + "-" + r.sizeType() + "-" + r.sizeValue() + "-" + r.color();
+    }
+}
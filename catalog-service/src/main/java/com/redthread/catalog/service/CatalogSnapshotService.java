@@ -0,0 +1,217 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.redthread.catalog.controller.dto.SnapshotHeaderDto;
+import com.redthread.catalog.repository.CatalogChangeLogRepository;
+import com.redthread.catalog.repository.CatalogChangeRepository;
+import com.redthread.catalog.repository.CatalogSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Snapshot del catálogo activo para instalaciones nuevas: un solo archivo
+ * NDJSON comprimido con gzip (primera línea {@link SnapshotHeaderDto},
+ * luego un producto por línea con sus variantes, precio, stock e imagen
+ * principal). El cliente lo baja una vez y sigue con GET /catalog/changes
+ * desde el syncToken del encabezado.
+ *
+ * La versión es el último seq publicado de catalog_changes al empezar a
+ * generarlo: el archivo tiene al menos todo hasta ahí (lo posterior que
+ * alcance a colarse vuelve a llegar por /changes, sin daño). Se rehace en
+ * segundo plano cuando se acumulan change-threshold cambios, o cuando
+ * queda alguno pendiente y el archivo supera max-age.
+ *
+ * Cada instancia genera el suyo en su disco; se conservan el vigente y el
+ * anterior para no cortar descargas en curso.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    static final int FORMAT = 1;
+    private static final String PREFIX = "catalog-";
+    private static final String SUFFIX = ".ndjson.gz";
+
+    private final CatalogSnapshotRepository source;
+    private final CatalogChangeRepository changeRepo;
+    private final CatalogChangeLogRepository logRepo;
+
+    private final ObjectWriter json = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build()
+            .writer()
+            .withRootValueSeparator("\n");
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+
+    @Value("${app.catalog.snapshot.dir:./data/catalog-snapshot}")
+    private String dir;
+
+    @Value("${app.catalog.snapshot.change-threshold:500}")
+    private long changeThreshold;
+
+    @Value("${app.catalog.snapshot.max-age:6h}")
+    private Duration maxAge;
+
+    public record Snapshot(long version, Path file, long size, Instant generatedAt) {
+        public String etag() {
+            return "\"" + version + "\"";
+        }
+    }
+
+    public Optional<Snapshot> current() {
+        return Optional.ofNullable(current.get());
+    }
+
+    // Tras un reinicio se sirve el último archivo del disco; si quedó
+    // atrasado lo rehace el chequeo periódico. Uno más nuevo que la base
+    // (base restaurada o recreada) no sirve: tendría un syncToken adelantado
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadExisting() {
+        Path folder = Path.of(dir);
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        long head = logRepo.head();
+        try (Stream<Path> files = Files.list(folder)) {
+            files.filter(f -> versionOf(f) >= 0 && versionOf(f) <= head)
+                    .max(Comparator.comparingLong(CatalogSnapshotService::versionOf))
+                    .ifPresent(f -> {
+                        try {
+                            current.set(new Snapshot(versionOf(f), f, Files.size(f),
+                                    Files.getLastModifiedTime(f).toInstant()));
+                            log.info("Snapshot del catálogo existente: versión {}", versionOf(f));
+                        } catch (IOException e) {
+                            log.warn("No se pudo leer el snapshot {}: {}", f, e.getMessage());
+                        }
+                    });
+        } catch (IOException e) {
+            log.warn("No se pudo listar {}: {}", folder, e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${app.catalog.snapshot.check-interval:1m}",
+            fixedDelayString = "${app.catalog.snapshot.check-interval:1m}")
+    public void refreshIfStale() {
+        try {
+            if (isStale()) {
+                regenerate();
+            }
+        } catch (IOException | RuntimeException e) {
+            // se reintenta en el próximo chequeo; mientras, sigue el anterior
+            log.error("Falló la generación del snapshot del catálogo", e);
+        }
+    }
+
+    boolean isStale() {
+        Snapshot s = current.get();
+        if (s == null) {
+            return true;
+        }
+        // uno anterior a la poda de bajas entregaría un syncToken que /changes rechaza
+        if (s.version() < logRepo.prunedThrough()) {
+            return true;
+        }
+        long pending = changeRepo.countBySeqGreaterThan(s.version());
+        return pending >= changeThreshold
+                || (pending > 0 && s.generatedAt().plus(maxAge).isBefore(Instant.now()));
+    }
+
+    // ============================================================
+    // GENERACIÓN
+    // ============================================================
+    public synchronized Snapshot regenerate() throws IOException {
+        Instant now = Instant.now();
+        long version = logRepo.head();
+        Snapshot previous = current.get();
+        if (previous != null && previous.version() >= version) {
+            return previous; // lo pendiente aún no se publica
+        }
+
+        long start = System.nanoTime();
+        Path folder = Files.createDirectories(Path.of(dir));
+        Path tmp = Files.createTempFile(folder, PREFIX, ".tmp");
+        try {
+            long products;
+            // por el gzip pasa una línea a la vez: memoria acotada a un producto
+            try (SequenceWriter out = json.writeValues(new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(tmp)), 64 * 1024))) {
+                out.write(new SnapshotHeaderDto(FORMAT, version, String.valueOf(version), now));
+                products = source.streamActiveProducts(p -> {
+                    try {
+                        out.write(p);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+
+            // el archivo aparece completo o no aparece
+            Path target = folder.resolve(PREFIX + version + SUFFIX);
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            Snapshot snapshot = new Snapshot(version, target, Files.size(target), now);
+            current.set(snapshot);
+            log.info("Snapshot del catálogo v{}: {} productos, {} KB en {} ms",
+                    version, products, snapshot.size() / 1024, (System.nanoTime() - start) / 1_000_000);
+
+            deleteOlderThan(folder, previous != null ? previous.version() : version);
+            return snapshot;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void deleteOlderThan(Path folder, long keepFrom) throws IOException {
+        List<Path> old;
+        try (Stream<Path> files = Files.list(folder)) {
+            old = files.filter(f -> {
+                long v = versionOf(f);
+                return v >= 0 && v < keepFrom;
+            }).toList();
+        }
+        for (Path f : old) {
+            Files.deleteIfExists(f);
+        }
+    }
+
+    // catalog-<versión>.ndjson.gz → versión; -1 si no es un snapshot
+    private static long versionOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
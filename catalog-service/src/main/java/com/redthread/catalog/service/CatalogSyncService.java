@@ -0,0 +1,195 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.CatalogChangesDto;
+import com.redthread.catalog.controller.dto.CatalogTombstoneDto;
+import com.redthread.catalog.controller.dto.ImageDto;
+import com.redthread.catalog.controller.dto.ImageMapper;
+import com.redthread.catalog.controller.dto.StockLevelDto;
+import com.redthread.catalog.controller.dto.VariantDto;
+import com.redthread.catalog.model.CatalogChange;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
+import com.redthread.catalog.repository.CatalogChangeLogRepository;
+import com.redthread.catalog.repository.CatalogChangeRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.ProductImageRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Sincronización incremental para la cache local de la app.
+ *
+ * Cada escritura del catálogo agrega una fila a catalog_changes (qué
+ * entidad, alta/cambio o baja) en su misma transacción. El cliente guarda
+ * el nextToken y en el próximo arranque pide solo lo posterior; la
+ * respuesta trae el estado vigente de lo que cambió, no cada versión
+ * intermedia: si una variante cambió de stock 30 veces, viaja una vez.
+ *
+ * Las páginas están acotadas por cantidad de cambios, así un cliente que
+ * estuvo semanas offline se pone al día en varias llamadas chicas.
+ *
+ * El token es el seq de catalog_changes, que CatalogChangePublisher asigna
+ * solo a filas ya confirmadas y en orden: una transacción lenta no puede
+ * quedar detrás de un token entregado. El registro se compacta (una fila
+ * por entidad) y las bajas viejas se podan; un token anterior a la poda
+ * recibe 410 y el cliente recarga desde GET /catalog/snapshot. Una carga
+ * completa que empezó después de la poda no perdió nada: sus tokens
+ * intermedios llevan la poda vigente ("seq.poda") y siguen valiendo
+ * mientras no haya otra.
+ */
+@Service
+@RequiredArgsConstructor
+public class CatalogSyncService {
+
+    static final int DEFAULT_LIMIT = 500;
+    static final int MAX_LIMIT = 2_000;
+
+    private final CatalogChangeRepository changeRepo;
+    private final ProductRepository productRepo;
+    private final VariantRepository variantRepo;
+    private final InventoryBatchRepository batchRepo;
+    private final ProductImageRepository imageRepo;
+    private final CatalogChangeLogRepository logRepo;
+
+    // Sin readOnly a propósito: va al primario. En una réplica atrasada el
+    // estado leído podría ser anterior al token entregado.
+    @Transactional
+    public CatalogChangesDto changes(String since, Integer limit) {
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "limit debe estar entre 1 y " + MAX_LIMIT
+            );
+        }
+        Token token = parseToken(since);
+        long after = token.after();
+        long pruned = logRepo.prunedThrough();
+        if (after > 0 && token.validFrom() < pruned) {
+            throw new ResponseStatusException(
+                    HttpStatus.GONE,
+                    "El token es anterior a las bajas que conserva el registro; recargar desde GET /catalog/snapshot"
+            );
+        }
+
+        // limit + 1 para saber si hay otra página sin un COUNT
+        List<CatalogChange> rows = changeRepo.findBySeqGreaterThanOrderBySeq(after, Limit.of(size + 1));
+        boolean hasMore = rows.size() > size;
+        List<CatalogChange> page = hasMore ? rows.subList(0, size) : rows;
+        long next = page.isEmpty() ? after : page.get(page.size() - 1).getSeq();
+
+        // la última operación por entidad es la que vale
+        Map<CatalogEntityType, Map<Long, ChangeOp>> latest = new EnumMap<>(CatalogEntityType.class);
+        for (CatalogChange c : page) {
+            latest.computeIfAbsent(c.getEntityType(), t -> new LinkedHashMap<>())
+                    .put(c.getEntityId(), c.getOp());
+        }
+
+        List<CatalogTombstoneDto> deleted = new ArrayList<>();
+        Set<Long> productIds = upserts(latest, CatalogEntityType.PRODUCT, deleted);
+        Set<Long> variantIds = upserts(latest, CatalogEntityType.VARIANT, deleted);
+        Set<Long> stockIds = upserts(latest, CatalogEntityType.INVENTORY, deleted);
+        Set<Long> imageIds = upserts(latest, CatalogEntityType.IMAGE, deleted);
+
+        // una consulta por tipo; lo que ya no existe viaja como baja
+        List<Product> products = productIds.isEmpty() ? List.of()
+                : productRepo.findWithRelationsByIdIn(productIds);
+        tombstonesForMissing(CatalogEntityType.PRODUCT, productIds, products.stream().map(Product::getId).toList(), deleted);
+
+        List<VariantDto> variants = variantIds.isEmpty() ? List.of()
+                : variantRepo.findAllById(variantIds).stream().map(CatalogSyncService::toDto).toList();
+        tombstonesForMissing(CatalogEntityType.VARIANT, variantIds, variants.stream().map(VariantDto::id).toList(), deleted);
+
+        List<StockLevelDto> stock = stockIds.isEmpty() ? List.of()
+                : batchRepo.findLevels(stockIds).stream()
+                        .map(l -> new StockLevelDto(l.variantId(), l.stockAvailable(), l.stockReserved(),
+                                l.stockAvailable() - l.stockReserved()))
+                        .toList();
+        tombstonesForMissing(CatalogEntityType.INVENTORY, stockIds, stock.stream().map(StockLevelDto::variantId).toList(), deleted);
+
+        List<ImageDto> images = imageIds.isEmpty() ? List.of()
+                : imageRepo.findAllById(imageIds).stream().map(ImageMapper::toDto).toList();
+        tombstonesForMissing(CatalogEntityType.IMAGE, imageIds, images.stream().map(ImageDto::id).toList(), deleted);
+
+        String nextToken = next >= pruned ? String.valueOf(next) : next + "." + pruned;
+        return new CatalogChangesDto(products, variants, stock, images, deleted, nextToken, hasMore);
+    }
+
+    // validFrom: la poda bajo la que se entregó (para "seq" a secas, el mismo seq)
+    private record Token(long after, long validFrom) {}
+
+    private static Token parseToken(String since) {
+        if (since == null || since.isBlank()) {
+            return new Token(0L, 0L); // primera sincronización: todo el catálogo
+        }
+        try {
+            int dot = since.indexOf('.');
+            long after = Long.parseLong(dot < 0 ? since : since.substring(0, dot));
+            long validFrom = dot < 0 ? after : Long.parseLong(since.substring(dot + 1));
+            if (after < 0 || validFrom < 0) {
+                throw new NumberFormatException();
+            }
+            return new Token(after, validFrom);
+        } catch (NumberFormatException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Token de sincronización inválido");
+        }
+    }
+
+    private static Set<Long> upserts(Map<CatalogEntityType, Map<Long, ChangeOp>> latest,
+                                     CatalogEntityType type,
+                                     List<CatalogTombstoneDto> deleted) {
+        Set<Long> ids = new LinkedHashSet<>();
+        latest.getOrDefault(type, Map.of()).forEach((id, op) -> {
+            if (op == ChangeOp.DELETE) {
+                deleted.add(new CatalogTombstoneDto(type.name(), id));
+            } else {
+                ids.add(id);
+            }
+        });
+        return ids;
+    }
+
+    private static void tombstonesForMissing(CatalogEntityType type, Set<Long> requested, List<Long> found,
+                                             List<CatalogTombstoneDto> deleted) {
+        if (found.size() == requested.size()) {
+            return;
+        }
+        Set<Long> present = new HashSet<>(found);
+        for (Long id : requested) {
+            if (!present.contains(id)) {
+                deleted.add(new CatalogTombstoneDto(type.name(), id));
+            }
+        }
+    }
+
+    // stock va aparte (StockLevelDto): no se carga el inventario por variante
+    private static VariantDto toDto(Variant v) {
+        return new VariantDto(
+                v.getId(),
+                v.getProduct().getId(),
+                v.getSizeType().name(),
+                v.getSizeValue(),
+                v.getColor(),
+                v.getSku(),
+                v.getPriceOverride(),
+                null
+        );
+    }
+}
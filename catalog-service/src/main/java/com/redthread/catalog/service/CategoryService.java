@@ -1,37 +1,66 @@
 package com.redthread.catalog.service;
 
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.event.CategoryChangedEvent;
 import com.redthread.catalog.model.Category;
+import com.redthread.catalog.repository.CatalogChangeRepository;
 import com.redthread.catalog.repository.CategoryRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 
+import java.time.Instant;
 import java.util.List;
 
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 @Service
 @RequiredArgsConstructor
 public class CategoryService {
     private final CategoryRepository repo;
+    private final CatalogChangeRepository changes;
+    private final ReferenceDataService referenceData;
+    private final ApplicationEventPublisher events;
 
     public Category create(String name, String description) {
         repo.findByNameIgnoreCase(name).ifPresent(c -> {
             throw new IllegalArgumentException("Categoria ya existe");
         });
         Category c = Category.builder().name(name.trim()).description(description).active(true).build();
-        return repo.save(c);
+        Category saved = repo.save(c);
+        events.publishEvent(new CategoryChangedEvent(saved.getId()));
+        return saved;
     }
 
+    // Lecturas desde la foto en memoria (ReferenceDataService)
     public Category get(Long id) {
-        return repo.findById(id).orElseThrow(() -> new EntityNotFoundException("Category not found"));
+        return referenceData.category(id).orElseThrow(() -> new EntityNotFoundException("Category not found"));
     }
 
     public List<Category> getAll() {
-        return repo.findAll();
+        return referenceData.current().categories();
     }
 
+    /** GET /categories ya serializado (una vez por foto). */
+    public byte[] listJson() {
+        return referenceData.current().categoriesJson();
+    }
+
+    public String listETag() {
+        return referenceData.current().categoryStamp().etag("categories");
+    }
+
+    // los productos cacheados llevan el nombre de su categoría
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
+    })
     public Category update(Long id, String name, String description) {
         Category existing = repo.findById(id)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoría no encontrada"));
@@ -50,7 +79,12 @@ public class CategoryService {
         existing.setName(name.trim());
         existing.setDescription(description != null ? description.trim() : null);
 
-        return repo.save(existing);
+        Category saved = repo.save(existing);
+        // el JSON de sus productos lleva el nombre: la app los vuelve a bajar
+        changes.recordProductsOfCategory(saved.getId(), Instant.now());
+        // el nombre de la categoría también se indexa en la búsqueda de productos
+        events.publishEvent(new CategoryChangedEvent(saved.getId()));
+        return saved;
     }
 
 }
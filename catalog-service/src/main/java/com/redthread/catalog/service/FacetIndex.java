@@ -0,0 +1,388 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.repository.FacetSourceRepository.ProductRow;
+import com.redthread.catalog.repository.FacetSourceRepository.VariantRow;
+import com.redthread.catalog.repository.ProductFilter;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitmaps por valor de faceta para contar el listado sin ir a la BD.
+ *
+ * Productos y variantes reciben ordinales internos; cada valor (categoría,
+ * marca, género, talla, color, destacado, con stock) guarda un BitSet con
+ * los ordinales que lo tienen. Un filtro es un AND de bitmaps y un conteo
+ * es la cardinalidad de la intersección, así todas las facetas salen de
+ * la misma pasada sin un GROUP BY por faceta.
+ *
+ * Conteo disjuntivo: cada faceta se cuenta con todos los filtros menos el
+ * suyo, para que la UI muestre cuánto daría cambiar de categoría (o de
+ * talla) sin tener que quitar el filtro primero.
+ *
+ * size, color e inStock se cruzan sobre la misma variante, igual que en
+ * {@link com.redthread.catalog.repository.ProductSpecifications}.
+ *
+ * Reindexar un producto marca sus ordinales como muertos y agrega nuevos;
+ * cuando los muertos pasan de un cuarto se rearma todo desde las filas.
+ */
+final class FacetIndex {
+
+    /** Conteos por valor; los valores sin productos no aparecen. */
+    record Counts(
+            int total,
+            Map<Long, Integer> categories,
+            Map<ProductGender, Integer> genders,
+            Map<Long, Integer> brands,
+            Map<String, Integer> sizes,
+            Map<String, Integer> colors
+    ) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // filas vigentes (para reindexar y compactar)
+    private final Map<Long, ProductRow> products = new HashMap<>();
+    private final Map<Long, List<VariantRow>> variantsByProduct = new HashMap<>();
+
+    // productos
+    private final Map<Long, Integer> ordByProduct = new HashMap<>();
+    private long[] productByOrd = new long[1024];
+    private BigDecimal[] priceByOrd = new BigDecimal[1024];
+    private final BitSet live = new BitSet();
+    private final Map<Long, BitSet> byCategory = new HashMap<>();
+    private final Map<Long, BitSet> byBrand = new HashMap<>();
+    private final Map<ProductGender, BitSet> byGender = new EnumMap<>(ProductGender.class);
+    private final BitSet featured = new BitSet();
+    private int nextOrd;
+    private int deadOrds;
+
+    // variantes
+    private final Map<Long, Integer> ordByVariant = new HashMap<>();
+    private int[] productOrdByVariant = new int[1024];
+    private int[] sizeByVariant = new int[1024];
+    private int[] colorByVariant = new int[1024];
+    private final BitSet liveVariants = new BitSet();
+    private final Map<String, BitSet> bySize = new HashMap<>();
+    private final Map<String, BitSet> byColor = new HashMap<>();
+    // talla/color -> posición, para contar en arreglos
+    private final List<String> sizes = new ArrayList<>();
+    private final List<String> colors = new ArrayList<>();
+    private final Map<String, Integer> sizeIndex = new HashMap<>();
+    private final Map<String, Integer> colorIndex = new HashMap<>();
+    private final BitSet inStock = new BitSet();
+    private int nextVariantOrd;
+    private int deadVariantOrds;
+
+    // ============================================================
+    // Escritura
+    // ============================================================
+
+    /** Reemplaza el contenido completo (arranque). */
+    void rebuild(Collection<ProductRow> productRows, Collection<VariantRow> variantRows) {
+        lock.writeLock().lock();
+        try {
+            products.clear();
+            variantsByProduct.clear();
+            for (ProductRow p : productRows) {
+                products.put(p.id(), p);
+            }
+            for (VariantRow v : variantRows) {
+                if (products.containsKey(v.productId())) {
+                    variantsByProduct.computeIfAbsent(v.productId(), k -> new ArrayList<>()).add(v);
+                }
+            }
+            reindexLocked();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexa o reindexa un producto con sus variantes activas. */
+    void put(ProductRow product, List<VariantRow> variants) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(product.id());
+            products.put(product.id(), product);
+            variantsByProduct.put(product.id(), new ArrayList<>(variants));
+            addLocked(product, variants);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Una variante cruzó el cero de stock: solo cambia un bit. */
+    void setInStock(long variantId, boolean value) {
+        lock.writeLock().lock();
+        try {
+            Integer ord = ordByVariant.get(variantId);
+            if (ord == null) {
+                return;
+            }
+            inStock.set(ord, value);
+
+            List<VariantRow> rows = variantsByProduct.get(productByOrd[productOrdByVariant[ord]]);
+            for (int i = 0; rows != null && i < rows.size(); i++) {
+                VariantRow v = rows.get(i);
+                if (v.id() == variantId) {
+                    rows.set(i, new VariantRow(v.id(), v.productId(), v.size(), v.color(), value));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void reindexLocked() {
+        ordByProduct.clear();
+        live.clear();
+        byCategory.clear();
+        byBrand.clear();
+        byGender.clear();
+        featured.clear();
+        nextOrd = 0;
+        deadOrds = 0;
+
+        ordByVariant.clear();
+        liveVariants.clear();
+        bySize.clear();
+        byColor.clear();
+        sizes.clear();
+        colors.clear();
+        sizeIndex.clear();
+        colorIndex.clear();
+        inStock.clear();
+        nextVariantOrd = 0;
+        deadVariantOrds = 0;
+
+        for (ProductRow p : products.values()) {
+            addLocked(p, variantsByProduct.getOrDefault(p.id(), List.of()));
+        }
+    }
+
+    private void addLocked(ProductRow p, List<VariantRow> variants) {
+        int ord = nextOrd++;
+        if (ord == productByOrd.length) {
+            productByOrd = Arrays.copyOf(productByOrd, ord * 2);
+            priceByOrd = Arrays.copyOf(priceByOrd, ord * 2);
+        }
+        productByOrd[ord] = p.id();
+        priceByOrd[ord] = p.basePrice();
+        ordByProduct.put(p.id(), ord);
+        live.set(ord);
+        byCategory.computeIfAbsent(p.categoryId(), k -> new BitSet()).set(ord);
+        if (p.brandId() != null) {
+            byBrand.computeIfAbsent(p.brandId(), k -> new BitSet()).set(ord);
+        }
+        byGender.computeIfAbsent(p.gender(), k -> new BitSet()).set(ord);
+        featured.set(ord, p.featured());
+
+        for (VariantRow v : variants) {
+            int vord = nextVariantOrd++;
+            if (vord == productOrdByVariant.length) {
+                productOrdByVariant = Arrays.copyOf(productOrdByVariant, vord * 2);
+                sizeByVariant = Arrays.copyOf(sizeByVariant, vord * 2);
+                colorByVariant = Arrays.copyOf(colorByVariant, vord * 2);
+            }
+            // las variantes de un producto quedan con ordinales seguidos
+            productOrdByVariant[vord] = ord;
+            sizeByVariant[vord] = valueIndex(v.size(), sizes, sizeIndex);
+            colorByVariant[vord] = valueIndex(v.color(), colors, colorIndex);
+            ordByVariant.put(v.id(), vord);
+            liveVariants.set(vord);
+            bySize.computeIfAbsent(v.size(), k -> new BitSet()).set(vord);
+            byColor.computeIfAbsent(v.color(), k -> new BitSet()).set(vord);
+            inStock.set(vord, v.inStock());
+        }
+    }
+
+    private static int valueIndex(String value, List<String> values, Map<String, Integer> index) {
+        return index.computeIfAbsent(value, k -> {
+            values.add(k);
+            return values.size() - 1;
+        });
+    }
+
+    private void removeLocked(long productId) {
+        products.remove(productId);
+        List<VariantRow> variants = variantsByProduct.remove(productId);
+        Integer ord = ordByProduct.remove(productId);
+        if (ord != null) {
+            live.clear(ord);
+            deadOrds++;
+        }
+        if (variants != null) {
+            for (VariantRow v : variants) {
+                Integer vord = ordByVariant.remove(v.id());
+                if (vord != null) {
+                    liveVariants.clear(vord);
+                    deadVariantOrds++;
+                }
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        // los bitmaps de valores conservan bits muertos: las consultas los
+        // descartan con live/liveVariants, pero ocupan y se recorren
+        if (deadOrds * 4 >= nextOrd && deadOrds > 0
+                || deadVariantOrds * 4 >= nextVariantOrd && deadVariantOrds > 0) {
+            reindexLocked();
+        }
+    }
+
+    // ============================================================
+    // Consulta
+    // ============================================================
+    Counts count(ProductFilter f) {
+        lock.readLock().lock();
+        try {
+            // un bitmap por filtro informado (null = no filtra)
+            BitSet category = f.categoryId() == null ? null : bits(byCategory.get(f.categoryId()));
+            BitSet gender = f.gender() == null ? null : bits(byGender.get(f.gender()));
+            BitSet brand = f.brandId() == null ? null : bits(byBrand.get(f.brandId()));
+            BitSet feat = f.featuredOnly() ? featured : null;
+            BitSet price = priceMask(f.minPrice(), f.maxPrice());
+
+            BitSet size = f.size() == null ? null : bits(bySize.get(f.size()));
+            BitSet color = f.color() == null ? null : bits(byColor.get(f.color()));
+            BitSet stock = f.inStockOnly() ? inStock : null;
+
+            // productos con una variante que cumple los tres filtros de variante
+            BitSet variantMatch = f.hasVariantFilter()
+                    ? project(and(liveVariants, size, color, stock), live)
+                    : null;
+
+            BitSet allProducts = and(live, category, gender, brand, feat, price);
+            int total = and(allProducts, variantMatch).cardinality();
+
+            Map<Long, Integer> categories = countEach(byCategory, and(live, gender, brand, feat, price, variantMatch));
+            Map<ProductGender, Integer> genders = countEach(byGender, and(live, category, brand, feat, price, variantMatch));
+            Map<Long, Integer> brands = countEach(byBrand, and(live, category, gender, feat, price, variantMatch));
+
+            Map<String, Integer> sizeCounts = countEachVariant(
+                    and(liveVariants, color, stock), allProducts, sizeByVariant, sizes);
+            Map<String, Integer> colorCounts = countEachVariant(
+                    and(liveVariants, size, stock), allProducts, colorByVariant, colors);
+
+            return new Counts(total, categories, genders, brands, sizeCounts, colorCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private static BitSet bits(BitSet b) {
+        return b != null ? b : EMPTY;
+    }
+
+    /** Copia de base AND cada máscara no nula. */
+    private static BitSet and(BitSet base, BitSet... masks) {
+        BitSet out = (BitSet) base.clone();
+        for (BitSet m : masks) {
+            if (m != null) {
+                out.and(m);
+            }
+        }
+        return out;
+    }
+
+    private BitSet priceMask(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        BitSet out = new BitSet(nextOrd);
+        for (int ord = live.nextSetBit(0); ord >= 0; ord = live.nextSetBit(ord + 1)) {
+            BigDecimal p = priceByOrd[ord];
+            if ((min == null || p.compareTo(min) >= 0) && (max == null || p.compareTo(max) <= 0)) {
+                out.set(ord);
+            }
+        }
+        return out;
+    }
+
+    /** Productos (dentro de allowed) que tienen alguna de las variantes. */
+    private BitSet project(BitSet variants, BitSet allowed) {
+        BitSet out = new BitSet(nextOrd);
+        for (int v = variants.nextSetBit(0); v >= 0; v = variants.nextSetBit(v + 1)) {
+            int ord = productOrdByVariant[v];
+            if (allowed.get(ord)) {
+                out.set(ord);
+            }
+        }
+        return out;
+    }
+
+    private static <K> Map<K, Integer> countEach(Map<K, BitSet> byValue, BitSet mask) {
+        Map<K, Integer> out = new LinkedHashMap<>();
+        for (Map.Entry<K, BitSet> e : byValue.entrySet()) {
+            BitSet hit = (BitSet) e.getValue().clone();
+            hit.and(mask);
+            int c = hit.cardinality();
+            if (c > 0) {
+                out.put(e.getKey(), c);
+            }
+        }
+        return out;
+    }
+
+    // Una talla/color cuenta productos distintos, no variantes. Una sola
+    // pasada por las variantes: como las de un producto tienen ordinales
+    // seguidos, basta recordar el último producto contado por valor.
+    private Map<String, Integer> countEachVariant(BitSet variantMask, BitSet productMask,
+                                                  int[] valueByVariant, List<String> values) {
+        int[] counts = new int[values.size()];
+        int[] lastProduct = new int[values.size()];
+        Arrays.fill(lastProduct, -1);
+        for (int v = variantMask.nextSetBit(0); v >= 0; v = variantMask.nextSetBit(v + 1)) {
+            int ord = productOrdByVariant[v];
+            if (!productMask.get(ord)) {
+                continue;
+            }
+            int k = valueByVariant[v];
+            if (lastProduct[k] != ord) {
+                lastProduct[k] = ord;
+                counts[k]++;
+            }
+        }
+
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (int k = 0; k < counts.length; k++) {
+            if (counts[k] > 0) {
+                out.put(values.get(k), counts[k]);
+            }
+        }
+        return out;
+    }
+}
@@ -2,6 +2,9 @@ package com.redthread.catalog.service;
 
 import com.redthread.catalog.model.Product;
 import com.redthread.catalog.model.ProductImage;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
+import com.redthread.catalog.repository.CatalogChangeRepository;
 import com.redthread.catalog.repository.ProductImageRepository;
 import com.redthread.catalog.repository.ProductRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -28,6 +31,7 @@ public class ImageStorageService {
 
     private final ProductRepository productRepo;
     private final ProductImageRepository imageRepo;
+    private final CatalogChangeRepository changes;
 
     // === Subir desde un archivo local (multipart) ===
     public ProductImage store(Long productId, MultipartFile file, boolean primary) throws IOException {
@@ -63,7 +67,7 @@ public class ImageStorageService {
                 .createdAt(Instant.now())
                 .build();
 
-        return imageRepo.save(img);
+        return save(img);
     }
 
     // === NUEVO: guardar desde un archivo descargado (URL remota) ===
@@ -100,7 +104,7 @@ public class ImageStorageService {
                 .createdAt(Instant.now())
                 .build();
 
-        return imageRepo.save(img);
+        return save(img);
     }
 
     // === Auxiliares ===
@@ -109,7 +113,7 @@ public class ImageStorageService {
         for (ProductImage im : imgs) {
             if (im.isPrimary()) {
                 im.setPrimary(false);
-                imageRepo.save(im);
+                save(im);
             }
         }
     }
@@ -119,7 +123,7 @@ public class ImageStorageService {
                 .orElseThrow(() -> new EntityNotFoundException("Imagen no existe"));
         unsetPrimary(img.getProduct().getId());
         img.setPrimary(true);
-        return imageRepo.save(img);
+        return save(img);
     }
 
     public void delete(Long imageId) throws IOException {
@@ -130,6 +134,7 @@ public class ImageStorageService {
         } catch (Exception ignored) {
         }
         imageRepo.deleteById(imageId);
+        changes.record(CatalogEntityType.IMAGE, imageId, ChangeOp.DELETE, Instant.now());
     }
 
     public String presignKey(Long productId, String originalFilename) {
@@ -153,7 +158,14 @@ public class ImageStorageService {
                 .createdAt(Instant.now())
                 .build();
 
-        return imageRepo.save(img);
+        return save(img);
+    }
+
+    // Toda escritura de imagen queda en catalog_changes para la app
+    private ProductImage save(ProductImage img) {
+        ProductImage saved = imageRepo.save(img);
+        changes.record(CatalogEntityType.IMAGE, saved.getId(), ChangeOp.UPSERT, Instant.now());
+        return saved;
     }
 
     private String getExt(String name) {
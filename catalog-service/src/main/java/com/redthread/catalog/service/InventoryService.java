@@ -1,15 +1,44 @@
 package com.redthread.catalog.service;
 
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.AdjustStockReq;
+import com.redthread.catalog.controller.dto.InventoryMovementPageDto;
+import com.redthread.catalog.controller.dto.InventoryMovementDto;
+import com.redthread.catalog.controller.dto.ReservationDto;
+import com.redthread.catalog.controller.dto.ReserveStockReq;
+import com.redthread.catalog.controller.dto.StockLevelDto;
+import com.redthread.catalog.event.StockAvailabilityChangedEvent;
 import com.redthread.catalog.model.Inventory;
-import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.StockReservation;
+import com.redthread.catalog.model.enums.MovementReason;
+import com.redthread.catalog.model.enums.ReservationStatus;
+import com.redthread.catalog.repository.CatalogChangeRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository.Movement;
 import com.redthread.catalog.repository.InventoryRepository;
+import com.redthread.catalog.repository.StockReservationRepository;
 import com.redthread.catalog.repository.VariantRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -17,37 +46,428 @@ public class InventoryService {
 
     private final InventoryRepository repo;
     private final VariantRepository variantRepo;
+    private final CacheManager cacheManager;
+    private final StockReservationRepository reservationRepo;
+    private final InventoryBatchRepository batchRepo;
+    private final InventoryMovementRepository movementRepo;
+    private final CatalogChangeRepository changes;
+    private final ApplicationEventPublisher events;
+
+    static final int DEFAULT_MOVEMENTS_PAGE = 50;
+    static final int MAX_MOVEMENTS_PAGE = 200;
+
+    @Value("${app.inventory.reservations.ttl:15m}")
+    private Duration reservationTtl;
 
     public Inventory getByVariant(Long variantId) {
         return repo.findByVariantId(variantId)
                 .orElseThrow(() -> new EntityNotFoundException("Inventario no existe"));
     }
 
+    // ============================================================
+    // Ajuste de stock
+    // Un solo UPDATE condicional: la suma la hace la BD sobre el valor
+    // actual de la fila, así dos checkouts simultáneos sobre la misma
+    // variante no se pisan (sin lost updates) y la condición impide dejar
+    // menos stock que lo reservado. La fila queda tomada desde el UPDATE
+    // hasta el commit, no durante una lectura + cálculo + save; por eso los
+    // INSERT del historial van antes del UPDATE y no alargan ese tramo (si
+    // el ajuste se rechaza, el rollback los descarta).
+    // ============================================================
     @Transactional
     public Inventory adjustStock(Long variantId, int delta) {
-        Variant variant = variantRepo.findById(variantId)
-                .orElseThrow(() -> new EntityNotFoundException("Variante no existe"));
-
-        Inventory inv = repo.findByVariantId(variantId)
-                .orElseGet(() -> Inventory.builder()
-                        .variant(variant)
-                        .stockAvailable(0)
-                        .stockReserved(0)
-                        .updatedAt(Instant.now()) 
-                        .build()
-                );
+        return adjustStock(variantId, delta, null);
+    }
+
+    @Transactional
+    public Inventory adjustStock(Long variantId, int delta, String reference) {
+        if (delta == Integer.MIN_VALUE)
+            throw new IllegalArgumentException("Stock fuera de rango");
+
+        Instant now = Instant.now();
+        int need = delta < 0 ? -delta : 0;
+        int maxBefore = delta > 0 ? Integer.MAX_VALUE - delta : Integer.MAX_VALUE;
+
+        appendMovements(List.of(adjustMovement(variantId, delta, MovementReason.ADJUST, reference)), now);
+        if (repo.adjust(variantId, delta, need, maxBefore, now) == 0) {
+            // No se aplicó: o no hay inventario, o la condición no se cumple.
+            // Primer ajuste de la variante: se crea la fila en 0 y se repite
+            // el mismo UPDATE, así dos primeros ajustes concurrentes no chocan
+            // con el UNIQUE y ambos se suman. Si la fila ya está, otro primer
+            // ajuste pudo crearla después del UPDATE: también se repite antes
+            // de rechazar.
+            if (repo.findByVariantId(variantId).isEmpty()) {
+                if (!variantRepo.existsById(variantId))
+                    throw new EntityNotFoundException("Variante no existe");
+                batchRepo.createMissing(List.of(variantId), now);
+            }
+            if (repo.adjust(variantId, delta, need, maxBefore, now) == 0) {
+                throw rejectAdjust(repo.findByVariantId(variantId).orElseThrow(), delta);
+            }
+        }
+
+        Inventory saved = repo.findByVariantId(variantId).orElseThrow();
+        int after = saved.getStockAvailable() - saved.getStockReserved();
+        notifyIfAvailabilityFlipped(variantId, after - delta, after);
+        return saved;
+    }
+
+    /**
+     * Varios ajustes en una transacción y un solo batch JDBC, todo o nada.
+     * Se agrupan por variante y se aplican en orden de variant_id, así dos
+     * lotes concurrentes toman los locks de fila en el mismo orden y no
+     * pueden quedar en deadlock entre ellos.
+     */
+    @Transactional
+    public List<StockLevelDto> adjustStockBatch(List<AdjustStockReq> items) {
+        Map<Long, Integer> deltaByVariant = new TreeMap<>();
+        try {
+            for (AdjustStockReq item : items) {
+                deltaByVariant.merge(item.variantId(), item.delta(), Math::addExact);
+            }
+        } catch (ArithmeticException ex) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stock fuera de rango");
+        }
+        if (deltaByVariant.containsValue(Integer.MIN_VALUE)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Stock fuera de rango");
+        }
+
+        Instant now = Instant.now();
+        // Un movimiento por item recibido (no por variante agrupada): el
+        // historial conserva cada referencia tal como llegó. Va antes de
+        // los UPDATE, igual que en adjustStock.
+        appendMovements(items.stream()
+                .map(item -> adjustMovement(item.variantId(), item.delta(), MovementReason.ADJUST, item.reference()))
+                .toList(), now);
+
+        Map<Long, Integer> failed = notApplied(deltaByVariant, batchRepo.adjust(deltaByVariant, now));
+        if (!failed.isEmpty()) {
+            // Como en adjustStock: las variantes sin fila de inventario (ej: el
+            // restock de una orden cancelada) se crean en 0 y se reintentan
+            batchRepo.createMissing(failed.keySet(), now);
+            failed = notApplied(failed, batchRepo.adjust(failed, now));
+        }
+        if (!failed.isEmpty()) {
+            // el rollback deshace las filas que sí se ajustaron
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "No se pudo ajustar la variante " + failed.keySet().iterator().next()
+                            + " (no existe o stock insuficiente)"
+            );
+        }
+
+        return batchRepo.findLevels(deltaByVariant.keySet()).stream()
+                .map(l -> {
+                    int after = l.stockAvailable() - l.stockReserved();
+                    notifyIfAvailabilityFlipped(l.variantId(), after - deltaByVariant.get(l.variantId()), after);
+                    return new StockLevelDto(l.variantId(), l.stockAvailable(), l.stockReserved(), after);
+                })
+                .toList();
+    }
+
+    /** Las entradas del lote cuyo UPDATE no afectó filas (mismo orden). */
+    private static Map<Long, Integer> notApplied(Map<Long, Integer> deltaByVariant, int[] updated) {
+        Map<Long, Integer> failed = new TreeMap<>();
+        int i = 0;
+        for (Map.Entry<Long, Integer> e : deltaByVariant.entrySet()) {
+            if (updated[i++] == 0) {
+                failed.put(e.getKey(), e.getValue());
+            }
+        }
+        return failed;
+    }
+
+    /** Resultado de aplicar un lote del buffer de escritura. */
+    public record CoalescedFlush(List<InventoryBatchRepository.StockLevel> levels, Map<Long, Integer> rejected) {}
+
+    /** Ajuste del buffer que llegó con reference: su delta ya está sumado en el neto de la variante. */
+    public record ReferencedDelta(Long variantId, int delta, String reference) {}
+
+    /**
+     * Aplica deltas ya acumulados por InventoryWriteBuffer y avanza su
+     * checkpoint en la misma transacción. A diferencia de adjustStockBatch
+     * no es todo o nada: los deltas ya se confirmaron al cliente, así que
+     * una variante rechazada no debe frenar al resto. Las rechazadas quedan
+     * en inventory_buffer_rejections con el mismo commit que el checkpoint.
+     *
+     * Los ajustes que traían reference mantienen su propio movimiento (igual
+     * que por el camino directo); el resto del neto queda en un movimiento
+     * con la referencia del segmento.
+     */
+    @Transactional
+    public CoalescedFlush applyCoalesced(Map<Long, Integer> deltaByVariant, List<ReferencedDelta> referenced,
+                                         String nodeId, long segmentSeq) {
+        Instant now = Instant.now();
+        Map<Long, Integer> sorted = new TreeMap<>(deltaByVariant);
 
-        long next = (long) inv.getStockAvailable() + delta;
+        int[] updated = batchRepo.adjust(sorted, now);
+
+        Map<Long, Integer> rejected = new TreeMap<>();
+        List<Movement> movements = new ArrayList<>();
+        String reference = "buffer:" + nodeId + ":" + segmentSeq;
+        Map<Long, List<ReferencedDelta>> referencedByVariant = new TreeMap<>();
+        for (ReferencedDelta r : referenced) {
+            referencedByVariant.computeIfAbsent(r.variantId(), k -> new ArrayList<>()).add(r);
+        }
+        int i = 0;
+        for (Map.Entry<Long, Integer> e : sorted.entrySet()) {
+            if (updated[i++] == 0) {
+                rejected.put(e.getKey(), e.getValue());
+            } else {
+                // el buffer ya sumó los deltas: un movimiento por ajuste con
+                // reference y uno con lo que queda del neto
+                long rest = e.getValue();
+                for (ReferencedDelta r : referencedByVariant.getOrDefault(e.getKey(), List.of())) {
+                    movements.add(adjustMovement(e.getKey(), r.delta(), MovementReason.BUFFERED_ADJUST, r.reference()));
+                    rest -= r.delta();
+                }
+                if (rest != 0) {
+                    movements.add(adjustMovement(e.getKey(), (int) rest, MovementReason.BUFFERED_ADJUST, reference));
+                }
+            }
+        }
+        appendMovements(movements, now);
+
+        List<InventoryBatchRepository.StockLevel> levels = batchRepo.findLevels(sorted.keySet());
+        for (InventoryBatchRepository.StockLevel l : levels) {
+            if (!rejected.containsKey(l.variantId())) {
+                int after = l.stockAvailable() - l.stockReserved();
+                notifyIfAvailabilityFlipped(l.variantId(), after - sorted.get(l.variantId()), after);
+            }
+        }
+
+        batchRepo.saveRejections(nodeId, segmentSeq, rejected, now);
+        batchRepo.saveCheckpoint(nodeId, segmentSeq, now);
+        return new CoalescedFlush(levels, rejected);
+    }
 
+    private IllegalArgumentException rejectAdjust(Inventory current, int delta) {
+        long next = (long) current.getStockAvailable() + delta;
         if (next < 0)
-            throw new IllegalArgumentException("No puedes dejar stock negativo");
+            return new IllegalArgumentException("No puedes dejar stock negativo");
         if (next > Integer.MAX_VALUE)
-            throw new IllegalArgumentException("Stock fuera de rango");
+            return new IllegalArgumentException("Stock fuera de rango");
+        return new IllegalArgumentException("No puedes dejar menos stock que el reservado");
+    }
 
-        inv.setStockAvailable((int) next);
-        inv.setUpdatedAt(Instant.now()); 
+    // ============================================================
+    // Reservas en dos fases
+    // reserve: stock_reserved += q si alcanza lo libre (available - reserved)
+    // commit:  available -= q, reserved -= q (lo libre no cambia)
+    // release / expire: reserved -= q
+    // Cada paso es un UPDATE condicional; no se toman locks de fila más
+    // allá de lo que dura cada UPDATE, así que el checkout puede tener el
+    // stock apartado mientras habla con otros servicios.
+    // ============================================================
+    @Transactional
+    public ReservationDto reserve(List<ReserveStockReq.Item> items) {
+        return reserve(items, null);
+    }
 
-        return repo.save(inv);
+    @Transactional
+    public ReservationDto reserve(List<ReserveStockReq.Item> items, String reference) {
+        // Agrupado por variante y en orden de id: todas las reservas
+        // actualizan las filas en el mismo orden (sin deadlocks entre ellas)
+        Map<Long, Integer> qtyByVariant = new TreeMap<>();
+        for (ReserveStockReq.Item item : items) {
+            qtyByVariant.merge(item.variantId(), item.quantity(), Math::addExact);
+        }
+
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(reservationTtl);
+        String reservationId = UUID.randomUUID().toString();
+
+        List<StockReservation> lines = new ArrayList<>();
+        for (Map.Entry<Long, Integer> e : qtyByVariant.entrySet()) {
+            Long variantId = e.getKey();
+            int qty = e.getValue();
+
+            // Si una línea no alcanza, el rollback deshace las anteriores
+            if (repo.reserve(variantId, qty, now) == 0) {
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        "Stock insuficiente para la variante " + variantId
+                );
+            }
+            int free = repo.findFreeStock(variantId).orElse(0);
+            notifyIfAvailabilityFlipped(variantId, free + qty, free);
+
+            lines.add(StockReservation.builder()
+                    .reservationId(reservationId)
+                    .variantId(variantId)
+                    .quantity(qty)
+                    .status(ReservationStatus.HELD)
+                    .reference(reference)
+                    .expiresAt(expiresAt)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+
+        reservationRepo.saveAll(lines);
+        appendMovements(lines.stream()
+                .map(l -> reservationMovement(l, 0, l.getQuantity(), MovementReason.RESERVE))
+                .toList(), now);
+        return ReservationDto.of(reservationId, lines);
+    }
+
+    @Transactional
+    public ReservationDto commitReservation(String reservationId) {
+        Instant now = Instant.now();
+        List<Movement> movements = new ArrayList<>();
+
+        for (StockReservation r : requireReservation(reservationId)) {
+            if (r.getStatus() == ReservationStatus.COMMITTED) {
+                continue; // reintento del cliente: idempotente
+            }
+            if (reservationRepo.claimUnexpired(r.getId(), ReservationStatus.COMMITTED, now) == 0) {
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        "La reserva expiró o fue liberada"
+                );
+            }
+            if (repo.consumeReserved(r.getVariantId(), r.getQuantity(), now) == 0) {
+                throw new IllegalStateException("Inventario inconsistente para la variante " + r.getVariantId());
+            }
+            movements.add(reservationMovement(r, -r.getQuantity(), -r.getQuantity(), MovementReason.COMMIT));
+        }
+        appendMovements(movements, now);
+
+        return ReservationDto.of(reservationId, requireReservation(reservationId));
+    }
+
+    @Transactional
+    public ReservationDto releaseReservation(String reservationId) {
+        Instant now = Instant.now();
+        List<Movement> movements = new ArrayList<>();
+
+        for (StockReservation r : requireReservation(reservationId)) {
+            if (r.getStatus() == ReservationStatus.COMMITTED) {
+                throw new ResponseStatusException(
+                        HttpStatus.CONFLICT,
+                        "La reserva ya fue confirmada"
+                );
+            }
+            // RELEASED / EXPIRED ya devolvieron su stock
+            if (reservationRepo.claim(r.getId(), ReservationStatus.RELEASED, now) == 1) {
+                returnReserved(r, now);
+                movements.add(reservationMovement(r, 0, -r.getQuantity(), MovementReason.RELEASE));
+            }
+        }
+        appendMovements(movements, now);
+
+        return ReservationDto.of(reservationId, requireReservation(reservationId));
+    }
+
+    /**
+     * Libera hasta batchSize líneas HELD vencidas. Retorna cuántas encontró,
+     * para que el sweeper siga mientras lleguen lotes completos.
+     */
+    @Transactional
+    public int expireReservations(Instant now, int batchSize) {
+        List<StockReservation> due = reservationRepo.findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+                ReservationStatus.HELD, now, Limit.of(batchSize));
+
+        List<Movement> movements = new ArrayList<>();
+        for (StockReservation r : due) {
+            // si justo la confirmaron o liberaron, el claim no toca nada
+            if (reservationRepo.claim(r.getId(), ReservationStatus.EXPIRED, now) == 1) {
+                returnReserved(r, now);
+                movements.add(reservationMovement(r, 0, -r.getQuantity(), MovementReason.EXPIRE));
+            }
+        }
+        appendMovements(movements, now);
+        return due.size();
     }
-    
+
+    private List<StockReservation> requireReservation(String reservationId) {
+        List<StockReservation> lines = reservationRepo.findByReservationIdOrderByVariantId(reservationId);
+        if (lines.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Reserva no existe");
+        }
+        return lines;
+    }
+
+    private void returnReserved(StockReservation r, Instant now) {
+        if (repo.unreserve(r.getVariantId(), r.getQuantity(), now) == 0) {
+            throw new IllegalStateException("Inventario inconsistente para la variante " + r.getVariantId());
+        }
+        int free = repo.findFreeStock(r.getVariantId()).orElse(0);
+        notifyIfAvailabilityFlipped(r.getVariantId(), free - r.getQuantity(), free);
+    }
+
+    // ============================================================
+    // Historial de movimientos
+    // Es solo historial: inventory sigue siendo el valor vigente y cada
+    // ajuste sigue haciendo su UPDATE sobre esa fila (las validaciones de
+    // piso necesitan el total en una fila). No hay foto compactada + cola
+    // de deltas, así que esto no quita contención a las variantes
+    // calientes; para eso está el buffer de escritura. Cada cambio agrega
+    // su delta en la misma transacción con un solo batch insert, así
+    // historial y stock no pueden divergir.
+    // ============================================================
+    public InventoryMovementPageDto movements(Long variantId, String cursor, Integer limit) {
+        int size = limit != null ? limit : DEFAULT_MOVEMENTS_PAGE;
+        if (size < 1 || size > MAX_MOVEMENTS_PAGE) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "limit debe estar entre 1 y " + MAX_MOVEMENTS_PAGE
+            );
+        }
+
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                beforeId = Long.parseLong(cursor);
+            } catch (NumberFormatException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+        }
+
+        // limit + 1 para saber si hay otra página sin un COUNT
+        List<InventoryMovementDto> rows = movementRepo.findPage(variantId, beforeId, size + 1);
+        boolean hasMore = rows.size() > size;
+        List<InventoryMovementDto> items = hasMore ? rows.subList(0, size) : rows;
+        String next = hasMore ? String.valueOf(items.get(items.size() - 1).id()) : null;
+        return new InventoryMovementPageDto(List.copyOf(items), next, hasMore);
+    }
+
+    // Cada cambio de stock deja su movimiento y avisa a la sincronización
+    // de la app (catalog_changes), ambos en la transacción del cambio
+    private void appendMovements(List<Movement> movements, Instant now) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        movementRepo.appendAll(movements, now);
+        changes.recordInventory(movements.stream().map(Movement::variantId).distinct().toList(), now);
+    }
+
+    private static Movement adjustMovement(Long variantId, int delta, MovementReason reason, String reference) {
+        return new Movement(variantId, delta, 0, reason, reference, null);
+    }
+
+    private static Movement reservationMovement(StockReservation r, int deltaAvailable, int deltaReserved,
+                                                MovementReason reason) {
+        return new Movement(r.getVariantId(), deltaAvailable, deltaReserved, reason,
+                r.getReference(), r.getReservationId());
+    }
+
+    // ============================================================
+    // Cache: el stock solo cambia un listado cuando una variante pasa de
+    // "con stock" a "sin stock" o al revés (filtro inStock). El resto de
+    // los ajustes no toca la cache, que es lo normal en un checkout.
+    // El decorator deja el clear para después del commit; el evento
+    // (facetas) también llega tras el commit.
+    // ============================================================
+    private void notifyIfAvailabilityFlipped(Long variantId, int before, int after) {
+        if ((before > 0) == (after > 0)) {
+            return;
+        }
+        Cache lists = cacheManager.getCache(CacheConfig.PRODUCT_LISTS);
+        if (lists != null) {
+            new TransactionAwareCacheDecorator(lists).clear();
+        }
+        events.publishEvent(new StockAvailabilityChangedEvent(variantId, after > 0));
+    }
+
 }
@@ -0,0 +1,602 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Buffer de escritura para ajustes de stock en ventas flash
+ * (app.inventory.write-buffer.enabled=true).
+ *
+ * En vez de un UPDATE por request sobre la misma fila caliente:
+ * 1) El ajuste se valida en memoria contra el stock de la variante
+ *    (mismo piso que adjustStock: no quedar bajo lo reservado).
+ * 2) Se escribe en un log local append-only ANTES de confirmar al cliente.
+ *    Con fsync, los ajustes que llegan mientras corre un force esperan al
+ *    siguiente y lo comparten (group commit): un force por tanda, no por
+ *    ajuste.
+ * 3) Cada flush-interval se suman los deltas por variante y se aplican en
+ *    un solo batch, junto con el checkpoint del último segmento aplicado.
+ *
+ * Si el proceso cae, al arrancar se reaplican los segmentos posteriores al
+ * checkpoint. Con fsync=false el log sobrevive a una caída del proceso pero
+ * no a una del sistema operativo. La reference del ajuste va en el registro
+ * y termina en su propio movimiento, también después de un replay.
+ *
+ * El piso en memoria se vuelve a leer de la BD en cada flush. Si otro camino
+ * (reservas, otro nodo) consume el mismo stock entre medio, la BD rechaza el
+ * delta al aplicar: como ya se confirmó al cliente, queda en
+ * inventory_buffer_rejections (mismo commit que el checkpoint) para
+ * conciliarlo. Este modo supone que el buffer es el único que ajusta esas
+ * variantes durante el evento.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.inventory.write-buffer.enabled", havingValue = "true")
+public class InventoryWriteBuffer implements SmartLifecycle {
+
+    private static final String SEGMENT_PREFIX = "inventory-deltas-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // variantId (8) + delta (4) + largo de la reference (2) + reference UTF-8 + crc32 de lo anterior (4)
+    private static final int HEADER_BYTES = 14;
+    private static final int CRC_BYTES = 4;
+
+    /** Estado en memoria de una variante. Se accede con synchronized(slot). */
+    private static final class Slot {
+        final Long inventoryId;
+        long available;
+        int reserved;
+        long pending;
+        // ajustes con reference aún no aplicados (ya sumados en pending)
+        List<InventoryService.ReferencedDelta> referenced = new ArrayList<>();
+
+        Slot(Long inventoryId, long available, int reserved) {
+            this.inventoryId = inventoryId;
+            this.available = available;
+            this.reserved = reserved;
+        }
+    }
+
+    private final InventoryService inventoryService;
+    private final InventoryRepository inventoryRepo;
+    private final InventoryBatchRepository batchRepo;
+    private final Path dir;
+    private final String nodeId;
+    private final Duration flushInterval;
+    private final boolean fsync;
+
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    // read: aceptar ajustes (muchos a la vez). write: snapshot de pendientes + rotar segmento.
+    private final ReentrantReadWriteLock rotation = new ReentrantReadWriteLock();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object logLock = new Object();
+
+    private FileChannel segment;
+    private long segmentSeq;
+    private long segmentBytes;
+    private long appended; // registros escritos desde el arranque (bajo logLock)
+
+    // group commit: un force cubre todos los registros escritos hasta que empezó
+    private final Object durableLock = new Object();
+    private long durable;   // registros ya en disco (bajo durableLock)
+    private boolean forcing; // hay un hilo haciendo force (bajo durableLock)
+    private long forces;     // forces hechos por group commit (tests)
+
+    private ScheduledExecutorService flusher;
+    private volatile boolean running;
+
+    public InventoryWriteBuffer(
+            InventoryService inventoryService,
+            InventoryRepository inventoryRepo,
+            InventoryBatchRepository batchRepo,
+            @Value("${app.inventory.write-buffer.dir:./data/inventory-log}") Path dir,
+            @Value("${app.inventory.write-buffer.node-id:catalog-1}") String nodeId,
+            @Value("${app.inventory.write-buffer.flush-interval:5ms}") Duration flushInterval,
+            @Value("${app.inventory.write-buffer.fsync:false}") boolean fsync) {
+        this.inventoryService = inventoryService;
+        this.inventoryRepo = inventoryRepo;
+        this.batchRepo = batchRepo;
+        this.dir = dir;
+        this.nodeId = nodeId;
+        this.flushInterval = flushInterval;
+        this.fsync = fsync;
+    }
+
+    // ============================================================
+    // Ajuste
+    // ============================================================
+
+    public Inventory adjust(Long variantId, int delta) {
+        return adjust(variantId, delta, null);
+    }
+
+    /**
+     * Mismo contrato que InventoryService.adjustStock, pero el cambio llega a
+     * la BD en el próximo flush. Retorna el stock proyectado.
+     */
+    public Inventory adjust(Long variantId, int delta, String reference) {
+        if (delta == Integer.MIN_VALUE)
+            throw new IllegalArgumentException("Stock fuera de rango");
+        byte[] ref = reference == null ? new byte[0] : reference.getBytes(StandardCharsets.UTF_8);
+        if (ref.length > 0xFFFF)
+            throw new IllegalArgumentException("reference demasiado larga");
+
+        while (true) {
+            // Lo que va a la BD (cargar la variante, el camino directo) queda
+            // fuera del lock de rotación: no frena al flush ni a otros ajustes
+            Slot slot = slots.get(variantId);
+            if (slot == null) {
+                slot = load(variantId);
+                if (slot == null) {
+                    // sin inventario todavía: el camino directo lo crea
+                    return inventoryService.adjustStock(variantId, delta, reference);
+                }
+            }
+
+            Inventory projected;
+            long ticket;
+            rotation.readLock().lock();
+            try {
+                if (slots.get(variantId) != slot) {
+                    continue; // un flush la soltó mientras se cargaba: releer
+                }
+                synchronized (slot) {
+                    long next = slot.available + delta;
+                    if (next < 0)
+                        throw new IllegalArgumentException("No puedes dejar stock negativo");
+                    if (next > Integer.MAX_VALUE)
+                        throw new IllegalArgumentException("Stock fuera de rango");
+                    if (next < slot.reserved)
+                        throw new IllegalArgumentException("No puedes dejar menos stock que el reservado");
+
+                    ticket = append(variantId, delta, ref); // write-ahead: primero el log, después se confirma
+                    slot.available = next;
+                    slot.pending += delta;
+                    if (reference != null) {
+                        slot.referenced.add(new InventoryService.ReferencedDelta(variantId, delta, reference));
+                    }
+
+                    projected = Inventory.builder()
+                            .id(slot.inventoryId)
+                            .stockAvailable((int) next)
+                            .stockReserved(slot.reserved)
+                            .updatedAt(Instant.now())
+                            .build();
+                }
+            } finally {
+                rotation.readLock().unlock();
+            }
+            // fuera de los locks: mientras se espera el force otros ajustes
+            // siguen escribiendo y entran en el mismo o el siguiente
+            if (fsync) {
+                awaitDurable(ticket);
+            }
+            return projected;
+        }
+    }
+
+    /**
+     * Solo se cargan variantes que no están en el mapa, y una variante sale del
+     * mapa únicamente sin pendientes y después de aplicarse: la BD ya tiene todo
+     * lo que el buffer confirmó de ella.
+     */
+    private Slot load(Long variantId) {
+        Inventory inv = inventoryRepo.findByVariantId(variantId).orElse(null);
+        if (inv == null) {
+            return null;
+        }
+        Slot loaded = new Slot(inv.getId(), inv.getStockAvailable(), inv.getStockReserved());
+        Slot existing = slots.putIfAbsent(variantId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    // ============================================================
+    // Flush
+    // ============================================================
+
+    /** Aplica lo pendiente. Lo llama el flusher; público para el shutdown y los tests. */
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<Long, Integer> batch = new TreeMap<>();
+            List<InventoryService.ReferencedDelta> referenced = new ArrayList<>();
+            long closedSeq;
+
+            rotation.writeLock().lock();
+            try {
+                for (Map.Entry<Long, Slot> e : slots.entrySet()) {
+                    Slot slot = e.getValue();
+                    synchronized (slot) {
+                        if (slot.pending != 0 || !slot.referenced.isEmpty()) {
+                            // |pending| <= Integer.MAX_VALUE porque available siempre está en [0, MAX]
+                            batch.put(e.getKey(), (int) slot.pending);
+                            referenced.addAll(slot.referenced);
+                            slot.pending = 0;
+                            slot.referenced = new ArrayList<>();
+                        }
+                    }
+                }
+                // Se decide por los pendientes, no por el tamaño del segmento: tras
+                // un flush fallido los deltas vuelven a pending con un segmento
+                // nuevo todavía vacío, y hay que reintentarlos igual
+                if (batch.isEmpty() && segmentBytes == 0) {
+                    return;
+                }
+                // variantes sin movimiento en todo el intervalo: se sueltan y
+                // se vuelven a leer de la BD en el próximo ajuste
+                slots.entrySet().removeIf(e -> !batch.containsKey(e.getKey()));
+
+                closedSeq = segmentSeq;
+                openSegment(segmentSeq + 1);
+            } finally {
+                rotation.writeLock().unlock();
+            }
+
+            try {
+                InventoryService.CoalescedFlush result = inventoryService.applyCoalesced(batch, referenced, nodeId, closedSeq);
+                reanchor(result.levels());
+                if (!result.rejected().isEmpty()) {
+                    log.error("Buffer de inventario: la BD rechazó deltas confirmados {}; quedan en inventory_buffer_rejections",
+                            result.rejected());
+                }
+                deleteSegmentsUpTo(closedSeq);
+            } catch (RuntimeException ex) {
+                // BD no disponible: se devuelve a pendientes. Los segmentos quedan en
+                // disco hasta que un flush posterior avance el checkpoint más allá.
+                // (las variantes del lote siguen en el mapa: solo se sueltan las que no tenían pendientes)
+                batch.forEach((variantId, delta) -> {
+                    Slot slot = slots.get(variantId);
+                    synchronized (slot) {
+                        slot.pending += delta;
+                        List<InventoryService.ReferencedDelta> back = new ArrayList<>();
+                        for (InventoryService.ReferencedDelta r : referenced) {
+                            if (r.variantId().equals(variantId)) {
+                                back.add(r);
+                            }
+                        }
+                        back.addAll(slot.referenced); // en orden: primero los del lote fallido
+                        slot.referenced = back;
+                    }
+                });
+                log.warn("Buffer de inventario: flush falló, se reintenta: {}", ex.getMessage());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void reanchor(List<InventoryBatchRepository.StockLevel> levels) {
+        for (InventoryBatchRepository.StockLevel l : levels) {
+            Slot slot = slots.get(l.variantId());
+            if (slot != null) {
+                synchronized (slot) {
+                    // lo que llegó después del snapshot sigue en pending
+                    slot.available = l.stockAvailable() + slot.pending;
+                    slot.reserved = l.stockReserved();
+                }
+            }
+        }
+    }
+
+    // ============================================================
+    // Log append-only
+    // ============================================================
+
+    /** Escribe el registro sin force. Retorna su número para awaitDurable. */
+    private long append(Long variantId, int delta, byte[] ref) {
+        int bodyBytes = HEADER_BYTES + ref.length;
+        ByteBuffer buf = ByteBuffer.allocate(bodyBytes + CRC_BYTES);
+        buf.putLong(variantId).putInt(delta).putShort((short) ref.length).put(ref);
+        CRC32 crc = new CRC32();
+        crc.update(buf.array(), 0, bodyBytes);
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+
+        synchronized (logLock) {
+            try {
+                while (buf.hasRemaining()) {
+                    segment.write(buf);
+                }
+                segmentBytes += bodyBytes + CRC_BYTES;
+                return ++appended;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("No se pudo escribir el log de inventario", ex);
+            }
+        }
+    }
+
+    /**
+     * Espera a que el registro esté en disco. Si no hay un force en curso,
+     * este hilo lo hace para todo lo escrito hasta ahora; si lo hay, espera
+     * y, si su registro quedó fuera, el siguiente force lo cubre.
+     *
+     * Si el force falla el ajuste ya está en memoria y el flush lo aplica
+     * igual: el cliente recibe error pero el delta puede quedar aplicado.
+     */
+    private void awaitDurable(long ticket) {
+        synchronized (durableLock) {
+            while (durable < ticket) {
+                if (!forcing) {
+                    forcing = true;
+                    break;
+                }
+                try {
+                    durableLock.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrumpido esperando el log de inventario", ex);
+                }
+            }
+            if (durable >= ticket) {
+                return;
+            }
+        }
+
+        long upTo;
+        FileChannel channel;
+        synchronized (logLock) {
+            upTo = appended;
+            channel = segment;
+        }
+        try {
+            channel.force(false);
+            forced(upTo);
+        } catch (ClosedChannelException ex) {
+            // un flush rotó el segmento entre medio: openSegment ya hizo su force
+            synchronized (logLock) {
+                if (channel == segment) {
+                    forced(-1);
+                    throw new UncheckedIOException("El log de inventario se cerró", ex);
+                }
+            }
+            forced(upTo);
+        } catch (IOException ex) {
+            forced(-1);
+            throw new UncheckedIOException("No se pudo sincronizar el log de inventario", ex);
+        }
+    }
+
+    /** Fin del force del líder: despierta a los que esperan (upTo -1 si falló). */
+    private void forced(long upTo) {
+        synchronized (durableLock) {
+            durable = Math.max(durable, upTo);
+            forcing = false;
+            if (upTo >= 0) {
+                forces++;
+            }
+            durableLock.notifyAll();
+        }
+    }
+
+    private void openSegment(long seq) {
+        synchronized (logLock) {
+            try {
+                if (segment != null) {
+                    segment.force(false);
+                    segment.close();
+                    // lo escrito en el segmento cerrado ya está en disco
+                    synchronized (durableLock) {
+                        durable = Math.max(durable, appended);
+                        durableLock.notifyAll();
+                    }
+                }
+                segment = FileChannel.open(segmentPath(seq),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                segmentSeq = seq;
+                segmentBytes = 0;
+            } catch (IOException ex) {
+                throw new UncheckedIOException("No se pudo abrir el segmento " + seq, ex);
+            }
+        }
+    }
+
+    private Path segmentPath(long seq) {
+        return dir.resolve(SEGMENT_PREFIX + String.format("%019d", seq) + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                    .map(p -> p.getFileName().toString())
+                    .filter(n -> n.startsWith(SEGMENT_PREFIX) && n.endsWith(SEGMENT_SUFFIX))
+                    .map(n -> Long.parseLong(n.substring(SEGMENT_PREFIX.length(), n.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private void deleteSegmentsUpTo(long seq) {
+        try {
+            for (Long s : listSegments()) {
+                if (s <= seq) {
+                    Files.deleteIfExists(segmentPath(s));
+                }
+            }
+        } catch (IOException ex) {
+            // se reintenta en el próximo flush; el checkpoint evita reaplicarlos
+            log.warn("Buffer de inventario: no se pudieron borrar segmentos: {}", ex.getMessage());
+        }
+    }
+
+    /** Suma por variante de un segmento. Un registro cortado o con CRC malo marca el fin. */
+    private static void readSegment(Path file, Map<Long, Integer> into,
+                                    List<InventoryService.ReferencedDelta> referenced) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer buf = ByteBuffer.wrap(bytes);
+        CRC32 crc = new CRC32();
+        while (buf.remaining() >= HEADER_BYTES + CRC_BYTES) {
+            int start = buf.position();
+            long variantId = buf.getLong();
+            int delta = buf.getInt();
+            int refLen = Short.toUnsignedInt(buf.getShort());
+            if (buf.remaining() < refLen + CRC_BYTES) {
+                break;
+            }
+            byte[] ref = new byte[refLen];
+            buf.get(ref);
+            int stored = buf.getInt();
+
+            crc.reset();
+            crc.update(bytes, start, HEADER_BYTES + refLen);
+            if ((int) crc.getValue() != stored) {
+                break;
+            }
+            into.merge(variantId, delta, Integer::sum);
+            if (refLen > 0) {
+                referenced.add(new InventoryService.ReferencedDelta(variantId, delta, new String(ref, StandardCharsets.UTF_8)));
+            }
+        }
+    }
+
+    // ============================================================
+    // Ciclo de vida: replay al arrancar, flush final al detener
+    // ============================================================
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(dir);
+            long next = replay() + 1;
+            openSegment(next);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo iniciar el buffer de inventario en " + dir, ex);
+        }
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "inventory-write-buffer");
+            t.setDaemon(true);
+            return t;
+        });
+        long every = Math.max(flushInterval.toMillis(), 1);
+        flusher.scheduleWithFixedDelay(this::flushQuietly, every, every, TimeUnit.MILLISECONDS);
+        running = true;
+        log.info("Buffer de inventario activo: nodo={}, dir={}, flush cada {} ms", nodeId, dir, every);
+    }
+
+    /** Reaplica lo que quedó sin checkpoint. Retorna el último seq visto en disco. */
+    private long replay() throws IOException {
+        long checkpoint = batchRepo.findCheckpoint(nodeId).orElse(0L);
+        List<Long> segments = listSegments();
+        if (segments.isEmpty()) {
+            return checkpoint;
+        }
+
+        Map<Long, Integer> deltas = new TreeMap<>();
+        List<InventoryService.ReferencedDelta> referenced = new ArrayList<>();
+        long last = segments.get(segments.size() - 1);
+        for (Long seq : segments) {
+            if (seq > checkpoint) {
+                readSegment(segmentPath(seq), deltas, referenced);
+            }
+        }
+        // neto 0 sin references: nada que aplicar ni que dejar en el historial
+        deltas.entrySet().removeIf(e -> e.getValue() == 0
+                && referenced.stream().noneMatch(r -> r.variantId().equals(e.getKey())));
+
+        if (last > checkpoint) {
+            InventoryService.CoalescedFlush result = inventoryService.applyCoalesced(deltas, referenced, nodeId, last);
+            log.info("Buffer de inventario: reaplicados deltas de {} variantes hasta el segmento {}",
+                    deltas.size(), last);
+            if (!result.rejected().isEmpty()) {
+                log.error("Buffer de inventario: replay rechazado {}; queda en inventory_buffer_rejections",
+                        result.rejected());
+            }
+        }
+        deleteSegmentsUpTo(last);
+        return Math.max(last, checkpoint);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException ex) {
+            log.error("Buffer de inventario: error en flush", ex);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        synchronized (logLock) {
+            try {
+                if (segment != null) {
+                    segment.close();
+                }
+            } catch (IOException ex) {
+                log.warn("Buffer de inventario: error al cerrar el log: {}", ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Arranca antes y se detiene después que el servidor web:
+    // no entra ningún ajuste hasta terminar el replay, y el flush final
+    // ocurre cuando ya no llegan requests.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    /** Deltas aún no aplicados a la BD (métricas / tests). */
+    public long pendingVariants() {
+        return slots.values().stream().filter(s -> {
+            synchronized (s) {
+                return s.pending != 0 || !s.referenced.isEmpty();
+            }
+        }).count();
+    }
+
+    long groupForces() {
+        synchronized (durableLock) {
+            return forces;
+        }
+    }
+
+    List<Long> segmentsOnDisk() throws IOException {
+        return new ArrayList<>(listSegments());
+    }
+}
@@ -0,0 +1,183 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.AllocationDto;
+import com.redthread.catalog.controller.dto.CreateLocationReq;
+import com.redthread.catalog.controller.dto.LocationAvailabilityDto;
+import com.redthread.catalog.model.Location;
+import com.redthread.catalog.model.LocationStock;
+import com.redthread.catalog.model.enums.AllocationPolicy;
+import com.redthread.catalog.repository.LocationRepository;
+import com.redthread.catalog.repository.LocationStockRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class LocationService {
+
+    private final LocationRepository repo;
+    private final LocationStockRepository stockRepo;
+    private final VariantRepository variantRepo;
+    private final InventoryService inventoryService;
+
+    @Value("${app.inventory.allocation.default-policy:NEAREST}")
+    private AllocationPolicy defaultPolicy;
+
+    public Location create(CreateLocationReq req) {
+        repo.findByCodeIgnoreCase(req.code().trim())
+                .ifPresent(l -> { throw new ResponseStatusException(HttpStatus.CONFLICT, "Ubicación ya existe"); });
+
+        return repo.save(Location.builder()
+                .code(req.code().trim())
+                .name(req.name().trim())
+                .latitude(req.latitude())
+                .longitude(req.longitude())
+                .priority(req.priority() != null ? req.priority() : 100)
+                .active(true)
+                .createdAt(Instant.now())
+                .build());
+    }
+
+    public List<Location> getAll() {
+        return repo.findAllByOrderByPriorityAscIdAsc();
+    }
+
+    // ============================================================
+    // Stock por ubicación
+    // location_stock es el stock físico; inventory.stock_available es lo
+    // vendible. Difieren en lo ya vendido que sigue en bodega: al confirmar
+    // una reserva baja inventory (no la ubicación) y al despachar baja la
+    // ubicación (no inventory). Así:
+    //   suma(location_stock) = inventory.stock_available + vendido sin despachar
+    //
+    // - adjustStock: mercadería que entra o sale del todo (recepción,
+    //   merma, conteo). Mismo delta en la ubicación y en el total, en la
+    //   misma transacción; si el total lo rechaza se deshacen los dos.
+    // - dispatch: sale lo ya vendido. Solo baja la ubicación; el total ya
+    //   se descontó al confirmar la reserva y descontarlo otra vez vendería
+    //   de menos.
+    // /inventory/adjust(-batch) solo mueve el total (ej: la devolución de
+    // una orden anulada antes del despacho), no toca ubicaciones.
+    // ============================================================
+    @Transactional
+    public LocationAvailabilityDto adjustStock(Long locationId, Long variantId, int delta, String reference) {
+        if (delta == Integer.MIN_VALUE)
+            throw new IllegalArgumentException("Stock fuera de rango");
+
+        Instant now = Instant.now();
+        int need = delta < 0 ? -delta : 0;
+        int maxBefore = delta > 0 ? Integer.MAX_VALUE - delta : Integer.MAX_VALUE;
+
+        if (stockRepo.adjust(locationId, variantId, delta, need, maxBefore, now) == 0) {
+            LocationStock current = stockRepo.findByLocationIdAndVariantId(locationId, variantId).orElse(null);
+            if (current != null) {
+                throw new IllegalArgumentException(current.getStockAvailable() + (long) delta < 0
+                        ? "No puedes dejar stock negativo en la ubicación"
+                        : "Stock fuera de rango");
+            }
+            // Primer ajuste en la ubicación: fila en 0 y el mismo UPDATE otra vez
+            createStock(locationId, variantId, delta, now);
+            if (stockRepo.adjust(locationId, variantId, delta, need, maxBefore, now) == 0) {
+                throw new IllegalArgumentException("Stock fuera de rango");
+            }
+        }
+
+        inventoryService.adjustStock(variantId, delta, reference);
+
+        LocationStock saved = stockRepo.findByLocationIdAndVariantId(locationId, variantId).orElseThrow();
+        Location l = saved.getLocation();
+        return new LocationAvailabilityDto(l.getId(), l.getCode(), l.getName(), saved.getStockAvailable(), null);
+    }
+
+    /**
+     * Descuenta de la ubicación unidades ya vendidas (reserva confirmada).
+     * No toca inventory: ese descuento ya ocurrió en el commit de la reserva.
+     */
+    @Transactional
+    public LocationAvailabilityDto dispatch(Long locationId, Long variantId, int quantity) {
+        if (quantity <= 0)
+            throw new IllegalArgumentException("La cantidad a despachar debe ser positiva");
+
+        if (stockRepo.adjust(locationId, variantId, -quantity, quantity, Integer.MAX_VALUE, Instant.now()) == 0) {
+            if (stockRepo.findByLocationIdAndVariantId(locationId, variantId).isPresent()) {
+                throw new IllegalArgumentException("La ubicación no tiene stock suficiente para despachar");
+            }
+            repo.findById(locationId)
+                    .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Ubicación no existe"));
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "La variante no tiene stock en esta ubicación");
+        }
+
+        LocationStock saved = stockRepo.findByLocationIdAndVariantId(locationId, variantId).orElseThrow();
+        Location l = saved.getLocation();
+        return new LocationAvailabilityDto(l.getId(), l.getCode(), l.getName(), saved.getStockAvailable(), null);
+    }
+
+    private void createStock(Long locationId, Long variantId, int delta, Instant now) {
+        if (!repo.existsById(locationId))
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Ubicación no existe");
+        if (!variantRepo.existsById(variantId))
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Variante no existe");
+        if (delta < 0)
+            throw new IllegalArgumentException("No puedes dejar stock negativo en la ubicación");
+
+        stockRepo.createMissing(locationId, variantId, now);
+    }
+
+    /** Ubicaciones con stock de la variante; con coordenadas, de la más cercana a la más lejana. */
+    @Transactional(readOnly = true)
+    public List<LocationAvailabilityDto> availability(Long variantId, Double latitude, Double longitude) {
+        return candidates(variantId, latitude, longitude).stream()
+                .sorted(Comparator
+                        .comparing(StockAllocator.Candidate::distanceKm, Comparator.nullsLast(Comparator.naturalOrder()))
+                        .thenComparing(Comparator.comparingInt(StockAllocator.Candidate::stock).reversed()))
+                .map(c -> new LocationAvailabilityDto(c.locationId(), c.code(), c.name(), c.stock(), c.distanceKm()))
+                .toList();
+    }
+
+    /**
+     * Propone desde qué ubicaciones despachar. No aparta stock: la reserva
+     * sigue siendo por variante; al despachar se descuenta cada línea con
+     * {@link #dispatch} de su ubicación (no con adjustStock, que volvería a
+     * bajar el total).
+     */
+    @Transactional(readOnly = true)
+    public AllocationDto allocate(Long variantId, int quantity, AllocationPolicy policy,
+                                  Double latitude, Double longitude) {
+        AllocationPolicy effective = policy != null ? policy : defaultPolicy;
+
+        List<AllocationDto.Line> lines = StockAllocator.allocate(
+                candidates(variantId, latitude, longitude), quantity, effective);
+        if (lines.isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "Stock insuficiente entre ubicaciones para la variante " + variantId
+            );
+        }
+        return new AllocationDto(variantId, quantity, effective.name(), lines);
+    }
+
+    private List<StockAllocator.Candidate> candidates(Long variantId, Double latitude, Double longitude) {
+        return stockRepo.findAvailable(variantId).stream()
+                .map(s -> {
+                    Location l = s.getLocation();
+                    return new StockAllocator.Candidate(
+                            l.getId(),
+                            l.getCode(),
+                            l.getName(),
+                            s.getStockAvailable(),
+                            l.getPriority(),
+                            StockAllocator.distanceKm(latitude, longitude, l.getLatitude(), l.getLongitude())
+                    );
+                })
+                .toList();
+    }
+}
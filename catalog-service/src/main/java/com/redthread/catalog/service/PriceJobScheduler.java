@@ -0,0 +1,33 @@
+package com.redthread.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Ejecuta los jobs de precios programados cuando llega su runAt, y
+ * reintenta los que quedaron RUNNING con el lease vencido. Con varias
+ * instancias cada job lo toma solo una (PriceJobRepository.claimToRun).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.pricing.jobs.scheduler.enabled", havingValue = "true", matchIfMissing = true)
+public class PriceJobScheduler {
+
+    private final PriceJobService service;
+
+    @Scheduled(
+            initialDelayString = "${app.pricing.jobs.scheduler.interval:30s}",
+            fixedDelayString = "${app.pricing.jobs.scheduler.interval:30s}")
+    public void runDue() {
+        int ran = service.runDue(Instant.now());
+        if (ran > 0) {
+            log.info("Jobs de precios ejecutados: {}", ran);
+        }
+    }
+}
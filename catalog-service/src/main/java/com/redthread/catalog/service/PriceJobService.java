@@ -0,0 +1,249 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.CreatePriceJobReq;
+import com.redthread.catalog.controller.dto.PriceJobDto;
+import com.redthread.catalog.event.ProductsRepricedEvent;
+import com.redthread.catalog.model.PriceJob;
+import com.redthread.catalog.model.enums.PriceAdjustment;
+import com.redthread.catalog.model.enums.PriceField;
+import com.redthread.catalog.model.enums.PriceJobStatus;
+import com.redthread.catalog.repository.PriceJobRepository;
+import com.redthread.catalog.repository.RepricingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cambios de precio masivos (liquidaciones de temporada).
+ *
+ * Un job se aplica con UPDATE set-based por tandas de CHUNK_SIZE ids,
+ * todas en una sola transacción: los clientes ven los precios viejos o
+ * los nuevos, nunca una mezcla. Al terminar se invalida una vez lo
+ * afectado (las claves de PRODUCTS y los listados) y se publica un solo
+ * ProductsRepricedEvent con los ids.
+ *
+ * Sin runAt (o con runAt ya pasado) el job corre en la misma petición;
+ * si no, queda PENDING hasta que lo tome PriceJobScheduler.
+ *
+ * Tomar un job le da un lease (app.pricing.jobs.lease). Si la instancia se
+ * cae con el job RUNNING, al vencer el lease el scheduler lo reintenta; la
+ * transacción que aplica bloquea la fila del job y verifica que el token
+ * siga siendo el suyo, así nunca se aplica dos veces. Tras MAX_ATTEMPTS
+ * tomas queda FAILED.
+ */
+@Slf4j
+@Service
+public class PriceJobService {
+
+    static final int CHUNK_SIZE = 1_000;
+    static final int MAX_ATTEMPTS = 3;
+
+    private final PriceJobRepository jobs;
+    private final RepricingRepository repricing;
+    private final ReferenceDataService referenceData;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate tx;
+
+    // Debe superar lo que tarda el job más grande
+    @Value("${app.pricing.jobs.lease:30m}")
+    private Duration lease;
+
+    public PriceJobService(PriceJobRepository jobs,
+                           RepricingRepository repricing,
+                           ReferenceDataService referenceData,
+                           CacheManager cacheManager,
+                           ApplicationEventPublisher events,
+                           PlatformTransactionManager txManager) {
+        this.jobs = jobs;
+        this.repricing = repricing;
+        this.referenceData = referenceData;
+        this.cacheManager = cacheManager;
+        this.events = events;
+        this.tx = new TransactionTemplate(txManager);
+    }
+
+    // ============================================================
+    // CREAR / CONSULTAR / CANCELAR
+    // ============================================================
+    public PriceJobDto create(CreatePriceJobReq req) {
+        boolean hasIds = req.productIds() != null && !req.productIds().isEmpty();
+        if (req.categoryId() == null && req.brandId() == null && req.gender() == null && !hasIds) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Indica al menos un filtro: categoryId, brandId, gender o productIds");
+        }
+        if (req.amount().signum() == 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El monto no puede ser 0");
+        }
+        if (req.mode() == PriceAdjustment.PERCENT && req.amount().compareTo(BigDecimal.valueOf(-100)) <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Un descuento debe ser menor a 100%");
+        }
+        if (req.categoryId() != null && referenceData.category(req.categoryId()).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Categoría no existe");
+        }
+        if (req.brandId() != null && referenceData.brand(req.brandId()).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Marca no existe");
+        }
+
+        Instant now = Instant.now();
+        PriceJob job = jobs.save(PriceJob.builder()
+                .field(req.field())
+                .mode(req.mode())
+                .amount(req.amount())
+                .categoryId(req.categoryId())
+                .brandId(req.brandId())
+                .gender(req.gender())
+                .productIds(hasIds ? new HashSet<>(req.productIds()) : new HashSet<>())
+                .status(PriceJobStatus.PENDING)
+                .runAt(req.runAt() != null ? req.runAt() : now)
+                .createdAt(now)
+                .build());
+
+        if (!job.getRunAt().isAfter(now)) {
+            run(job.getId());
+        }
+        return get(job.getId());
+    }
+
+    public PriceJobDto get(Long id) {
+        return PriceJobDto.of(jobs.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Job no existe")));
+    }
+
+    public PriceJobDto cancel(Long id) {
+        PriceJobDto current = get(id);
+        Integer claimed = tx.execute(s -> jobs.claim(id, PriceJobStatus.CANCELLED));
+        if (claimed == null || claimed == 0) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "Solo se puede cancelar un job PENDING (está " + current.status() + ")");
+        }
+        return get(id);
+    }
+
+    // ============================================================
+    // EJECUCIÓN
+    // ============================================================
+
+    /** Jobs PENDING vencidos (y RUNNING abandonados), en orden de runAt. Lo llama el scheduler. */
+    public int runDue(Instant now) {
+        int ran = 0;
+        for (Long id : jobs.findDueIds(now)) {
+            if (run(id)) {
+                ran++;
+            }
+        }
+        return ran;
+    }
+
+    /** false si otro (instancia o cancelación) ya lo tomó. */
+    boolean run(Long id) {
+        String token = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        Integer claimed = tx.execute(s -> jobs.claimToRun(id, token, now, now.plus(lease)));
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+
+        long start = System.nanoTime();
+        List<Long> touched = new ArrayList<>();
+        Boolean applied;
+        try {
+            applied = tx.execute(s -> apply(id, token, touched));
+        } catch (RuntimeException ex) {
+            log.warn("Job de precios {} falló", id, ex);
+            fail(id, token, ex.getMessage());
+            return true;
+        }
+        if (!Boolean.TRUE.equals(applied)) {
+            return false;
+        }
+
+        // Después del commit: una invalidación para todo lo afectado
+        if (!touched.isEmpty()) {
+            Cache products = cacheManager.getCache(CacheConfig.PRODUCTS);
+            if (products != null) {
+                touched.forEach(products::evict);
+            }
+            Cache lists = cacheManager.getCache(CacheConfig.PRODUCT_LISTS);
+            if (lists != null) {
+                lists.clear();
+            }
+            events.publishEvent(new ProductsRepricedEvent(List.copyOf(touched)));
+        }
+        log.info("Job de precios {}: {} productos en {} ms",
+                id, touched.size(), (System.nanoTime() - start) / 1_000_000);
+        return true;
+    }
+
+    /** false si el lease pasó a otro antes de bloquear la fila, o se agotaron los intentos. */
+    private boolean apply(Long id, String token, List<Long> touched) {
+        PriceJob job = jobs.findForUpdate(id).orElseThrow();
+        if (job.getStatus() != PriceJobStatus.RUNNING || !token.equals(job.getClaimToken())) {
+            return false;
+        }
+        if (job.getAttempts() > MAX_ATTEMPTS) {
+            finish(job, PriceJobStatus.FAILED, "Interrumpido " + MAX_ATTEMPTS + " veces sin terminar");
+            return false;
+        }
+        Instant now = Instant.now();
+        int products = 0;
+        int variants = 0;
+
+        long after = 0;
+        List<Long> chunk;
+        do {
+            chunk = repricing.nextProductIds(job, after, CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            if (job.getField() == PriceField.BASE_PRICE) {
+                products += repricing.repriceProducts(job, chunk, now);
+            } else {
+                variants += repricing.repriceVariantOverrides(job, chunk, now);
+            }
+            touched.addAll(chunk);
+            after = chunk.get(chunk.size() - 1);
+        } while (chunk.size() == CHUNK_SIZE);
+
+        job.setProductsUpdated(products);
+        job.setVariantsUpdated(variants);
+        finish(job, PriceJobStatus.DONE, null);
+        return true;
+    }
+
+    private void fail(Long id, String token, String message) {
+        tx.executeWithoutResult(s -> jobs.findForUpdate(id)
+                .filter(job -> token.equals(job.getClaimToken()))
+                .ifPresent(job -> finish(job, PriceJobStatus.FAILED, truncate(message))));
+    }
+
+    private static void finish(PriceJob job, PriceJobStatus status, String error) {
+        job.setStatus(status);
+        job.setError(error);
+        job.setFinishedAt(Instant.now());
+        job.setLeaseUntil(null);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 500 ? message : message.substring(0, 500);
+    }
+}
@@ -0,0 +1,48 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.ProductFullDto;
+import com.redthread.catalog.controller.dto.ProductFullMapper;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.ProductImage;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.repository.ProductImageRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * Detalle completo de producto para la pantalla de detalle de la app.
+ *
+ * Siempre son 3 SELECT, sin importar cuántas variantes tenga:
+ * 1) producto + category + brand (EntityGraph)
+ * 2) variantes + inventario (join fetch, evita el 1:1 lazy por variante)
+ * 3) imágenes ordenadas (su product ya está en la sesión)
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class ProductDetailService {
+
+    private final ProductRepository productRepo;
+    private final VariantRepository variantRepo;
+    private final ProductImageRepository imageRepo;
+
+    public ProductFullDto getFull(Long productId) {
+        Product product = productRepo.findDetailById(productId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "Producto no existe"
+                ));
+
+        List<Variant> variants = variantRepo.findWithInventoryByProductId(productId);
+        List<ProductImage> images = imageRepo.findByProductIdOrderBySortOrderAsc(productId);
+
+        return ProductFullMapper.toDto(product, variants, images);
+    }
+}
@@ -0,0 +1,143 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.FacetCountDto;
+import com.redthread.catalog.controller.dto.ProductFacetsDto;
+import com.redthread.catalog.event.BrandChangedEvent;
+import com.redthread.catalog.event.CategoryChangedEvent;
+import com.redthread.catalog.event.ProductChangedEvent;
+import com.redthread.catalog.event.ProductsRepricedEvent;
+import com.redthread.catalog.event.StockAvailabilityChangedEvent;
+import com.redthread.catalog.event.VariantChangedEvent;
+import com.redthread.catalog.repository.FacetSourceRepository;
+import com.redthread.catalog.repository.FacetSourceRepository.ProductRow;
+import com.redthread.catalog.repository.FacetSourceRepository.VariantRow;
+import com.redthread.catalog.repository.ProductFilter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Conteos por faceta (categoría, género, marca, talla, color) para los
+ * filtros del listado, sobre bitmaps en memoria.
+ *
+ * Se arma al arrancar y se mantiene con los eventos de productos,
+ * variantes y stock (tras el commit). Del stock solo llegan los cruces
+ * por cero, que es lo único que cambia el filtro inStock.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductFacetService {
+
+    static final int REPRICE_RELOAD_LIMIT = 200;
+
+    private final FacetSourceRepository source;
+    private final FacetIndex index = new FacetIndex();
+    private final Map<Long, String> categoryNames = new ConcurrentHashMap<>();
+    private final Map<Long, String> brandNames = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<ProductRow> products = source.products();
+        List<VariantRow> variants = source.variants();
+        index.rebuild(products, variants);
+        categoryNames.putAll(source.categoryNames());
+        brandNames.putAll(source.brandNames());
+        log.info("Índice de facetas: {} productos, {} variantes en {} ms",
+                products.size(), variants.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        reload(event.productId());
+    }
+
+    // Un job de precios puede tocar miles de productos: pasado cierto
+    // tamaño sale más barato releer todo que un par de SELECT por producto
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsRepriced(ProductsRepricedEvent event) {
+        if (event.productIds().size() > REPRICE_RELOAD_LIMIT) {
+            rebuild();
+        } else {
+            event.productIds().forEach(this::reload);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onVariantChanged(VariantChangedEvent event) {
+        reload(event.productId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockAvailabilityChanged(StockAvailabilityChangedEvent event) {
+        index.setInStock(event.variantId(), event.inStock());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        source.categoryName(event.categoryId()).ifPresent(n -> categoryNames.put(event.categoryId(), n));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        source.brandName(event.brandId()).ifPresent(n -> brandNames.put(event.brandId(), n));
+    }
+
+    private void reload(Long productId) {
+        source.product(productId).ifPresentOrElse(
+                p -> index.put(p, source.variantsOf(productId)),
+                () -> index.remove(productId));
+    }
+
+    // ============================================================
+    // FACETAS
+    // ============================================================
+    public ProductFacetsDto facets(ProductFilter filter) {
+        if (filter.minPrice() != null && filter.maxPrice() != null
+                && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minPrice no puede ser mayor que maxPrice");
+        }
+
+        FacetIndex.Counts c = index.count(filter);
+        return new ProductFacetsDto(
+                c.total(),
+                toDto(c.categories(), String::valueOf, this::categoryName),
+                toDto(c.genders(), Enum::name, Enum::name),
+                toDto(c.brands(), String::valueOf, this::brandName),
+                toDto(c.sizes(), Function.identity(), Function.identity()),
+                toDto(c.colors(), Function.identity(), Function.identity()));
+    }
+
+    // Los nombres llegan con los eventos; una categoría o marca escrita
+    // por otro camino se busca una vez y queda guardada
+    private String categoryName(Long id) {
+        return categoryNames.computeIfAbsent(id, k -> source.categoryName(k).orElse(String.valueOf(k)));
+    }
+
+    private String brandName(Long id) {
+        return brandNames.computeIfAbsent(id, k -> source.brandName(k).orElse(String.valueOf(k)));
+    }
+
+    // más productos primero; a igual conteo, por texto
+    private static <K> List<FacetCountDto> toDto(Map<K, Integer> counts,
+                                                 Function<K, String> value,
+                                                 Function<K, String> label) {
+        return counts.entrySet().stream()
+                .map(e -> new FacetCountDto(value.apply(e.getKey()), label.apply(e.getKey()), e.getValue()))
+                .sorted(Comparator.comparingInt(FacetCountDto::count).reversed()
+                        .thenComparing(FacetCountDto::label))
+                .toList();
+    }
+}
@@ -0,0 +1,381 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.repository.ProductSearchDoc;
+import com.redthread.catalog.util.TextNormalizer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido en memoria sobre nombre, descripción, marca y categoría.
+ *
+ * Cada producto indexado recibe un ordinal interno; cada término guarda
+ * arreglos paralelos ordinal/peso (sin boxing). Reindexar un producto
+ * marca su ordinal anterior como muerto y agrega uno nuevo; cuando los
+ * muertos pasan de un cuarto del total se compactan las listas.
+ *
+ * Tolerancia a errores: para términos de 4+ letras se acepta una edición
+ * (letra de más, de menos, cambiada o dos letras invertidas). Los
+ * candidatos salen de un mapa de "borrados" (variante con una letra
+ * menos -> términos), así no se compara contra todo el vocabulario.
+ */
+final class ProductSearchIndex {
+
+    /** Resultado: producto y relevancia (mayor = mejor). */
+    record Hit(Long productId, float score) {}
+
+    static final float NAME_WEIGHT = 3.0f;
+    static final float BRAND_WEIGHT = 2.0f;
+    static final float CATEGORY_WEIGHT = 1.5f;
+    static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    // Penalización de un término encontrado con un error de tipeo
+    static final float FUZZY_FACTOR = 0.6f;
+    static final int FUZZY_MIN_LENGTH = 4;
+
+    private static final class Postings {
+        int[] ords = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int ord, float weight) {
+            if (size == ords.length) {
+                ords = Arrays.copyOf(ords, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ords[size] = ord;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Set<String>> deletes = new HashMap<>();
+    private final Map<Long, Integer> ordByProduct = new HashMap<>();
+    private long[] productByOrd = new long[1024];
+    private final BitSet live = new BitSet();
+    private int nextOrd;
+    private int deadCount;
+
+    // ============================================================
+    // Escritura
+    // ============================================================
+
+    /** Reemplaza el contenido completo (arranque). */
+    void rebuild(Collection<ProductSearchDoc> docs) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            deletes.clear();
+            ordByProduct.clear();
+            live.clear();
+            nextOrd = 0;
+            deadCount = 0;
+            for (ProductSearchDoc doc : docs) {
+                addLocked(doc);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Indexa o reindexa un producto. */
+    void put(ProductSearchDoc doc) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(doc.productId());
+            addLocked(doc);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return ordByProduct.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addLocked(ProductSearchDoc doc) {
+        // peso por término: suma de los campos donde aparece (una vez por campo)
+        Map<String, Float> weights = new LinkedHashMap<>();
+        addField(weights, doc.name(), NAME_WEIGHT);
+        addField(weights, doc.brandName(), BRAND_WEIGHT);
+        addField(weights, doc.categoryName(), CATEGORY_WEIGHT);
+        addField(weights, doc.description(), DESCRIPTION_WEIGHT);
+
+        int ord = nextOrd++;
+        if (ord == productByOrd.length) {
+            productByOrd = Arrays.copyOf(productByOrd, ord * 2);
+        }
+        productByOrd[ord] = doc.productId();
+        ordByProduct.put(doc.productId(), ord);
+        live.set(ord);
+
+        for (Map.Entry<String, Float> e : weights.entrySet()) {
+            Postings p = postings.get(e.getKey());
+            if (p == null) {
+                p = new Postings();
+                postings.put(e.getKey(), p);
+                indexDeletes(e.getKey());
+            }
+            p.add(ord, e.getValue());
+        }
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float fieldWeight) {
+        Set<String> seen = new HashSet<>();
+        for (String term : TextNormalizer.terms(text)) {
+            if (seen.add(term)) {
+                weights.merge(term, fieldWeight, Float::sum);
+            }
+        }
+    }
+
+    private void removeLocked(Long productId) {
+        Integer old = ordByProduct.remove(productId);
+        if (old != null) {
+            live.clear(old);
+            deadCount++;
+        }
+    }
+
+    private void compactIfNeeded() {
+        if (deadCount == 0 || deadCount * 4 < nextOrd) {
+            return;
+        }
+        var it = postings.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Postings> e = it.next();
+            Postings p = e.getValue();
+            int w = 0;
+            for (int r = 0; r < p.size; r++) {
+                if (live.get(p.ords[r])) {
+                    p.ords[w] = p.ords[r];
+                    p.weights[w] = p.weights[r];
+                    w++;
+                }
+            }
+            p.size = w;
+            if (w == 0) {
+                it.remove();
+                unindexDeletes(e.getKey());
+            }
+        }
+        deadCount = 0;
+        // los ordinales muertos no se reutilizan; productByOrd solo crece
+        // con las ediciones (8 bytes por reindexación)
+    }
+
+    private void indexDeletes(String term) {
+        if (term.length() < FUZZY_MIN_LENGTH) {
+            return;
+        }
+        for (String d : singleDeletes(term)) {
+            deletes.computeIfAbsent(d, k -> new HashSet<>(2)).add(term);
+        }
+    }
+
+    private void unindexDeletes(String term) {
+        if (term.length() < FUZZY_MIN_LENGTH) {
+            return;
+        }
+        for (String d : singleDeletes(term)) {
+            Set<String> terms = deletes.get(d);
+            if (terms != null) {
+                terms.remove(term);
+                if (terms.isEmpty()) {
+                    deletes.remove(d);
+                }
+            }
+        }
+    }
+
+    // ============================================================
+    // Consulta
+    // Cada término de la consulta aporta su mejor coincidencia por
+    // producto (exacta o con un error). Se ordena primero por cuántos
+    // términos coincidieron y luego por puntaje (peso del campo x idf).
+    // ============================================================
+    List<Hit> search(String query, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(TextNormalizer.terms(query)));
+        if (queryTerms.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int n = nextOrd;
+            int liveDocs = ordByProduct.size();
+            float[] total = new float[n];
+            short[] matched = new short[n];
+            float[] best = new float[n];
+            IntList touched = new IntList();
+            IntList termTouched = new IntList();
+
+            for (String q : queryTerms) {
+                for (Map.Entry<String, Float> m : expand(q).entrySet()) {
+                    Postings p = postings.get(m.getKey());
+                    float idf = (float) Math.log(1.0 + (double) liveDocs / p.size);
+                    float factor = m.getValue() * idf;
+                    for (int i = 0; i < p.size; i++) {
+                        int ord = p.ords[i];
+                        if (!live.get(ord)) {
+                            continue;
+                        }
+                        float s = factor * p.weights[i];
+                        if (best[ord] == 0f) {
+                            termTouched.add(ord);
+                        }
+                        if (s > best[ord]) {
+                            best[ord] = s;
+                        }
+                    }
+                }
+                for (int i = 0; i < termTouched.size; i++) {
+                    int ord = termTouched.values[i];
+                    if (matched[ord] == 0) {
+                        touched.add(ord);
+                    }
+                    matched[ord]++;
+                    total[ord] += best[ord];
+                    best[ord] = 0f;
+                }
+                termTouched.size = 0;
+            }
+
+            // Solo compiten por el top-k los que coinciden en más términos:
+            // se busca el menor nivel de coincidencia que ya junta limit
+            int[] byMatched = new int[queryTerms.size() + 1];
+            for (int i = 0; i < touched.size; i++) {
+                byMatched[matched[touched.values[i]]]++;
+            }
+            int minMatched = byMatched.length - 1;
+            for (int count = byMatched[minMatched]; minMatched > 1 && count < limit; ) {
+                count += byMatched[--minMatched];
+            }
+
+            // top-k con un heap de tamaño limit (el peor arriba)
+            PriorityQueue<Integer> heap = new PriorityQueue<>(limit + 1, (a, b) -> {
+                int c = Short.compare(matched[a], matched[b]);
+                if (c != 0) return c;
+                c = Float.compare(total[a], total[b]);
+                return c != 0 ? c : Long.compare(productByOrd[b], productByOrd[a]);
+            });
+            for (int i = 0; i < touched.size; i++) {
+                if (matched[touched.values[i]] < minMatched) {
+                    continue;
+                }
+                heap.offer(touched.values[i]);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+
+            Hit[] out = new Hit[heap.size()];
+            for (int i = out.length - 1; i >= 0; i--) {
+                int ord = heap.poll();
+                out[i] = new Hit(productByOrd[ord], total[ord]);
+            }
+            return List.of(out);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Término exacto (factor 1) y términos a una edición (FUZZY_FACTOR). */
+    private Map<String, Float> expand(String q) {
+        Map<String, Float> out = new HashMap<>();
+        if (postings.containsKey(q)) {
+            out.put(q, 1.0f);
+        }
+        if (q.length() < FUZZY_MIN_LENGTH) {
+            return out;
+        }
+
+        Set<String> candidates = new HashSet<>();
+        // al término indexado le sobra una letra
+        candidates.addAll(deletes.getOrDefault(q, Set.of()));
+        for (String d : singleDeletes(q)) {
+            // a la consulta le sobra una letra
+            if (postings.containsKey(d)) {
+                candidates.add(d);
+            }
+            // letra cambiada o invertida: ambos comparten un borrado
+            candidates.addAll(deletes.getOrDefault(d, Set.of()));
+        }
+        for (String c : candidates) {
+            if (!c.equals(q) && editDistance(q, c) <= 1) {
+                out.putIfAbsent(c, FUZZY_FACTOR);
+            }
+        }
+        return out;
+    }
+
+    private static List<String> singleDeletes(String term) {
+        List<String> out = new ArrayList<>(term.length());
+        for (int i = 0; i < term.length(); i++) {
+            out.add(term.substring(0, i) + term.substring(i + 1));
+        }
+        return out;
+    }
+
+    /** Distancia de edición con transposición de letras vecinas (OSA). */
+    static int editDistance(String a, String b) {
+        int n = a.length();
+        int m = b.length();
+        int[][] d = new int[n + 1][m + 1];
+        for (int i = 0; i <= n; i++) d[i][0] = i;
+        for (int j = 0; j <= m; j++) d[0][j] = j;
+        for (int i = 1; i <= n; i++) {
+            for (int j = 1; j <= m; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[n][m];
+    }
+
+    private static final class IntList {
+        int[] values = new int[64];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = v;
+        }
+    }
+}
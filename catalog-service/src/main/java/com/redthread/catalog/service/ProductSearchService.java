@@ -0,0 +1,97 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.event.CategoryChangedEvent;
+import com.redthread.catalog.event.ProductChangedEvent;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.ProductSearchDoc;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Búsqueda de productos sobre un índice invertido en memoria.
+ *
+ * El índice se arma al arrancar y se mantiene con los eventos que
+ * publican ProductService y CategoryService. Los listeners corren tras
+ * el commit: un rollback no deja términos de un producto que no existe.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductSearchService {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+    static final int MAX_QUERY_LENGTH = 200;
+
+    private final ProductRepository productRepo;
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<ProductSearchDoc> docs = productRepo.findSearchDocs();
+        index.rebuild(docs);
+        log.info("Índice de búsqueda: {} productos en {} ms",
+                docs.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productRepo.findSearchDoc(event.productId())
+                .ifPresentOrElse(index::put, () -> index.remove(event.productId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        productRepo.findSearchDocsByCategoryId(event.categoryId()).forEach(index::put);
+    }
+
+    // ============================================================
+    // SEARCH
+    // ============================================================
+    @Transactional(readOnly = true)
+    public List<Product> search(String q, Integer limit) {
+        if (q == null || q.isBlank() || q.length() > MAX_QUERY_LENGTH) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "q es obligatorio (máximo " + MAX_QUERY_LENGTH + " caracteres)"
+            );
+        }
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "limit debe estar entre 1 y " + MAX_LIMIT
+            );
+        }
+
+        List<Long> ids = index.search(q, size).stream()
+                .map(ProductSearchIndex.Hit::productId)
+                .toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // una consulta para todos, luego en el orden de relevancia
+        Map<Long, Product> byId = productRepo.findWithRelationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(p -> p != null)
+                .toList();
+    }
+}
@@ -1,13 +1,27 @@
 package com.redthread.catalog.service;
 
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.ProductPageDto;
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.controller.dto.ProductSummaryMapper;
+import com.redthread.catalog.event.ProductChangedEvent;
 import com.redthread.catalog.model.Brand;
 import com.redthread.catalog.model.Category;
 import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
 import com.redthread.catalog.model.enums.ProductGender;
-import com.redthread.catalog.repository.BrandRepository;
-import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.model.enums.ProductSort;
+import com.redthread.catalog.repository.CatalogChangeRepository;
+import com.redthread.catalog.repository.ProductFilter;
+import com.redthread.catalog.repository.ProductKeyset;
 import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VersionStamp;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,19 +31,33 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * Nada aquí es readOnly a propósito: con réplicas activas (ver
+ * DataSourceRoutingConfig) una lectura readOnly puede salir con hasta
+ * max-lag de atraso. Las lecturas de este servicio llenan la cache justo
+ * después del evict de una escritura (un DTO viejo quedaría hasta el TTL) o
+ * calculan los ETag (uno nuevo junto a un cuerpo viejo dejaría al cliente
+ * con datos viejos a punta de 304), así que van al primario, igual que
+ * /catalog/changes y el snapshot.
+ */
 @Service
 @RequiredArgsConstructor
-@Transactional(readOnly = true)
+@Transactional
 public class ProductService {
 
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+
     private final ProductRepository productRepo;
-    private final CategoryRepository categoryRepo;
-    private final BrandRepository brandRepo;
+    private final ReferenceDataService referenceData;
+    private final CatalogChangeRepository changes;
+    private final ApplicationEventPublisher events;
 
     // ============================================================
     // CREATE
     // ============================================================
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
     public Product create(
             Long categoryId,
             Long brandId,
@@ -44,7 +72,9 @@ public class ProductService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Precio base inválido");
         }
 
-        Category cat = categoryRepo.findById(categoryId)
+        // categoría y marca salen de la foto en memoria (sin SELECT); se
+        // asignan tal cual como relación, Hibernate solo usa su id
+        Category cat = referenceData.category(categoryId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Categoría no existe"
@@ -52,7 +82,7 @@ public class ProductService {
 
         Brand brand = null;
         if (brandId != null) {
-            brand = brandRepo.findById(brandId)
+            brand = referenceData.brand(brandId)
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.NOT_FOUND,
                             "Marca no existe"
@@ -72,6 +102,8 @@ public class ProductService {
                 .build();
 
         Product saved = productRepo.save(p);
+        changes.record(CatalogEntityType.PRODUCT, saved.getId(), ChangeOp.UPSERT, Instant.now());
+        events.publishEvent(new ProductChangedEvent(saved.getId()));
 
         // Inicializar relaciones necesarias para evitar LazyInitializationException
         touchRelations(saved);
@@ -81,7 +113,10 @@ public class ProductService {
     // ============================================================
     // GET BY ID (detalle de producto)
     // ============================================================
-    public Product get(Long id) {
+    // Se cachea un DTO inmutable, no la entidad: el mismo valor lo reciben
+    // todas las peticiones y nadie puede modificarlo ni dispararle lazy loads.
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id", sync = true)
+    public ProductSummaryDto get(Long id) {
         // Usamos el método con EntityGraph que trae category y brand
         Product product = productRepo.findDetailById(id)
                 .orElseThrow(() -> new ResponseStatusException(
@@ -89,24 +124,31 @@ public class ProductService {
                         "Producto no existe"
                 ));
 
-        // Inicializar relaciones antes de salir del método
-        touchRelations(product);
-        return product;
+        return ProductSummaryMapper.toDto(product);
     }
 
     // ============================================================
-    // GET ALL
+    // ETAGS (GET condicional): agregados, sin cargar productos
     // ============================================================
-    public List<Product> getAll() {
-        List<Product> list = productRepo.findAll();
-        list.forEach(this::touchRelations);
-        return list;
+    /** null si el producto no existe: el GET sigue y responde 404. */
+    public String etag(Long id) {
+        VersionStamp stamp = productRepo.stampById(id);
+        return stamp.isEmpty() ? null : stamp.etag("product-" + id);
+    }
+
+    public String listETag(ProductFilter filter) {
+        validate(filter);
+        return productRepo.stampMatching(filter).etag("products");
     }
 
     // ============================================================
     // UPDATE
     // ============================================================
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.PRODUCTS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
+    })
     public Product update(
             Long id,
             Long categoryId,
@@ -128,7 +170,7 @@ public class ProductService {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Precio base inválido");
         }
 
-        Category cat = categoryRepo.findById(categoryId)
+        Category cat = referenceData.category(categoryId)
                 .orElseThrow(() -> new ResponseStatusException(
                         HttpStatus.NOT_FOUND,
                         "Categoría no existe"
@@ -136,7 +178,7 @@ public class ProductService {
 
         Brand brand = null;
         if (brandId != null) {
-            brand = brandRepo.findById(brandId)
+            brand = referenceData.brand(brandId)
                     .orElseThrow(() -> new ResponseStatusException(
                             HttpStatus.NOT_FOUND,
                             "Marca no existe"
@@ -152,6 +194,8 @@ public class ProductService {
         existing.setGender(gender);
 
         Product saved = productRepo.save(existing);
+        changes.record(CatalogEntityType.PRODUCT, saved.getId(), ChangeOp.UPSERT, Instant.now());
+        events.publishEvent(new ProductChangedEvent(saved.getId()));
 
         // Inicializar relaciones para JSON
         touchRelations(saved);
@@ -161,33 +205,67 @@ public class ProductService {
     // ============================================================
     // LIST FILTERS (para home, tabs, etc.)
     // ============================================================
-    public List<Product> list(Long categoryId, ProductGender gender, Boolean featured) {
-
-        boolean featOnly = featured != null && featured;
-
-        List<Product> result;
-
-        if (categoryId != null && gender != null && featOnly) {
-            result = productRepo.findByCategoryIdAndGenderAndFeaturedTrue(categoryId, gender);
-        } else if (categoryId != null && gender != null) {
-            result = productRepo.findByCategoryIdAndGender(categoryId, gender);
-        } else if (categoryId != null && featOnly) {
-            result = productRepo.findByCategoryIdAndFeaturedTrue(categoryId);
-        } else if (gender != null && featOnly) {
-            result = productRepo.findByGenderAndFeaturedTrue(gender);
-        } else if (categoryId != null) {
-            result = productRepo.findByCategoryId(categoryId);
-        } else if (gender != null) {
-            result = productRepo.findByGender(gender);
-        } else if (featOnly) {
-            result = productRepo.findByFeaturedTrue();
-        } else {
-            result = productRepo.findAll();
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_LISTS, key = "#filter", sync = true)
+    public List<ProductSummaryDto> list(ProductFilter filter) {
+        validate(filter);
+        // proyección: categoría y marca ya vienen en la misma fila
+        return productRepo.findMatching(filter);
+    }
+
+    // ============================================================
+    // LISTADO PAGINADO POR CURSOR (keyset)
+    // ============================================================
+    @Cacheable(cacheNames = CacheConfig.PRODUCT_LISTS, key = "{#filter, #sort, #cursor, #limit}", sync = true)
+    public ProductPageDto page(
+            ProductFilter filter,
+            ProductSort sort,
+            String cursor,
+            Integer limit
+    ) {
+        validate(filter);
+
+        ProductSort order = sort != null ? sort : ProductSort.NEWEST;
+        int size = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "limit debe estar entre 1 y " + MAX_PAGE_SIZE
+            );
         }
 
-        // Inicializar relaciones de todos los productos antes de devolver
-        result.forEach(this::touchRelations);
-        return result;
+        ProductKeyset after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = ProductKeyset.decode(cursor);
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor inválido");
+            }
+            if (after.sort() != order) {
+                throw new ResponseStatusException(
+                        HttpStatus.BAD_REQUEST,
+                        "El cursor no corresponde al orden solicitado"
+                );
+            }
+        }
+
+        // pedimos una fila extra para saber si hay siguiente página sin hacer COUNT
+        List<ProductSummaryDto> rows = productRepo.findPage(filter, order, after, size + 1);
+
+        boolean hasMore = rows.size() > size;
+        List<ProductSummaryDto> items = hasMore ? rows.subList(0, size) : rows;
+
+        String next = hasMore
+                ? ProductKeyset.after(order, items.get(items.size() - 1)).encode()
+                : null;
+
+        return new ProductPageDto(List.copyOf(items), next, hasMore);
+    }
+
+    private void validate(ProductFilter filter) {
+        if (filter.minPrice() != null && filter.maxPrice() != null
+                && filter.minPrice().compareTo(filter.maxPrice()) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "minPrice no puede ser mayor que maxPrice");
+        }
     }
 
     // ============================================================
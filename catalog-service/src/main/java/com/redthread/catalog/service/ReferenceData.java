@@ -0,0 +1,95 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.repository.VersionStamp;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Foto inmutable de categorías y marcas. ReferenceDataService la reemplaza
+ * entera cuando cambian esas tablas; quien la obtuvo sigue leyendo una
+ * versión consistente sin locks.
+ *
+ * Las entidades quedan desacopladas de toda sesión y se comparten entre
+ * hilos: se leen (o se asignan como relación de un producto), nunca se
+ * modifican. El JSON de GET /categories y GET /brands se serializa una
+ * vez por foto.
+ */
+public final class ReferenceData {
+
+    private final long version;
+    private final List<Category> categoryList;
+    private final List<Brand> brandList;
+    private final Map<Long, Category> categories;
+    private final Map<Long, Brand> brands;
+    private final VersionStamp categoryStamp;
+    private final VersionStamp brandStamp;
+    private final byte[] categoriesJson;
+    private final byte[] brandsJson;
+
+    /** Las listas deben venir ordenadas por id (el orden del JSON). */
+    ReferenceData(long version,
+                  List<Category> categoryList,
+                  List<Brand> brandList,
+                  byte[] categoriesJson,
+                  byte[] brandsJson) {
+        this.version = version;
+        this.categoryList = List.copyOf(categoryList);
+        this.brandList = List.copyOf(brandList);
+        this.categories = categoryList.stream().collect(Collectors.toUnmodifiableMap(Category::getId, Function.identity()));
+        this.brands = brandList.stream().collect(Collectors.toUnmodifiableMap(Brand::getId, Function.identity()));
+        this.categoryStamp = stamp(categories.keySet(), categoryList.stream().mapToLong(Category::getVersion).sum());
+        this.brandStamp = stamp(brands.keySet(), brandList.stream().mapToLong(Brand::getVersion).sum());
+        this.categoriesJson = categoriesJson;
+        this.brandsJson = brandsJson;
+    }
+
+    /** Sube en cada recarga. */
+    public long version() {
+        return version;
+    }
+
+    public Optional<Category> category(Long id) {
+        return Optional.ofNullable(categories.get(id));
+    }
+
+    public Optional<Brand> brand(Long id) {
+        return Optional.ofNullable(brands.get(id));
+    }
+
+    public List<Category> categories() {
+        return categoryList;
+    }
+
+    public List<Brand> brands() {
+        return brandList;
+    }
+
+    /** Misma huella que CategoryRepository.stampAll(): sirve para ver si la base cambió. */
+    public VersionStamp categoryStamp() {
+        return categoryStamp;
+    }
+
+    public VersionStamp brandStamp() {
+        return brandStamp;
+    }
+
+    /** Arreglo JSON listo para escribir; no modificar. */
+    byte[] categoriesJson() {
+        return categoriesJson;
+    }
+
+    byte[] brandsJson() {
+        return brandsJson;
+    }
+
+    private static VersionStamp stamp(Collection<Long> ids, long versionSum) {
+        return new VersionStamp((long) ids.size(), ids.stream().mapToLong(Long::longValue).sum(), versionSum);
+    }
+}
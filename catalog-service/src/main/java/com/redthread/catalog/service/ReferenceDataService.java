@@ -0,0 +1,115 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redthread.catalog.event.BrandChangedEvent;
+import com.redthread.catalog.event.CategoryChangedEvent;
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.repository.BrandRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Categorías y marcas en memoria (tablas chicas que casi no cambian).
+ *
+ * Las validaciones de ProductService y los GET /categories y /brands leen
+ * la foto vigente sin ir a la base. La foto se carga al arrancar (al final
+ * de DataInitializer) y se reemplaza entera con un set atómico:
+ * - tras el commit de un alta o cambio de esta instancia (eventos);
+ * - cuando la huella en la base ya no coincide (cambios hechos en otra
+ *   instancia), revisada cada app.reference-data.refresh-interval.
+ * Un id que no está en la foto se busca en la base antes de responder
+ * 404, y si existe se recarga.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReferenceDataService {
+
+    private static final Sort BY_ID = Sort.by("id");
+
+    private final CategoryRepository categoryRepo;
+    private final BrandRepository brandRepo;
+    private final ObjectMapper mapper;
+
+    private final AtomicReference<ReferenceData> current = new AtomicReference<>();
+
+    /** Foto vigente; la primera llamada la carga si aún no existe. */
+    public ReferenceData current() {
+        ReferenceData data = current.get();
+        return data != null ? data : reload();
+    }
+
+    public Optional<Category> category(Long id) {
+        Optional<Category> hit = current().category(id);
+        if (hit.isPresent() || !categoryRepo.existsById(id)) {
+            return hit;
+        }
+        return reload().category(id);
+    }
+
+    public Optional<Brand> brand(Long id) {
+        Optional<Brand> hit = current().brand(id);
+        if (hit.isPresent() || !brandRepo.existsById(id)) {
+            return hit;
+        }
+        return reload().brand(id);
+    }
+
+    /** Lee ambas tablas y publica una foto nueva. */
+    public synchronized ReferenceData reload() {
+        List<Category> categories = categoryRepo.findAll(BY_ID);
+        List<Brand> brands = brandRepo.findAll(BY_ID);
+        ReferenceData previous = current.get();
+        ReferenceData data = new ReferenceData(
+                previous != null ? previous.version() + 1 : 1,
+                categories,
+                brands,
+                json(categories),
+                json(brands));
+        current.set(data);
+        log.debug("Datos de referencia v{}: {} categorías, {} marcas", data.version(), categories.size(), brands.size());
+        return data;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        reload();
+    }
+
+    /** Dos SELECT de agregados; recarga solo si otra instancia cambió algo. */
+    @Scheduled(
+            initialDelayString = "${app.reference-data.refresh-interval:30s}",
+            fixedDelayString = "${app.reference-data.refresh-interval:30s}")
+    public void refreshIfChanged() {
+        ReferenceData data = current.get();
+        if (data == null
+                || !data.categoryStamp().equals(categoryRepo.stampAll())
+                || !data.brandStamp().equals(brandRepo.stampAll())) {
+            reload();
+        }
+    }
+
+    private byte[] json(Object value) {
+        try {
+            return mapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("No se pudo serializar los datos de referencia", ex);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.AllocationDto;
+import com.redthread.catalog.model.enums.AllocationPolicy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reparte una cantidad entre ubicaciones según la política. Sin acceso a
+ * BD: recibe las ubicaciones con stock y retorna las líneas, o una lista
+ * vacía si entre todas no alcanzan.
+ */
+final class StockAllocator {
+
+    /** Una ubicación con stock de la variante. distanceKm null = sin coordenadas. */
+    record Candidate(Long locationId, String code, String name, int stock, int priority, Double distanceKm) {}
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    // Sin coordenadas al final; empates por prioridad y luego id (orden estable)
+    private static final Comparator<Candidate> NEAREST = Comparator
+            .comparing(Candidate::distanceKm, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(Candidate::priority)
+            .thenComparing(Candidate::locationId);
+
+    private static final Comparator<Candidate> MOST_STOCK = Comparator
+            .comparingInt(Candidate::stock).reversed()
+            .thenComparingInt(Candidate::priority)
+            .thenComparing(Candidate::locationId);
+
+    private StockAllocator() {}
+
+    static List<AllocationDto.Line> allocate(List<Candidate> candidates, int quantity, AllocationPolicy policy) {
+        List<Candidate> ordered = new ArrayList<>(candidates);
+        switch (policy) {
+            case NEAREST -> ordered.sort(NEAREST);
+            case MOST_STOCK -> ordered.sort(MOST_STOCK);
+            case FEWEST_SPLITS -> {
+                // Si una sola alcanza, la más cercana de las que alcanzan
+                Candidate single = ordered.stream()
+                        .filter(c -> c.stock() >= quantity)
+                        .min(NEAREST)
+                        .orElse(null);
+                if (single != null) {
+                    return List.of(line(single, quantity));
+                }
+                // Tomar de mayor a menor usa la menor cantidad de ubicaciones
+                ordered.sort(MOST_STOCK);
+            }
+        }
+        return fill(ordered, quantity);
+    }
+
+    private static List<AllocationDto.Line> fill(List<Candidate> ordered, int quantity) {
+        List<AllocationDto.Line> lines = new ArrayList<>();
+        int remaining = quantity;
+        for (Candidate c : ordered) {
+            if (remaining == 0) {
+                break;
+            }
+            int take = Math.min(c.stock(), remaining);
+            if (take > 0) {
+                lines.add(line(c, take));
+                remaining -= take;
+            }
+        }
+        return remaining == 0 ? lines : List.of();
+    }
+
+    private static AllocationDto.Line line(Candidate c, int quantity) {
+        return new AllocationDto.Line(c.locationId(), c.code(), quantity, c.distanceKm());
+    }
+
+    /** Distancia haversine en km; null si falta alguna coordenada. */
+    static Double distanceKm(Double lat1, Double lon1, Double lat2, Double lon2) {
+        if (lat1 == null || lon1 == null || lat2 == null || lon2 == null) {
+            return null;
+        }
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
@@ -0,0 +1,44 @@
+package com.redthread.catalog.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Devuelve al stock libre las reservas HELD que vencieron sin commit ni release
+ * (checkout abandonado, order-service caído, etc.).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.inventory.reservations.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class StockReservationSweeper {
+
+    private final InventoryService inventoryService;
+
+    @Value("${app.inventory.reservations.sweeper.batch-size:500}")
+    private int batchSize;
+
+    @Scheduled(
+            initialDelayString = "${app.inventory.reservations.sweeper.interval:30s}",
+            fixedDelayString = "${app.inventory.reservations.sweeper.interval:30s}")
+    public void sweep() {
+        Instant now = Instant.now();
+        int total = 0;
+        int found;
+        // un lote por transacción para no tener muchas filas tomadas a la vez
+        do {
+            found = inventoryService.expireReservations(now, batchSize);
+            total += found;
+        } while (found == batchSize);
+
+        if (total > 0) {
+            log.info("Reservas vencidas liberadas: {}", total);
+        }
+    }
+}
@@ -0,0 +1,414 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.model.enums.SuggestionType;
+import com.redthread.catalog.repository.SuggestSourceRepository.Row;
+import com.redthread.catalog.util.TextNormalizer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Autocompletado por prefijo, ponderado por popularidad.
+ *
+ * Base inmutable: las claves normalizadas (fold) ordenadas y empacadas en
+ * un solo byte[] con offsets int[]; los textos originales en otro byte[]
+ * UTF-8. Sin un objeto por término, un millón de entradas ocupa decenas
+ * de MB. Cada entrada se indexa también desde el inicio de sus primeras
+ * palabras ("polera básica" responde a "pol" y a "bas").
+ *
+ * Prefijo = rango contiguo en el arreglo ordenado (dos búsquedas
+ * binarias). Los prefijos de 1-2 letras tienen rangos enormes, así que
+ * su top ya viene calculado; solo se recorre el rango si las entradas
+ * ocultas se comieron ese top.
+ *
+ * Escrituras: van a un overlay chico (skip list) y ocultan la versión
+ * vieja de la base; al pasar MERGE_THRESHOLD se arma una base nueva en
+ * segundo plano (el escritor, que corre tras el commit, no la espera).
+ * Las lecturas no toman locks.
+ */
+@Slf4j
+final class SuggestIndex {
+
+    static final int MAX_WORD_KEYS = 4;
+    static final int HOT_PREFIX_LENGTH = 2;
+    static final int HOT_TOP = 32;
+    static final int MERGE_THRESHOLD = 5_000;
+
+    private static final char SEP = '\u0000';
+
+    private volatile Snapshot base = Snapshot.build(List.of());
+    private final ConcurrentSkipListMap<String, Row> overlay = new ConcurrentSkipListMap<>();
+    private final Set<Long> hidden = ConcurrentHashMap.newKeySet();
+
+    // Lo que sigue solo se toca con el lock del índice
+    private final Map<Long, List<String>> overlayKeys = new HashMap<>();
+    private final Executor merger;
+    // entradas escritas mientras se arma la base nueva (null = sin merge)
+    private Set<Long> touchedDuringMerge;
+    // rebuild() invalida un merge que estaba en curso
+    private long generation;
+
+    SuggestIndex() {
+        this(Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "suggest-merge");
+            t.setDaemon(true);
+            return t;
+        }));
+    }
+
+    SuggestIndex(Executor merger) {
+        this.merger = merger;
+    }
+
+    // ============================================================
+    // Escritura (un escritor a la vez; los lectores no esperan)
+    // ============================================================
+
+    synchronized void rebuild(Collection<Row> rows) {
+        base = Snapshot.build(rows);
+        hidden.clear();
+        overlay.clear();
+        overlayKeys.clear();
+        touchedDuringMerge = null;
+        generation++;
+    }
+
+    synchronized void put(Row row) {
+        removeLocked(row.type(), row.id());
+        long id = entryId(row.type(), row.id());
+        List<String> keys = new ArrayList<>();
+        for (String k : keys(row.text())) {
+            String key = k + SEP + id;
+            overlay.put(key, row);
+            keys.add(key);
+        }
+        overlayKeys.put(id, keys);
+        mergeIfNeeded();
+    }
+
+    synchronized void remove(SuggestionType type, long id) {
+        removeLocked(type, id);
+        mergeIfNeeded();
+    }
+
+    synchronized int size() {
+        return base.entryCount() - hidden.size() + overlayKeys.size();
+    }
+
+    private void removeLocked(SuggestionType type, long id) {
+        long entryId = entryId(type, id);
+        if (base.contains(entryId)) {
+            hidden.add(entryId);
+        }
+        List<String> old = overlayKeys.remove(entryId);
+        if (old != null) {
+            old.forEach(overlay::remove);
+        }
+        if (touchedDuringMerge != null) {
+            touchedDuringMerge.add(entryId);
+        }
+    }
+
+    /**
+     * Copia el estado bajo el lock y arma la base nueva fuera de él; los
+     * put/remove que lleguen mientras tanto siguen en el overlay y se
+     * anotan para ocultar su versión (ya vieja) en la base nueva.
+     */
+    private void mergeIfNeeded() {
+        if (touchedDuringMerge != null || overlayKeys.size() + hidden.size() < MERGE_THRESHOLD) {
+            return;
+        }
+        Snapshot current = base;
+        Set<Long> hiddenNow = Set.copyOf(hidden);
+        List<Row> overlayNow = new ArrayList<>(overlay.values());
+        long gen = generation;
+        touchedDuringMerge = new HashSet<>();
+
+        merger.execute(() -> {
+            Snapshot next = null;
+            try {
+                Map<Long, Row> rows = new LinkedHashMap<>();
+                for (int i = 0; i < current.entryCount(); i++) {
+                    long id = current.entryIds[i];
+                    if (!hiddenNow.contains(id)) {
+                        rows.put(id, current.row(i));
+                    }
+                }
+                for (Row r : overlayNow) {
+                    rows.put(entryId(r.type(), r.id()), r);
+                }
+                next = Snapshot.build(rows.values());
+            } catch (RuntimeException ex) {
+                log.warn("No se pudo armar la base nueva del autocompletado; se reintenta en la próxima escritura", ex);
+            } finally {
+                install(next, gen);
+            }
+        });
+    }
+
+    private synchronized void install(Snapshot next, long gen) {
+        if (gen != generation) {
+            return;
+        }
+        Set<Long> touched = touchedDuringMerge;
+        touchedDuringMerge = null;
+        if (next == null) {
+            return;
+        }
+
+        Set<Long> stale = new HashSet<>();
+        for (Long id : touched) {
+            if (next.contains(id)) {
+                stale.add(id);
+            }
+        }
+        // primero se oculta lo que cambió durante el armado y recién ahí
+        // entra la base nueva: en el intermedio un lector puede ver
+        // duplicados (se filtran), pero nunca le falta una entrada
+        hidden.addAll(stale);
+        base = next;
+        hidden.retainAll(stale);
+        overlayKeys.entrySet().removeIf(e -> {
+            if (touched.contains(e.getKey())) {
+                return false;
+            }
+            e.getValue().forEach(overlay::remove);
+            return true;
+        });
+        mergeIfNeeded();
+    }
+
+    // ============================================================
+    // Consulta
+    // ============================================================
+    List<Row> suggest(String prefix, int limit) {
+        String p = TextNormalizer.fold(prefix);
+        if (p.isEmpty() || limit < 1) {
+            return List.of();
+        }
+
+        Snapshot s = base;
+        Map<Long, Row> found = new HashMap<>();
+
+        for (int entry : s.top(p, limit, hidden)) {
+            found.putIfAbsent(s.entryIds[entry], s.row(entry));
+        }
+        for (Row r : overlay.subMap(p, true, p + Character.MAX_VALUE, true).values()) {
+            found.put(entryId(r.type(), r.id()), r);
+        }
+
+        return found.values().stream()
+                .sorted(BY_RELEVANCE)
+                .limit(limit)
+                .toList();
+    }
+
+    private static final Comparator<Row> BY_RELEVANCE = Comparator
+            .comparingInt(Row::weight).reversed()
+            .thenComparingInt(r -> r.text().length())
+            .thenComparing(Row::text);
+
+    static long entryId(SuggestionType type, long id) {
+        return ((long) type.ordinal() << 56) | id;
+    }
+
+    /** Texto completo y desde el inicio de sus siguientes palabras. */
+    static List<String> keys(String text) {
+        String folded = TextNormalizer.fold(text);
+        List<String> out = new ArrayList<>(MAX_WORD_KEYS);
+        if (folded.isEmpty()) {
+            return out;
+        }
+        out.add(folded);
+        for (int i = folded.indexOf(' '); i >= 0 && out.size() < MAX_WORD_KEYS; i = folded.indexOf(' ', i + 1)) {
+            out.add(folded.substring(i + 1));
+        }
+        return out;
+    }
+
+    // ============================================================
+    // Base inmutable
+    // ============================================================
+    private static final class Snapshot {
+        // claves (ASCII tras el fold) ordenadas
+        final byte[] keyPool;
+        final int[] keyStart;
+        final int[] keyEntry;
+        // entradas
+        final long[] entryIds;
+        final long[] sortedIds;
+        final int[] weights;
+        final byte[] textPool;
+        final int[] textStart;
+        // top precalculado de prefijos cortos
+        final Map<String, int[]> hot;
+
+        private Snapshot(byte[] keyPool, int[] keyStart, int[] keyEntry, long[] entryIds, int[] weights,
+                         byte[] textPool, int[] textStart, Map<String, int[]> hot) {
+            this.keyPool = keyPool;
+            this.keyStart = keyStart;
+            this.keyEntry = keyEntry;
+            this.entryIds = entryIds;
+            this.sortedIds = entryIds.clone();
+            Arrays.sort(this.sortedIds);
+            this.weights = weights;
+            this.textPool = textPool;
+            this.textStart = textStart;
+            this.hot = hot;
+        }
+
+        private record KeyRef(String key, int entry) {}
+
+        static Snapshot build(Collection<Row> rows) {
+            int n = rows.size();
+            long[] entryIds = new long[n];
+            int[] weights = new int[n];
+            int[] textStart = new int[n + 1];
+            byte[][] texts = new byte[n][];
+            List<KeyRef> refs = new ArrayList<>(n * 2);
+
+            int e = 0;
+            int textBytes = 0;
+            for (Row r : rows) {
+                entryIds[e] = entryId(r.type(), r.id());
+                weights[e] = r.weight();
+                texts[e] = r.text().getBytes(StandardCharsets.UTF_8);
+                textBytes += texts[e].length;
+                for (String k : keys(r.text())) {
+                    refs.add(new KeyRef(k, e));
+                }
+                e++;
+            }
+
+            byte[] textPool = new byte[textBytes];
+            for (int i = 0, pos = 0; i < n; i++) {
+                textStart[i] = pos;
+                System.arraycopy(texts[i], 0, textPool, pos, texts[i].length);
+                pos += texts[i].length;
+            }
+            textStart[n] = textBytes;
+
+            refs.sort(Comparator.comparing(KeyRef::key));
+            int k = refs.size();
+            int[] keyStart = new int[k + 1];
+            int[] keyEntry = new int[k];
+            int keyBytes = 0;
+            for (KeyRef ref : refs) {
+                keyBytes += ref.key().length();
+            }
+            byte[] keyPool = new byte[keyBytes];
+            Map<String, PriorityQueue<Integer>> hotQueues = new HashMap<>();
+            for (int i = 0, pos = 0; i < k; i++) {
+                KeyRef ref = refs.get(i);
+                byte[] b = ref.key().getBytes(StandardCharsets.US_ASCII);
+                keyStart[i] = pos;
+                keyEntry[i] = ref.entry();
+                System.arraycopy(b, 0, keyPool, pos, b.length);
+                pos += b.length;
+
+                for (int len = 1; len <= HOT_PREFIX_LENGTH && len <= b.length; len++) {
+                    PriorityQueue<Integer> q = hotQueues.computeIfAbsent(ref.key().substring(0, len),
+                            x -> new PriorityQueue<>(Comparator.comparingInt(ord -> weights[ord])));
+                    if (!q.contains(ref.entry())) {
+                        q.offer(ref.entry());
+                        if (q.size() > HOT_TOP) {
+                            q.poll();
+                        }
+                    }
+                }
+            }
+            keyStart[k] = keyBytes;
+
+            Map<String, int[]> hot = new HashMap<>();
+            hotQueues.forEach((prefix, q) -> hot.put(prefix, q.stream().mapToInt(Integer::intValue).toArray()));
+
+            return new Snapshot(keyPool, keyStart, keyEntry, entryIds, weights, textPool, textStart, hot);
+        }
+
+        int entryCount() {
+            return entryIds.length;
+        }
+
+        boolean contains(long entryId) {
+            return Arrays.binarySearch(sortedIds, entryId) >= 0;
+        }
+
+        Row row(int entry) {
+            long id = entryIds[entry];
+            SuggestionType type = SuggestionType.values()[(int) (id >>> 56)];
+            String text = new String(textPool, textStart[entry], textStart[entry + 1] - textStart[entry],
+                    StandardCharsets.UTF_8);
+            return new Row(type, id & 0x00FF_FFFF_FFFF_FFFFL, text, weights[entry]);
+        }
+
+        /**
+         * Hasta want entradas visibles del prefijo, las de mayor peso (sin
+         * orden). El top precalculado sirve mientras, quitando las ocultas,
+         * alcance para want o ya traiga todo el prefijo.
+         */
+        int[] top(String prefix, int want, Set<Long> hidden) {
+            if (prefix.length() <= HOT_PREFIX_LENGTH && want <= HOT_TOP) {
+                int[] precomputed = hot.getOrDefault(prefix, new int[0]);
+                int[] visible = Arrays.stream(precomputed).filter(e -> !hidden.contains(entryIds[e])).toArray();
+                if (visible.length >= want || precomputed.length < HOT_TOP) {
+                    return visible;
+                }
+            }
+            byte[] p = prefix.getBytes(StandardCharsets.US_ASCII);
+            int from = lowerBound(p);
+
+            PriorityQueue<Integer> q = new PriorityQueue<>(Comparator.comparingInt(ord -> weights[ord]));
+            for (int i = from; i < keyEntry.length && startsWith(i, p); i++) {
+                int entry = keyEntry[i];
+                if (hidden.contains(entryIds[entry])) {
+                    continue;
+                }
+                if (q.size() < want) {
+                    if (!q.contains(entry)) q.offer(entry);
+                } else if (weights[entry] > weights[q.peek()] && !q.contains(entry)) {
+                    q.poll();
+                    q.offer(entry);
+                }
+            }
+            return q.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        private int lowerBound(byte[] p) {
+            int lo = 0;
+            int hi = keyEntry.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (compare(mid, p) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private int compare(int key, byte[] p) {
+            int start = keyStart[key];
+            int len = keyStart[key + 1] - start;
+            return Arrays.compareUnsigned(keyPool, start, start + len, p, 0, p.length);
+        }
+
+        private boolean startsWith(int key, byte[] p) {
+            int start = keyStart[key];
+            int len = keyStart[key + 1] - start;
+            return len >= p.length && Arrays.equals(keyPool, start, start + p.length, p, 0, p.length);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.SuggestionDto;
+import com.redthread.catalog.event.BrandChangedEvent;
+import com.redthread.catalog.event.CategoryChangedEvent;
+import com.redthread.catalog.event.ProductChangedEvent;
+import com.redthread.catalog.model.enums.SuggestionType;
+import com.redthread.catalog.repository.SuggestSourceRepository;
+import com.redthread.catalog.repository.SuggestSourceRepository.Row;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Autocompletado de productos, marcas y categorías.
+ *
+ * Se arma al arrancar y se mantiene con los eventos de ProductService,
+ * BrandService y CategoryService (tras el commit). La popularidad
+ * (ventas, cantidad de productos) se recalcula completa cada
+ * app.suggest.refresh-interval; entre medio cada entrada conserva el
+ * peso que tenía al escribirse.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SuggestService {
+
+    static final int DEFAULT_LIMIT = 8;
+    static final int MAX_LIMIT = 20;
+    static final int MAX_PREFIX_LENGTH = 100;
+
+    private final SuggestSourceRepository source;
+    private final SuggestIndex index = new SuggestIndex();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(
+            initialDelayString = "${app.suggest.refresh-interval:30m}",
+            fixedDelayString = "${app.suggest.refresh-interval:30m}")
+    public void rebuild() {
+        long start = System.nanoTime();
+        List<Row> rows = new ArrayList<>(source.products());
+        rows.addAll(source.brands());
+        rows.addAll(source.categories());
+        index.rebuild(rows);
+        log.info("Índice de autocompletado: {} entradas en {} ms",
+                rows.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        source.product(event.productId())
+                .ifPresentOrElse(index::put, () -> index.remove(SuggestionType.PRODUCT, event.productId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBrandChanged(BrandChangedEvent event) {
+        source.brand(event.brandId())
+                .ifPresentOrElse(index::put, () -> index.remove(SuggestionType.BRAND, event.brandId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        source.category(event.categoryId())
+                .ifPresentOrElse(index::put, () -> index.remove(SuggestionType.CATEGORY, event.categoryId()));
+    }
+
+    public List<SuggestionDto> suggest(String prefix, Integer limit) {
+        if (prefix == null || prefix.isBlank() || prefix.length() > MAX_PREFIX_LENGTH) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "prefix es obligatorio (máximo " + MAX_PREFIX_LENGTH + " caracteres)"
+            );
+        }
+        int size = limit != null ? limit : DEFAULT_LIMIT;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new ResponseStatusException(
+                    HttpStatus.BAD_REQUEST,
+                    "limit debe estar entre 1 y " + MAX_LIMIT
+            );
+        }
+
+        return index.suggest(prefix, size).stream()
+                .map(r -> new SuggestionDto(r.text(), r.type().name(), r.id()))
+                .toList();
+    }
+}
@@ -1,32 +1,66 @@
 package com.redthread.catalog.service;
 
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.CreateVariantMatrixReq;
 import com.redthread.catalog.controller.dto.CreateVariantReq;
+import com.redthread.catalog.controller.dto.VariantQuoteDto;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
+import com.redthread.catalog.event.ProductChangedEvent;
+import com.redthread.catalog.event.VariantChangedEvent;
 import com.redthread.catalog.model.Inventory;
 import com.redthread.catalog.model.Product;
 import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CatalogImportRepository;
+import com.redthread.catalog.repository.CatalogImportRepository.NewVariant;
+import com.redthread.catalog.repository.CatalogChangeRepository;
 import com.redthread.catalog.repository.InventoryRepository;
 import com.redthread.catalog.repository.ProductRepository;
 import com.redthread.catalog.repository.VariantRepository;
+import com.redthread.catalog.repository.VersionStamp;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class VariantService {
 
+    // Las variantes no van en el JSON de producto, pero sí en los filtros
+    // size/color/inStock de los listados: por eso solo se invalidan listados
+    // (y se avisa a las facetas con VariantChangedEvent).
+
     private final VariantRepository variantRepo;
     private final ProductRepository productRepo;
     private final InventoryRepository inventoryRepo;
+    private final CatalogChangeRepository changes;
+    private final CatalogImportRepository batch;
+    private final ApplicationEventPublisher events;
 
     // =========================
     // Crear variante
     // =========================
+    // Una sola transacción: variante, inventario, su fila en la ubicación
+    // DEFAULT y los registros de catalog_changes quedan juntos o no quedan
+    // (un inventario sin su location_stock rompe la suma por ubicación).
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
     public Variant create(CreateVariantReq req) {
         try {
             // 1) Validar producto
@@ -99,7 +133,11 @@ public class VariantService {
                     .build();
 
             inventoryRepo.save(inventory);
+            batch.placeInDefaultLocation(Map.of(saved.getId(), stockInitial), Instant.now());
 
+            changes.record(CatalogEntityType.VARIANT, saved.getId(), ChangeOp.UPSERT, Instant.now());
+            changes.record(CatalogEntityType.INVENTORY, saved.getId(), ChangeOp.UPSERT, Instant.now());
+            events.publishEvent(new VariantChangedEvent(saved.getId(), product.getId()));
             return saved;
         } catch (ResponseStatusException ex) {
             // Ya viene con código y mensaje correcto
@@ -119,6 +157,87 @@ public class VariantService {
         }
     }
 
+    // =========================
+    // Crear matriz tallas × colores
+    // =========================
+    // Mismas reglas que create(), pero los duplicados se revisan en una
+    // sola consulta y variantes + inventario + catalog_changes se insertan
+    // en batch (una matriz de 8×12 son ~5 round-trips, no ~400).
+    // Todo o nada: si una combinación o SKU ya existe no se crea ninguna.
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
+    public List<VariantSummaryDto> createMatrix(Long productId, CreateVariantMatrixReq req) {
+        if (!productRepo.existsById(productId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado");
+        }
+
+        SizeType sizeType = req.sizeType();
+        Set<String> sizes = new LinkedHashSet<>();
+        for (String size : req.sizes()) {
+            try {
+                SizeValidator.validate(sizeType, size.trim());
+            } catch (IllegalArgumentException ex) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, ex.getMessage());
+            }
+            sizes.add(size.trim().toUpperCase());
+        }
+        Set<String> colors = new LinkedHashSet<>();
+        for (String color : req.colors()) {
+            colors.add(color.trim().toUpperCase());
+        }
+
+        // SKU generado igual que en create()
+        int stock = req.stock() != null ? req.stock() : 0;
+        List<NewVariant> rows = new ArrayList<>(sizes.size() * colors.size());
+        for (String size : sizes) {
+            for (String color : colors) {
+                String sku = "SKU-" + productId + "-" + sizeType + "-" + size + "-" + color;
+                rows.add(new NewVariant(productId, sizeType, size, color, sku, null, stock));
+            }
+        }
+
+        CatalogImportRepository.Taken taken = batch.takenByProduct(
+                productId, rows.stream().map(NewVariant::sku).toList());
+        List<String> clashes = rows.stream()
+                .filter(v -> taken.combos().contains(
+                        CatalogImportRepository.comboKey(productId, sizeType, v.sizeValue(), v.color()))
+                        || taken.skus().contains(v.sku()))
+                .map(v -> v.sizeValue() + "/" + v.color())
+                .toList();
+        if (!clashes.isEmpty()) {
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "Ya existen variantes (o sus SKU) para: " + String.join(", ", clashes)
+            );
+        }
+
+        Instant now = Instant.now();
+        List<Long> ids;
+        try {
+            ids = batch.insertVariants(rows, now);
+        } catch (DataIntegrityViolationException ex) {
+            // otra petición creó alguna combinación entre la consulta y el INSERT
+            throw new ResponseStatusException(
+                    HttpStatus.CONFLICT,
+                    "No se pudo guardar la matriz (verifica SKU y combinación de talla/color)"
+            );
+        }
+        batch.recordChanges(CatalogEntityType.VARIANT, ids, now);
+        batch.recordChanges(CatalogEntityType.INVENTORY, ids, now);
+
+        // Un evento para el producto: las facetas recargan el producto
+        // completo, no hace falta repetirlo por cada variante
+        events.publishEvent(new ProductChangedEvent(productId));
+
+        List<VariantSummaryDto> out = new ArrayList<>(ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            NewVariant v = rows.get(i);
+            out.add(new VariantSummaryDto(ids.get(i), productId, sizeType, v.sizeValue(), v.color(),
+                    v.sku(), null, true, now, stock));
+        }
+        return out;
+    }
+
     // =========================
     // Obtener una variante (core)
     // =========================
@@ -131,16 +250,46 @@ public class VariantService {
     // =========================
     // Listar por producto (core)
     // =========================
-    public List<Variant> listByProduct(Long productId) {
+    // Proyección con el inventario en el mismo SELECT: cargar entidades
+    // dispara una consulta por variante (el 1:1 inverso no queda lazy)
+    public List<VariantSummaryDto> listByProduct(Long productId) {
         if (!productRepo.existsById(productId)) {
             throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Producto no encontrado");
         }
-        return variantRepo.findByProductId(productId);
+        return variantRepo.findSummariesByProductId(productId);
+    }
+
+    /** null sin variantes (o sin producto): el GET sigue por el camino normal. */
+    public String listETag(Long productId) {
+        VersionStamp stamp = variantRepo.stampByProductId(productId);
+        return stamp.isEmpty() ? null : stamp.etag("variants-" + productId);
+    }
+
+    // =========================
+    // Cotizar varias variantes (order-service)
+    // =========================
+    public List<VariantQuoteDto> quote(List<Long> variantIds) {
+        // Un solo SELECT para todo el carrito; se devuelve en el orden pedido
+        Set<Long> ids = new LinkedHashSet<>(variantIds);
+
+        Map<Long, VariantQuoteDto> byId = new HashMap<>();
+        for (VariantQuoteDto q : variantRepo.quote(ids)) {
+            byId.put(q.variantId(), q);
+        }
+
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     // =========================
     // Actualizar variante
     // =========================
+    // Transaccional como create: el cambio y su registro en catalog_changes
+    // hacen commit juntos, o la sincronización incremental no lo vería.
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
     public Variant update(Long id, CreateVariantReq req) {
         try {
             Variant existing = variantRepo.findById(id)
@@ -174,6 +323,7 @@ public class VariantService {
                 );
             }
 
+            Long previousProductId = existing.getProduct().getId();
             existing.setProduct(product);
             existing.setSizeType(req.sizeType());
             existing.setSizeValue(sizeValueUp);
@@ -186,7 +336,14 @@ public class VariantService {
             }
             existing.setSku(sku);
 
-            return variantRepo.save(existing);
+            // flush aquí: un SKU duplicado debe caer en el catch (409), no en el commit
+            Variant saved = variantRepo.saveAndFlush(existing);
+            changes.record(CatalogEntityType.VARIANT, saved.getId(), ChangeOp.UPSERT, Instant.now());
+            events.publishEvent(new VariantChangedEvent(saved.getId(), product.getId()));
+            if (!previousProductId.equals(product.getId())) {
+                events.publishEvent(new VariantChangedEvent(saved.getId(), previousProductId));
+            }
+            return saved;
         } catch (ResponseStatusException ex) {
             throw ex;
         } catch (DataIntegrityViolationException ex) {
@@ -205,6 +362,11 @@ public class VariantService {
     // =========================
     // Eliminar variante
     // =========================
+    // Una sola transacción: inventario, variante y sus bajas en
+    // catalog_changes se borran juntos (y la variante no queda
+    // apuntando a un inventario ya borrado de otra sesión)
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCT_LISTS, allEntries = true)
     public void delete(Long id) {
         Variant variant = variantRepo.findById(id)
                 .orElseThrow(() ->
@@ -212,6 +374,9 @@ public class VariantService {
 
         inventoryRepo.findByVariantId(id).ifPresent(inventoryRepo::delete);
         variantRepo.delete(variant);
+        changes.record(CatalogEntityType.VARIANT, id, ChangeOp.DELETE, Instant.now());
+        changes.record(CatalogEntityType.INVENTORY, id, ChangeOp.DELETE, Instant.now());
+        events.publishEvent(new VariantChangedEvent(id, variant.getProduct().getId()));
     }
 
     // =========================
@@ -224,7 +389,7 @@ public class VariantService {
     }
 
     // El controller llama a service.byProduct(productId)
-    public List<Variant> byProduct(Long productId) {
+    public List<VariantSummaryDto> byProduct(Long productId) {
         return listByProduct(productId);
     }
 }
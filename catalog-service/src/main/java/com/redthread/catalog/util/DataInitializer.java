@@ -4,6 +4,7 @@ import com.redthread.catalog.model.Brand;
 import com.redthread.catalog.model.Category;
 import com.redthread.catalog.repository.BrandRepository;
 import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.service.ReferenceDataService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
@@ -16,6 +17,7 @@ public class DataInitializer implements CommandLineRunner {
 
     private final BrandRepository brandRepo;
     private final CategoryRepository categoryRepo;
+    private final ReferenceDataService referenceData;
 
     @Override
     public void run(String... args) {
@@ -25,6 +27,9 @@ public class DataInitializer implements CommandLineRunner {
         initCategories();
         initBrands();
 
+        // foto en memoria de categorías y marcas, ya con lo precargado
+        referenceData.reload();
+
         log.info("=== DataInitializer: completado ===");
     }
 
@@ -0,0 +1,71 @@
+package com.redthread.catalog.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de texto para búsqueda: minúsculas, sin tildes
+ * ("Pantalón" = "pantalon") y solo letras/dígitos. Se aplica igual al
+ * indexar y al consultar, así ambos lados comparan la misma forma.
+ */
+public final class TextNormalizer {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^a-z0-9]+");
+
+    // Palabras que no aportan a la búsqueda
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los",
+            "para", "por", "sin", "un", "una", "y"
+    );
+
+    private TextNormalizer() {}
+
+    /** "Pantalón Cargo-Negro" -> "pantalon cargo negro". */
+    public static String fold(String text) {
+        if (text == null || text.isBlank()) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        String noMarks = MARKS.matcher(decomposed).replaceAll("");
+        return NON_ALNUM.matcher(noMarks.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** Términos de búsqueda: fold + sin stopwords + singular. */
+    public static List<String> terms(String text) {
+        String folded = fold(text);
+        List<String> out = new ArrayList<>();
+        if (folded.isEmpty()) {
+            return out;
+        }
+        for (String word : folded.split(" ")) {
+            if (!STOPWORDS.contains(word)) {
+                out.add(singular(word));
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Plural simple del español: "pantalones" -> "pantalon",
+     * "poleras" -> "polera". No pretende ser un stemmer completo.
+     */
+    static String singular(String word) {
+        int n = word.length();
+        if (n > 5 && word.endsWith("es") && !isVowel(word.charAt(n - 3))) {
+            return word.substring(0, n - 2);
+        }
+        if (n > 3 && word.endsWith("s") && !word.endsWith("ss")) {
+            return word.substring(0, n - 1);
+        }
+        return word;
+    }
+
+    private static boolean isVowel(char c) {
+        return c == 'a' || c == 'e' || c == 'i' || c == 'o' || c == 'u';
+    }
+}
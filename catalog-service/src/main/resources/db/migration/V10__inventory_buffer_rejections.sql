@@ -0,0 +1,15 @@
+-- Deltas del buffer de escritura que ya se confirmaron al cliente pero que
+-- la BD rechazó al aplicarlos (ej: otro camino consumió el mismo stock entre
+-- flushes, o la variante se borró). Se guardan en la misma transacción que
+-- el checkpoint que los descarta del log, para conciliarlos a mano: ninguna
+-- venta confirmada se pierde en silencio.
+CREATE TABLE inventory_buffer_rejections (
+    id BIGSERIAL PRIMARY KEY,
+    node_id VARCHAR(64) NOT NULL,
+    segment_seq BIGINT NOT NULL,
+    variant_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX idx_buffer_rejections_created ON inventory_buffer_rejections(created_at);
@@ -0,0 +1,11 @@
+-- Ubicación por defecto: el stock que ya existía (y el inicial de las
+-- variantes nuevas) queda físicamente en algún lado. Sin esto la suma de
+-- location_stock parte en 0 y no se parece al total de inventory.
+INSERT INTO locations (code, name, priority, active)
+VALUES ('DEFAULT', 'Bodega principal', 1000, TRUE);
+
+INSERT INTO location_stock (location_id, variant_id, stock_available, updated_at)
+SELECT l.id, i.variant_id, i.stock_available, NOW()
+  FROM inventory i
+  JOIN locations l ON l.code = 'DEFAULT'
+ WHERE i.stock_available > 0;
@@ -0,0 +1,27 @@
+-- Orden de commit para GET /catalog/changes. El id se toma al insertar y
+-- una transacción lenta puede confirmar un id menor después de que un
+-- cliente ya avanzó su token. seq lo asigna un solo publicador a filas ya
+-- confirmadas (NULL = aún sin publicar), así que lo publicado nunca queda
+-- detrás de un token entregado. El token de sincronización pasa a ser seq.
+ALTER TABLE catalog_changes ADD COLUMN seq BIGINT;
+
+-- Lo existente ya está confirmado: seq = id mantiene válidos los tokens entregados
+UPDATE catalog_changes SET seq = id;
+
+CREATE UNIQUE INDEX idx_catalog_changes_seq ON catalog_changes(seq);
+-- Compactación: filas anteriores de la misma entidad
+CREATE INDEX idx_catalog_changes_entity ON catalog_changes(entity_type, entity_id, seq);
+
+-- Estado del registro (una fila). Su lock serializa publicación y limpieza.
+--   last_seq: último seq asignado
+--   compacted_through: hasta dónde se borraron las versiones reemplazadas
+--   pruned_through: bajas borradas hasta aquí; un token menor debe recargar desde el snapshot
+CREATE TABLE catalog_change_state (
+    id INT PRIMARY KEY,
+    last_seq BIGINT NOT NULL,
+    compacted_through BIGINT NOT NULL,
+    pruned_through BIGINT NOT NULL
+);
+
+INSERT INTO catalog_change_state (id, last_seq, compacted_through, pruned_through)
+SELECT 1, COALESCE(MAX(id), 0), 0, 0 FROM catalog_changes;
@@ -0,0 +1,7 @@
+-- Un job RUNNING cuya instancia se cayó no termina nunca: al vencer
+-- lease_until el scheduler lo vuelve a tomar. claim_token identifica a
+-- quien lo tomó; la transacción que aplica precios lo verifica con la
+-- fila bloqueada, así dos instancias nunca aplican el mismo job.
+ALTER TABLE price_jobs ADD COLUMN lease_until TIMESTAMP;
+ALTER TABLE price_jobs ADD COLUMN claim_token VARCHAR(36);
+ALTER TABLE price_jobs ADD COLUMN attempts INT NOT NULL DEFAULT 0;
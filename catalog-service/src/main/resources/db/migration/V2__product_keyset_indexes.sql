@@ -0,0 +1,4 @@
+-- Índices para el listado paginado por keyset (orden + id de desempate)
+CREATE INDEX idx_products_created_id ON products(created_at, id);
+CREATE INDEX idx_products_price_id ON products(base_price, id);
+CREATE INDEX idx_products_name_id ON products(name, id);
@@ -0,0 +1,21 @@
+-- Reservas de stock en dos fases (reserve -> commit | release | expire).
+-- Una reserva agrupa varias líneas (una por variante) bajo el mismo reservation_id.
+CREATE TABLE stock_reservations (
+    id BIGSERIAL PRIMARY KEY,
+    reservation_id VARCHAR(36) NOT NULL,
+    variant_id BIGINT NOT NULL REFERENCES variants(id) ON DELETE CASCADE,
+    quantity INT NOT NULL CHECK (quantity > 0),
+    status VARCHAR(12) NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_reservation_variant UNIQUE (reservation_id, variant_id),
+    CONSTRAINT ck_reservation_status CHECK (status IN ('HELD','COMMITTED','RELEASED','EXPIRED'))
+);
+
+-- El sweeper busca HELD vencidas
+CREATE INDEX idx_reservations_status_expiry ON stock_reservations(status, expires_at);
+
+-- Lo reservado nunca puede superar lo disponible
+ALTER TABLE inventory
+    ADD CONSTRAINT ck_inventory_reserved_le_available CHECK (stock_reserved <= stock_available);
@@ -0,0 +1,9 @@
+-- Checkpoint del buffer de escritura de inventario (app.inventory.write-buffer).
+-- Guarda, por nodo, el último segmento del log local ya aplicado a inventory.
+-- Se escribe en la misma transacción que los deltas: al reiniciar, los
+-- segmentos <= segment_seq se descartan y los posteriores se reaplican.
+CREATE TABLE inventory_buffer_checkpoints (
+    node_id VARCHAR(64) PRIMARY KEY,
+    segment_seq BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
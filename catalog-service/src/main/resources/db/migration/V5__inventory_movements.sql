@@ -0,0 +1,20 @@
+-- Historial append-only de movimientos de stock.
+-- inventory sigue siendo el valor vigente (las validaciones de piso se hacen
+-- sobre esa fila); cada cambio deja aquí su delta en la misma transacción.
+CREATE TABLE inventory_movements (
+    id BIGSERIAL PRIMARY KEY,
+    -- sin FK: el historial se conserva aunque se borre la variante
+    variant_id BIGINT NOT NULL,
+    delta_available INT NOT NULL,
+    delta_reserved INT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    reference VARCHAR(64),
+    reservation_id VARCHAR(36),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Historial por variante, paginado por id descendente
+CREATE INDEX idx_movements_variant_id ON inventory_movements(variant_id, id);
+
+-- Referencia externa (ej: order:15) que viaja a los movimientos de la reserva
+ALTER TABLE stock_reservations ADD COLUMN reference VARCHAR(64);
@@ -0,0 +1,27 @@
+-- Bodegas / tiendas con stock propio
+CREATE TABLE locations (
+    id BIGSERIAL PRIMARY KEY,
+    code VARCHAR(32) NOT NULL UNIQUE,
+    name VARCHAR(120) NOT NULL,
+    latitude DOUBLE PRECISION,
+    longitude DOUBLE PRECISION,
+    -- desempate entre ubicaciones equivalentes (menor = primero)
+    priority INT NOT NULL DEFAULT 100,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+-- Stock físico por ubicación. inventory sigue siendo el total por variante
+-- (lo que leen los listados) y se ajusta con el mismo delta en la misma
+-- transacción; las reservas siguen siendo por variante, sin ubicación.
+CREATE TABLE location_stock (
+    id BIGSERIAL PRIMARY KEY,
+    location_id BIGINT NOT NULL REFERENCES locations(id),
+    variant_id BIGINT NOT NULL REFERENCES variants(id) ON DELETE CASCADE,
+    stock_available INT NOT NULL DEFAULT 0 CHECK (stock_available >= 0),
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT uq_location_stock UNIQUE (location_id, variant_id)
+);
+
+-- Disponibilidad de una variante en todas las ubicaciones
+CREATE INDEX idx_location_stock_variant ON location_stock(variant_id);
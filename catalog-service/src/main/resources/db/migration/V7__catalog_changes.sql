@@ -0,0 +1,26 @@
+-- Registro de cambios del catálogo para la sincronización incremental de
+-- la app (GET /catalog/changes). Una fila por entidad tocada, escrita en
+-- la misma transacción que el cambio; el id es el token de sincronización.
+-- Para INVENTORY entity_id es el variant_id (el stock se sincroniza por variante).
+CREATE TABLE catalog_changes (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(16) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    op VARCHAR(8) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    CONSTRAINT ck_change_entity CHECK (entity_type IN ('PRODUCT', 'VARIANT', 'INVENTORY', 'IMAGE')),
+    CONSTRAINT ck_change_op CHECK (op IN ('UPSERT', 'DELETE'))
+);
+
+-- Lo que ya existe entra como alta: since=0 equivale a una carga completa
+INSERT INTO catalog_changes (entity_type, entity_id, op)
+SELECT 'PRODUCT', id, 'UPSERT' FROM products ORDER BY id;
+
+INSERT INTO catalog_changes (entity_type, entity_id, op)
+SELECT 'VARIANT', id, 'UPSERT' FROM variants ORDER BY id;
+
+INSERT INTO catalog_changes (entity_type, entity_id, op)
+SELECT 'INVENTORY', variant_id, 'UPSERT' FROM inventory ORDER BY variant_id;
+
+INSERT INTO catalog_changes (entity_type, entity_id, op)
+SELECT 'IMAGE', id, 'UPSERT' FROM product_images ORDER BY id;
@@ -0,0 +1,8 @@
+-- Versión por fila (@Version de JPA) para los ETag de las lecturas del
+-- catálogo: sube en cada UPDATE que hace Hibernate. Los listados usan
+-- count + suma de ids + suma de versiones como huella (ver VersionStamp).
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE variants ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE categories ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE brands ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE product_images ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,32 @@
+-- Cambios de precio masivos (liquidaciones por categoría/marca/género o
+-- lista de productos). Un job pendiente con run_at futuro lo ejecuta el
+-- scheduler cuando vence; se aplica con UPDATE por tandas de ids.
+CREATE TABLE price_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    field VARCHAR(16) NOT NULL,
+    mode VARCHAR(8) NOT NULL,
+    amount NUMERIC(12,2) NOT NULL,
+    category_id BIGINT REFERENCES categories(id),
+    brand_id BIGINT REFERENCES brands(id),
+    gender VARCHAR(10),
+    status VARCHAR(10) NOT NULL,
+    run_at TIMESTAMP NOT NULL,
+    products_updated INT NOT NULL DEFAULT 0,
+    variants_updated INT NOT NULL DEFAULT 0,
+    error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    finished_at TIMESTAMP,
+    CONSTRAINT ck_price_job_field CHECK (field IN ('BASE_PRICE', 'PRICE_OVERRIDE')),
+    CONSTRAINT ck_price_job_mode CHECK (mode IN ('PERCENT', 'AMOUNT')),
+    CONSTRAINT ck_price_job_status CHECK (status IN ('PENDING', 'RUNNING', 'DONE', 'FAILED', 'CANCELLED'))
+);
+
+-- El scheduler busca PENDING vencidos
+CREATE INDEX idx_price_jobs_status_run_at ON price_jobs(status, run_at);
+
+-- Alcance por lista explícita de productos (se combina con los demás filtros)
+CREATE TABLE price_job_products (
+    job_id BIGINT NOT NULL REFERENCES price_jobs(id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL,
+    PRIMARY KEY (job_id, product_id)
+);
@@ -0,0 +1,112 @@
+package com.redthread.catalog.config;
+
+import com.redthread.catalog.repository.ProductFilter;
+import com.redthread.catalog.service.ProductDetailService;
+import com.redthread.catalog.service.ProductService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contexto completo con una réplica "atrasada": una base H2 aparte con el
+ * esquema de Flyway que nunca recibe lo que se escribe en el primario (y
+ * que igual informa atraso 0). Lo que sale por la réplica no ve los datos
+ * del test; lo que debe ir al primario sí. Usa su propia base para que
+ * DataInitializer no deje datos a los demás tests.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + DataSourceRoutingConfigTest.URL,
+        "app.datasource.replicas.enabled=true",
+        "app.datasource.replicas.urls=" + DataSourceRoutingConfigTest.REPLICA_URL,
+        "app.datasource.replicas.lag-query=SELECT 0"
+})
+@ActiveProfiles("test")
+class DataSourceRoutingConfigTest {
+
+    static final String URL =
+            "jdbc:h2:mem:rt_catalog_routing;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    static final String REPLICA_URL =
+            "jdbc:h2:mem:rt_catalog_replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_DELAY=-1";
+
+    static {
+        // antes de levantar el contexto: la réplica necesita el esquema
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+    }
+
+    @Autowired DataSource dataSource;
+    @Autowired HikariDataSource primaryDataSource;
+    @Autowired ProductService products;
+    @Autowired ProductDetailService details;
+    @Autowired CacheManager cacheManager;
+    @Autowired MeterRegistry meters;
+    @Autowired ReplicaPool replicaPool;
+
+    JdbcTemplate primary;
+    Long categoryId;
+    Long productId;
+
+    @BeforeEach
+    void setup() {
+        replicaPool.checkHealth(); // sin esperar la primera revisión en segundo plano
+        assertTrue(replicaPool.isHealthy("replica-1"));
+
+        // directo al primario: la réplica no se entera
+        primary = new JdbcTemplate(primaryDataSource);
+        String suffix = UUID.randomUUID().toString();
+        primary.update("INSERT INTO categories (name) VALUES (?)", "Réplica " + suffix);
+        categoryId = primary.queryForObject("SELECT id FROM categories WHERE name = ?", Long.class, "Réplica " + suffix);
+        primary.update("INSERT INTO products (category_id, name, base_price) VALUES (?, ?, 9990)",
+                categoryId, "Polera " + suffix);
+        productId = primary.queryForObject("SELECT id FROM products WHERE name = ?", Long.class, "Polera " + suffix);
+    }
+
+    @Test
+    void readOnlyServiceCallsGoToTheReplica() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+
+        double before = replicaReads();
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> details.getFull(productId));
+        assertEquals(HttpStatus.NOT_FOUND, ex.getStatusCode(), "la réplica aún no tiene el producto");
+        assertEquals(before + 1, replicaReads());
+    }
+
+    @Test
+    void productCacheAndETags_readThePrimary_notALaggingReplica() {
+        double before = replicaReads();
+
+        assertNotNull(products.etag(productId));
+        assertEquals(1, products.list(ProductFilter.of(categoryId, null, null)).size());
+        assertEquals(productId, products.get(productId).id());
+
+        // escritura + evict: el miss vuelve a llenar la cache desde el primario
+        String etag = products.etag(productId);
+        primary.update("UPDATE products SET name = 'Renombrada', version = version + 1 WHERE id = ?", productId);
+        cacheManager.getCache(CacheConfig.PRODUCTS).evict(productId);
+
+        assertEquals("Renombrada", products.get(productId).name());
+        assertNotEquals(etag, products.etag(productId));
+        assertEquals(before, replicaReads());
+    }
+
+    private double replicaReads() {
+        return meters.get("catalog.datasource.connections")
+                .tag("target", "replica-1").tag("routing", "read")
+                .counter().count();
+    }
+}
@@ -0,0 +1,134 @@
+package com.redthread.catalog.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ruteo con tres bases H2 independientes (primario y dos réplicas): cada
+ * una responde su propio nombre y las réplicas informan un atraso que el
+ * test controla.
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    DataSource primary;
+    DataSource replica1;
+    DataSource replica2;
+    SimpleMeterRegistry meters;
+    ReplicaPool pool;
+    JdbcTemplate jdbc;
+    TransactionTemplate writeTx;
+    TransactionTemplate readTx;
+
+    @BeforeEach
+    void setup() {
+        primary = node("primary");
+        replica1 = node("replica-1");
+        replica2 = node("replica-2");
+        meters = new SimpleMeterRegistry();
+        pool = new ReplicaPool(List.of(replica1, replica2), "SELECT lag FROM replica_lag",
+                Duration.ofSeconds(5), Duration.ofSeconds(1), Duration.ofMillis(50), meters);
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, pool);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager tm = new DataSourceTransactionManager(dataSource);
+        writeTx = new TransactionTemplate(tm);
+        readTx = new TransactionTemplate(tm);
+        readTx.setReadOnly(true);
+    }
+
+    @AfterEach
+    void shutdown() {
+        pool.close();
+        for (DataSource ds : List.of(primary, replica1, replica2)) {
+            new JdbcTemplate(ds).execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void replicasJoinOnFirstBackgroundCheck_notInTheConstructor() throws InterruptedException {
+        assertFalse(pool.isHealthy("replica-1"));
+        assertEquals("primary", read());
+
+        pool.start();
+        for (int i = 0; i < 100 && !(pool.isHealthy("replica-1") && pool.isHealthy("replica-2")); i++) {
+            Thread.sleep(20);
+        }
+        assertTrue(pool.isHealthy("replica-1") && pool.isHealthy("replica-2"));
+        assertNotEquals("primary", read());
+    }
+
+    @Test
+    void readOnlyTransactionsRoundRobinOverReplicas_writesStayOnPrimary() {
+        pool.checkHealth();
+        assertEquals("primary", writeTx.execute(s -> whoAmI()));
+        assertEquals("primary", whoAmI(), "sin transacción va al primario");
+
+        List<String> reads = List.of(read(), read(), read(), read());
+        assertEquals(2, reads.stream().filter("replica-1"::equals).count());
+        assertEquals(2, reads.stream().filter("replica-2"::equals).count());
+        assertNotEquals(reads.get(0), reads.get(1));
+
+        assertEquals(2.0, connections("replica-1", "read"));
+        assertEquals(2.0, connections("replica-2", "read"));
+        assertTrue(connections("primary", "write") >= 2.0);
+    }
+
+    @Test
+    void laggingOrDownReplicasLeaveTheRotation_untilTheyRecover() {
+        pool.checkHealth();
+        new JdbcTemplate(replica2).update("UPDATE replica_lag SET lag = 30");
+        pool.checkHealth();
+        assertFalse(pool.isHealthy("replica-2"));
+        assertEquals(30.0, meters.get("catalog.datasource.replica.lag").tag("replica", "replica-2").gauge().value());
+        assertEquals(List.of("replica-1", "replica-1", "replica-1"), List.of(read(), read(), read()));
+
+        new JdbcTemplate(replica1).execute("DROP TABLE replica_lag");
+        pool.checkHealth();
+        assertEquals(0.0, meters.get("catalog.datasource.replica.healthy").tag("replica", "replica-1").gauge().value());
+        assertEquals("primary", read());
+        assertEquals(1.0, connections("primary", "read-fallback"));
+
+        new JdbcTemplate(replica2).update("UPDATE replica_lag SET lag = 0.5");
+        pool.checkHealth();
+        assertEquals("replica-2", read());
+    }
+
+    private String read() {
+        return readTx.execute(s -> whoAmI());
+    }
+
+    private String whoAmI() {
+        return jdbc.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private double connections(String target, String routing) {
+        return meters.get("catalog.datasource.connections").tag("target", target).tag("routing", routing).counter().count();
+    }
+
+    private static DataSource node(String name) {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:rw_" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        jdbc.execute("CREATE TABLE replica_lag (lag DOUBLE PRECISION)");
+        jdbc.update("INSERT INTO replica_lag VALUES (0)");
+        return ds;
+    }
+}
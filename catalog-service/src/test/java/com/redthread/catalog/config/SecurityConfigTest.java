@@ -0,0 +1,73 @@
+package com.redthread.catalog.config;
+
+import com.redthread.catalog.controller.ProductController;
+import com.redthread.catalog.service.CatalogExportService;
+import com.redthread.catalog.service.ProductDetailService;
+import com.redthread.catalog.service.ProductFacetService;
+import com.redthread.catalog.service.ProductSearchService;
+import com.redthread.catalog.service.ProductService;
+import com.redthread.catalog.service.SuggestService;
+import com.redthread.catalog.service.VariantService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/** Reglas de acceso con la cadena de filtros real (los demás tests de controller la apagan). */
+@WebMvcTest(ProductController.class)
+@Import(SecurityConfig.class)
+class SecurityConfigTest {
+
+    private static final String MATRIX = """
+            {"sizeType":"EU","sizes":["40"],"colors":["negro"],"stock":1}
+            """;
+
+    @Autowired MockMvc mvc;
+
+    @MockBean ProductService service;
+    @MockBean ProductDetailService detailService;
+    @MockBean ProductSearchService searchService;
+    @MockBean SuggestService suggestService;
+    @MockBean ProductFacetService facetService;
+    @MockBean CatalogExportService exportService;
+    @MockBean VariantService variantService;
+
+    @Test
+    void variantMatrix_requiresToken() throws Exception {
+        mvc.perform(post("/products/4/variants/matrix")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(MATRIX))
+                .andExpect(status().isUnauthorized());
+        verify(variantService, never()).createMatrix(any(), any());
+
+        when(variantService.createMatrix(eq(4L), any())).thenReturn(List.of());
+        mvc.perform(post("/products/4/variants/matrix")
+                        .with(jwt())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(MATRIX))
+                .andExpect(status().isCreated());
+    }
+
+    @Test
+    void productReads_stayPublic() throws Exception {
+        when(searchService.search("polera", null)).thenReturn(List.of());
+
+        mvc.perform(get("/products/search").param("q", "polera"))
+                .andExpect(status().isOk());
+    }
+}
@@ -2,21 +2,46 @@ package com.redthread.catalog.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redthread.catalog.controller.dto.CreateProductReq;
+import com.redthread.catalog.controller.dto.CreateVariantMatrixReq;
+import com.redthread.catalog.controller.dto.FacetCountDto;
+import com.redthread.catalog.controller.dto.ProductFacetsDto;
+import com.redthread.catalog.controller.dto.ProductFullDto;
+import com.redthread.catalog.controller.dto.ProductPageDto;
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.controller.dto.SuggestionDto;
+import com.redthread.catalog.controller.dto.VariantDetailDto;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
 import com.redthread.catalog.model.Product;
 import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.ProductSort;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.ProductFilter;
+import com.redthread.catalog.service.CatalogExportService;
+import com.redthread.catalog.service.ProductDetailService;
+import com.redthread.catalog.service.ProductFacetService;
+import com.redthread.catalog.service.ProductSearchService;
 import com.redthread.catalog.service.ProductService;
+import com.redthread.catalog.service.SuggestService;
+import com.redthread.catalog.service.VariantService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -29,6 +54,12 @@ class ProductControllerTest {
     @Autowired ObjectMapper om;
 
     @MockBean ProductService service;
+    @MockBean ProductDetailService detailService;
+    @MockBean ProductSearchService searchService;
+    @MockBean SuggestService suggestService;
+    @MockBean ProductFacetService facetService;
+    @MockBean CatalogExportService exportService;
+    @MockBean VariantService variantService;
 
     @Test
     void create_returns201() throws Exception {
@@ -60,24 +91,198 @@ class ProductControllerTest {
     }
 
     @Test
-    void list_featured_returns200() throws Exception {
-        when(service.list(null, null, true))
+    void update_concurrentModification_returns409() throws Exception {
+        when(service.update(eq(1L), anyLong(), any(), anyString(), any(), any(), anyBoolean(), any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Product.class, 1L));
+
+        CreateProductReq req = new CreateProductReq(
+                1L, null, "Polera", null,
+                new BigDecimal("10000"),
+                true,
+                ProductGender.HOMBRE
+        );
+
+        mvc.perform(put("/products/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(req)))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void variantMatrix_returns201_andRejectsEmptyColors() throws Exception {
+        when(variantService.createMatrix(eq(4L), any()))
                 .thenReturn(List.of(
-                        Product.builder().id(1L).featured(true).build()
-                ));
+                        new VariantSummaryDto(31L, 4L, SizeType.EU, "40", "NEGRO", "SKU-4-EU-40-NEGRO", null, true, null, 3),
+                        new VariantSummaryDto(32L, 4L, SizeType.EU, "41", "NEGRO", "SKU-4-EU-41-NEGRO", null, true, null, 3)));
+
+        mvc.perform(post("/products/4/variants/matrix")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new CreateVariantMatrixReq(SizeType.EU, List.of("40", "41"), List.of("negro"), 3))))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].sku").value("SKU-4-EU-41-NEGRO"));
+
+        mvc.perform(post("/products/4/variants/matrix")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new CreateVariantMatrixReq(SizeType.EU, List.of("40"), List.of(), 3))))
+                .andExpect(status().isBadRequest());
+        verify(variantService, times(1)).createMatrix(eq(4L), any());
+    }
+
+    @Test
+    void search_returnsRankedProducts() throws Exception {
+        when(searchService.search("pantalon", null))
+                .thenReturn(List.of(Product.builder().id(7L).name("Pantalón cargo").build()));
+
+        mvc.perform(get("/products/search").param("q", "pantalon"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7L));
+    }
+
+    @Test
+    void suggest_returnsSuggestions() throws Exception {
+        when(suggestService.suggest("pant", null))
+                .thenReturn(List.of(new SuggestionDto("Pantalones", "CATEGORY", 3L)));
+
+        mvc.perform(get("/products/suggest").param("prefix", "pant"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].type").value("CATEGORY"))
+                .andExpect(jsonPath("$[0].id").value(3L));
+    }
+
+    @Test
+    void facets_usesSameFiltersAsList() throws Exception {
+        when(facetService.facets(ProductFilter.of(3L, ProductGender.MUJER, null)))
+                .thenReturn(new ProductFacetsDto(124,
+                        List.of(new FacetCountDto("3", "Poleras", 124)),
+                        List.of(new FacetCountDto("MUJER", "MUJER", 124)),
+                        List.of(), List.of(), List.of()));
+
+        mvc.perform(get("/products/facets")
+                        .param("categoryId", "3")
+                        .param("gender", "MUJER"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(124))
+                .andExpect(jsonPath("$.categories[0].label").value("Poleras"));
+    }
+
+    @Test
+    void list_featured_returns200() throws Exception {
+        when(service.list(ProductFilter.of(null, null, true)))
+                .thenReturn(List.of(summary(1L, true)));
 
         mvc.perform(get("/products").param("featured", "true"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].id").value(1L));
     }
 
+    @Test
+    void getAll_streamsArrayByDefaultAndNdjsonOnRequest() throws Exception {
+        doAnswer(inv -> {
+            OutputStream out = inv.getArgument(0);
+            boolean ndjson = inv.getArgument(1);
+            out.write((ndjson ? "{\"id\":1}\n{\"id\":2}\n" : "[{\"id\":1},{\"id\":2}]")
+                    .getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        }).when(exportService).writeProducts(any(), anyBoolean());
+
+        MvcResult array = mvc.perform(get("/products/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(array))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[1].id").value(2L));
+
+        MvcResult lines = mvc.perform(get("/products/all").header("Accept", CatalogExportService.NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(lines))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(CatalogExportService.NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
     @Test
     void getById_returns200() throws Exception {
         when(service.get(5L))
-                .thenReturn(Product.builder().id(5L).build());
+                .thenReturn(summary(5L, false));
 
         mvc.perform(get("/products/5"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(5L));
     }
+
+    @Test
+    void getById_matchingETag_returns304WithoutLoading() throws Exception {
+        when(service.etag(5L)).thenReturn("\"product-5-1-5-3\"");
+
+        mvc.perform(get("/products/5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"product-5-1-5-3\""));
+
+        mvc.perform(get("/products/5").header("If-None-Match", "\"product-5-1-5-3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(service, times(1)).get(5L);
+    }
+
+    @Test
+    void page_returnsItemsAndCursor() throws Exception {
+        when(service.page(ProductFilter.none(), ProductSort.PRICE_ASC, null, 2))
+                .thenReturn(new ProductPageDto(
+                        List.of(summary(1L, false), summary(2L, false)),
+                        "abc",
+                        true
+                ));
+
+        mvc.perform(get("/products/page")
+                        .param("sort", "PRICE_ASC")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[1].id").value(2L))
+                .andExpect(jsonPath("$.nextCursor").value("abc"))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+
+    @Test
+    void list_combinesVariantFilters() throws Exception {
+        ProductFilter filter = new ProductFilter(
+                3L, null, null, 2L, null, new BigDecimal("20000"), "m", "negro", true);
+        when(service.list(filter))
+                .thenReturn(List.of(summary(7L, false)));
+
+        mvc.perform(get("/products")
+                        .param("categoryId", "3")
+                        .param("brandId", "2")
+                        .param("maxPrice", "20000")
+                        .param("size", "m")
+                        .param("color", "negro")
+                        .param("inStock", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(7L));
+    }
+
+    @Test
+    void getFull_returnsVariantsWithEffectivePriceAndStock() throws Exception {
+        when(detailService.getFull(5L))
+                .thenReturn(new ProductFullDto(
+                        5L, "Polera", null, new BigDecimal("9990"), true, false, "HOMBRE", null, null, null,
+                        List.of(new VariantDetailDto(11L, 5L, "LETTER", "M", "NEGRO", "SKU-5-M",
+                                null, new BigDecimal("9990"), 3)),
+                        List.of()
+                ));
+
+        mvc.perform(get("/products/5/full"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(5L))
+                .andExpect(jsonPath("$.variants[0].effectivePrice").value(9990))
+                .andExpect(jsonPath("$.variants[0].stock").value(3));
+    }
+
+    private static ProductSummaryDto summary(Long id, boolean featured) {
+        return new ProductSummaryDto(id, null, null, "Producto " + id, null, BigDecimal.ONE,
+                true, featured, ProductGender.HOMBRE, null);
+    }
 }
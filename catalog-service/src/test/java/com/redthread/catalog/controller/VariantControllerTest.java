@@ -2,10 +2,13 @@ package com.redthread.catalog.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redthread.catalog.controller.dto.CreateVariantReq;
+import com.redthread.catalog.controller.dto.VariantQuoteDto;
+import com.redthread.catalog.controller.dto.VariantQuoteReq;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
 import com.redthread.catalog.model.Product;
 import com.redthread.catalog.model.Variant;
 import com.redthread.catalog.model.enums.SizeType;
-import com.redthread.catalog.repository.VariantRepository;
+import com.redthread.catalog.service.CatalogExportService;
 import com.redthread.catalog.service.VariantService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,6 +18,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
@@ -31,7 +35,7 @@ class VariantControllerTest {
     @Autowired ObjectMapper om;
 
     @MockBean VariantService service;
-    @MockBean VariantRepository repo;
+    @MockBean CatalogExportService exportService;
 
     @Test
     void create_returns201() throws Exception {
@@ -60,12 +64,37 @@ class VariantControllerTest {
     void list_byProduct_returns200() throws Exception {
         when(service.byProduct(10L))
                 .thenReturn(List.of(
-                        Variant.builder().id(1L).build(),
-                        Variant.builder().id(2L).build()
+                        new VariantSummaryDto(1L, 10L, SizeType.LETTER, "M", "NEGRO", "SKU-10-M", null, true, null, 3),
+                        new VariantSummaryDto(2L, 10L, SizeType.LETTER, "L", "NEGRO", "SKU-10-L", null, true, null, 0)
                 ));
 
         mvc.perform(get("/variants").param("productId", "10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[1].id").value(2L));
     }
+
+    @Test
+    void quote_returnsQuotesForAllIds() throws Exception {
+        when(service.quote(List.of(1L, 2L)))
+                .thenReturn(List.of(
+                        new VariantQuoteDto(1L, 10L, "Polera", "M", "NEGRO", new BigDecimal("9990"), 4),
+                        new VariantQuoteDto(2L, 10L, "Polera", "L", "NEGRO", new BigDecimal("9990"), 0)
+                ));
+
+        mvc.perform(post("/variants/quote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(om.writeValueAsString(new VariantQuoteReq(List.of(1L, 2L)))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].price").value(9990))
+                .andExpect(jsonPath("$[0].availableStock").value(4))
+                .andExpect(jsonPath("$[1].sizeValue").value("L"));
+    }
+
+    @Test
+    void quote_emptyList_returns400() throws Exception {
+        mvc.perform(post("/variants/quote")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"variantIds\":[]}"))
+                .andExpect(status().isBadRequest());
+    }
 }
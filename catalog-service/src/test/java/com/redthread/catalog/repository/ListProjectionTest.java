@@ -0,0 +1,123 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listados con 10k filas: la proyección es una sola consulta, las
+ * entidades disparan el 1:1 inverso de inventario por variante.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ListProjectionTest {
+
+    private static final int ROWS = 10_000;
+
+    @Autowired ProductRepository productRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired EntityManager em;
+
+    Category cat;
+    Long productId;
+
+    @BeforeEach
+    void seed() {
+        cat = categoryRepo.save(Category.builder().name("Proyección " + UUID.randomUUID()).active(true).build());
+        em.flush();
+
+        jdbc.batchUpdate(
+                "insert into products (category_id, name, base_price, gender) values (?, ?, 9990, 'HOMBRE')",
+                IntStream.range(0, ROWS).mapToObj(i -> new Object[]{cat.getId(), "Producto " + i}).toList());
+        productId = jdbc.queryForObject(
+                "select min(id) from products where category_id = ?", Long.class, cat.getId());
+
+        String prefix = "PROY-" + productId + "-";
+        jdbc.batchUpdate(
+                "insert into variants (product_id, size_type, size_value, color, sku) values (?, 'EU', ?, ?, ?)",
+                IntStream.range(0, ROWS).mapToObj(i -> new Object[]{
+                        productId, String.valueOf(36 + i % 12), "COLOR" + i / 12, prefix + i}).toList());
+        // la mitad con inventario, algunas totalmente reservadas (stock 0)
+        jdbc.update("""
+                insert into inventory (variant_id, stock_available, stock_reserved)
+                select id, mod(id, 7), least(mod(id, 7), 2) from variants where product_id = ? and mod(id, 2) = 0
+                """, productId);
+    }
+
+    @Test
+    void variantSummaries_oneStatement_sameStockAsEntities() {
+        List<VariantSummaryDto> summaries = measure("variantes proyección",
+                () -> variantRepo.findSummariesByProductId(productId), 1);
+
+        List<Variant> entities = measure("variantes entidades",
+                () -> variantRepo.findByProductId(productId), -1);
+
+        assertEquals(ROWS, summaries.size());
+        assertEquals(ROWS, entities.size());
+        List<Integer> entityStock = entities.stream()
+                .sorted((a, b) -> a.getId().compareTo(b.getId()))
+                .map(Variant::getStockForJson)
+                .toList();
+        assertEquals(entityStock, summaries.stream().map(VariantSummaryDto::stock).toList());
+        assertTrue(summaries.stream().anyMatch(s -> s.stock() == null));
+        assertTrue(summaries.stream().anyMatch(s -> Objects.equals(s.stock(), 0)));
+    }
+
+    @Test
+    void productSummaries_oneStatement_sameRowsAsEntities() {
+        ProductFilter filter = ProductFilter.of(cat.getId(), null, null);
+        List<ProductSummaryDto> summaries = measure("productos proyección",
+                () -> productRepo.findMatching(filter), 1);
+
+        List<Long> ids = summaries.stream().map(ProductSummaryDto::id).toList();
+        List<Product> entities = measure("productos entidades",
+                () -> productRepo.findWithRelationsByIdIn(ids), 1);
+
+        assertEquals(ROWS, summaries.size());
+        assertEquals(ROWS, entities.size());
+        assertTrue(summaries.stream().allMatch(s ->
+                s.category().id().equals(cat.getId()) && s.category().name().equals(cat.getName())
+                        && s.brand() == null));
+    }
+
+    /** expected = -1: se exige que pase de ROWS / 2 (N+1). */
+    private <T> List<T> measure(String label, Supplier<List<T>> query, long expected) {
+        em.flush();
+        em.clear();
+        Statistics stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        List<T> rows = query.get();
+        long statements = stats.getPrepareStatementCount();
+
+        if (expected >= 0) {
+            assertEquals(expected, statements, label);
+        } else {
+            assertTrue(statements > ROWS / 2, label + ": " + statements);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,235 @@
+package com.redthread.catalog.repository;
+
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.controller.dto.VariantQuoteDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.ProductSort;
+import com.redthread.catalog.model.enums.SizeType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class ProductRepositoryTest {
+
+    @Autowired ProductRepository productRepo;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired InventoryRepository inventoryRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    Category poleras;
+
+    @BeforeEach
+    void setup() {
+        poleras = categoryRepo.save(Category.builder().name("Poleras").active(true).build());
+        Category chaquetas = categoryRepo.save(Category.builder().name("Chaquetas").active(true).build());
+
+        Instant base = Instant.parse("2024-01-01T00:00:00Z");
+        for (int i = 0; i < 25; i++) {
+            productRepo.save(Product.builder()
+                    .category(i % 2 == 0 ? poleras : chaquetas)
+                    .name("Producto " + (char) ('A' + i % 7))
+                    // precios y fechas repetidos para ejercitar el desempate por id
+                    .basePrice(new BigDecimal(1000 * (i % 5)))
+                    .createdAt(base.plusSeconds(60L * (i % 4)))
+                    .gender(i % 3 == 0 ? ProductGender.MUJER : ProductGender.HOMBRE)
+                    .featured(i % 4 == 0)
+                    .active(true)
+                    .build());
+        }
+    }
+
+    @Test
+    void findPage_walksEveryRowOnceInOrder_forEachSort() {
+        for (ProductSort sort : ProductSort.values()) {
+            List<ProductSummaryDto> all = walk(ProductFilter.none(), sort, 4);
+
+            assertEquals(25, all.size(), "orden " + sort);
+            assertEquals(25, all.stream().map(ProductSummaryDto::id).distinct().count(), "orden " + sort);
+
+            List<ProductSummaryDto> expected = new ArrayList<>(all);
+            expected.sort(comparator(sort));
+            assertEquals(expected, all, "orden " + sort);
+        }
+    }
+
+    @Test
+    void stamps_changeOnUpdateAndCategoryRename() {
+        ProductFilter filter = ProductFilter.of(poleras.getId(), null, null);
+        VersionStamp before = productRepo.stampMatching(filter);
+        assertEquals(13L, before.count());
+        assertEquals(before, productRepo.stampMatching(filter));
+
+        Product p = entity(productRepo.findMatching(filter).get(0));
+        p.setName("Renombrado");
+        productRepo.saveAndFlush(p);
+        VersionStamp afterUpdate = productRepo.stampMatching(filter);
+        assertNotEquals(before.etag("products"), afterUpdate.etag("products"));
+
+        // el JSON del producto lleva la categoría
+        poleras.setName("Poleras nuevas");
+        categoryRepo.saveAndFlush(poleras);
+        assertNotEquals(afterUpdate, productRepo.stampMatching(filter));
+
+        assertEquals(1L, productRepo.stampById(p.getId()).count());
+        assertTrue(productRepo.stampById(-1L).isEmpty());
+    }
+
+    @Test
+    void staleUpdate_failsWithOptimisticLock() {
+        Product p = entity(productRepo.findMatching(ProductFilter.none()).get(0));
+
+        // otra petición actualizó la fila entre la lectura y el commit
+        jdbc.update("UPDATE products SET name = 'Otro', version = version + 1 WHERE id = ?", p.getId());
+
+        p.setName("Mío");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> productRepo.saveAndFlush(p));
+    }
+
+    @Test
+    void findPage_appliesFilters() {
+        List<ProductSummaryDto> all = walk(ProductFilter.of(poleras.getId(), ProductGender.HOMBRE, null), ProductSort.NAME, 3);
+
+        assertFalse(all.isEmpty());
+        assertTrue(all.stream().allMatch(p ->
+                p.category().id().equals(poleras.getId())
+                        && p.gender() == ProductGender.HOMBRE));
+    }
+
+    @Test
+    void findMatching_combinesColumnAndPriceFilters() {
+        ProductFilter filter = new ProductFilter(
+                poleras.getId(), null, true, null,
+                new BigDecimal("1000"), new BigDecimal("3000"),
+                null, null, null);
+
+        List<ProductSummaryDto> result = productRepo.findMatching(filter);
+
+        assertFalse(result.isEmpty());
+        assertTrue(result.stream().allMatch(p ->
+                p.category().id().equals(poleras.getId())
+                        && p.featured()
+                        && p.basePrice().compareTo(new BigDecimal("1000")) >= 0
+                        && p.basePrice().compareTo(new BigDecimal("3000")) <= 0));
+    }
+
+    @Test
+    void findMatching_variantFiltersApplyToTheSameVariant() {
+        Product conStock = entity(productRepo.findMatching(ProductFilter.none()).get(0));
+        Product sinStock = entity(productRepo.findMatching(ProductFilter.none()).get(1));
+
+        // M/NEGRO con stock
+        addVariant(conStock, "M", "NEGRO", 3, 0);
+        // M/NEGRO sin stock (todo reservado) y L/NEGRO con stock
+        addVariant(sinStock, "M", "NEGRO", 2, 2);
+        addVariant(sinStock, "L", "NEGRO", 5, 0);
+
+        List<ProductSummaryDto> result = productRepo.findMatching(
+                new ProductFilter(null, null, null, null, null, null, "m", "negro", true));
+
+        assertEquals(List.of(conStock.getId()), result.stream().map(ProductSummaryDto::id).toList());
+
+        List<ProductSummaryDto> anyStock = productRepo.findMatching(
+                new ProductFilter(null, null, null, null, null, null, "M", "NEGRO", null));
+
+        assertEquals(2, anyStock.size());
+    }
+
+    @Test
+    void variantQuote_resolvesPriceStockAndProductInOneSelect() {
+        Product product = entity(productRepo.findMatching(ProductFilter.none()).get(2));
+
+        Variant base = addVariant(product, "M", "NEGRO", 4, 1);
+        Variant override = addVariant(product, "L", "NEGRO", 2, 2);
+        override.setPriceOverride(new BigDecimal("5990"));
+        variantRepo.save(override);
+
+        Map<Long, VariantQuoteDto> quotes = variantRepo.quote(List.of(base.getId(), override.getId(), 999_999L))
+                .stream()
+                .collect(Collectors.toMap(VariantQuoteDto::variantId, q -> q));
+
+        assertEquals(2, quotes.size());
+
+        VariantQuoteDto q1 = quotes.get(base.getId());
+        assertEquals(product.getName(), q1.productName());
+        assertEquals(0, product.getBasePrice().compareTo(q1.price()));
+        assertEquals(3, q1.availableStock());
+
+        VariantQuoteDto q2 = quotes.get(override.getId());
+        assertEquals(0, new BigDecimal("5990").compareTo(q2.price()));
+        assertEquals(0, q2.availableStock()); // todo reservado
+        assertEquals("L", q2.sizeValue());
+    }
+
+    private Variant addVariant(Product product, String size, String color, int available, int reserved) {
+        Variant v = variantRepo.save(Variant.builder()
+                .product(product)
+                .sizeType(SizeType.LETTER)
+                .sizeValue(size)
+                .color(color)
+                .sku("SKU-" + product.getId() + "-" + size + "-" + color)
+                .active(true)
+                .createdAt(Instant.now())
+                .build());
+        inventoryRepo.save(Inventory.builder()
+                .variant(v)
+                .stockAvailable(available)
+                .stockReserved(reserved)
+                .updatedAt(Instant.now())
+                .build());
+        return v;
+    }
+
+    private Product entity(ProductSummaryDto summary) {
+        return productRepo.findById(summary.id()).orElseThrow();
+    }
+
+    private List<ProductSummaryDto> walk(ProductFilter filter, ProductSort sort, int size) {
+        List<ProductSummaryDto> out = new ArrayList<>();
+        ProductKeyset after = null;
+        while (true) {
+            List<ProductSummaryDto> page = productRepo.findPage(filter, sort, after, size);
+            out.addAll(page);
+            if (page.size() < size) {
+                return out;
+            }
+            // ida y vuelta por el token opaco, como lo haría el cliente
+            after = ProductKeyset.decode(ProductKeyset.after(sort, page.get(page.size() - 1)).encode());
+        }
+    }
+
+    private Comparator<ProductSummaryDto> comparator(ProductSort sort) {
+        return switch (sort) {
+            case NEWEST -> Comparator.comparing(ProductSummaryDto::createdAt)
+                    .thenComparing(ProductSummaryDto::id).reversed();
+            case PRICE_ASC -> Comparator.comparing(ProductSummaryDto::basePrice)
+                    .thenComparing(ProductSummaryDto::id);
+            case PRICE_DESC -> Comparator.comparing(ProductSummaryDto::basePrice)
+                    .thenComparing(ProductSummaryDto::id).reversed();
+            case NAME -> Comparator.comparing(ProductSummaryDto::name)
+                    .thenComparing(ProductSummaryDto::id);
+        };
+    }
+}
@@ -0,0 +1,180 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CatalogExportRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryRepository;
+import com.redthread.catalog.repository.ProductFilter;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CatalogExportService.class, CatalogExportRepository.class})
+class CatalogExportServiceTest {
+
+    @Autowired CatalogExportService service;
+    @Autowired ObjectMapper mapper;
+    @Autowired ProductRepository productRepo;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired InventoryRepository inventoryRepo;
+    @Autowired EntityManager em;
+
+    @Test
+    void writeProducts_arrayMatchesListEndpoint_inOneStatement() throws IOException {
+        seed(30);
+        String expected = mapper.writeValueAsString(productRepo.findMatching(ProductFilter.none()));
+
+        Statistics stats = clearStats();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = service.writeProducts(out, false);
+
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(mapper.readTree(expected), mapper.readTree(out.toByteArray()));
+        assertEquals(mapper.readTree(expected).size(), written);
+    }
+
+    @Test
+    void writeVariants_ndjsonOneLinePerVariantWithStock() throws IOException {
+        seed(5);
+
+        Statistics stats = clearStats();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = service.writeVariants(out, true);
+
+        assertEquals(1, stats.getPrepareStatementCount());
+        String body = out.toString(StandardCharsets.UTF_8);
+        assertTrue(body.endsWith("\n"));
+        List<String> lines = body.lines().toList();
+        assertEquals(written, lines.size());
+
+        List<Long> ids = variantRepo.findAll().stream().map(Variant::getId).sorted().toList();
+        List<Long> streamed = lines.stream().map(this::read).map(n -> n.get("id").asLong()).toList();
+        assertEquals(ids, streamed);
+        JsonNode last = read(lines.get(lines.size() - 1));
+        assertEquals(4, last.get("stock").asInt());
+    }
+
+    @Test
+    void writeCatalog_resumesAfterLastRowWithoutRepeatingOrSkipping() throws IOException {
+        seed(4);
+        productRepo.save(Product.builder().category(categoryRepo.findAll().get(0)).name("Sin variantes")
+                .basePrice(BigDecimal.ONE).createdAt(Instant.now()).gender(ProductGender.HOMBRE).active(false).build());
+        em.flush();
+
+        List<JsonNode> all = ndjson(0, null);
+        assertTrue(all.size() >= 5);
+        for (int cut : new int[]{0, all.size() / 2, all.size() - 2}) {
+            JsonNode last = all.get(cut);
+            Long afterVariant = last.get("variantId").isNull() ? null : last.get("variantId").asLong();
+            List<JsonNode> rest = ndjson(last.get("productId").asLong(), afterVariant);
+            assertEquals(all.subList(cut + 1, all.size()), rest, "corte en " + cut);
+        }
+        // el producto sin variantes viaja como una fila con variantId null
+        assertTrue(all.stream().anyMatch(n -> n.get("variantId").isNull()
+                && n.get("productName").asText().equals("Sin variantes")));
+    }
+
+    @Test
+    void writeCatalog_csvHeaderOnlyOnFirstDownload_andQuotesText() throws IOException {
+        seed(1);
+        Product p = productRepo.save(Product.builder().category(categoryRepo.findAll().get(0)).name("Polera \"Lino\", negra")
+                .basePrice(new BigDecimal("12990.50")).createdAt(Instant.now()).gender(ProductGender.MUJER).active(true).build());
+        em.flush();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long written = service.writeCatalog(out, true, 0, null);
+        List<String> lines = out.toString(StandardCharsets.UTF_8).lines().toList();
+
+        assertEquals(String.join(",", CatalogExportService.CSV_HEADER), lines.get(0));
+        assertEquals(written + 1, lines.size());
+        assertTrue(lines.contains(p.getId() + ",\"Polera \"\"Lino\"\", negra\"," + p.getCategory().getName()
+                + ",,12990.50,MUJER,false,true,,,,,,,12990.50,,,"));
+
+        ByteArrayOutputStream resumed = new ByteArrayOutputStream();
+        service.writeCatalog(resumed, true, p.getId() - 1, null);
+        assertTrue(resumed.toString(StandardCharsets.UTF_8).startsWith(p.getId() + ","));
+    }
+
+    private List<JsonNode> ndjson(long afterProduct, Long afterVariant) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.writeCatalog(out, false, afterProduct, afterVariant);
+        return out.toString(StandardCharsets.UTF_8).lines().map(this::read).toList();
+    }
+
+    private Statistics clearStats() {
+        em.flush();
+        em.clear();
+        Statistics stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        return stats;
+    }
+
+    private JsonNode read(String line) {
+        try {
+            return mapper.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void seed(int products) {
+        Category cat = categoryRepo.save(Category.builder().name("Export " + UUID.randomUUID()).active(true).build());
+        for (int i = 0; i < products; i++) {
+            Product p = productRepo.save(Product.builder()
+                    .category(cat)
+                    .name("Producto " + i)
+                    .basePrice(new BigDecimal("9990"))
+                    .createdAt(Instant.now())
+                    .gender(ProductGender.MUJER)
+                    .active(true)
+                    .build());
+            Variant v = variantRepo.save(Variant.builder()
+                    .product(p)
+                    .sizeType(SizeType.LETTER)
+                    .sizeValue("M")
+                    .color("NEGRO")
+                    .sku("EXP-" + p.getId())
+                    .active(true)
+                    .createdAt(Instant.now())
+                    .build());
+            inventoryRepo.save(Inventory.builder()
+                    .variant(v)
+                    .stockAvailable(5)
+                    .stockReserved(1)
+                    .updatedAt(Instant.now())
+                    .build());
+        }
+    }
+}
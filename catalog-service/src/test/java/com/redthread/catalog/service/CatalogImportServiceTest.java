@@ -0,0 +1,182 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.CatalogImportResultDto;
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.BrandRepository;
+import com.redthread.catalog.repository.CatalogImportRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CatalogImportService.class, CatalogImportRepository.class})
+class CatalogImportServiceTest {
+
+    private static final String HEADER =
+            "category,brand,product,description,basePrice,gender,featured,sizeType,sizeValue,color,sku,priceOverride,stock\n";
+
+    @Autowired CatalogImportService service;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired BrandRepository brandRepo;
+    @Autowired ProductRepository productRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired InventoryRepository inventoryRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    Category cat;
+    Brand brand;
+
+    @BeforeEach
+    void setup() {
+        cat = categoryRepo.save(Category.builder().name("Import " + UUID.randomUUID()).active(true).build());
+        brand = brandRepo.save(Brand.builder().name("Marca " + UUID.randomUUID()).active(true).createdAt(Instant.now()).build());
+    }
+
+    @Test
+    void csv_createsProductsVariantsAndStock_andReportsBadRowsByLine() {
+        String sku = "IMP-" + UUID.randomUUID();
+        String csv = HEADER
+                + row(cat.getName(), brand.getName(), "Polera Lino", "\"Lino, corte recto\"", "12990", "HOMBRE", "true", "LETTER", "m", "negro", sku, "", "5")
+                + row(cat.getName(), brand.getName(), "Polera Lino", "", "", "", "", "LETTER", "L", "NEGRO", "", "14990", "2")
+                + row(cat.getName(), brand.getName(), "Polera Lino", "", "", "", "", "LETTER", "XXXL", "NEGRO", "", "", "1")   // talla
+                + row("No existe " + UUID.randomUUID(), "", "Otro", "", "1", "MUJER", "", "EU", "40", "AZUL", "", "", "1")   // categoría
+                + row(cat.getName(), brand.getName(), "polera lino", "", "", "", "", "LETTER", "M", "Negro", "", "", "1")      // combinación repetida
+                + row(cat.getName(), "", "Short", "", "", "MUJER", "", "EU", "40", "AZUL", "", "", "1")                        // sin basePrice
+                + row(cat.getName(), "", "Short", "", "9990", "MUJER", "", "EU", "40", "AZUL", sku, "", "1");                  // SKU repetido
+
+        CatalogImportResultDto result = service.importCsv(stream(csv));
+
+        assertEquals(7, result.rows());
+        assertEquals(1, result.productsCreated());
+        assertEquals(2, result.variantsCreated());
+        assertEquals(5, result.failed());
+        assertFalse(result.errorsTruncated());
+        Map<Long, String> errors = result.errors().stream()
+                .collect(Collectors.toMap(CatalogImportResultDto.RowError::line, CatalogImportResultDto.RowError::message));
+        assertTrue(errors.get(4L).startsWith("Talla LETTER"));
+        assertTrue(errors.get(5L).startsWith("Categoría no existe"));
+        assertTrue(errors.get(6L).contains("talla y color"));
+        assertTrue(errors.get(7L).contains("basePrice"));
+        assertTrue(errors.get(8L).contains("SKU"));
+
+        Product p = productRepo.findAll().stream()
+                .filter(x -> x.getCategory().getId().equals(cat.getId()))
+                .findFirst().orElseThrow();
+        assertEquals("Lino, corte recto", p.getDescription());
+        assertTrue(p.isFeatured());
+        assertEquals(brand.getId(), p.getBrand().getId());
+
+        List<Variant> variants = variantRepo.findByProductId(p.getId());
+        Variant m = variants.stream().filter(v -> v.getSizeValue().equals("M")).findFirst().orElseThrow();
+        Variant l = variants.stream().filter(v -> v.getSizeValue().equals("L")).findFirst().orElseThrow();
+        assertEquals(sku, m.getSku());
+        assertEquals("SKU-" + p.getId() + "-LETTER-L-NEGRO", l.getSku());
+        assertEquals(0, new BigDecimal("14990").compareTo(l.getPriceOverride()));
+        assertEquals(5, inventoryRepo.findByVariantId(m.getId()).orElseThrow().getStockAvailable());
+
+        // alta en catalog_changes: producto, 2 variantes y su stock
+        Integer changes = jdbc.queryForObject("""
+                SELECT count(*) FROM catalog_changes
+                 WHERE (entity_type = 'PRODUCT' AND entity_id = ?)
+                    OR (entity_type IN ('VARIANT', 'INVENTORY') AND entity_id IN (?, ?))
+                """, Integer.class, p.getId(), m.getId(), l.getId());
+        assertEquals(5, changes);
+    }
+
+    @Test
+    void ndjson_addsVariantsToExistingProduct() {
+        Product existing = productRepo.save(Product.builder().category(cat).name("Chaqueta")
+                .basePrice(new BigDecimal("39990")).active(true).gender(ProductGender.MUJER).createdAt(Instant.now()).build());
+        variantRepo.save(Variant.builder().product(existing).sizeType(SizeType.LETTER).sizeValue("S")
+                .color("ROJO").sku("IMP-" + UUID.randomUUID()).active(true).createdAt(Instant.now()).build());
+
+        String ndjson = """
+                {"category": "%1$s", "product": "chaqueta", "sizeType": "LETTER", "sizeValue": "M", "color": "rojo", "stock": 3}
+                {"category": "%1$s", "product": "Chaqueta", "sizeType": "LETTER", "sizeValue": "S", "color": "ROJO"}
+
+                no es json
+                """.formatted(cat.getName());
+
+        CatalogImportResultDto result = service.importNdjson(stream(ndjson));
+
+        assertEquals(3, result.rows());
+        assertEquals(0, result.productsCreated());
+        assertEquals(1, result.variantsCreated());
+        assertEquals(List.of(2L, 4L), result.errors().stream().map(CatalogImportResultDto.RowError::line).toList());
+        assertEquals(2, variantRepo.findByProductId(existing.getId()).size());
+        assertEquals(0, new BigDecimal("39990").compareTo(productRepo.findById(existing.getId()).orElseThrow().getBasePrice()));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void throughput_50kVariants() {
+        String[] sizes = {"XS", "S", "M", "L", "XL"};
+        int products = 5_000;
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int p = 0; p < products; p++) {
+            for (String size : sizes) {
+                for (String color : new String[]{"NEGRO", "BLANCO"}) {
+                    csv.append(cat.getName()).append(",,Producto ").append(p).append(",,9990,HOMBRE,,LETTER,")
+                            .append(size).append(',').append(color).append(",,,10\n");
+                }
+            }
+        }
+
+        try {
+            CatalogImportResultDto result = service.importCsv(stream(csv.toString()));
+
+            assertEquals(0, result.failed(), () -> result.errors().toString());
+            assertEquals(products, result.productsCreated());
+            assertEquals(50_000, result.variantsCreated());
+            assertTrue(result.elapsedMs() < 60_000, "menos de 50k variantes por minuto: " + result.elapsedMs() + " ms");
+        } finally {
+            // no dejar 50k variantes a los demás tests (la base H2 es compartida)
+            jdbc.update("DELETE FROM catalog_changes WHERE entity_type = 'PRODUCT' AND entity_id IN (SELECT id FROM products WHERE category_id = ?)", cat.getId());
+            jdbc.update("DELETE FROM catalog_changes WHERE entity_type IN ('VARIANT', 'INVENTORY') AND entity_id IN "
+                    + "(SELECT v.id FROM variants v JOIN products p ON p.id = v.product_id WHERE p.category_id = ?)", cat.getId());
+            jdbc.update("DELETE FROM products WHERE category_id = ?", cat.getId());
+        }
+    }
+
+    private static String row(String... values) {
+        return String.join(",", values) + "\n";
+    }
+
+    private static ByteArrayInputStream stream(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,177 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.CreateVariantReq;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.ProductImage;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CatalogChangeLogRepository;
+import com.redthread.catalog.repository.CatalogImportRepository;
+import com.redthread.catalog.repository.CatalogSnapshotRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository;
+import com.redthread.catalog.repository.ProductImageRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "app.catalog.snapshot.change-threshold=3")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CatalogSnapshotService.class, ReferenceDataService.class, CatalogSnapshotRepository.class, ProductService.class, VariantService.class, CatalogImportRepository.class,
+        InventoryService.class, InventoryBatchRepository.class, InventoryMovementRepository.class, CacheConfig.class,
+        CatalogChangePublisher.class, CatalogChangeLogRepository.class})
+class CatalogSnapshotServiceTest {
+
+    private static final JsonMapper JSON = new JsonMapper();
+
+    // carpeta nueva por corrida: no se recogen snapshots de una base anterior
+    @DynamicPropertySource
+    static void snapshotDir(DynamicPropertyRegistry registry) throws IOException {
+        Path dir = Files.createTempDirectory("catalog-snapshot-test");
+        registry.add("app.catalog.snapshot.dir", dir::toString);
+    }
+
+    @Autowired CatalogSnapshotService snapshots;
+    @Autowired ProductService products;
+    @Autowired VariantService variants;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired ProductRepository productRepo;
+    @Autowired ProductImageRepository imageRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired CatalogChangePublisher publisher;
+
+    Category cat;
+
+    @BeforeEach
+    void setup() {
+        cat = categoryRepo.save(Category.builder().name("Snapshot " + UUID.randomUUID()).active(true).build());
+    }
+
+    @Test
+    void regenerate_writesHeaderAndOneLinePerActiveProduct() throws IOException {
+        Product p = products.create(cat.getId(), null, "Polera", null,
+                new BigDecimal("9990"), false, ProductGender.HOMBRE);
+        Variant m = variants.create(new CreateVariantReq(p.getId(), SizeType.LETTER, "M", "NEGRO", null, 5));
+        Variant l = variants.create(new CreateVariantReq(p.getId(), SizeType.LETTER, "L", "NEGRO", null, 0));
+        l.setPriceOverride(new BigDecimal("11990"));
+        variantRepo.save(l);
+        imageRepo.save(image(p, "/media/a.jpg", false, 0));
+        imageRepo.save(image(p, "/media/principal.jpg", true, 1));
+
+        Product hidden = productRepo.save(Product.builder().category(cat).name("Oculto")
+                .basePrice(BigDecimal.ONE).active(false).gender(ProductGender.MUJER).createdAt(Instant.now()).build());
+
+        publisher.publish();
+        CatalogSnapshotService.Snapshot s = snapshots.regenerate();
+        List<JsonNode> lines = read(s.file());
+
+        JsonNode header = lines.get(0);
+        assertEquals(CatalogSnapshotService.FORMAT, header.get("format").asInt());
+        assertEquals(s.version(), header.get("version").asLong());
+        assertEquals(String.valueOf(s.version()), header.get("syncToken").asText());
+        assertEquals("\"" + s.version() + "\"", s.etag());
+
+        JsonNode line = find(lines, p.getId());
+        assertEquals(cat.getName(), line.get("categoryName").asText());
+        assertEquals("/media/principal.jpg", line.get("imageUrl").asText());
+        JsonNode variantsNode = line.get("variants");
+        assertEquals(2, variantsNode.size());
+        assertEquals(m.getId(), variantsNode.get(0).get("id").asLong());
+        assertEquals(5, variantsNode.get(0).get("stock").asInt());
+        assertEquals(0, new BigDecimal("9990").compareTo(variantsNode.get(0).get("price").decimalValue()));
+        assertEquals(0, new BigDecimal("11990").compareTo(variantsNode.get(1).get("price").decimalValue()));
+
+        assertNull(find(lines, hidden.getId()));
+    }
+
+    @Test
+    void staleOnlyAfterThreshold_andKeepsPreviousFile() throws IOException {
+        publisher.publish();
+        CatalogSnapshotService.Snapshot first = snapshots.regenerate();
+        assertFalse(snapshots.isStale());
+        // sin cambios asentados no hay versión nueva
+        assertSame(first, snapshots.regenerate());
+
+        Product p = products.create(cat.getId(), null, "Short", null,
+                new BigDecimal("14990"), false, ProductGender.MUJER);
+        publisher.publish();
+        assertFalse(snapshots.isStale());
+        variants.create(new CreateVariantReq(p.getId(), SizeType.LETTER, "S", "AZUL", null, 1));
+        assertFalse(snapshots.isStale()); // aún sin publicar
+        publisher.publish();
+        assertTrue(snapshots.isStale()); // producto + variante + stock
+
+        snapshots.refreshIfStale();
+        CatalogSnapshotService.Snapshot second = snapshots.current().orElseThrow();
+        assertTrue(second.version() > first.version());
+        assertNotNull(find(read(second.file()), p.getId()));
+        assertTrue(Files.exists(first.file()));
+
+        products.update(p.getId(), cat.getId(), null, "Short", null,
+                new BigDecimal("12990"), false, ProductGender.MUJER);
+        publisher.publish();
+        CatalogSnapshotService.Snapshot third = snapshots.regenerate();
+        assertTrue(Files.exists(second.file()));
+        assertFalse(Files.exists(first.file()));
+        assertEquals(0, new BigDecimal("12990").compareTo(find(read(third.file()), p.getId()).get("basePrice").decimalValue()));
+    }
+
+    private static ProductImage image(Product p, String url, boolean primary, int order) {
+        return ProductImage.builder().product(p).filePath("uploads" + url).publicUrl(url)
+                .primary(primary).sortOrder(order).createdAt(Instant.now()).build();
+    }
+
+    private static List<JsonNode> read(Path file) throws IOException {
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return in.lines().map(l -> {
+                try {
+                    return JSON.readTree(l);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }).toList();
+        }
+    }
+
+    private static JsonNode find(List<JsonNode> lines, Long productId) {
+        return lines.stream().skip(1)
+                .filter(n -> n.get("id").asLong() == productId)
+                .findFirst().orElse(null);
+    }
+}
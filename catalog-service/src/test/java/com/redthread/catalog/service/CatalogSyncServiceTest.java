@@ -0,0 +1,224 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.CatalogChangesDto;
+import com.redthread.catalog.controller.dto.CatalogTombstoneDto;
+import com.redthread.catalog.controller.dto.CreateVariantReq;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ChangeOp;
+import com.redthread.catalog.repository.CatalogChangeLogRepository;
+import com.redthread.catalog.repository.CatalogChangeRepository;
+import com.redthread.catalog.repository.CatalogImportRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin scheduler: cada test publica (publisher.publish()) antes de leer
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({CatalogSyncService.class, ReferenceDataService.class, ProductService.class, VariantService.class, CatalogImportRepository.class, InventoryService.class,
+        InventoryBatchRepository.class, InventoryMovementRepository.class, CacheConfig.class,
+        CatalogChangePublisher.class, CatalogChangeLogRepository.class})
+class CatalogSyncServiceTest {
+
+    @Autowired CatalogSyncService sync;
+    @Autowired ProductService products;
+    @Autowired VariantService variants;
+    @Autowired InventoryService inventory;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired CatalogChangePublisher publisher;
+    @Autowired CatalogChangeLogRepository logRepo;
+    @Autowired CatalogChangeRepository changeRepo;
+    @Autowired PlatformTransactionManager txManager;
+
+    Category cat;
+
+    @BeforeEach
+    void setup() {
+        cat = categoryRepo.save(Category.builder().name("Sync " + UUID.randomUUID()).active(true).build());
+    }
+
+    @Test
+    void changesSinceToken_returnLatestStateOncePerEntity() {
+        String token = head();
+
+        Product p = products.create(cat.getId(), null, "Polera", null,
+                new BigDecimal("9990"), false, ProductGender.HOMBRE);
+        Variant v = variants.create(new CreateVariantReq(p.getId(), SizeType.LETTER, "M", "NEGRO", null, 5));
+        inventory.adjustStock(v.getId(), -2);
+        inventory.adjustStock(v.getId(), -1);
+        products.update(p.getId(), cat.getId(), null, "Polera", null,
+                new BigDecimal("7990"), false, ProductGender.HOMBRE);
+        publisher.publish();
+
+        CatalogChangesDto out = sync.changes(token, null);
+
+        assertFalse(out.hasMore());
+        assertEquals(1, out.products().size());
+        assertEquals(0, new BigDecimal("7990").compareTo(out.products().get(0).getBasePrice()));
+        assertEquals(List.of(v.getId()), out.variants().stream().map(x -> x.id()).toList());
+        assertEquals(1, out.stock().size());
+        assertEquals(2, out.stock().get(0).stockAvailable());
+        assertTrue(out.deleted().isEmpty());
+
+        // nada nuevo con el token devuelto
+        CatalogChangesDto again = sync.changes(out.nextToken(), null);
+        assertTrue(again.products().isEmpty() && again.stock().isEmpty());
+        assertEquals(out.nextToken(), again.nextToken());
+
+        variants.delete(v.getId());
+        publisher.publish();
+        CatalogChangesDto deleted = sync.changes(out.nextToken(), null);
+        assertEquals(Set.of(new CatalogTombstoneDto("VARIANT", v.getId()), new CatalogTombstoneDto("INVENTORY", v.getId())),
+                new HashSet<>(deleted.deleted()));
+    }
+
+    @Test
+    void smallPages_catchUpWithoutLosingChanges() {
+        String token = head();
+
+        Product a = products.create(cat.getId(), null, "A", null, new BigDecimal("1000"), false, ProductGender.MUJER);
+        Product b = products.create(cat.getId(), null, "B", null, new BigDecimal("1000"), false, ProductGender.MUJER);
+        Product c = products.create(cat.getId(), null, "C", null, new BigDecimal("1000"), false, ProductGender.MUJER);
+        publisher.publish();
+
+        Set<Long> seen = new HashSet<>();
+        int pages = 0;
+        CatalogChangesDto page;
+        do {
+            page = sync.changes(token, 1);
+            page.products().forEach(x -> seen.add(x.getId()));
+            token = page.nextToken();
+            pages++;
+        } while (page.hasMore());
+
+        assertEquals(Set.of(a.getId(), b.getId(), c.getId()), seen);
+        assertEquals(3, pages);
+    }
+
+    @Test
+    void slowTransaction_isNotSkippedByLaterCommits() throws Exception {
+        String token = head();
+        Product slow = products.create(cat.getId(), null, "Lenta", null, new BigDecimal("1000"), false, ProductGender.MUJER);
+        Product fast = products.create(cat.getId(), null, "Rápida", null, new BigDecimal("1000"), false, ProductGender.MUJER);
+        publisher.publish();
+        token = sync.changes(token, null).nextToken();
+
+        // la transacción lenta toma su id antes que la rápida y confirma después
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        Future<?> slowTx = other.submit(() -> new TransactionTemplate(txManager).executeWithoutResult(tx -> {
+            changeRepo.record(CatalogEntityType.PRODUCT, slow.getId(), ChangeOp.UPSERT, Instant.now());
+            inserted.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(inserted.await(10, TimeUnit.SECONDS));
+        changeRepo.record(CatalogEntityType.PRODUCT, fast.getId(), ChangeOp.UPSERT, Instant.now());
+        publisher.publish();
+
+        CatalogChangesDto first = sync.changes(token, null);
+        assertEquals(List.of(fast.getId()), first.products().stream().map(Product::getId).toList());
+
+        release.countDown();
+        slowTx.get(10, TimeUnit.SECONDS);
+        other.shutdown();
+        publisher.publish();
+
+        CatalogChangesDto second = sync.changes(first.nextToken(), null);
+        assertEquals(List.of(slow.getId()), second.products().stream().map(Product::getId).toList());
+    }
+
+    @Test
+    void compaction_keepsLatestPerEntity_andPrunedTokensAreGone() {
+        String token = head();
+        Product p = products.create(cat.getId(), null, "Parka", null, new BigDecimal("1000"), false, ProductGender.MUJER);
+        for (int i = 0; i < 5; i++) {
+            products.update(p.getId(), cat.getId(), null, "Parka", null,
+                    new BigDecimal(2000 + i), false, ProductGender.MUJER);
+        }
+        Variant v = variants.create(new CreateVariantReq(p.getId(), SizeType.LETTER, "S", "ROJO", null, 1));
+        variants.delete(v.getId());
+        publisher.publish();
+        publisher.compact();
+
+        CatalogChangesDto out = sync.changes(token, null);
+        assertEquals(1, out.products().size());
+        assertEquals(0, new BigDecimal("2004").compareTo(out.products().get(0).getBasePrice()));
+        assertEquals(Set.of(new CatalogTombstoneDto("VARIANT", v.getId()), new CatalogTombstoneDto("INVENTORY", v.getId())),
+                new HashSet<>(out.deleted()));
+        assertEquals(1, changeRepo.findBySeqGreaterThanOrderBySeq(Long.parseLong(token.split("\\.")[0]), Limit.unlimited()).stream()
+                .filter(c -> c.getEntityType() == CatalogEntityType.PRODUCT && c.getEntityId().equals(p.getId()))
+                .count());
+
+        // podar las bajas deja atrás a los tokens anteriores
+        logRepo.pruneTombstones(Instant.now().plusSeconds(60));
+        ResponseStatusException gone = assertThrows(ResponseStatusException.class, () -> sync.changes(token, null));
+        assertEquals(HttpStatus.GONE, gone.getStatusCode());
+        assertFalse(sync.changes(String.valueOf(logRepo.head()), null).hasMore());
+        // una carga completa posterior a la poda pagina sin 410
+        CatalogChangesDto cold = sync.changes(null, 1);
+        assertTrue(cold.hasMore());
+        assertNotNull(sync.changes(cold.nextToken(), 1).nextToken());
+    }
+
+    @Test
+    void invalidToken_is400() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> sync.changes("abc", null));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    // avanza hasta el final del registro (otras clases de test comparten la BD)
+    private String head() {
+        publisher.publish();
+        String token = null;
+        CatalogChangesDto page;
+        do {
+            page = sync.changes(token, CatalogSyncService.MAX_LIMIT);
+            token = page.nextToken();
+        } while (page.hasMore());
+        return token;
+    }
+}
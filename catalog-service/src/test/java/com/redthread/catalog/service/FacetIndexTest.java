@@ -0,0 +1,176 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.repository.FacetSourceRepository.ProductRow;
+import com.redthread.catalog.repository.FacetSourceRepository.VariantRow;
+import com.redthread.catalog.repository.ProductFilter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexTest {
+
+    private static final ProductGender H = ProductGender.HOMBRE;
+    private static final ProductGender M = ProductGender.MUJER;
+
+    private static ProductRow product(long id, long category, Long brand, ProductGender gender, String price) {
+        return new ProductRow(id, category, brand, gender, false, new BigDecimal(price));
+    }
+
+    private static FacetIndex sample() {
+        FacetIndex index = new FacetIndex();
+        index.rebuild(
+                List.of(
+                        new ProductRow(1, 10, 100L, H, true, new BigDecimal("10000")),
+                        product(2, 10, 200L, M, "20000"),
+                        product(3, 20, null, M, "30000"),
+                        product(4, 20, 100L, H, "15000")),
+                List.of(
+                        new VariantRow(11, 1, "M", "NEGRO", true),
+                        new VariantRow(12, 1, "L", "BLANCO", false),
+                        new VariantRow(21, 2, "M", "BLANCO", true),
+                        new VariantRow(41, 4, "L", "NEGRO", true)));
+        return index;
+    }
+
+    private static ProductFilter filter(Long categoryId, String size, String color, Boolean inStock) {
+        return new ProductFilter(categoryId, null, null, null, null, null, size, color, inStock);
+    }
+
+    @Test
+    void noFilter_countsEveryFacet() {
+        FacetIndex.Counts c = sample().count(ProductFilter.none());
+
+        assertEquals(4, c.total());
+        assertEquals(Map.of(10L, 2, 20L, 2), c.categories());
+        assertEquals(Map.of(H, 2, M, 2), c.genders());
+        assertEquals(Map.of(100L, 2, 200L, 1), c.brands());
+        assertEquals(Map.of("M", 2, "L", 2), c.sizes());
+        assertEquals(Map.of("NEGRO", 2, "BLANCO", 2), c.colors());
+    }
+
+    @Test
+    void eachFacetIgnoresItsOwnFilter() {
+        FacetIndex.Counts c = sample().count(filter(10L, null, null, null));
+
+        assertEquals(2, c.total());
+        // la categoría elegida no borra a las demás
+        assertEquals(Map.of(10L, 2, 20L, 2), c.categories());
+        assertEquals(Map.of(H, 1, M, 1), c.genders());
+        assertEquals(Map.of("M", 2, "L", 1), c.sizes());
+    }
+
+    @Test
+    void variantFilters_matchOnTheSameVariant() {
+        FacetIndex index = sample();
+
+        // 1 tiene M (NEGRO) y BLANCO (L), pero no una M BLANCO
+        assertEquals(1, index.count(filter(null, "M", "BLANCO", null)).total());
+        // la L BLANCO de 1 no tiene stock
+        assertEquals(1, index.count(filter(null, "L", null, true)).total());
+
+        FacetIndex.Counts c = index.count(filter(null, null, "BLANCO", null));
+        assertEquals(Map.of("M", 1, "L", 1), c.sizes());
+        assertEquals(Map.of(10L, 2), c.categories());
+    }
+
+    @Test
+    void stockFlip_updatesInStockCounts() {
+        FacetIndex index = sample();
+
+        index.setInStock(12, true);
+        assertEquals(2, index.count(filter(null, "L", null, true)).total());
+
+        index.setInStock(41, false);
+        assertEquals(1, index.count(filter(null, "L", null, true)).total());
+    }
+
+    @Test
+    void priceAndFeatured_filterProducts() {
+        FacetIndex index = sample();
+
+        ProductFilter range = new ProductFilter(null, null, null, null,
+                new BigDecimal("12000"), new BigDecimal("25000"), null, null, null);
+        assertEquals(2, index.count(range).total());
+
+        ProductFilter featured = new ProductFilter(null, null, true, null, null, null, null, null, null);
+        FacetIndex.Counts c = index.count(featured);
+        assertEquals(1, c.total());
+        assertEquals(Map.of(100L, 1), c.brands());
+    }
+
+    @Test
+    void putAndRemove_keepCountsCurrent() {
+        FacetIndex index = sample();
+
+        // 2 se cambia de categoría y pierde su variante
+        index.put(product(2, 20, 200L, M, "20000"), List.of());
+        FacetIndex.Counts c = index.count(ProductFilter.none());
+        assertEquals(Map.of(10L, 1, 20L, 3), c.categories());
+        assertEquals(Map.of("NEGRO", 2, "BLANCO", 1), c.colors());
+
+        index.remove(3);
+        index.remove(4);
+        assertEquals(2, index.size());
+        assertEquals(Map.of(10L, 1, 20L, 1), index.count(ProductFilter.none()).categories());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_100kProducts() {
+        String[] sizes = {"XS", "S", "M", "L", "XL", "38", "39", "40", "41", "42", "43", "44"};
+        String[] colors = {"NEGRO", "BLANCO", "AZUL", "ROJO", "VERDE", "GRIS", "BEIGE", "CAFE", "MORADO", "AMARILLO"};
+
+        Random rnd = new Random(42);
+        int n = 100_000;
+        List<ProductRow> products = new ArrayList<>(n);
+        List<VariantRow> variants = new ArrayList<>(n * 4);
+        long variantId = 1;
+        for (long i = 1; i <= n; i++) {
+            products.add(new ProductRow(i, 1 + rnd.nextInt(40), rnd.nextInt(10) == 0 ? null : (long) 1 + rnd.nextInt(60),
+                    rnd.nextBoolean() ? H : M, rnd.nextInt(20) == 0,
+                    BigDecimal.valueOf(5_000 + rnd.nextInt(95_000))));
+            for (int v = 0; v < 4; v++) {
+                variants.add(new VariantRow(variantId++, i, sizes[rnd.nextInt(sizes.length)],
+                        colors[rnd.nextInt(colors.length)], rnd.nextInt(4) != 0));
+            }
+        }
+
+        FacetIndex index = new FacetIndex();
+        index.rebuild(products, variants);
+
+        ProductFilter[] filters = {
+                ProductFilter.none(),
+                filter(7L, null, null, null),
+                new ProductFilter(null, M, null, 12L, null, null, null, null, null),
+                filter(null, "M", "NEGRO", true),
+                new ProductFilter(3L, H, null, null, new BigDecimal("10000"), new BigDecimal("40000"), "42", null, true),
+        };
+
+        // calentamiento JIT
+        for (int i = 0; i < 200; i++) {
+            index.count(filters[i % filters.length]);
+        }
+
+        int runs = 1_000;
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long t = System.nanoTime();
+            FacetIndex.Counts c = index.count(filters[i % filters.length]);
+            nanos[i] = System.nanoTime() - t;
+            assertFalse(c.categories().isEmpty());
+        }
+        Arrays.sort(nanos);
+
+        double p99Ms = nanos[runs * 99 / 100] / 1e6;
+        assertTrue(p99Ms < 50, "p99 de facetas sobre 100k productos: " + p99Ms + " ms");
+    }
+}
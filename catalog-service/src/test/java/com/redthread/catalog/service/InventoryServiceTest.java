@@ -0,0 +1,447 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.AdjustStockReq;
+import com.redthread.catalog.controller.dto.InventoryMovementDto;
+import com.redthread.catalog.controller.dto.InventoryMovementPageDto;
+import com.redthread.catalog.controller.dto.ReservationDto;
+import com.redthread.catalog.controller.dto.ReserveStockReq;
+import com.redthread.catalog.controller.dto.StockLevelDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository;
+import com.redthread.catalog.repository.InventoryRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin transacción de test: cada llamada al servicio hace commit de verdad,
+// que es lo que se quiere probar (todo o nada, concurrencia).
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InventoryService.class, InventoryBatchRepository.class, InventoryMovementRepository.class, CacheConfig.class})
+class InventoryServiceTest {
+
+    @Autowired InventoryService service;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired ProductRepository productRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired InventoryRepository inventoryRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    Product product;
+
+    @BeforeEach
+    void setup() {
+        String suffix = UUID.randomUUID().toString();
+        Category cat = categoryRepo.save(Category.builder().name("Inv " + suffix).active(true).build());
+        product = productRepo.save(Product.builder()
+                .category(cat)
+                .name("Polera " + suffix)
+                .basePrice(new BigDecimal("9990"))
+                .createdAt(Instant.now())
+                .gender(ProductGender.HOMBRE)
+                .active(true)
+                .build());
+    }
+
+    @Test
+    void reserve_holdsStockWithoutTouchingAvailable() {
+        Long v = variantWithStock("M", 5);
+
+        ReservationDto res = service.reserve(List.of(item(v, 3)));
+
+        assertEquals(1, res.items().size());
+        assertEquals("HELD", res.items().get(0).status());
+        assertNotNull(res.expiresAt());
+
+        Inventory inv = inventory(v);
+        assertEquals(5, inv.getStockAvailable());
+        assertEquals(3, inv.getStockReserved());
+    }
+
+    @Test
+    void reserve_isAllOrNothing() {
+        Long ok = variantWithStock("M", 5);
+        Long short_ = variantWithStock("L", 1);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.reserve(List.of(item(ok, 2), item(short_, 2))));
+
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        assertEquals(0, inventory(ok).getStockReserved());
+        assertEquals(0, inventory(short_).getStockReserved());
+    }
+
+    @Test
+    void commit_consumesReservedStock_andIsIdempotent() {
+        Long v = variantWithStock("M", 5);
+        String id = service.reserve(List.of(item(v, 2))).reservationId();
+
+        ReservationDto committed = service.commitReservation(id);
+        service.commitReservation(id);
+
+        assertEquals("COMMITTED", committed.items().get(0).status());
+        Inventory inv = inventory(v);
+        assertEquals(3, inv.getStockAvailable());
+        assertEquals(0, inv.getStockReserved());
+    }
+
+    @Test
+    void release_returnsStock_andBlocksLaterCommit() {
+        Long v = variantWithStock("M", 5);
+        String id = service.reserve(List.of(item(v, 4))).reservationId();
+
+        service.releaseReservation(id);
+        service.releaseReservation(id);
+
+        Inventory inv = inventory(v);
+        assertEquals(5, inv.getStockAvailable());
+        assertEquals(0, inv.getStockReserved());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.commitReservation(id));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+    }
+
+    @Test
+    void expire_releasesOverdueHolds_andCommitIsRejected() {
+        Long v = variantWithStock("M", 5);
+        String id = service.reserve(List.of(item(v, 5))).reservationId();
+
+        // como si el sweeper corriera después del TTL
+        Instant later = Instant.now().plus(Duration.ofHours(1));
+        while (service.expireReservations(later, 100) == 100) {
+            // vaciar lotes completos
+        }
+
+        assertEquals(0, inventory(v).getStockReserved());
+        assertThrows(ResponseStatusException.class, () -> service.commitReservation(id));
+    }
+
+    @Test
+    void adjust_cannotDropBelowReserved() {
+        Long v = variantWithStock("M", 5);
+        service.reserve(List.of(item(v, 4)));
+
+        assertThrows(IllegalArgumentException.class, () -> service.adjustStock(v, -2));
+        assertEquals(5, inventory(v).getStockAvailable());
+    }
+
+    @Test
+    void concurrentReservations_neverOversell() throws Exception {
+        Long v = variantWithStock("M", 10);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            tasks.add(() -> {
+                try {
+                    service.reserve(List.of(item(v, 1)));
+                    return true;
+                } catch (ResponseStatusException ex) {
+                    return false;
+                }
+            });
+        }
+
+        int ok = 0;
+        for (Future<Boolean> f : pool.invokeAll(tasks)) {
+            if (f.get()) ok++;
+        }
+        pool.shutdown();
+
+        assertEquals(10, ok);
+        assertEquals(10, inventory(v).getStockReserved());
+    }
+
+    @Test
+    void adjustBatch_appliesAllAndReturnsLevels() {
+        Long a = variantWithStock("M", 5);
+        Long b = variantWithStock("L", 2);
+
+        List<StockLevelDto> levels = service.adjustStockBatch(List.of(
+                new AdjustStockReq(b, 3),
+                new AdjustStockReq(a, -2),
+                new AdjustStockReq(a, -1)));
+
+        assertEquals(List.of(a, b), levels.stream().map(StockLevelDto::variantId).toList());
+        assertEquals(2, levels.get(0).stockAvailable());
+        assertEquals(5, levels.get(1).availableStock());
+    }
+
+    @Test
+    void adjustBatch_isAllOrNothing() {
+        Long a = variantWithStock("M", 5);
+        Long b = variantWithStock("L", 1);
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.adjustStockBatch(List.of(new AdjustStockReq(a, -3), new AdjustStockReq(b, -2))));
+
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        assertEquals(5, inventory(a).getStockAvailable());
+        assertEquals(1, inventory(b).getStockAvailable());
+        // el rollback también descarta los movimientos
+        assertTrue(service.movements(a, null, null).items().isEmpty());
+    }
+
+    @Test
+    void adjustBatch_createsMissingInventory() {
+        Long withRow = variantWithStock("M", 5);
+        Long withoutRow = variantWithoutInventory("L");
+
+        // restock de una orden cancelada sobre una variante que nunca tuvo fila
+        List<StockLevelDto> levels = service.adjustStockBatch(List.of(
+                new AdjustStockReq(withRow, 2),
+                new AdjustStockReq(withoutRow, 3)));
+
+        assertEquals(List.of(7, 3), levels.stream().map(StockLevelDto::stockAvailable).toList());
+        assertEquals(3, inventory(withoutRow).getStockAvailable());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.adjustStockBatch(List.of(new AdjustStockReq(withRow, 1), new AdjustStockReq(-1L, 1))));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        assertEquals(7, inventory(withRow).getStockAvailable());
+    }
+
+    @Test
+    void movements_recordEveryChange_newestFirst() {
+        Long v = variantWithStock("M", 5);
+
+        service.adjustStock(v, 3, "restock:7");
+        String id = service.reserve(List.of(item(v, 2)), "order:15").reservationId();
+        service.commitReservation(id);
+        String released = service.reserve(List.of(item(v, 1)), "order:16").reservationId();
+        service.releaseReservation(released);
+
+        List<InventoryMovementDto> all = service.movements(v, null, null).items();
+
+        assertEquals(List.of("RELEASE", "RESERVE", "COMMIT", "RESERVE", "ADJUST"),
+                all.stream().map(InventoryMovementDto::reason).toList());
+        assertEquals("restock:7", all.get(4).reference());
+        assertEquals("order:15", all.get(2).reference());
+        assertEquals(id, all.get(2).reservationId());
+
+        // el historial explica el valor actual
+        Inventory inv = inventory(v);
+        assertEquals(inv.getStockAvailable() - 5, all.stream().mapToInt(InventoryMovementDto::deltaAvailable).sum());
+        assertEquals(inv.getStockReserved(), all.stream().mapToInt(InventoryMovementDto::deltaReserved).sum());
+    }
+
+    @Test
+    void movements_keysetPaging() {
+        Long v = variantWithStock("M", 0);
+        for (int i = 1; i <= 5; i++) {
+            service.adjustStock(v, i);
+        }
+
+        InventoryMovementPageDto first = service.movements(v, null, 2);
+        InventoryMovementPageDto second = service.movements(v, first.nextCursor(), 2);
+        InventoryMovementPageDto last = service.movements(v, second.nextCursor(), 2);
+
+        assertEquals(List.of(5, 4), first.items().stream().map(InventoryMovementDto::deltaAvailable).toList());
+        assertEquals(List.of(3, 2), second.items().stream().map(InventoryMovementDto::deltaAvailable).toList());
+        assertEquals(List.of(1), last.items().stream().map(InventoryMovementDto::deltaAvailable).toList());
+        assertTrue(first.hasMore());
+        assertFalse(last.hasMore());
+        assertNull(last.nextCursor());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.movements(v, "abc", null));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    @Test
+    void adjustBatch_concurrentOppositeOrders_doNotDeadlock() throws Exception {
+        Long a = variantWithStock("M", 1_000);
+        Long b = variantWithStock("L", 1_000);
+
+        // un lote pide (a, b) y el otro (b, a): sin orden fijo se cruzarían los locks
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 16; t++) {
+            List<AdjustStockReq> batch = t % 2 == 0
+                    ? List.of(new AdjustStockReq(a, -1), new AdjustStockReq(b, -1))
+                    : List.of(new AdjustStockReq(b, -1), new AdjustStockReq(a, -1));
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < 20; i++) {
+                    service.adjustStockBatch(batch);
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+
+        assertEquals(1_000 - 320, inventory(a).getStockAvailable());
+        assertEquals(1_000 - 320, inventory(b).getStockAvailable());
+    }
+
+    // ============================================================
+    // Variante "caliente": 64 hilos ajustando la misma fila
+    // ============================================================
+
+    @Test
+    void hotVariant_concurrentAdjusters_loseNoUpdates() throws Exception {
+        Long v = variantWithStock("M", 5_000);
+        int threads = 64;
+        int opsPerThread = 100;
+
+        // la mitad resta 1 y la otra mitad suma 2: ninguna operación debe fallar
+        List<Integer> ok = runConcurrently(threads, opsPerThread, i -> i % 2 == 0 ? -1 : +2, v);
+
+        int ops = threads * opsPerThread;
+        assertEquals(ops, ok.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(5_000 + (threads / 2) * opsPerThread * (-1 + 2), inventory(v).getStockAvailable());
+    }
+
+    @Test
+    void hotVariant_concurrentDecrements_neverOversell() throws Exception {
+        Long v = variantWithStock("M", 200);
+
+        List<Integer> ok = runConcurrently(64, 10, i -> -1, v);
+
+        assertEquals(200, ok.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(0, inventory(v).getStockAvailable());
+    }
+
+    @Test
+    void firstAdjust_concurrent_createsOneRowAndLosesNoUpdates() throws Exception {
+        Long v = variantWithoutInventory("M");
+
+        // todos parten sin fila de inventario: ninguno debe chocar con el UNIQUE
+        List<Integer> ok = runConcurrently(16, 5, i -> +1, v);
+
+        assertEquals(80, ok.stream().mapToInt(Integer::intValue).sum());
+        assertEquals(80, inventory(v).getStockAvailable());
+        assertEquals(80, service.movements(v, null, 200).items().size());
+    }
+
+    @Test
+    void firstAdjust_recordsInventoryChange() {
+        Long single = variantWithoutInventory("M");
+        Long batched = variantWithoutInventory("L");
+
+        // el registro va antes del UPDATE, cuando la fila aún no existe
+        service.adjustStock(single, 4);
+        service.adjustStockBatch(List.of(new AdjustStockReq(batched, 2)));
+
+        assertEquals(1, inventoryChanges(single));
+        assertEquals(1, inventoryChanges(batched));
+    }
+
+    @Test
+    void firstAdjust_negative_isRejectedWithoutCreatingRow() {
+        Long v = variantWithoutInventory("M");
+
+        assertThrows(IllegalArgumentException.class, () -> service.adjustStock(v, -1));
+        assertTrue(inventoryRepo.findByVariantId(v).isEmpty());
+    }
+
+    /** Retorna, por hilo, cuántos ajustes se aplicaron. */
+    private List<Integer> runConcurrently(int threads, int opsPerThread,
+                                          IntUnaryOperator deltaForThread,
+                                          Long variantId) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+
+        for (int t = 0; t < threads; t++) {
+            int delta = deltaForThread.applyAsInt(t);
+            futures.add(pool.submit(() -> {
+                go.await();
+                int applied = 0;
+                for (int i = 0; i < opsPerThread; i++) {
+                    try {
+                        service.adjustStock(variantId, delta);
+                        applied++;
+                    } catch (IllegalArgumentException ex) {
+                        // sin stock: rechazado, no aplicado
+                    }
+                }
+                return applied;
+            }));
+        }
+
+        go.countDown();
+        List<Integer> out = new ArrayList<>();
+        for (Future<Integer> f : futures) {
+            out.add(f.get(2, TimeUnit.MINUTES));
+        }
+        pool.shutdown();
+        return out;
+    }
+
+    private int inventoryChanges(Long variantId) {
+        return jdbc.queryForObject(
+                "select count(*) from catalog_changes where entity_type = 'INVENTORY' and entity_id = ?",
+                Integer.class, variantId);
+    }
+
+    private Long variantWithStock(String size, int stock) {
+        Variant v = variantRepo.findById(variantWithoutInventory(size)).orElseThrow();
+        inventoryRepo.save(Inventory.builder()
+                .variant(v)
+                .stockAvailable(stock)
+                .stockReserved(0)
+                .updatedAt(Instant.now())
+                .build());
+        return v.getId();
+    }
+
+    private Long variantWithoutInventory(String size) {
+        return variantRepo.save(Variant.builder()
+                .product(product)
+                .sizeType(SizeType.LETTER)
+                .sizeValue(size)
+                .color("NEGRO")
+                .sku("SKU-" + product.getId() + "-" + size)
+                .active(true)
+                .createdAt(Instant.now())
+                .build()).getId();
+    }
+
+    private Inventory inventory(Long variantId) {
+        return inventoryRepo.findByVariantId(variantId).orElseThrow();
+    }
+
+    private static ReserveStockReq.Item item(Long variantId, int qty) {
+        return new ReserveStockReq.Item(variantId, qty);
+    }
+}
@@ -0,0 +1,337 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.InventoryMovementDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository;
+import com.redthread.catalog.repository.InventoryRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "app.inventory.write-buffer.enabled=true",
+        "app.inventory.write-buffer.node-id=test-node",
+        // flush manual en los tests
+        "app.inventory.write-buffer.flush-interval=1h"
+})
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({InventoryService.class, InventoryBatchRepository.class, InventoryMovementRepository.class,
+        InventoryWriteBuffer.class, CacheConfig.class})
+class InventoryWriteBufferTest {
+
+    @TempDir
+    static Path logDir;
+
+    @DynamicPropertySource
+    static void props(DynamicPropertyRegistry registry) {
+        registry.add("app.inventory.write-buffer.dir", () -> logDir.toString());
+    }
+
+    @Autowired InventoryWriteBuffer buffer;
+    @Autowired InventoryService service;
+    @Autowired InventoryBatchRepository batchRepo;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired ProductRepository productRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired InventoryRepository inventoryRepo;
+    @Autowired JdbcTemplate jdbc;
+
+    Product product;
+
+    @BeforeEach
+    void setup() {
+        String suffix = UUID.randomUUID().toString();
+        Category cat = categoryRepo.save(Category.builder().name("Buf " + suffix).active(true).build());
+        product = productRepo.save(Product.builder()
+                .category(cat)
+                .name("Zapatilla " + suffix)
+                .basePrice(new BigDecimal("59990"))
+                .createdAt(Instant.now())
+                .gender(ProductGender.MUJER)
+                .active(true)
+                .build());
+    }
+
+    @Test
+    void adjust_isVisibleInDbOnlyAfterFlush() {
+        Long v = variantWithStock("M", 10);
+
+        Inventory projected = buffer.adjust(v, -3);
+
+        assertEquals(7, projected.getStockAvailable());
+        assertEquals(10, inventory(v).getStockAvailable());
+
+        buffer.flush();
+
+        assertEquals(7, inventory(v).getStockAvailable());
+        assertEquals(0, buffer.pendingVariants());
+        assertEquals("BUFFERED_ADJUST", service.movements(v, null, null).items().get(0).reason());
+    }
+
+    @Test
+    void adjust_enforcesFloorInMemory() {
+        Long v = variantWithStock("M", 2);
+
+        buffer.adjust(v, -2);
+        assertThrows(IllegalArgumentException.class, () -> buffer.adjust(v, -1));
+
+        buffer.flush();
+        assertEquals(0, inventory(v).getStockAvailable());
+    }
+
+    @Test
+    void replay_appliesUnflushedDeltasAfterCrash() throws Exception {
+        Long v = variantWithStock("M", 100);
+        String node = "crash-" + UUID.randomUUID().toString().substring(0, 8);
+        Path dir = logDir.resolve(node);
+
+        // primera instancia: acepta ajustes y "muere" sin flush
+        InventoryWriteBuffer first = newBuffer(dir, node);
+        first.start();
+        first.adjust(v, -5);
+        first.adjust(v, -7);
+        first.adjust(v, +2);
+        assertEquals(100, inventory(v).getStockAvailable());
+
+        // segunda instancia sobre el mismo log: reaplica al arrancar
+        InventoryWriteBuffer second = newBuffer(dir, node);
+        second.start();
+        assertEquals(90, inventory(v).getStockAvailable());
+
+        // y un nuevo arranque no vuelve a aplicarlos
+        second.stop();
+        InventoryWriteBuffer third = newBuffer(dir, node);
+        third.start();
+        assertEquals(90, inventory(v).getStockAvailable());
+        third.stop();
+    }
+
+    @Test
+    void flush_retriesFailedBatchWithoutNewWrites() throws Exception {
+        Long v = variantWithStock("M", 10);
+        String node = "flaky-" + UUID.randomUUID().toString().substring(0, 8);
+
+        // la primera aplicación falla (BD caída), las siguientes van a la BD real
+        InventoryService flaky = mock(InventoryService.class);
+        when(flaky.applyCoalesced(anyMap(), anyList(), anyString(), anyLong()))
+                .thenThrow(new IllegalStateException("BD no disponible"))
+                .thenAnswer(inv -> service.applyCoalesced(
+                        inv.getArgument(0), inv.getArgument(1), inv.getArgument(2), inv.getArgument(3)));
+
+        InventoryWriteBuffer flakyBuffer = new InventoryWriteBuffer(flaky, inventoryRepo, batchRepo,
+                logDir.resolve(node), node, Duration.ofHours(1), false);
+        flakyBuffer.start();
+        flakyBuffer.adjust(v, -3, "order:42");
+
+        flakyBuffer.flush();
+        assertEquals(10, inventory(v).getStockAvailable());
+        assertEquals(1, flakyBuffer.pendingVariants());
+
+        // sin ajustes nuevos: el segmento abierto está vacío y aun así se reintenta
+        flakyBuffer.flush();
+        assertEquals(7, inventory(v).getStockAvailable());
+        assertEquals(0, flakyBuffer.pendingVariants());
+        assertEquals(1, flakyBuffer.segmentsOnDisk().size());
+        // la reference vuelve a pendientes junto con el delta
+        assertEquals(Map.of("order:42", -3), referencedMovements(v));
+        flakyBuffer.stop();
+    }
+
+    @Test
+    void adjust_withReference_keepsItsOwnMovement() {
+        Long v = variantWithStock("M", 10);
+
+        buffer.adjust(v, -2, "order:77");
+        buffer.adjust(v, -1);
+        buffer.adjust(v, +4, "restock:9");
+        buffer.flush();
+
+        assertEquals(11, inventory(v).getStockAvailable());
+        assertEquals(Map.of("order:77", -2, "restock:9", 4), referencedMovements(v));
+        // lo que no traía reference queda como neto del segmento
+        List<InventoryMovementDto> rest = service.movements(v, null, null).items().stream()
+                .filter(m -> m.reference().startsWith("buffer:test-node:"))
+                .toList();
+        assertEquals(1, rest.size());
+        assertEquals(-1, rest.get(0).deltaAvailable());
+    }
+
+    @Test
+    void replay_keepsReferencesAfterCrash() {
+        Long v = variantWithStock("M", 20);
+        String node = "crash-ref-" + UUID.randomUUID().toString().substring(0, 8);
+        Path dir = logDir.resolve(node);
+
+        InventoryWriteBuffer first = newBuffer(dir, node);
+        first.start();
+        first.adjust(v, -5, "order:88");
+        first.adjust(v, +5);
+
+        // el neto es 0, pero el ajuste con reference igual queda en el historial
+        InventoryWriteBuffer second = newBuffer(dir, node);
+        second.start();
+        assertEquals(20, inventory(v).getStockAvailable());
+        assertEquals(Map.of("order:88", -5), referencedMovements(v));
+        second.stop();
+    }
+
+    @Test
+    void fsync_groupCommitsConcurrentAdjusts() throws Exception {
+        int threads = 16;
+        int opsPerThread = 50;
+        Long v = variantWithStock("M", 5_000);
+        String node = "fsync-" + UUID.randomUUID().toString().substring(0, 8);
+
+        InventoryWriteBuffer durable = new InventoryWriteBuffer(service, inventoryRepo, batchRepo,
+                logDir.resolve(node), node, Duration.ofHours(1), true);
+        durable.start();
+        run(threads, opsPerThread, t -> -1, d -> durable.adjust(v, d));
+        durable.flush();
+
+        assertEquals(5_000 - threads * opsPerThread, inventory(v).getStockAvailable());
+        // varios ajustes por force, no uno por ajuste
+        long forces = durable.groupForces();
+        assertTrue(forces > 0 && forces < threads * opsPerThread, "forces=" + forces);
+        durable.stop();
+    }
+
+    @Test
+    void flush_rejectedDelta_goesToDeadLetter() {
+        Long v = variantWithStock("M", 5);
+
+        buffer.adjust(v, -4);
+        // otro camino consume el mismo stock antes del flush
+        service.adjustStock(v, -3);
+        buffer.flush();
+
+        assertEquals(2, inventory(v).getStockAvailable());
+        assertEquals(List.of(-4), jdbc.queryForList(
+                "SELECT delta FROM inventory_buffer_rejections WHERE variant_id = ?", Integer.class, v));
+
+        // el piso en memoria se rearmó con la BD
+        assertThrows(IllegalArgumentException.class, () -> buffer.adjust(v, -3));
+    }
+
+    @Test
+    void hotVariant_buffered_loseNoUpdates_likeDirect() throws Exception {
+        int threads = 64;
+        int opsPerThread = 100;
+        IntUnaryOperator delta = i -> i % 2 == 0 ? -1 : +2;
+        int expected = 5_000 + (threads / 2) * opsPerThread * (-1 + 2);
+
+        Long direct = variantWithStock("M", 5_000);
+        run(threads, opsPerThread, delta, d -> service.adjustStock(direct, d));
+        assertEquals(expected, inventory(direct).getStockAvailable());
+
+        Long buffered = variantWithStock("L", 5_000);
+        run(threads, opsPerThread, delta, d -> buffer.adjust(buffered, d));
+        buffer.flush();
+        assertEquals(expected, inventory(buffered).getStockAvailable());
+    }
+
+    private interface Adjuster {
+        void adjust(int delta);
+    }
+
+    private void run(int threads, int opsPerThread, IntUnaryOperator deltaForThread, Adjuster adjuster) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int d = deltaForThread.applyAsInt(t);
+            futures.add(pool.submit(() -> {
+                go.await();
+                for (int i = 0; i < opsPerThread; i++) {
+                    adjuster.adjust(d);
+                }
+                return null;
+            }));
+        }
+
+        go.countDown();
+        for (Future<?> f : futures) {
+            f.get(2, TimeUnit.MINUTES);
+        }
+        pool.shutdown();
+    }
+
+    private InventoryWriteBuffer newBuffer(Path dir, String node) {
+        return new InventoryWriteBuffer(service, inventoryRepo, batchRepo, dir, node, Duration.ofHours(1), false);
+    }
+
+    private Long variantWithStock(String size, int stock) {
+        Variant v = variantRepo.save(Variant.builder()
+                .product(product)
+                .sizeType(SizeType.LETTER)
+                .sizeValue(size)
+                .color("BLANCO")
+                .sku("SKU-" + product.getId() + "-" + size)
+                .active(true)
+                .createdAt(Instant.now())
+                .build());
+        inventoryRepo.save(Inventory.builder()
+                .variant(v)
+                .stockAvailable(stock)
+                .stockReserved(0)
+                .updatedAt(Instant.now())
+                .build());
+        return v.getId();
+    }
+
+    /** reference -> delta de los movimientos que no son el neto del buffer. */
+    private Map<String, Integer> referencedMovements(Long variantId) {
+        return service.movements(variantId, null, null).items().stream()
+                .filter(m -> !m.reference().startsWith("buffer:"))
+                .collect(Collectors.toMap(InventoryMovementDto::reference, InventoryMovementDto::deltaAvailable));
+    }
+
+    private Inventory inventory(Long variantId) {
+        return inventoryRepo.findByVariantId(variantId).orElseThrow();
+    }
+}
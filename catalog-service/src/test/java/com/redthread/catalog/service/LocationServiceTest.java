@@ -0,0 +1,211 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.AllocationDto;
+import com.redthread.catalog.controller.dto.CreateLocationReq;
+import com.redthread.catalog.controller.dto.LocationAvailabilityDto;
+import com.redthread.catalog.controller.dto.ReserveStockReq;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.AllocationPolicy;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository;
+import com.redthread.catalog.repository.InventoryRepository;
+import com.redthread.catalog.repository.LocationStockRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin transacción de test: se prueba que ubicación y total se confirmen
+// (o se deshagan) juntos.
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({LocationService.class, InventoryService.class, InventoryBatchRepository.class,
+        InventoryMovementRepository.class, CacheConfig.class})
+class LocationServiceTest {
+
+    @Autowired LocationService service;
+    @Autowired InventoryService inventoryService;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired ProductRepository productRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired InventoryRepository inventoryRepo;
+    @Autowired LocationStockRepository stockRepo;
+
+    Long variantId;
+    Long santiago;
+    Long valparaiso;
+
+    @BeforeEach
+    void setup() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        Category cat = categoryRepo.save(Category.builder().name("Loc " + suffix).active(true).build());
+        Product product = productRepo.save(Product.builder()
+                .category(cat)
+                .name("Chaqueta " + suffix)
+                .basePrice(new BigDecimal("39990"))
+                .createdAt(Instant.now())
+                .gender(ProductGender.HOMBRE)
+                .active(true)
+                .build());
+        variantId = variantRepo.save(Variant.builder()
+                .product(product)
+                .sizeType(SizeType.LETTER)
+                .sizeValue("M")
+                .color("AZUL")
+                .sku("SKU-" + suffix)
+                .active(true)
+                .createdAt(Instant.now())
+                .build()).getId();
+
+        santiago = service.create(new CreateLocationReq("SCL-" + suffix, "Santiago", -33.4489, -70.6693, null)).getId();
+        valparaiso = service.create(new CreateLocationReq("VAP-" + suffix, "Valparaíso", -33.0472, -71.6127, null)).getId();
+    }
+
+    @Test
+    void adjust_keepsAggregateInSync() {
+        service.adjustStock(santiago, variantId, 3, null);
+        service.adjustStock(valparaiso, variantId, 5, null);
+        LocationAvailabilityDto after = service.adjustStock(valparaiso, variantId, -2, null);
+
+        assertEquals(3, after.stockAvailable());
+        assertEquals(6, inventory().getStockAvailable());
+    }
+
+    @Test
+    void adjust_belowReservedTotal_rollsBackLocation() {
+        service.adjustStock(santiago, variantId, 2, null);
+        service.adjustStock(valparaiso, variantId, 2, null);
+        inventoryService.reserve(List.of(new ReserveStockReq.Item(variantId, 3)));
+
+        // la ubicación tiene 2, pero el total quedaría 2 con 3 reservados
+        assertThrows(IllegalArgumentException.class, () -> service.adjustStock(santiago, variantId, -2, null));
+
+        assertEquals(2, stockRepo.findByLocationIdAndVariantId(santiago, variantId).orElseThrow().getStockAvailable());
+        assertEquals(4, inventory().getStockAvailable());
+    }
+
+    @Test
+    void adjust_cannotGoNegativeAtLocation() {
+        service.adjustStock(santiago, variantId, 1, null);
+        service.adjustStock(valparaiso, variantId, 5, null);
+
+        assertThrows(IllegalArgumentException.class, () -> service.adjustStock(santiago, variantId, -2, null));
+        assertEquals(6, inventory().getStockAvailable());
+    }
+
+    @Test
+    void firstAdjust_concurrent_createsOneRowAndLosesNoUpdates() throws Exception {
+        // todos parten sin fila en la ubicación: ninguno debe chocar con uq_location_stock
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Future<LocationAvailabilityDto>> calls = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            calls.add(pool.submit(() -> {
+                go.await();
+                return service.adjustStock(santiago, variantId, 1, null);
+            }));
+        }
+        go.countDown();
+        try {
+            for (Future<LocationAvailabilityDto> f : calls) {
+                f.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(8, stockRepo.findByLocationIdAndVariantId(santiago, variantId).orElseThrow().getStockAvailable());
+        assertEquals(8, inventory().getStockAvailable());
+    }
+
+    @Test
+    void dispatch_movesLocationOnly_afterCommit() {
+        service.adjustStock(santiago, variantId, 3, null);
+        service.adjustStock(valparaiso, variantId, 5, null);
+        String reservation = inventoryService.reserve(List.of(new ReserveStockReq.Item(variantId, 4))).reservationId();
+        inventoryService.commitReservation(reservation);
+        assertEquals(4, inventory().getStockAvailable());
+
+        service.dispatch(santiago, variantId, 3);
+        LocationAvailabilityDto after = service.dispatch(valparaiso, variantId, 1);
+
+        // el total ya bajó al confirmar; despachar no lo vuelve a descontar
+        assertEquals(4, after.stockAvailable());
+        assertEquals(0, stockRepo.findByLocationIdAndVariantId(santiago, variantId).orElseThrow().getStockAvailable());
+        assertEquals(4, inventory().getStockAvailable());
+    }
+
+    @Test
+    void dispatch_moreThanLocationHas_isRejected() {
+        service.adjustStock(santiago, variantId, 1, null);
+
+        assertThrows(IllegalArgumentException.class, () -> service.dispatch(santiago, variantId, 2));
+        ResponseStatusException missing = assertThrows(ResponseStatusException.class,
+                () -> service.dispatch(valparaiso, variantId, 1));
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertEquals(1, stockRepo.findByLocationIdAndVariantId(santiago, variantId).orElseThrow().getStockAvailable());
+    }
+
+    @Test
+    void availability_sortsByDistance() {
+        service.adjustStock(santiago, variantId, 1, null);
+        service.adjustStock(valparaiso, variantId, 5, null);
+
+        // destino en Viña del Mar
+        List<LocationAvailabilityDto> rows = service.availability(variantId, -33.0245, -71.5518);
+
+        assertEquals(List.of(valparaiso, santiago), rows.stream().map(LocationAvailabilityDto::locationId).toList());
+        assertTrue(rows.get(0).distanceKm() < rows.get(1).distanceKm());
+    }
+
+    @Test
+    void allocate_splitsAcrossLocations_orRejects() {
+        service.adjustStock(santiago, variantId, 2, null);
+        service.adjustStock(valparaiso, variantId, 5, null);
+
+        AllocationDto nearest = service.allocate(variantId, 4, AllocationPolicy.NEAREST, -33.4489, -70.6693);
+        assertEquals(List.of(santiago, valparaiso), nearest.lines().stream().map(AllocationDto.Line::locationId).toList());
+
+        AllocationDto single = service.allocate(variantId, 4, AllocationPolicy.FEWEST_SPLITS, -33.4489, -70.6693);
+        assertEquals(List.of(valparaiso), single.lines().stream().map(AllocationDto.Line::locationId).toList());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class,
+                () -> service.allocate(variantId, 8, null, null, null));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+    }
+
+    private Inventory inventory() {
+        return inventoryRepo.findByVariantId(variantId).orElseThrow();
+    }
+}
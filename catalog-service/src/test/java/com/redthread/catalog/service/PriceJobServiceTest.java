@@ -0,0 +1,238 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.CreatePriceJobReq;
+import com.redthread.catalog.controller.dto.PriceJobDto;
+import com.redthread.catalog.event.ProductsRepricedEvent;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.PriceAdjustment;
+import com.redthread.catalog.model.enums.PriceField;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.RepricingRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@RecordApplicationEvents
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({PriceJobService.class, ReferenceDataService.class, RepricingRepository.class, CacheConfig.class})
+class PriceJobServiceTest {
+
+    @Autowired PriceJobService service;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired ProductRepository productRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired CacheManager cacheManager;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ApplicationEvents events;
+
+    Category sale;
+    Category other;
+
+    @BeforeEach
+    void setup() {
+        sale = categoryRepo.save(Category.builder().name("Liquidación " + UUID.randomUUID()).active(true).build());
+        other = categoryRepo.save(Category.builder().name("Temporada " + UUID.randomUUID()).active(true).build());
+    }
+
+    @Test
+    void percentByCategory_repricesInOneTransaction_andInvalidatesOnce() {
+        Product a = product(sale, "10000", ProductGender.MUJER);
+        Product b = product(sale, "19990", ProductGender.HOMBRE);
+        Product c = product(sale, "5", ProductGender.MUJER);
+        Product untouched = product(other, "10000", ProductGender.MUJER);
+        cacheManager.getCache(CacheConfig.PRODUCTS).put(a.getId(), a);
+        cacheManager.getCache(CacheConfig.PRODUCTS).put(untouched.getId(), untouched);
+        cacheManager.getCache(CacheConfig.PRODUCT_LISTS).put("listado", List.of());
+
+        PriceJobDto job = service.create(req(PriceField.BASE_PRICE, PriceAdjustment.PERCENT, "-20", sale.getId(), null, null, null));
+
+        assertEquals("DONE", job.status());
+        assertEquals(3, job.productsUpdated());
+        assertPrice("8000.00", a);
+        assertPrice("15992.00", b);
+        assertPrice("4.00", c);
+        assertPrice("10000.00", untouched);
+        assertEquals(a.getVersion() + 1, productRepo.findById(a.getId()).orElseThrow().getVersion());
+
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(a.getId()));
+        assertNotNull(cacheManager.getCache(CacheConfig.PRODUCTS).get(untouched.getId()));
+        assertNull(cacheManager.getCache(CacheConfig.PRODUCT_LISTS).get("listado"));
+        List<ProductsRepricedEvent> published = events.stream(ProductsRepricedEvent.class).toList();
+        assertEquals(1, published.size());
+        assertEquals(List.of(a.getId(), b.getId(), c.getId()), published.get(0).productIds());
+
+        Integer changes = jdbc.queryForObject(
+                "SELECT count(*) FROM catalog_changes WHERE entity_type = 'PRODUCT' AND entity_id IN (?, ?, ?) AND created_at >= ?",
+                Integer.class, a.getId(), b.getId(), c.getId(), java.sql.Timestamp.from(job.createdAt()));
+        assertEquals(3, changes);
+    }
+
+    @Test
+    void amountOnOverrides_byIdsAndGender_neverBelowZero() {
+        Product a = product(sale, "20000", ProductGender.MUJER);
+        Product men = product(sale, "20000", ProductGender.HOMBRE);
+        Variant cheap = variant(a, "S", "3000");
+        Variant pricey = variant(a, "M", "25000");
+        Variant plain = variant(a, "L", null);
+        Variant menOverride = variant(men, "S", "25000");
+
+        PriceJobDto job = service.create(req(PriceField.PRICE_OVERRIDE, PriceAdjustment.AMOUNT, "-5000",
+                null, ProductGender.MUJER, List.of(a.getId(), men.getId()), null));
+
+        assertEquals("DONE", job.status());
+        assertEquals(2, job.variantsUpdated());
+        assertEquals(0, BigDecimal.ZERO.compareTo(override(cheap)));
+        assertEquals(0, new BigDecimal("20000").compareTo(override(pricey)));
+        assertNull(override(plain));
+        assertEquals(0, new BigDecimal("25000").compareTo(override(menOverride)));
+        assertPrice("20000.00", a);
+    }
+
+    @Test
+    void scheduledJob_waitsForRunAt_andCanBeCancelledWhilePending() {
+        Product a = product(sale, "10000", ProductGender.MUJER);
+        Instant runAt = Instant.now().plus(1, ChronoUnit.HOURS);
+
+        PriceJobDto scheduled = service.create(req(PriceField.BASE_PRICE, PriceAdjustment.AMOUNT, "1000", sale.getId(), null, null, runAt));
+        assertEquals("PENDING", scheduled.status());
+        service.runDue(Instant.now());
+        assertPrice("10000.00", a);
+
+        PriceJobDto cancelled = service.create(req(PriceField.BASE_PRICE, PriceAdjustment.AMOUNT, "5000", sale.getId(), null, null, runAt));
+        assertEquals("CANCELLED", service.cancel(cancelled.id()).status());
+
+        assertTrue(service.runDue(runAt.plusSeconds(1)) >= 1);
+        assertPrice("11000.00", a);
+        assertEquals("DONE", service.get(scheduled.id()).status());
+        assertEquals("CANCELLED", service.get(cancelled.id()).status());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.cancel(scheduled.id()));
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+    }
+
+    @Test
+    void runningJobWithExpiredLease_isRetriedOnce_liveLeaseIsLeftAlone() {
+        Product a = product(sale, "10000", ProductGender.MUJER);
+        Instant runAt = Instant.now().plus(1, ChronoUnit.HOURS);
+        PriceJobDto crashed = service.create(req(PriceField.BASE_PRICE, PriceAdjustment.AMOUNT, "1000", sale.getId(), null, null, runAt));
+        PriceJobDto live = service.create(req(PriceField.BASE_PRICE, PriceAdjustment.AMOUNT, "500", sale.getId(), null, null, runAt));
+
+        // una instancia los tomó y se cayó antes de aplicar; la otra sigue dentro de su lease
+        jdbc.update("UPDATE price_jobs SET status = 'RUNNING', claim_token = 'caida', attempts = 1, lease_until = ? WHERE id = ?",
+                java.sql.Timestamp.from(Instant.now().minusSeconds(60)), crashed.id());
+        jdbc.update("UPDATE price_jobs SET status = 'RUNNING', claim_token = 'viva', attempts = 1, lease_until = ? WHERE id = ?",
+                java.sql.Timestamp.from(Instant.now().plus(1, ChronoUnit.HOURS)), live.id());
+
+        assertEquals(1, service.runDue(Instant.now()));
+        assertEquals("DONE", service.get(crashed.id()).status());
+        assertEquals("RUNNING", service.get(live.id()).status());
+        assertPrice("11000.00", a);
+
+        assertEquals(0, service.runDue(Instant.now()));
+        assertPrice("11000.00", a);
+    }
+
+    @Test
+    void jobInterruptedTooOften_isFailed() {
+        Product a = product(sale, "10000", ProductGender.MUJER);
+        PriceJobDto job = service.create(req(PriceField.BASE_PRICE, PriceAdjustment.AMOUNT, "1000", sale.getId(), null, null,
+                Instant.now().plus(1, ChronoUnit.HOURS)));
+        jdbc.update("UPDATE price_jobs SET status = 'RUNNING', claim_token = 'caida', attempts = ?, lease_until = ? WHERE id = ?",
+                PriceJobService.MAX_ATTEMPTS, java.sql.Timestamp.from(Instant.now().minusSeconds(60)), job.id());
+
+        service.runDue(Instant.now());
+
+        assertEquals("FAILED", service.get(job.id()).status());
+        assertPrice("10000.00", a);
+    }
+
+    @Test
+    void create_rejectsMissingScopeAndFullDiscount() {
+        ResponseStatusException noScope = assertThrows(ResponseStatusException.class, () -> service.create(
+                req(PriceField.BASE_PRICE, PriceAdjustment.PERCENT, "-10", null, null, null, null)));
+        assertEquals(HttpStatus.BAD_REQUEST, noScope.getStatusCode());
+
+        ResponseStatusException free = assertThrows(ResponseStatusException.class, () -> service.create(
+                req(PriceField.BASE_PRICE, PriceAdjustment.PERCENT, "-100", sale.getId(), null, null, null)));
+        assertEquals(HttpStatus.BAD_REQUEST, free.getStatusCode());
+    }
+
+    @Test
+    void largeCategory_isProcessedInChunks() {
+        int total = PriceJobService.CHUNK_SIZE * 2 + 500;
+        List<Object[]> rows = new java.util.ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            rows.add(new Object[]{sale.getId(), "Producto " + i});
+        }
+        jdbc.batchUpdate("INSERT INTO products (category_id, name, base_price, active, featured, gender, created_at) "
+                + "VALUES (?, ?, 10000, TRUE, FALSE, 'MUJER', NOW())", rows);
+
+        try {
+            PriceJobDto job = service.create(req(PriceField.BASE_PRICE, PriceAdjustment.PERCENT, "-30", sale.getId(), null, null, null));
+
+            assertEquals(total, job.productsUpdated());
+            assertEquals(total, jdbc.queryForObject(
+                    "SELECT count(*) FROM products WHERE category_id = ? AND base_price = 7000", Integer.class, sale.getId()));
+        } finally {
+            jdbc.update("DELETE FROM catalog_changes WHERE entity_type = 'PRODUCT' AND entity_id IN (SELECT id FROM products WHERE category_id = ?)", sale.getId());
+            jdbc.update("DELETE FROM products WHERE category_id = ?", sale.getId());
+        }
+    }
+
+    private CreatePriceJobReq req(PriceField field, PriceAdjustment mode, String amount,
+                                  Long categoryId, ProductGender gender, List<Long> ids, Instant runAt) {
+        return new CreatePriceJobReq(field, mode, new BigDecimal(amount), categoryId, null, gender, ids, runAt);
+    }
+
+    private Product product(Category cat, String price, ProductGender gender) {
+        return productRepo.save(Product.builder().category(cat).name("Producto " + UUID.randomUUID())
+                .basePrice(new BigDecimal(price)).active(true).gender(gender).createdAt(Instant.now()).build());
+    }
+
+    private Variant variant(Product p, String size, String override) {
+        return variantRepo.save(Variant.builder().product(p).sizeType(SizeType.LETTER).sizeValue(size).color("NEGRO")
+                .sku("PJ-" + UUID.randomUUID()).priceOverride(override != null ? new BigDecimal(override) : null)
+                .active(true).createdAt(Instant.now()).build());
+    }
+
+    private void assertPrice(String expected, Product p) {
+        assertEquals(new BigDecimal(expected), productRepo.findById(p.getId()).orElseThrow().getBasePrice());
+    }
+
+    private BigDecimal override(Variant v) {
+        return variantRepo.findById(v.getId()).orElseThrow().getPriceOverride();
+    }
+}
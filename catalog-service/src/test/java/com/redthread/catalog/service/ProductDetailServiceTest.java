@@ -0,0 +1,148 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.ProductFullDto;
+import com.redthread.catalog.controller.dto.VariantDetailDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Inventory;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.ProductImage;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.InventoryRepository;
+import com.redthread.catalog.repository.ProductImageRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(ProductDetailService.class)
+class ProductDetailServiceTest {
+
+    @Autowired ProductDetailService service;
+    @Autowired ProductRepository productRepo;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired InventoryRepository inventoryRepo;
+    @Autowired ProductImageRepository imageRepo;
+    @Autowired EntityManager em;
+
+    @Test
+    void getFull_usesFixedNumberOfQueries() {
+        Long productId = seed(12, 4);
+
+        ProductFullDto full = measure(productId, 3);
+
+        assertEquals(12, full.variants().size());
+        assertEquals(4, full.images().size());
+        assertTrue(full.category().getName().startsWith("Poleras"));
+
+        // con 1 variante son las mismas 3 consultas
+        Long small = seed(1, 1);
+        measure(small, 3);
+    }
+
+    @Test
+    void getFull_computesEffectivePriceStockAndImageOrder() {
+        Long productId = seed(3, 3);
+
+        ProductFullDto full = measure(productId, 3);
+
+        VariantDetailDto first = full.variants().get(0);
+        assertNull(first.priceOverride());
+        assertEquals(0, new BigDecimal("10000").compareTo(first.effectivePrice()));
+        assertEquals(5, first.stock()); // 7 disponibles - 2 reservadas
+
+        VariantDetailDto second = full.variants().get(1);
+        assertEquals(0, new BigDecimal("8000").compareTo(second.effectivePrice()));
+
+        // la última variante no tiene inventario
+        assertEquals(0, full.variants().get(2).stock());
+
+        assertEquals(0, full.images().get(0).sortOrder());
+        assertEquals(2, full.images().get(2).sortOrder());
+    }
+
+    @Test
+    void getFull_missingProduct_throws404() {
+        assertThrows(ResponseStatusException.class, () -> service.getFull(999_999L));
+    }
+
+    private ProductFullDto measure(Long productId, long expectedStatements) {
+        em.flush();
+        em.clear();
+
+        Statistics stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        ProductFullDto full = service.getFull(productId);
+
+        assertEquals(expectedStatements, stats.getPrepareStatementCount());
+        return full;
+    }
+
+    private Long seed(int variants, int images) {
+        Category cat = categoryRepo.save(Category.builder().name("Poleras " + System.nanoTime()).active(true).build());
+        Product p = productRepo.save(Product.builder()
+                .category(cat)
+                .name("Polera básica")
+                .basePrice(new BigDecimal("10000"))
+                .createdAt(Instant.now())
+                .gender(ProductGender.HOMBRE)
+                .active(true)
+                .build());
+
+        for (int i = 0; i < variants; i++) {
+            Variant v = variantRepo.save(Variant.builder()
+                    .product(p)
+                    .sizeType(SizeType.LETTER)
+                    .sizeValue("M")
+                    .color("COLOR" + i)
+                    .sku("SKU-" + p.getId() + "-" + i)
+                    .priceOverride(i == 1 ? new BigDecimal("8000") : null)
+                    .active(true)
+                    .createdAt(Instant.now())
+                    .build());
+
+            if (i < variants - 1 || variants == 1) {
+                inventoryRepo.save(Inventory.builder()
+                        .variant(v)
+                        .stockAvailable(7)
+                        .stockReserved(2)
+                        .updatedAt(Instant.now())
+                        .build());
+            }
+        }
+
+        // se insertan desordenadas para comprobar el ORDER BY
+        for (int i = images - 1; i >= 0; i--) {
+            imageRepo.save(ProductImage.builder()
+                    .product(p)
+                    .filePath("/tmp/img" + i)
+                    .publicUrl("/media/img" + i)
+                    .primary(i == 0)
+                    .sortOrder(i)
+                    .createdAt(Instant.now())
+                    .build());
+        }
+
+        return p.getId();
+    }
+}
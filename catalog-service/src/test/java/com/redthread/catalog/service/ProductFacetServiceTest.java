@@ -0,0 +1,96 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.CreateVariantReq;
+import com.redthread.catalog.controller.dto.FacetCountDto;
+import com.redthread.catalog.controller.dto.ProductFacetsDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CatalogImportRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.FacetSourceRepository;
+import com.redthread.catalog.repository.InventoryBatchRepository;
+import com.redthread.catalog.repository.InventoryMovementRepository;
+import com.redthread.catalog.repository.ProductFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin transacción de test: los listeners corren tras el commit
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ProductFacetService.class, ReferenceDataService.class, FacetSourceRepository.class, ProductService.class, VariantService.class, CatalogImportRepository.class,
+        InventoryService.class, InventoryBatchRepository.class, InventoryMovementRepository.class, CacheConfig.class})
+class ProductFacetServiceTest {
+
+    @Autowired ProductFacetService facets;
+    @Autowired ProductService products;
+    @Autowired VariantService variants;
+    @Autowired InventoryService inventory;
+    @Autowired CategoryRepository categoryRepo;
+
+    Category cat;
+
+    @BeforeEach
+    void setup() {
+        facets.rebuild();
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        cat = categoryRepo.save(Category.builder().name("Facetas " + suffix).active(true).build());
+    }
+
+    @Test
+    void writes_updateCounts_andTotalMatchesList() {
+        Product polera = products.create(cat.getId(), null, "Polera", null,
+                new BigDecimal("9990"), false, ProductGender.MUJER);
+        Product short_ = products.create(cat.getId(), null, "Short", null,
+                new BigDecimal("14990"), false, ProductGender.HOMBRE);
+        Variant m = variants.create(new CreateVariantReq(polera.getId(), SizeType.LETTER, "M", "negro", null, 3));
+        variants.create(new CreateVariantReq(short_.getId(), SizeType.LETTER, "M", "azul", null, 0));
+
+        ProductFilter byCategory = ProductFilter.of(cat.getId(), null, null);
+        ProductFacetsDto all = facets.facets(byCategory);
+        assertEquals(2, all.total());
+        assertEquals(List.of("M"), values(all.sizes()));
+        assertEquals(2, all.sizes().get(0).count());
+        assertTrue(all.categories().stream()
+                .anyMatch(f -> f.label().equals(cat.getName()) && f.count() == 2));
+
+        ProductFilter inStockM = new ProductFilter(cat.getId(), null, null, null, null, null, "m", null, true);
+        assertEquals(1, facets.facets(inStockM).total());
+        assertEquals(products.list(inStockM).size(), facets.facets(inStockM).total());
+
+        // la variante se queda sin stock: el evento llega tras el commit
+        inventory.adjustStock(m.getId(), -3);
+        assertEquals(0, facets.facets(inStockM).total());
+        assertEquals(products.list(inStockM).size(), facets.facets(inStockM).total());
+
+        // cambiar el género del producto lo mueve de faceta
+        products.update(short_.getId(), cat.getId(), null, "Short", null,
+                new BigDecimal("14990"), false, ProductGender.MUJER);
+        assertEquals(List.of("MUJER"), values(facets.facets(byCategory).genders()));
+    }
+
+    private static List<String> values(List<FacetCountDto> facet) {
+        return facet.stream().map(FacetCountDto::value).toList();
+    }
+}
@@ -0,0 +1,131 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.repository.ProductSearchDoc;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+    private static List<Long> ids(List<ProductSearchIndex.Hit> hits) {
+        return hits.stream().map(ProductSearchIndex.Hit::productId).toList();
+    }
+
+    private static ProductSearchIndex sample() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.rebuild(List.of(
+                new ProductSearchDoc(1L, "Pantalón cargo", "Algodón resistente", "Levi's", "Pantalones"),
+                new ProductSearchDoc(2L, "Polera básica", "Polera de algodón negro", "Nike", "Poleras"),
+                new ProductSearchDoc(3L, "Zapatilla running", "Para correr", "Nike", "Zapatillas deportivas"),
+                new ProductSearchDoc(4L, "Chaqueta impermeable", "Ideal para lluvia, color negro", "Columbia", "Chaquetas")
+        ));
+        return index;
+    }
+
+    @Test
+    void foldsAccentsAndPlurals() {
+        ProductSearchIndex index = sample();
+
+        assertEquals(List.of(1L), ids(index.search("pantalon", 10)));
+        assertEquals(List.of(1L), ids(index.search("PANTALONES", 10)));
+        assertEquals(List.of(3L), ids(index.search("zapatillas", 10)));
+    }
+
+    @Test
+    void toleratesOneTypo() {
+        ProductSearchIndex index = sample();
+
+        assertEquals(List.of(4L), ids(index.search("chaquta", 10)));     // falta una letra
+        assertEquals(List.of(4L), ids(index.search("chaqeuta", 10)));    // letras invertidas
+        assertEquals(List.of(2L), ids(index.search("polwra", 10)));      // letra cambiada
+        assertTrue(index.search("pxlxra", 10).isEmpty());                // dos errores: no
+    }
+
+    @Test
+    void ranksByMatchedTermsThenFieldWeight() {
+        ProductSearchIndex index = sample();
+
+        // "nike" está en la marca de 2 y 3; "polera" solo en 2
+        assertEquals(List.of(2L, 3L), ids(index.search("polera nike", 10)));
+        // "negro" en la descripción de 2 y 4: empate de peso, ambas aparecen
+        assertEquals(2, index.search("negro", 10).size());
+        // un término en el nombre pesa más que en la descripción
+        index.put(new ProductSearchDoc(5L, "Algodón orgánico", null, null, "Telas"));
+        assertEquals(5L, ids(index.search("algodon", 10)).get(0));
+    }
+
+    @Test
+    void reindexAndRemove_keepResultsCurrent() {
+        ProductSearchIndex index = sample();
+
+        index.put(new ProductSearchDoc(1L, "Short de playa", null, "Levi's", "Shorts"));
+        assertTrue(index.search("pantalon cargo", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("short", 10)));
+
+        index.remove(3L);
+        assertTrue(index.search("running", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void stopwordsOnly_returnsNothing() {
+        assertTrue(sample().search("de la", 10).isEmpty());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_100kProducts() {
+        String[] garments = {"polera", "pantalón", "chaqueta", "zapatilla", "polerón", "camisa", "short", "vestido",
+                "falda", "bermuda", "parka", "calcetín", "gorro", "bufanda", "buzo", "jeans"};
+        String[] adjectives = {"básica", "oversize", "deportiva", "urbana", "clásica", "térmica", "impermeable",
+                "estampada", "lisa", "slim", "cargo", "running", "outdoor", "premium", "vintage"};
+        String[] colors = {"negro", "blanco", "azul", "rojo", "verde", "gris", "beige", "café", "morado", "amarillo"};
+        String[] brands = {"Nike", "Adidas", "Puma", "Levi's", "Columbia", "Reebok", "Converse", "Vans",
+                "North Face", "Patagonia", "Umbro", "Fila"};
+        String[] categories = {"Poleras", "Pantalones", "Chaquetas", "Zapatillas deportivas", "Accesorios", "Vestidos"};
+
+        Random rnd = new Random(42);
+        int n = 100_000;
+        List<ProductSearchDoc> docs = new ArrayList<>(n);
+        for (long i = 1; i <= n; i++) {
+            String name = pick(rnd, garments) + " " + pick(rnd, adjectives) + " " + pick(rnd, colors) + " modelo " + i;
+            String description = "Prenda " + pick(rnd, adjectives) + " de color " + pick(rnd, colors)
+                    + ", ideal para uso " + pick(rnd, adjectives) + " " + pick(rnd, garments);
+            docs.add(new ProductSearchDoc(i, name, description, pick(rnd, brands), pick(rnd, categories)));
+        }
+
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.rebuild(docs);
+
+        String[] queries = {"pantalon negro", "polera nike", "chaqueta impermeable", "zapatila running",
+                "poleron oversize gris", "jeans levis", "parka north face", "camisa", "vestdo rojo", "buzo adidas"};
+
+        // calentamiento JIT
+        for (int i = 0; i < 200; i++) {
+            index.search(queries[i % queries.length], 20);
+        }
+
+        int runs = 1_000;
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long t = System.nanoTime();
+            List<ProductSearchIndex.Hit> hits = index.search(queries[i % queries.length], 20);
+            nanos[i] = System.nanoTime() - t;
+            assertEquals(20, hits.size());
+        }
+        Arrays.sort(nanos);
+
+        double p99Ms = nanos[runs * 99 / 100] / 1e6;
+        assertTrue(p99Ms < 50, "p99 de búsqueda sobre 100k productos: " + p99Ms + " ms");
+    }
+
+    private static String pick(Random rnd, String[] values) {
+        return values[rnd.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,80 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.repository.CategoryRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin transacción de test: los listeners del índice corren tras el commit
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ProductSearchService.class, ReferenceDataService.class, ProductService.class, CategoryService.class, CacheConfig.class})
+class ProductSearchServiceTest {
+
+    @Autowired ProductSearchService search;
+    @Autowired ProductService products;
+    @Autowired CategoryService categories;
+    @Autowired CategoryRepository categoryRepo;
+
+    @Test
+    void createAndUpdate_areSearchableAfterCommit() {
+        String word = "zqx" + UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        Category cat = categoryRepo.save(Category.builder().name("Busq " + word).active(true).build());
+
+        Product p = products.create(cat.getId(), null, "Pantalón " + word, "Algodón",
+                new BigDecimal("19990"), false, ProductGender.HOMBRE);
+
+        assertEquals(p.getId(), ids(search.search("pantalon " + word, null)).get(0));
+
+        products.update(p.getId(), cat.getId(), null, "Chaqueta " + word, "Algodón",
+                new BigDecimal("19990"), false, ProductGender.HOMBRE);
+
+        assertEquals(p.getId(), ids(search.search("chaqueta " + word, null)).get(0));
+        // el nombre anterior ya no lo encuentra
+        assertFalse(ids(search.search("pantalon", 100)).contains(p.getId()));
+    }
+
+    @Test
+    void categoryRename_reindexesItsProducts() {
+        String word = UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+        Category cat = categoryRepo.save(Category.builder().name("Cat " + word).active(true).build());
+        Product p = products.create(cat.getId(), null, "Polera " + word, null,
+                new BigDecimal("9990"), false, ProductGender.MUJER);
+
+        categories.update(cat.getId(), "Renombrada" + word, null);
+
+        assertEquals(p.getId(), search.search("renombrada" + word, null).get(0).getId());
+    }
+
+    @Test
+    void blankQuery_is400() {
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> search.search(" ", null));
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatusCode());
+    }
+
+    private static List<Long> ids(List<Product> list) {
+        return list.stream().map(Product::getId).toList();
+    }
+}
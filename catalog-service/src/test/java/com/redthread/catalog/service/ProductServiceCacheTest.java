@@ -0,0 +1,193 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.ProductSummaryDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.repository.CatalogChangeRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.ProductFilter;
+import com.redthread.catalog.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(classes = {CacheConfig.class, ProductService.class, CategoryService.class})
+class ProductServiceCacheTest {
+
+    @Autowired ProductService service;
+    @Autowired CategoryService categories;
+    @Autowired CacheManager cacheManager;
+
+    @MockBean ProductRepository productRepo;
+    @MockBean CategoryRepository categoryRepo;
+    @MockBean ReferenceDataService referenceData;
+    @MockBean CatalogChangeRepository changes;
+
+    @BeforeEach
+    void clearCaches() {
+        cacheManager.getCacheNames().forEach(n -> cacheManager.getCache(n).clear());
+    }
+
+    @Test
+    void get_secondCallIsServedFromCache() {
+        when(productRepo.findDetailById(1L)).thenReturn(Optional.of(product(1L)));
+
+        service.get(1L);
+        service.get(1L);
+
+        verify(productRepo, times(1)).findDetailById(1L);
+    }
+
+    @Test
+    void update_evictsThatProductAndListings() {
+        Product p = product(1L);
+        when(productRepo.findDetailById(1L)).thenReturn(Optional.of(p));
+        when(productRepo.findById(1L)).thenReturn(Optional.of(p));
+        when(productRepo.findMatching(any())).thenReturn(List.of(summary(1L)));
+        when(referenceData.category(1L)).thenReturn(Optional.of(p.getCategory()));
+        when(productRepo.save(any(Product.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.get(1L);
+        service.list(ProductFilter.none());
+
+        service.update(1L, 1L, null, "Nuevo", null, BigDecimal.TEN, false, ProductGender.HOMBRE);
+
+        service.get(1L);
+        service.list(ProductFilter.none());
+
+        verify(productRepo, times(2)).findDetailById(1L);
+        verify(productRepo, times(2)).findMatching(ProductFilter.none());
+    }
+
+    @Test
+    void get_cachesAnImmutableCopy_notTheEntity() {
+        Product p = product(1L);
+        when(productRepo.findDetailById(1L)).thenReturn(Optional.of(p));
+
+        service.get(1L);
+        p.setName("Cambiado en memoria");
+
+        assertEquals("Polera 1", service.get(1L).name());
+    }
+
+    @Test
+    void categoryUpdate_evictsProductsAndListings() {
+        Category cat = product(1L).getCategory();
+        when(productRepo.findDetailById(1L)).thenReturn(Optional.of(product(1L)));
+        when(productRepo.findMatching(any())).thenReturn(List.of(summary(1L)));
+        when(categoryRepo.findById(1L)).thenReturn(Optional.of(cat));
+        when(categoryRepo.save(any(Category.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        service.get(1L);
+        service.list(ProductFilter.none());
+
+        categories.update(1L, "Camisetas", null);
+
+        service.get(1L);
+        service.list(ProductFilter.none());
+
+        verify(productRepo, times(2)).findDetailById(1L);
+        verify(productRepo, times(2)).findMatching(ProductFilter.none());
+    }
+
+    @Test
+    void clearDuringLoad_doesNotKeepTheValueReadBefore() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        when(productRepo.findMatching(any())).thenAnswer(inv -> {
+            if (calls.incrementAndGet() == 1) {
+                // primera lectura: la que ve los datos de antes del commit
+                loading.countDown();
+                release.await(2, TimeUnit.SECONDS);
+                return List.of(summary(1L));
+            }
+            return List.of(summary(2L));
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            Future<List<ProductSummaryDto>> inFlight = pool.submit(() -> service.list(ProductFilter.none()));
+            assertTrue(loading.await(2, TimeUnit.SECONDS));
+
+            // el evict allEntries de una escritura llega en medio del cálculo
+            cacheManager.getCache(CacheConfig.PRODUCT_LISTS).clear();
+            release.countDown();
+            inFlight.get(2, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(2L, service.list(ProductFilter.none()).get(0).id());
+    }
+
+    @Test
+    void list_isCachedPerFilter() {
+        when(productRepo.findMatching(any())).thenReturn(List.of(summary(1L)));
+
+        service.list(ProductFilter.of(1L, null, null));
+        service.list(ProductFilter.of(1L, null, null));
+        service.list(ProductFilter.of(2L, null, null));
+
+        verify(productRepo, times(1)).findMatching(ProductFilter.of(1L, null, null));
+        verify(productRepo, times(1)).findMatching(ProductFilter.of(2L, null, null));
+    }
+
+    @Test
+    void concurrentMisses_hitTheRepositoryOnce() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        when(productRepo.findDetailById(7L)).thenAnswer(inv -> {
+            loading.await(200, TimeUnit.MILLISECONDS);
+            return Optional.of(product(7L));
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<ProductSummaryDto>> calls = pool.invokeAll(
+                    Collections.nCopies(16, () -> service.get(7L)));
+            loading.countDown();
+            for (Future<ProductSummaryDto> f : calls) {
+                assertEquals(7L, f.get().id());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        verify(productRepo, times(1)).findDetailById(7L);
+    }
+
+    private Product product(Long id) {
+        return Product.builder()
+                .id(id)
+                .name("Polera " + id)
+                .category(Category.builder().id(1L).name("Poleras").build())
+                .basePrice(BigDecimal.ONE)
+                .gender(ProductGender.HOMBRE)
+                .build();
+    }
+
+    private ProductSummaryDto summary(Long id) {
+        return new ProductSummaryDto(id, new ProductSummaryDto.CategoryRef(1L, "Poleras", null, true, null), null,
+                "Polera " + id, null, BigDecimal.ONE, true, false, ProductGender.HOMBRE, null);
+    }
+}
@@ -1,14 +1,15 @@
 package com.redthread.catalog.service;
 
+import com.redthread.catalog.event.ProductChangedEvent;
 import com.redthread.catalog.model.Brand;
 import com.redthread.catalog.model.Category;
 import com.redthread.catalog.model.Product;
 import com.redthread.catalog.model.enums.ProductGender;
-import com.redthread.catalog.repository.BrandRepository;
-import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.CatalogChangeRepository;
 import com.redthread.catalog.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -21,16 +22,18 @@ import static org.mockito.Mockito.*;
 class ProductServiceTest {
 
     ProductRepository productRepo;
-    CategoryRepository categoryRepo;
-    BrandRepository brandRepo;
+    ReferenceDataService referenceData;
+    CatalogChangeRepository changes;
+    ApplicationEventPublisher events;
     ProductService service;
 
     @BeforeEach
     void setup() {
         productRepo = mock(ProductRepository.class);
-        categoryRepo = mock(CategoryRepository.class);
-        brandRepo = mock(BrandRepository.class);
-        service = new ProductService(productRepo, categoryRepo, brandRepo);
+        referenceData = mock(ReferenceDataService.class);
+        changes = mock(CatalogChangeRepository.class);
+        events = mock(ApplicationEventPublisher.class);
+        service = new ProductService(productRepo, referenceData, changes, events);
     }
 
     @Test
@@ -38,8 +41,8 @@ class ProductServiceTest {
         Category cat = Category.builder().id(1L).build();
         Brand brand = Brand.builder().id(2L).build();
 
-        when(categoryRepo.findById(1L)).thenReturn(Optional.of(cat));
-        when(brandRepo.findById(2L)).thenReturn(Optional.of(brand));
+        when(referenceData.category(1L)).thenReturn(Optional.of(cat));
+        when(referenceData.brand(2L)).thenReturn(Optional.of(brand));
         when(productRepo.save(any(Product.class)))
                 .thenAnswer(inv -> inv.getArgument(0));
 
@@ -52,11 +55,13 @@ class ProductServiceTest {
 
         assertNotNull(p);
         assertEquals(ProductGender.HOMBRE, p.getGender());
+        // el índice de búsqueda se entera por evento
+        verify(events).publishEvent(any(ProductChangedEvent.class));
     }
 
     @Test
     void create_negativePrice_throws400() {
-        when(categoryRepo.findById(1L))
+        when(referenceData.category(1L))
                 .thenReturn(Optional.of(Category.builder().id(1L).build()));
 
         ResponseStatusException ex = assertThrows(
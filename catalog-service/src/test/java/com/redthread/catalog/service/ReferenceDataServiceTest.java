@@ -0,0 +1,111 @@
+package com.redthread.catalog.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.repository.BrandRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({ReferenceDataService.class, CategoryService.class, BrandService.class, ProductService.class, CacheConfig.class})
+class ReferenceDataServiceTest {
+
+    @Autowired ReferenceDataService referenceData;
+    @Autowired CategoryService categories;
+    @Autowired BrandService brands;
+    @Autowired ProductService products;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired BrandRepository brandRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired ObjectMapper mapper;
+    @Autowired EntityManager em;
+
+    @Test
+    void readsAndProductValidation_doNotTouchTheDatabase() {
+        Category cat = categories.create("Referencia " + UUID.randomUUID(), null);
+        Brand brand = brands.create("Marca " + UUID.randomUUID());
+
+        Statistics stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        assertEquals(cat.getName(), categories.get(cat.getId()).getName());
+        assertEquals(brand.getName(), brands.get(brand.getId()).getName());
+        byte[] json = categories.listJson();
+        assertSame(json, categories.listJson());
+        String etag = categories.listETag();
+        assertEquals(0, stats.getPrepareStatementCount());
+
+        // misma huella que el SELECT de agregados que usaba el ETag
+        assertEquals(categoryRepo.stampAll().etag("categories"), etag);
+        assertEquals(brandRepo.stampAll().etag("brands"), brands.listETag());
+
+        stats.clear();
+        Product p = products.create(cat.getId(), brand.getId(), "Polera referencia", null,
+                new BigDecimal("9990"), false, ProductGender.HOMBRE);
+        // INSERT del producto + su fila en catalog_changes; sin SELECT de categoría ni marca
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals(cat.getName(), p.getCategory().getName());
+        assertEquals(brand.getName(), p.getBrand().getName());
+
+        Product updated = products.update(p.getId(), cat.getId(), null, "Polera referencia", null,
+                new BigDecimal("8990"), false, ProductGender.HOMBRE);
+        assertNull(updated.getBrand());
+        assertEquals(cat.getId(), products.get(p.getId()).category().id());
+    }
+
+    @Test
+    void changesSwapTheSnapshot_includingOnesMadeByAnotherInstance() throws Exception {
+        ReferenceData before = referenceData.current();
+
+        Category created = categories.create("Nueva " + UUID.randomUUID(), "desc");
+        ReferenceData afterCreate = referenceData.current();
+        assertTrue(afterCreate.version() > before.version());
+        assertTrue(before.category(created.getId()).isEmpty(), "la foto anterior no cambia");
+        JsonNode listed = mapper.readTree(categories.listJson());
+        assertTrue(listed.findValuesAsText("name").contains(created.getName()));
+
+        // alta directa en la base (otra instancia): el lookup cae a la base y recarga
+        Category other = categoryRepo.save(Category.builder().name("Otra " + UUID.randomUUID()).active(true).build());
+        assertEquals(other.getName(), categories.get(other.getId()).getName());
+
+        // cambio directo en la base: lo detecta la revisión periódica por huella
+        Brand brand = brandRepo.save(Brand.builder().name("Marca " + UUID.randomUUID()).active(true).createdAt(Instant.now()).build());
+        referenceData.reload();
+        String renamed = "Renombrada " + UUID.randomUUID();
+        jdbc.update("UPDATE brands SET name = ?, version = version + 1 WHERE id = ?", renamed, brand.getId());
+        assertNotEquals(renamed, brands.get(brand.getId()).getName());
+
+        referenceData.refreshIfChanged();
+        assertEquals(renamed, brands.get(brand.getId()).getName());
+        long version = referenceData.current().version();
+        referenceData.refreshIfChanged();
+        assertEquals(version, referenceData.current().version(), "sin cambios no se recarga");
+    }
+}
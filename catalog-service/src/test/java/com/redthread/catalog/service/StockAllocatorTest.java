@@ -0,0 +1,67 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.AllocationDto;
+import com.redthread.catalog.model.enums.AllocationPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StockAllocatorTest {
+
+    // cerca con poco stock, media distancia, lejos con mucho stock
+    private final List<StockAllocator.Candidate> candidates = List.of(
+            new StockAllocator.Candidate(1L, "NEAR", "Cerca", 2, 100, 1.0),
+            new StockAllocator.Candidate(2L, "MID", "Media", 4, 100, 10.0),
+            new StockAllocator.Candidate(3L, "FAR", "Lejos", 9, 100, 500.0));
+
+    @Test
+    void nearest_takesClosestFirst() {
+        List<AllocationDto.Line> lines = StockAllocator.allocate(candidates, 5, AllocationPolicy.NEAREST);
+
+        assertEquals(List.of("NEAR", "MID"), lines.stream().map(AllocationDto.Line::code).toList());
+        assertEquals(List.of(2, 3), lines.stream().map(AllocationDto.Line::quantity).toList());
+    }
+
+    @Test
+    void mostStock_takesLargestFirst() {
+        List<AllocationDto.Line> lines = StockAllocator.allocate(candidates, 10, AllocationPolicy.MOST_STOCK);
+
+        assertEquals(List.of("FAR", "MID"), lines.stream().map(AllocationDto.Line::code).toList());
+        assertEquals(List.of(9, 1), lines.stream().map(AllocationDto.Line::quantity).toList());
+    }
+
+    @Test
+    void fewestSplits_prefersNearestSingleLocationThatCovers() {
+        List<AllocationDto.Line> single = StockAllocator.allocate(candidates, 4, AllocationPolicy.FEWEST_SPLITS);
+        assertEquals(List.of("MID"), single.stream().map(AllocationDto.Line::code).toList());
+
+        // ninguna alcanza sola: la menor cantidad de ubicaciones
+        List<AllocationDto.Line> split = StockAllocator.allocate(candidates, 12, AllocationPolicy.FEWEST_SPLITS);
+        assertEquals(List.of("FAR", "MID"), split.stream().map(AllocationDto.Line::code).toList());
+    }
+
+    @Test
+    void insufficientStock_returnsEmpty() {
+        assertTrue(StockAllocator.allocate(candidates, 16, AllocationPolicy.NEAREST).isEmpty());
+    }
+
+    @Test
+    void nearest_withoutCoordinates_fallsBackToPriority() {
+        List<StockAllocator.Candidate> noCoords = List.of(
+                new StockAllocator.Candidate(1L, "B", "B", 5, 200, null),
+                new StockAllocator.Candidate(2L, "A", "A", 5, 10, null));
+
+        List<AllocationDto.Line> lines = StockAllocator.allocate(noCoords, 3, AllocationPolicy.NEAREST);
+
+        assertEquals("A", lines.get(0).code());
+    }
+
+    @Test
+    void distanceKm_santiagoToValparaiso() {
+        Double km = StockAllocator.distanceKm(-33.4489, -70.6693, -33.0472, -71.6127);
+        assertEquals(98, km, 5);
+        assertNull(StockAllocator.distanceKm(null, -70.6, -33.0, -71.6));
+    }
+}
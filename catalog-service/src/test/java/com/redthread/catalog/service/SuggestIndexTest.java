@@ -0,0 +1,153 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.model.enums.SuggestionType;
+import com.redthread.catalog.repository.SuggestSourceRepository.Row;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestIndexTest {
+
+    private static List<String> texts(List<Row> rows) {
+        return rows.stream().map(Row::text).toList();
+    }
+
+    private static SuggestIndex sample() {
+        SuggestIndex index = new SuggestIndex();
+        index.rebuild(List.of(
+                new Row(SuggestionType.PRODUCT, 1L, "Pantalón cargo", 5),
+                new Row(SuggestionType.PRODUCT, 2L, "Pantalón de buzo", 40),
+                new Row(SuggestionType.PRODUCT, 3L, "Polera básica", 12),
+                new Row(SuggestionType.CATEGORY, 1L, "Pantalones", 20),
+                new Row(SuggestionType.BRAND, 1L, "Patagonia", 3)
+        ));
+        return index;
+    }
+
+    @Test
+    void prefix_isAccentInsensitive_andRankedByPopularity() {
+        SuggestIndex index = sample();
+
+        assertEquals(List.of("Pantalón de buzo", "Pantalones", "Pantalón cargo"), texts(index.suggest("PANTÁ", 10)));
+        assertEquals(List.of("Pantalón de buzo", "Pantalones", "Pantalón cargo", "Patagonia"),
+                texts(index.suggest("pa", 10)));
+        assertEquals(List.of("Pantalón de buzo"), texts(index.suggest("pa", 1)));
+    }
+
+    @Test
+    void matchesStartOfLaterWords_once() {
+        SuggestIndex index = sample();
+
+        assertEquals(List.of("Polera básica"), texts(index.suggest("bas", 10)));
+        assertEquals(List.of("Pantalón cargo"), texts(index.suggest("car", 10)));
+        assertTrue(index.suggest("arg", 10).isEmpty());
+    }
+
+    @Test
+    void incrementalPutAndRemove() {
+        SuggestIndex index = sample();
+
+        index.put(new Row(SuggestionType.PRODUCT, 1L, "Parka térmica", 50));
+        index.put(new Row(SuggestionType.BRAND, 9L, "Pantera", 1));
+        index.remove(SuggestionType.CATEGORY, 1L);
+
+        assertEquals(List.of("Parka térmica", "Pantalón de buzo", "Patagonia", "Pantera"), texts(index.suggest("pa", 10)));
+        assertTrue(index.suggest("cargo", 10).isEmpty());
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void overlayMerges_withoutLosingEntries() {
+        SuggestIndex index = sample();
+
+        for (int i = 0; i < SuggestIndex.MERGE_THRESHOLD + 10; i++) {
+            index.put(new Row(SuggestionType.PRODUCT, 1000L + i, "Zapato " + i, 1));
+        }
+        index.put(new Row(SuggestionType.PRODUCT, 3L, "Polera oversize", 12));
+
+        assertEquals(5 + SuggestIndex.MERGE_THRESHOLD + 10, index.size());
+        assertEquals(List.of("Polera oversize"), texts(index.suggest("polera", 10)));
+        assertEquals(List.of("Zapato 4321"), texts(index.suggest("zapato 4321", 10)));
+    }
+
+    @Test
+    void writesDuringBackgroundMerge_areKept() {
+        List<Runnable> pending = new ArrayList<>();
+        SuggestIndex index = new SuggestIndex(pending::add);
+        index.rebuild(List.of(
+                new Row(SuggestionType.PRODUCT, 1L, "Polera básica", 10),
+                new Row(SuggestionType.PRODUCT, 2L, "Polerón canguro", 8)
+        ));
+        for (int i = 0; i < SuggestIndex.MERGE_THRESHOLD; i++) {
+            index.put(new Row(SuggestionType.PRODUCT, 1000L + i, "Zapato " + i, 1));
+        }
+        assertEquals(1, pending.size());
+
+        // mientras se arma la base nueva
+        index.put(new Row(SuggestionType.PRODUCT, 1L, "Polera oversize", 10));
+        index.remove(SuggestionType.PRODUCT, 1000L);
+        index.put(new Row(SuggestionType.PRODUCT, 99L, "Polera manga larga", 3));
+        pending.remove(0).run();
+
+        assertEquals(List.of("Polera oversize", "Polerón canguro", "Polera manga larga"), texts(index.suggest("pol", 10)));
+        assertTrue(index.suggest("zapato 0", 10).isEmpty());
+        assertEquals(List.of("Zapato 1"), texts(index.suggest("zapato 1", 1)));
+        assertEquals(3 + SuggestIndex.MERGE_THRESHOLD - 1, index.size());
+        assertTrue(pending.isEmpty());
+    }
+
+    @Test
+    void hotPrefix_withHiddenEntries_stillReturnsTop() {
+        SuggestIndex index = new SuggestIndex(Runnable::run);
+        List<Row> rows = new ArrayList<>();
+        for (long i = 1; i <= SuggestIndex.HOT_TOP * 2; i++) {
+            rows.add(new Row(SuggestionType.PRODUCT, i, "Parka " + i, (int) i));
+        }
+        index.rebuild(rows);
+        for (long i = SuggestIndex.HOT_TOP * 2; i > SuggestIndex.HOT_TOP - 2; i--) {
+            index.remove(SuggestionType.PRODUCT, i);
+        }
+
+        assertEquals(List.of("Parka 30", "Parka 29", "Parka 28"), texts(index.suggest("pa", 3)));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void benchmark_millionTerms() {
+        String[] words = {"polera", "pantalon", "chaqueta", "zapatilla", "poleron", "camisa", "short", "vestido",
+                "falda", "parka", "gorro", "buzo", "basica", "oversize", "termica", "negro", "blanco", "azul"};
+        Random rnd = new Random(7);
+        int n = 1_000_000;
+        List<Row> rows = new ArrayList<>(n);
+        for (long i = 1; i <= n; i++) {
+            String text = words[rnd.nextInt(words.length)] + " " + words[rnd.nextInt(words.length)] + " " + Long.toString(i, 36);
+            rows.add(new Row(SuggestionType.PRODUCT, i, text, rnd.nextInt(1000)));
+        }
+
+        SuggestIndex index = new SuggestIndex();
+        index.rebuild(rows);
+
+        String[] prefixes = {"p", "po", "pol", "pant", "chaq", "zapatilla n", "bu", "oversize a", "gorro azul 1"};
+        for (int i = 0; i < 2_000; i++) {
+            index.suggest(prefixes[i % prefixes.length], 8);
+        }
+        int runs = 5_000;
+        long[] nanos = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long t = System.nanoTime();
+            List<Row> out = index.suggest(prefixes[i % prefixes.length], 8);
+            nanos[i] = System.nanoTime() - t;
+            assertFalse(out.isEmpty());
+        }
+        Arrays.sort(nanos);
+
+        double p99Ms = nanos[runs * 99 / 100] / 1e6;
+        assertTrue(p99Ms < 50, "p99 de autocompletado sobre " + n + " términos: " + p99Ms + " ms");
+    }
+}
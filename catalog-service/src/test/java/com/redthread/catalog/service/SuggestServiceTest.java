@@ -0,0 +1,60 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.config.CacheConfig;
+import com.redthread.catalog.controller.dto.SuggestionDto;
+import com.redthread.catalog.model.Brand;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.repository.SuggestSourceRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Sin transacción de test: los listeners corren tras el commit
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({SuggestService.class, ReferenceDataService.class, SuggestSourceRepository.class, ProductService.class, BrandService.class,
+        CategoryService.class, CacheConfig.class})
+class SuggestServiceTest {
+
+    @Autowired SuggestService suggest;
+    @Autowired ProductService products;
+    @Autowired BrandService brands;
+    @Autowired CategoryService categories;
+
+    @Test
+    void writesAreSuggestedIncrementally() {
+        String word = "qz" + UUID.randomUUID().toString().replace("-", "").substring(0, 8);
+
+        Brand brand = brands.create("Marca " + word);
+        Category cat = categories.create("Categoría " + word, null);
+        var product = products.create(cat.getId(), brand.getId(), "Producto " + word, null,
+                new BigDecimal("1000"), true, ProductGender.HOMBRE);
+
+        List<SuggestionDto> out = suggest.suggest(word, 10);
+
+        // destacado: más peso que la marca y la categoría recién creadas
+        assertEquals(List.of("PRODUCT", "BRAND", "CATEGORY"), out.stream().map(SuggestionDto::type).toList());
+        assertEquals(product.getId(), out.get(0).id());
+
+        products.update(product.getId(), cat.getId(), brand.getId(), "Otro nombre", null,
+                new BigDecimal("1000"), true, ProductGender.HOMBRE);
+        assertEquals(List.of("BRAND", "CATEGORY"), suggest.suggest(word, 10).stream().map(SuggestionDto::type).toList());
+    }
+}
@@ -0,0 +1,162 @@
+package com.redthread.catalog.service;
+
+import com.redthread.catalog.controller.dto.CreateVariantMatrixReq;
+import com.redthread.catalog.controller.dto.CreateVariantReq;
+import com.redthread.catalog.controller.dto.VariantSummaryDto;
+import com.redthread.catalog.model.Category;
+import com.redthread.catalog.model.Product;
+import com.redthread.catalog.model.Variant;
+import com.redthread.catalog.model.enums.CatalogEntityType;
+import com.redthread.catalog.model.enums.ProductGender;
+import com.redthread.catalog.model.enums.SizeType;
+import com.redthread.catalog.repository.CatalogChangeRepository;
+import com.redthread.catalog.repository.CatalogImportRepository;
+import com.redthread.catalog.repository.CategoryRepository;
+import com.redthread.catalog.repository.ProductRepository;
+import com.redthread.catalog.repository.VariantRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({VariantService.class, CatalogImportRepository.class})
+class VariantServiceTest {
+
+    private static final List<String> COLORS = List.of(
+            "negro", "blanco", "rojo", "azul", "verde", "gris", "café", "beige", "rosado", "morado", "naranjo", "amarillo");
+
+    @Autowired VariantService service;
+    @Autowired CategoryRepository categoryRepo;
+    @Autowired ProductRepository productRepo;
+    @Autowired VariantRepository variantRepo;
+    @Autowired JdbcTemplate jdbc;
+    @Autowired EntityManager em;
+    @SpyBean CatalogImportRepository batch;
+    @SpyBean CatalogChangeRepository changes;
+
+    Product product;
+
+    @BeforeEach
+    void setup() {
+        Category cat = categoryRepo.save(Category.builder().name("Zapatillas " + UUID.randomUUID()).active(true).build());
+        product = productRepo.saveAndFlush(Product.builder().category(cat).name("Runner")
+                .basePrice(new BigDecimal("49990")).active(true).gender(ProductGender.MUJER).createdAt(Instant.now()).build());
+    }
+
+    @Test
+    void createMatrix_8x12_insertsVariantsStockAndChangesInBatch() {
+        List<String> sizes = List.of("39", "40", "41", "42", "43", "44", "45", "46");
+
+        Statistics stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        List<VariantSummaryDto> created = service.createMatrix(product.getId(),
+                new CreateVariantMatrixReq(SizeType.EU, sizes, COLORS, 4));
+
+        // solo el existsById pasa por Hibernate; el resto es batch JDBC
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(96, created.size());
+        assertEquals("SKU-" + product.getId() + "-EU-39-NEGRO", created.get(0).sku());
+        assertEquals("CAFÉ", created.get(6).color());
+
+        List<VariantSummaryDto> stored = variantRepo.findSummariesByProductId(product.getId());
+        assertEquals(96, stored.size());
+        assertTrue(stored.stream().allMatch(v -> v.stock() == 4));
+        Integer changes = jdbc.queryForObject("""
+                SELECT count(*) FROM catalog_changes
+                 WHERE entity_type IN ('VARIANT', 'INVENTORY')
+                   AND entity_id IN (SELECT id FROM variants WHERE product_id = ?)
+                """, Integer.class, product.getId());
+        assertEquals(192, changes);
+        // el stock inicial queda físicamente en la ubicación por defecto
+        Integer placed = jdbc.queryForObject("""
+                SELECT count(*) FROM location_stock s JOIN locations l ON l.id = s.location_id
+                 WHERE l.code = 'DEFAULT' AND s.stock_available = 4
+                   AND s.variant_id IN (SELECT id FROM variants WHERE product_id = ?)
+                """, Integer.class, product.getId());
+        assertEquals(96, placed);
+    }
+
+    @Test
+    void createMatrix_existingCombination_conflictsAndCreatesNothing() {
+        variantRepo.saveAndFlush(Variant.builder().product(product).sizeType(SizeType.LETTER).sizeValue("M")
+                .color("NEGRO").sku("MANUAL-" + UUID.randomUUID()).active(true).createdAt(Instant.now()).build());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.createMatrix(product.getId(),
+                new CreateVariantMatrixReq(SizeType.LETTER, List.of("s", "m"), List.of("Negro", "Blanco"), null)));
+
+        assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+        assertTrue(ex.getReason().contains("M/NEGRO"));
+        assertEquals(1, variantRepo.findByProductId(product.getId()).size());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void create_failureAfterInventory_leavesNoVariantBehind() {
+        doThrow(new IllegalStateException("location_stock"))
+                .when(batch).placeInDefaultLocation(anyMap(), any());
+
+        ResponseStatusException ex = assertThrows(ResponseStatusException.class, () -> service.create(
+                new CreateVariantReq(product.getId(), SizeType.EU, "40", "negro", null, 3)));
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, ex.getStatusCode());
+
+        // ni variante, ni inventario sin su fila en la ubicación DEFAULT
+        assertTrue(variantRepo.findSummariesByProductId(product.getId()).isEmpty());
+        Integer inventory = jdbc.queryForObject("""
+                SELECT count(*) FROM inventory i JOIN variants v ON v.id = i.variant_id
+                 WHERE v.product_id = ?
+                """, Integer.class, product.getId());
+        assertEquals(0, inventory);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void update_changeLogFailure_rollsBackTheUpdate() {
+        Variant v = service.create(new CreateVariantReq(product.getId(), SizeType.EU, "40", "negro", null, 1));
+        doThrow(new IllegalStateException("catalog_changes"))
+                .when(changes).record(eq(CatalogEntityType.VARIANT), eq(v.getId()), any(), any());
+
+        assertThrows(ResponseStatusException.class, () -> service.update(v.getId(),
+                new CreateVariantReq(product.getId(), SizeType.EU, "41", "negro", null, null)));
+
+        // sin registro en catalog_changes tampoco queda el cambio
+        assertEquals("40", variantRepo.findById(v.getId()).orElseThrow().getSizeValue());
+    }
+
+    @Test
+    void createMatrix_invalidSizeOrMissingProduct() {
+        ResponseStatusException bad = assertThrows(ResponseStatusException.class, () -> service.createMatrix(product.getId(),
+                new CreateVariantMatrixReq(SizeType.EU, List.of("40", "52"), COLORS, 1)));
+        assertEquals(HttpStatus.BAD_REQUEST, bad.getStatusCode());
+
+        ResponseStatusException missing = assertThrows(ResponseStatusException.class, () -> service.createMatrix(-1L,
+                new CreateVariantMatrixReq(SizeType.EU, List.of("40"), COLORS, 1)));
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertTrue(variantRepo.findByProductId(product.getId()).isEmpty());
+    }
+}
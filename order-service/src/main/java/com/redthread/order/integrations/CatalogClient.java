@@ -12,6 +12,12 @@ import com.redthread.order.dto.VariantAdminInfo;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 
 @Component
@@ -30,85 +36,68 @@ public class CatalogClient {
 
   public record VariantInfo(Long id, BigDecimal price, Integer availableStock) {}
 
-  public VariantInfo findVariantById(Long variantId) {
-    String token = currentToken();
-
-    try {
-      // ==========================
-      // 1) Obtener la variante
-      // ==========================
-      Map<String, Object> variant = catalogWebClient.get()
-          .uri("/variants/{id}", variantId)
-          .headers(h -> { if (token != null) h.setBearerAuth(token); })
-          .accept(MediaType.APPLICATION_JSON)
-          .retrieve()
-          .bodyToMono(Map.class)
-          .block();
-
-      if (variant == null) {
-        return null;
-      }
+  // Respuesta de POST /variants/quote en catalog-service
+  public record VariantQuote(
+      Long variantId,
+      Long productId,
+      String productName,
+      String sizeValue,
+      String color,
+      BigDecimal price,
+      Integer availableStock
+  ) {}
+
+  /** Máximo de ids que acepta POST /variants/quote en catalog-service (400 si se pasa). */
+  static final int MAX_QUOTE_IDS = 200;
+
+  /**
+   * Precio efectivo, stock disponible y datos de producto de varias variantes.
+   * Se piden en tandas de MAX_QUOTE_IDS; las variantes que no existen no vienen
+   * en el mapa. Si catalog responde con error se lanza IllegalStateException.
+   */
+  public Map<Long, VariantQuote> quote(Collection<Long> variantIds) {
+    if (variantIds.isEmpty()) {
+      return Map.of();
+    }
 
-      // ==========================
-      // 2) Resolver precio
-      // ==========================
-      BigDecimal price = BigDecimal.ZERO;
-
-      Object overrideObj = variant.get("priceOverride");
-      if (overrideObj != null) {
-        price = new BigDecimal(String.valueOf(overrideObj));
-      } else {
-        // Fallback al basePrice del producto
-        Object productIdObj = variant.get("productId");
-        if (productIdObj != null) {
-          Long productId = Long.parseLong(String.valueOf(productIdObj));
-
-          Map<String, Object> product = catalogWebClient.get()
-              .uri("/products/{id}", productId)
-              .headers(h -> { if (token != null) h.setBearerAuth(token); })
-              .accept(MediaType.APPLICATION_JSON)
-              .retrieve()
-              .bodyToMono(Map.class)
-              .block();
-
-          if (product != null && product.get("basePrice") != null) {
-            price = new BigDecimal(String.valueOf(product.get("basePrice")));
-          }
-        }
-      }
+    String token = currentToken();
+    List<Long> ids = List.copyOf(new LinkedHashSet<>(variantIds));
 
-      // ==========================
-      // 3) Stock desde inventario
-      // ==========================
-      Integer stock = 0;
+    Map<Long, VariantQuote> byId = new HashMap<>();
+    for (int from = 0; from < ids.size(); from += MAX_QUOTE_IDS) {
+      List<Long> chunk = ids.subList(from, Math.min(from + MAX_QUOTE_IDS, ids.size()));
 
-      Map<String, Object> inventory = catalogWebClient.get()
-          .uri("/inventory/by-variant/{id}", variantId)
+      List<VariantQuote> quotes = catalogWebClient.post()
+          .uri("/variants/quote")
           .headers(h -> { if (token != null) h.setBearerAuth(token); })
+          .contentType(MediaType.APPLICATION_JSON)
           .accept(MediaType.APPLICATION_JSON)
+          .bodyValue(Map.of("variantIds", chunk))
           .retrieve()
-          .bodyToMono(Map.class)
-          .onErrorResume(ex -> Mono.empty())
+          .onStatus(s -> s.is4xxClientError() || s.is5xxServerError(),
+              resp -> resp.bodyToMono(String.class)
+                  .defaultIfEmpty(resp.statusCode().toString())
+                  .flatMap(msg -> Mono.error(new IllegalStateException("Catalog quote error: " + msg))))
+          .bodyToFlux(VariantQuote.class)
+          .collectList()
           .block();
 
-      if (inventory != null) {
-        int available = 0;
-        int reserved = 0;
-
-        Object stockAvailable = inventory.get("stockAvailable");
-        Object stockReserved = inventory.get("stockReserved");
-
-        if (stockAvailable != null) {
-          available = Integer.parseInt(String.valueOf(stockAvailable));
+      if (quotes != null) {
+        for (VariantQuote q : quotes) {
+          byId.put(q.variantId(), q);
         }
-        if (stockReserved != null) {
-          reserved = Integer.parseInt(String.valueOf(stockReserved));
-        }
-
-        stock = Math.max(available - reserved, 0);
       }
+    }
+    return byId;
+  }
 
-      return new VariantInfo(variantId, price, stock);
+  public VariantInfo findVariantById(Long variantId) {
+    try {
+      VariantQuote q = quote(List.of(variantId)).get(variantId);
+      if (q == null) {
+        return null;
+      }
+      return new VariantInfo(variantId, q.price(), q.availableStock());
 
     } catch (Exception ex) {
       System.err.println("Error al obtener variant desde Catalog-Service: " + ex.getMessage());
@@ -116,34 +105,94 @@ public class CatalogClient {
     }
   }
 
-public VariantAdminInfo getVariantAdmin(Long variantId) {
+  public VariantAdminInfo getVariantAdmin(Long variantId) {
+    VariantQuote q = quote(List.of(variantId)).get(variantId);
+    return q == null ? null : toAdminInfo(q);
+  }
+
+  public static VariantAdminInfo toAdminInfo(VariantQuote q) {
+    return new VariantAdminInfo(q.variantId(), q.productName(), q.sizeValue(), q.color());
+  }
+
+  // ==========================
+  // Reservas de stock (dos fases)
+  // ==========================
+  public record ReserveItem(Long variantId, Integer quantity) {}
+
+  public record Reservation(String reservationId, Instant expiresAt) {}
+
+  /**
+   * Aparta stock de todas las líneas (todo o nada). Falla si alguna no alcanza.
+   * reference (ej: order:15) queda en el historial de movimientos de catalog.
+   */
+  public Reservation reserve(List<ReserveItem> items, String reference) {
+    String token = currentToken();
+    return catalogWebClient.post()
+        .uri("/inventory/reservations")
+        .headers(h -> { if (token != null) h.setBearerAuth(token); })
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(withReference(Map.of("items", items), reference))
+        .retrieve()
+        .onStatus(s -> s.is4xxClientError() || s.is5xxServerError(),
+            resp -> resp.bodyToMono(String.class)
+                .flatMap(msg -> Mono.error(new IllegalStateException("Catalog reserve error: " + msg))))
+        .bodyToMono(Reservation.class)
+        .block();
+  }
+
+  public void commitReservation(String reservationId) {
+    postReservation(reservationId, "commit");
+  }
 
-  String token = currentToken();
+  public void releaseReservation(String reservationId) {
+    postReservation(reservationId, "release");
+  }
 
-  Map<String, Object> variant = catalogWebClient.get()
-      .uri("/variants/{id}", variantId)
-      .headers(h -> { if (token != null) h.setBearerAuth(token); })
-      .retrieve()
-      .bodyToMono(Map.class)
-      .block();
+  private void postReservation(String reservationId, String action) {
+    String token = currentToken();
+    catalogWebClient.post()
+        .uri("/inventory/reservations/{id}/{action}", reservationId, action)
+        .headers(h -> { if (token != null) h.setBearerAuth(token); })
+        .retrieve()
+        .onStatus(s -> s.is4xxClientError() || s.is5xxServerError(),
+            resp -> resp.bodyToMono(String.class)
+                .flatMap(msg -> Mono.error(new IllegalStateException("Catalog " + action + " error: " + msg))))
+        .toBodilessEntity()
+        .block();
+  }
 
-  if (variant == null) return null;
+  /** Aplica varios deltas en una sola llamada y transacción (todo o nada). */
+  public void adjustStockBatch(Map<Long, Integer> deltaByVariant, String reference) {
+    if (deltaByVariant.isEmpty()) {
+      return;
+    }
 
-  Map<String, Object> product = catalogWebClient.get()
-      .uri("/products/{id}", variant.get("productId"))
-      .headers(h -> { if (token != null) h.setBearerAuth(token); })
-      .retrieve()
-      .bodyToMono(Map.class)
-      .block();
+    String token = currentToken();
+    List<Map<String, Object>> items = deltaByVariant.entrySet().stream()
+        .map(e -> withReference(Map.of("variantId", e.getKey(), "delta", e.getValue()), reference))
+        .toList();
 
-  return new VariantAdminInfo(
-      variantId,
-      product.get("name").toString(),
-      variant.get("sizeValue").toString(),
-      variant.get("color").toString()
-  );
-}
+    catalogWebClient.post()
+        .uri("/inventory/adjust-batch")
+        .headers(h -> { if (token != null) h.setBearerAuth(token); })
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(Map.of("items", items))
+        .retrieve()
+        .onStatus(s -> s.is4xxClientError() || s.is5xxServerError(),
+            resp -> resp.bodyToMono(String.class)
+                .flatMap(msg -> Mono.error(new IllegalStateException("Catalog adjust error: " + msg))))
+        .toBodilessEntity()
+        .block();
+  }
 
+  private static Map<String, Object> withReference(Map<String, Object> body, String reference) {
+    if (reference == null) {
+      return body;
+    }
+    Map<String, Object> out = new LinkedHashMap<>(body);
+    out.put("reference", reference);
+    return out;
+  }
 
   public void adjustStock(Long variantId, int delta) {
     String token = currentToken();
@@ -6,12 +6,19 @@ import com.redthread.order.model.*;
 import com.redthread.order.repository.*;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class CheckoutService {
@@ -37,6 +44,15 @@ public class CheckoutService {
     Address address = addressRepo.findByIdAndUserId(req.addressId(), userId)
         .orElseThrow(() -> new IllegalArgumentException("Dirección inválida"));
 
+    // Precios de todo el carrito antes de reservar: si catalog no responde,
+    // el checkout falla en vez de cobrar con los precios guardados en el carrito
+    Map<Long, CatalogClient.VariantQuote> quotes;
+    try {
+      quotes = catalog.quote(items.stream().map(CartItem::getVariantId).toList());
+    } catch (Exception ex) {
+      throw new IllegalStateException("No se pudieron obtener los precios del carrito", ex);
+    }
+
     // Crear orden base en estado CREATED
     Order order = Order.builder()
         .userId(userId)
@@ -47,34 +63,39 @@ public class CheckoutService {
         .build();
     order = orderRepo.save(order);
 
+    // ============================
+    // Reservar stock de todo el carrito
+    // ============================
+    // Una sola llamada, todo o nada. La reserva se confirma al final, DENTRO
+    // de la transacción: si catalog no la confirma, el checkout falla y la
+    // orden hace rollback. Si order-service se cae entre medio, catalog la
+    // libera al vencer.
+    String reference = "order:" + order.getId();
+    CatalogClient.Reservation reservation;
+    try {
+      reservation = catalog.reserve(items.stream()
+          .map(it -> new CatalogClient.ReserveItem(it.getVariantId(), it.getQuantity()))
+          .toList(), reference);
+    } catch (Exception ex) {
+      throw new IllegalStateException("No hay stock suficiente para el carrito", ex);
+    }
+    AtomicBoolean stockCommitted = new AtomicBoolean();
+    undoReservationOnRollback(reservation.reservationId(), items, reference, stockCommitted);
+
     BigDecimal total = BigDecimal.ZERO;
 
     for (CartItem it : items) {
-      BigDecimal unit;
-      try {
-        var variant = catalog.findVariantById(it.getVariantId());
-        unit = variant != null && variant.price() != null
-            ? variant.price()
-            : (it.getUnitPrice() != null ? it.getUnitPrice() : BigDecimal.ZERO);
-
-      } catch (Exception e) {
-        unit = it.getUnitPrice() != null ? it.getUnitPrice() : BigDecimal.ZERO;
+      var variant = quotes.get(it.getVariantId());
+      if (variant == null) {
+        throw new IllegalStateException("La variante " + it.getVariantId() + " ya no existe en el catálogo");
       }
+      BigDecimal unit = variant.price() != null
+          ? variant.price()
+          : (it.getUnitPrice() != null ? it.getUnitPrice() : BigDecimal.ZERO);
 
       BigDecimal line = unit.multiply(BigDecimal.valueOf(it.getQuantity()));
       total = total.add(line);
 
-      // ============================
-      // Descontar stock en Catalog
-      // ============================
-      try {
-        // delta negativo -> reduce stock disponible
-        catalog.adjustStock(it.getVariantId(), -it.getQuantity());
-      } catch (Exception ex) {
-        throw new IllegalStateException(
-            "No se pudo ajustar el stock para la variante " + it.getVariantId(), ex);
-      }
-
       orderItemRepo.save(OrderItem.builder()
           .order(order)
           .variantId(it.getVariantId())
@@ -98,6 +119,50 @@ public class CheckoutService {
         .createdAt(Instant.now())
         .build());
 
+    // flush antes de confirmar: un error de base aparece aquí, con la reserva
+    // aún liberable, y no después de haber descontado el stock
+    orderRepo.flush();
+    try {
+      catalog.commitReservation(reservation.reservationId());
+    } catch (Exception ex) {
+      throw new IllegalStateException("No se pudo confirmar el stock del carrito, intenta de nuevo", ex);
+    }
+    stockCommitted.set(true);
+
     return order;
   }
+
+  /**
+   * Si la transacción de la orden hace rollback: libera la reserva, o devuelve
+   * el stock con un ajuste si ya estaba confirmada (falló el commit mismo).
+   * Sin transacción activa no hace nada y la reserva vence sola en catalog.
+   */
+  private void undoReservationOnRollback(String reservationId, List<CartItem> items,
+                                         String reference, AtomicBoolean stockCommitted) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status == STATUS_COMMITTED) {
+          return;
+        }
+        try {
+          if (stockCommitted.get()) {
+            Map<Long, Integer> back = items.stream()
+                .collect(Collectors.toMap(CartItem::getVariantId, CartItem::getQuantity, Integer::sum));
+            catalog.adjustStockBatch(back, reference + ":rollback");
+          } else {
+            catalog.releaseReservation(reservationId);
+          }
+        } catch (Exception ex) {
+          // sin confirmar, la reserva vence sola; confirmada, hay que cuadrar a mano
+          log.error("No se pudo deshacer la reserva {} ({}, confirmada={})",
+              reservationId, reference, stockCommitted.get(), ex);
+        }
+      }
+    });
+  }
 }
@@ -13,7 +13,9 @@ import com.redthread.order.dto.AdminOrderItemRes;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.http.HttpStatus;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -103,16 +105,18 @@ public class OrderService {
     Address a = order.getAddress();
     String fullAddress = a.getLine1() + ", " + a.getCity() + ", " + a.getCountry();
 
-    // items enriquecidos (catalog-service)
+    // items enriquecidos (catalog-service): una sola cotización para todos
+    var quotes = catalog.quote(items.stream().map(OrderItem::getVariantId).toList());
+
     List<AdminOrderItemRes> adminItems = items.stream()
         .map(i -> {
-            var variant = catalog.getVariantAdmin(i.getVariantId());
+            var q = quotes.get(i.getVariantId());
 
             return new AdminOrderItemRes(
                 i.getVariantId(),
-                variant.productName(),
-                variant.size(),
-                variant.color(),
+                q != null ? q.productName() : null,
+                q != null ? q.sizeValue() : null,
+                q != null ? q.color() : null,
                 i.getQuantity(),
                 i.getUnitPrice(),
                 i.getLineTotal()
@@ -139,10 +143,12 @@ public class OrderService {
     if (order.getStatus() != OrderStatus.CREATED && order.getStatus() != OrderStatus.PAID)
       throw new IllegalStateException("Solo CREATED o PAID se pueden cancelar");
 
-    var items = itemRepo.findByOrderId(order.getId());
-    for (var it : items) {
-      catalog.adjustStock(it.getVariantId(), +it.getQuantity());
+    // Devolver el stock de todas las líneas en una sola llamada
+    Map<Long, Integer> restock = new LinkedHashMap<>();
+    for (var it : itemRepo.findByOrderId(order.getId())) {
+      restock.merge(it.getVariantId(), it.getQuantity(), Integer::sum);
     }
+    catalog.adjustStockBatch(restock, "order:" + order.getId() + ":cancel");
 
     order.setStatus(OrderStatus.CANCELLED);
     return orderRepo.save(order);
@@ -0,0 +1,50 @@
+package com.redthread.order.integrations;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CatalogClientTest {
+
+    @Test
+    void quote_splitsIntoCallsOfAtMost200Ids() {
+        AtomicInteger calls = new AtomicInteger();
+        WebClient web = WebClient.builder()
+                .exchangeFunction(req -> {
+                    calls.incrementAndGet();
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                            .body("[]")
+                            .build());
+                })
+                .build();
+
+        List<Long> ids = LongStream.rangeClosed(1, 450).boxed().toList();
+        new CatalogClient(web).quote(ids);
+
+        assertThat(calls.get()).isEqualTo(3);
+    }
+
+    @Test
+    void quote_catalogError_throws() {
+        WebClient web = WebClient.builder()
+                .exchangeFunction(req -> Mono.just(ClientResponse.create(HttpStatus.BAD_REQUEST)
+                        .body("variantIds: size must be between 1 and 200")
+                        .build()))
+                .build();
+
+        assertThatThrownBy(() -> new CatalogClient(web).quote(List.of(1L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Catalog quote error");
+    }
+}
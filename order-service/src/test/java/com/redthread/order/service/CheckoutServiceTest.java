@@ -12,6 +12,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -64,13 +65,20 @@ class CheckoutServiceTest {
         when(itemRepo.findByCartId(1L)).thenReturn(List.of(item));
         when(addressRepo.findByIdAndUserId(3L, userId)).thenReturn(Optional.of(addr));
 
-        // Método real → findVariantById
-        when(catalog.findVariantById(10L))
-                .thenReturn(new CatalogClient.VariantInfo(
+        // Una sola cotización para todo el carrito
+        when(catalog.quote(List.of(10L)))
+                .thenReturn(Map.of(10L, new CatalogClient.VariantQuote(
                         10L,
+                        7L,
+                        "Polera",
+                        "M",
+                        "NEGRO",
                         new BigDecimal("1000.00"),
                         10
-                ));
+                )));
+
+        when(catalog.reserve(List.of(new CatalogClient.ReserveItem(10L, 2)), "order:99"))
+                .thenReturn(new CatalogClient.Reservation("r-1", Instant.now().plusSeconds(900)));
 
         when(orderRepo.save(any(Order.class))).thenAnswer(inv -> {
             Order o = inv.getArgument(0);
@@ -82,6 +90,92 @@ class CheckoutServiceTest {
 
         assertThat(out.getId()).isEqualTo(99L);
         assertThat(out.getTotalAmount()).isEqualTo(new BigDecimal("2000.00"));
+
+        // sin transacción activa se confirma al final, y ya no se ajusta stock línea a línea
+        verify(catalog).commitReservation("r-1");
+        verify(catalog, never()).adjustStock(anyLong(), anyInt());
+    }
+
+    @Test
+    void checkout_reservationRejected_createsNoOrder() {
+        String userId = "u1";
+
+        Cart cart = Cart.builder().id(1L).userId(userId)
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build();
+        CartItem item = CartItem.builder().id(5L).cart(cart).variantId(10L).quantity(3)
+                .unitPrice(new BigDecimal("1000.00")).build();
+        Address addr = Address.builder().id(3L).userId(userId).line1("A").city("C")
+                .state("S").zip("Z").country("CL").isDefault(true).build();
+
+        when(cartRepo.findByUserId(userId)).thenReturn(Optional.of(cart));
+        when(itemRepo.findByCartId(1L)).thenReturn(List.of(item));
+        when(addressRepo.findByIdAndUserId(3L, userId)).thenReturn(Optional.of(addr));
+        when(orderRepo.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(catalog.reserve(anyList(), any())).thenThrow(new IllegalStateException("Catalog reserve error: 409"));
+
+        assertThatThrownBy(() -> service.checkout(userId, new CheckoutReq(3L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("stock");
+
+        verify(orderItemRepo, never()).save(any());
+        verify(catalog, never()).commitReservation(anyString());
+    }
+
+    @Test
+    void checkout_reservationCommitFails_failsCheckout() {
+        String userId = "u1";
+
+        Cart cart = Cart.builder().id(1L).userId(userId)
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build();
+        CartItem item = CartItem.builder().id(5L).cart(cart).variantId(10L).quantity(1)
+                .unitPrice(new BigDecimal("1000.00")).build();
+        Address addr = Address.builder().id(3L).userId(userId).line1("A").city("C")
+                .state("S").zip("Z").country("CL").isDefault(true).build();
+
+        when(cartRepo.findByUserId(userId)).thenReturn(Optional.of(cart));
+        when(itemRepo.findByCartId(1L)).thenReturn(List.of(item));
+        when(addressRepo.findByIdAndUserId(3L, userId)).thenReturn(Optional.of(addr));
+        when(catalog.quote(List.of(10L))).thenReturn(Map.of(10L, new CatalogClient.VariantQuote(
+                10L, 7L, "Polera", "M", "NEGRO", new BigDecimal("1000.00"), 10)));
+        when(orderRepo.save(any(Order.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(catalog.reserve(anyList(), any()))
+                .thenReturn(new CatalogClient.Reservation("r-1", Instant.now().plusSeconds(900)));
+        doThrow(new IllegalStateException("Catalog commit error: 410"))
+                .when(catalog).commitReservation("r-1");
+
+        // antes la orden quedaba guardada y el error solo se imprimía
+        assertThatThrownBy(() -> service.checkout(userId, new CheckoutReq(3L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("confirmar el stock");
+
+        InOrder inOrder = inOrder(orderRepo, catalog);
+        inOrder.verify(orderRepo).flush();
+        inOrder.verify(catalog).commitReservation("r-1");
+    }
+
+    @Test
+    void checkout_quoteFails_failsWithoutReserving() {
+        String userId = "u1";
+
+        Cart cart = Cart.builder().id(1L).userId(userId)
+                .createdAt(Instant.now()).updatedAt(Instant.now()).build();
+        CartItem item = CartItem.builder().id(5L).cart(cart).variantId(10L).quantity(1)
+                .unitPrice(new BigDecimal("1000.00")).build();
+        Address addr = Address.builder().id(3L).userId(userId).line1("A").city("C")
+                .state("S").zip("Z").country("CL").isDefault(true).build();
+
+        when(cartRepo.findByUserId(userId)).thenReturn(Optional.of(cart));
+        when(itemRepo.findByCartId(1L)).thenReturn(List.of(item));
+        when(addressRepo.findByIdAndUserId(3L, userId)).thenReturn(Optional.of(addr));
+        when(catalog.quote(List.of(10L))).thenThrow(new IllegalStateException("Catalog quote error: 503"));
+
+        // antes caía a los precios del carrito sin avisar
+        assertThatThrownBy(() -> service.checkout(userId, new CheckoutReq(3L)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("precios");
+
+        verify(catalog, never()).reserve(anyList(), any());
+        verify(orderRepo, never()).save(any());
     }
 
     @Test
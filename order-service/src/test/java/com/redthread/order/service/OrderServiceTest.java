@@ -13,6 +13,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -68,6 +69,36 @@ class OrderServiceTest {
     Order cancelled = service.cancel(userId, 1L);
 
     assertThat(cancelled.getStatus()).isEqualTo(OrderStatus.CANCELLED);
-    verify(catalog).adjustStock(5L, +2);
+    verify(catalog).adjustStockBatch(Map.of(5L, 2), "order:1:cancel");
+    verify(catalog, never()).adjustStock(anyLong(), anyInt());
+  }
+
+  @Test
+  void getAdminDetail_quotesAllItemsInOneCall() {
+    Address a = Address.builder().id(3L).userId("u1").line1("A").city("C").state("S")
+        .zip("Z").country("CL").build();
+    Order o = Order.builder()
+        .id(1L).userId("u1").address(a).status(OrderStatus.PAID)
+        .totalAmount(new BigDecimal("3000.00")).createdAt(Instant.now())
+        .build();
+
+    when(orderRepo.findById(1L)).thenReturn(Optional.of(o));
+    when(itemRepo.findByOrderId(1L)).thenReturn(List.of(
+        OrderItem.builder().id(10L).order(o).variantId(5L).quantity(1)
+            .unitPrice(new BigDecimal("1000.00")).lineTotal(new BigDecimal("1000.00")).build(),
+        OrderItem.builder().id(11L).order(o).variantId(6L).quantity(2)
+            .unitPrice(new BigDecimal("1000.00")).lineTotal(new BigDecimal("2000.00")).build()
+    ));
+    when(catalog.quote(List.of(5L, 6L))).thenReturn(Map.of(
+        5L, new CatalogClient.VariantQuote(5L, 1L, "Polera", "M", "NEGRO", new BigDecimal("1000.00"), 3),
+        6L, new CatalogClient.VariantQuote(6L, 1L, "Polera", "L", "NEGRO", new BigDecimal("1000.00"), 0)
+    ));
+
+    var detail = service.getAdminDetail(1L);
+
+    assertThat(detail.items()).hasSize(2);
+    assertThat(detail.items().get(1).size()).isEqualTo("L");
+    verify(catalog, times(1)).quote(anyList());
+    verify(catalog, never()).getVariantAdmin(anyLong());
   }
 }